@@ -0,0 +1,57 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.GenerationParams;
+import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.RedistrictingAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link RedistrictingAlgorithm#assign} for every algorithm in
+ * {@link Algorithms#ALL}. The default reliability of 0 times a single
+ * attempt; raise it ({@code -p reliability=0.5}) to include the
+ * multi-attempt and tempering paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class AlgorithmBenchmark {
+
+    /** The ids of {@link Algorithms#ALL}; setup rejects any that don't resolve. */
+    @Param({"simple", "advanced", "compactness", "competitive", "partisan", "recom"})
+    public String algorithm;
+
+    @Param("0.0")
+    public double reliability;
+
+    private RedistrictingAlgorithm alg;
+    private GenerationParams params;
+
+    @Setup
+    public void setup(Workload w) {
+        alg = Algorithms.byId(algorithm);
+        if (!alg.id().equals(algorithm)) {
+            throw new IllegalArgumentException("unknown algorithm " + algorithm);
+        }
+        params = w.params(algorithm, reliability);
+    }
+
+    @Benchmark
+    public int[] assign(Workload w) {
+        return alg.assign(w.base, params);
+    }
+}
@@ -0,0 +1,56 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.FairnessAnalyzer;
+import com.redistricting.ai.FairnessReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FairnessAnalyzer#analyze} and {@link FairnessAnalyzer#optimize} on
+ * the workload's Simple plan. {@code optimize} reuses the workload's base,
+ * as the GUI does, and starts each invocation from the original plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Thread)
+public class AnalysisBenchmark {
+
+    @Param("5000")
+    public int iterations;
+
+    private final FairnessAnalyzer analyzer = new FairnessAnalyzer();
+
+    @Benchmark
+    public FairnessReport analyze(Workload w) {
+        return analyzer.analyze(w.planMap);
+    }
+
+    @Benchmark
+    public FairnessReport optimize(Workload w, Fresh fresh) {
+        return analyzer.optimize(w.planMap, w.base, iterations, 42L);
+    }
+
+    /** Undoes the previous {@code optimize} call's moves before the next one. */
+    @State(Scope.Thread)
+    public static class Fresh {
+        @Setup(Level.Invocation)
+        public void reset(Workload w) {
+            w.restorePlanMap();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.algorithms.ContiguityChecker;
+import com.redistricting.ai.algorithms.GenerationMonitor;
+import com.redistricting.ai.algorithms.GeographyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contiguity primitives on the workload's Simple plan:
+ * <ul>
+ *   <li>{@code checker}: one {@link ContiguityChecker#wouldStayConnectedWithout}
+ *       query, cycling over boundary precincts;</li>
+ *   <li>{@code oneOff}: the same query through
+ *       {@link GeographyUtils#wouldStayConnectedWithout}, which builds a
+ *       checker per call;</li>
+ *   <li>{@code repair}: {@link GeographyUtils#repairContiguity} on a copy of
+ *       the plan with 1% of precincts dropped into a foreign district as
+ *       islands.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Thread)
+public class ContiguityBenchmark {
+
+    private static final int PROBES = 4096;
+
+    private ContiguityChecker checker;
+    private int[][] rows;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void probes(Workload w) {
+        rows = w.base.adjacency();
+        checker = new ContiguityChecker(rows, w.plan.clone(), w.districts);
+        int[] boundary = new int[w.plan.length];
+        int count = 0;
+        for (int i = 0; i < w.plan.length; i++) {
+            for (int nb : rows[i]) {
+                if (w.plan[nb] != w.plan[i]) { boundary[count++] = i; break; }
+            }
+        }
+        // Evenly spaced over the boundary, so every region of the map is hit.
+        probes = new int[Math.min(PROBES, count)];
+        for (int k = 0; k < probes.length; k++) {
+            probes[k] = boundary[(int) ((long) k * count / probes.length)];
+        }
+    }
+
+    @Benchmark
+    public boolean checker() {
+        return checker.wouldStayConnectedWithout(nextProbe());
+    }
+
+    @Benchmark
+    public boolean oneOff(Workload w) {
+        return GeographyUtils.wouldStayConnectedWithout(nextProbe(), w.plan, rows);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] repair(Workload w, Islands islands) {
+        GeographyUtils.repairContiguity(islands.assignment, w.base.graph(), w.districts, 4,
+                GenerationMonitor.NONE);
+        return islands.assignment;
+    }
+
+    private int nextProbe() {
+        int i = probes[next];
+        next = next + 1 == probes.length ? 0 : next + 1;
+        return i;
+    }
+
+    /** A fresh copy of the plan with scattered single-precinct islands. */
+    @State(Scope.Thread)
+    public static class Islands {
+        int[] assignment;
+        private int[] broken;
+
+        @Setup(Level.Trial)
+        public void breakPlan(Workload w) {
+            broken = w.plan.clone();
+            Random rng = new Random(7);
+            for (int k = 0; k < Math.max(1, broken.length / 100); k++) {
+                int i = rng.nextInt(broken.length);
+                broken[i] = (w.plan[i] + 1 + rng.nextInt(w.districts - 1)) % w.districts;
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            assignment = Arrays.copyOf(broken, broken.length);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.io.PlanGeoJsonWriter;
+import com.redistricting.io.PrecinctSnapshot;
+import com.redistricting.io.Presets;
+import com.redistricting.io.RdhPrecinctLoader;
+import com.redistricting.model.RedistrictingMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The import path: GeoJSON parse to a {@link RedistrictingMap}, and
+ * {@link PrecinctBase#fromMap} from that map to a generation-ready base
+ * (adjacency, shared-edge index, columns). For {@code nc} the GeoJSON is the
+ * bundled gzipped preset; synthetic sizes load the workload's plan written
+ * out by {@link PlanGeoJsonWriter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    private RedistrictingMap unassigned;
+    private Path geoJson;
+
+    @Setup(Level.Trial)
+    public void setup(Workload w) throws IOException {
+        unassigned = PrecinctSnapshot.toMap(w.base);
+        if (!"nc".equals(w.size)) {
+            geoJson = Files.createTempFile("bench-" + w.size + "-", ".geojson");
+            PlanGeoJsonWriter.write(w.planMap, geoJson);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() throws IOException {
+        if (geoJson != null) Files.deleteIfExists(geoJson);
+    }
+
+    @Benchmark
+    public PrecinctBase fromMap() {
+        return PrecinctBase.fromMap(unassigned);
+    }
+
+    @Benchmark
+    public RedistrictingMap loadGeoJson() throws IOException {
+        if (geoJson == null) {
+            Presets.Preset nc = Presets.NC_2024_PRESIDENTIAL;
+            return RdhPrecinctLoader.loadPresetGeoJson(nc.resourcePath(), nc.displayName());
+        }
+        return RdhPrecinctLoader.loadPrecinctsGeoJson(geoJson);
+    }
+}
@@ -0,0 +1,88 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.algorithms.BoundaryRefiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BoundaryRefiner#refine} from the workload's Simple plan, under a
+ * population + competitiveness objective. {@code pricing=delta} scores
+ * trial moves through {@link BoundaryRefiner.DeltaObjective#delta};
+ * {@code pricing=full} hands the refiner the same objective as a plain
+ * lambda, so every trial is a full rescore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Thread)
+public class RefinerBenchmark {
+
+    @Param({"delta", "full"})
+    public String pricing;
+
+    @Param("8")
+    public int passes;
+
+    private BoundaryRefiner.Objective objective;
+    private int[] assignment;
+
+    @Setup(Level.Trial)
+    public void objective(Workload w) {
+        BoundaryRefiner.DeltaObjective obj = competitive(
+                (double) w.base.totalPopulation() / w.districts);
+        objective = "delta".equals(pricing) ? obj : obj::score;
+    }
+
+    @Setup(Level.Invocation)
+    public void reset(Workload w) {
+        assignment = w.plan.clone();
+    }
+
+    @Benchmark
+    public int refine(Workload w) {
+        return BoundaryRefiner.refine(assignment, w.districts, w.base, objective,
+                passes, new Random(1));
+    }
+
+    /** Max population deviation plus mean distance from a 50/50 split. */
+    private static BoundaryRefiner.DeltaObjective competitive(double ideal) {
+        return new BoundaryRefiner.DeltaObjective() {
+            @Override
+            public double score(BoundaryRefiner.Stats s, int D) {
+                double lean = 0;
+                for (int d = 0; d < D; d++) lean += lean(s.dem[d], s.rep[d]);
+                return 3.0 * s.maxPopDeviation(ideal) + 4.0 * lean / D;
+            }
+
+            @Override
+            public double delta(BoundaryRefiner.Stats s, int D, BoundaryRefiner.Move m) {
+                int f = m.from(), t = m.to();
+                double lean = lean(s.dem[f] - m.demVotes(), s.rep[f] - m.repVotes())
+                        + lean(s.dem[t] + m.demVotes(), s.rep[t] + m.repVotes())
+                        - lean(s.dem[f], s.rep[f]) - lean(s.dem[t], s.rep[t]);
+                return 3.0 * (s.maxPopDeviationAfter(m, ideal) - s.maxPopDeviation(ideal))
+                        + 4.0 * lean / D;
+            }
+        };
+    }
+
+    private static double lean(long dem, long rep) {
+        long votes = dem + rep;
+        return votes > 0 ? Math.abs((double) dem / votes - 0.5) : 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.redistricting.bench;
+
+import com.redistricting.ai.GenerationParams;
+import com.redistricting.ai.MapGenerator;
+import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.io.Presets;
+import com.redistricting.model.RedistrictingMap;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * The base map and starting plan the benchmarks run on, built once per
+ * trial.
+ *
+ * <p>{@code size} picks the base: {@code 1k} … {@code 1M} are synthetic
+ * square precinct grids of about that many units, {@code nc} is the bundled
+ * North Carolina preset (2,658 precincts). The starting plan is a
+ * single-attempt {@link Algorithms#SIMPLE} run, so benchmarks that take a
+ * plan (refiner, contiguity, analysis) see realistic district shapes.
+ */
+@State(Scope.Benchmark)
+public class Workload {
+
+    @Param({"1k", "10k", "100k", "1M", "nc"})
+    public String size;
+
+    @Param("14")
+    public int districts;
+
+    PrecinctBase base;
+    /** The Simple plan as an assignment array. Treat as read-only. */
+    int[] plan;
+    /** The Simple plan as a map; benchmarks that modify it must restore it. */
+    RedistrictingMap planMap;
+    private int side;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        if ("nc".equals(size)) {
+            side = 8; // unused: the grid knobs only shape synthetic bases
+            base = Presets.NC_2024_PRESIDENTIAL.loadBase();
+        } else {
+            side = side(size);
+            base = PrecinctBase.synthetic(params(Algorithms.SIMPLE.id(), 0.0));
+        }
+        planMap = new MapGenerator().generate(base, params(Algorithms.SIMPLE.id(), 0.0));
+        plan = new int[base.size()];
+        for (int i = 0; i < plan.length; i++) plan[i] = planMap.precincts().get(i).district();
+    }
+
+    /** Generation params for this workload; reliability 0 means a single attempt. */
+    GenerationParams params(String algorithm, double reliability) {
+        return new GenerationParams(districts, side, side, 4, 4,
+                /*partisanBias*/ 0, /*countyAdherence*/ 0.5, /*compactness*/ 0.5,
+                /*populationTolerance*/ 0.01, reliability, /*seed*/ 42L, algorithm);
+    }
+
+    /** Write the plan back into {@link #planMap} after a benchmark moved precincts. */
+    void restorePlanMap() {
+        for (int i = 0; i < plan.length; i++) planMap.precincts().get(i).setDistrict(plan[i]);
+    }
+
+    private static int side(String size) {
+        return switch (size) {
+            case "1k" -> 32;
+            case "10k" -> 100;
+            case "100k" -> 316;
+            case "1M" -> 1000;
+            default -> throw new IllegalArgumentException("unknown workload size " + size);
+        };
+    }
+}
@@ -0,0 +1,434 @@
+package com.redistricting;
+
+import com.redistricting.ai.FairnessAnalyzer;
+import com.redistricting.ai.FairnessReport;
+import com.redistricting.ai.GenerationParams;
+import com.redistricting.ai.MapGenerator;
+import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.RedistrictingAlgorithm;
+import com.redistricting.io.PlanArchive;
+import com.redistricting.io.PlanAssignmentWriter;
+import com.redistricting.io.PlanGeoJsonWriter;
+import com.redistricting.io.PrecinctSnapshot;
+import com.redistricting.io.Presets;
+import com.redistricting.io.RdhPrecinctLoader;
+import com.redistricting.model.District;
+import com.redistricting.model.RedistrictingMap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless batch runner: {@code java -jar redistricting-app.jar batch …}.
+ *
+ * <p>Loads one base (a bundled preset, an RDH precinct GeoJSON or a
+ * {@link PrecinctSnapshot}), then generates a plan for every seed in a
+ * range with one {@link RedistrictingAlgorithm}, seeds spread over a fixed
+ * number of worker threads. The workers are a {@link ForkJoinPool} of that
+ * size, so the attempts and replicas an algorithm runs in parallel fork
+ * into the same pool rather than onto the common one, and the sweep never
+ * runs more than {@code --threads} threads at once. Each plan is scored with
+ * {@link FairnessAnalyzer#analyze} and written as one metrics row (CSV or
+ * JSON lines) and, optionally, as a plan file or a record in one shared
+ * {@link PlanArchive}; a row then names its plan as {@code file#index},
+ * which {@link PlanArchive#read(Path, PrecinctBase, long)} reads back.
+ * Workers hold only the plan they are on, so memory stays flat however
+ * many seeds are run. Rows are
+ * written as plans finish, so they are not in seed order; the {@code seed}
+ * column says which is which.
+ *
+ * <p>A given seed and set of knobs produces the same plan as the GUI's
+ * Generate dialog. A seed that fails is reported on stderr and the sweep
+ * carries on; the exit status is then 1.
+ */
+public final class BatchRunner {
+
+    private static final String USAGE = String.join("\n",
+            "usage: batch (--preset NAME | --rdh FILE | --snapshot FILE) --districts N [options]",
+            "",
+            "  --preset NAME            bundled preset, e.g. nc",
+            "  --rdh FILE               RDH precinct GeoJSON",
+            "  --snapshot FILE          precinct snapshot (" + PrecinctSnapshot.EXTENSION + ")",
+            "  --districts N            number of districts",
+            "  --algorithm ID           algorithm id (default simple): " + algorithmIds(),
+            "  --seeds A[..B]           seed or inclusive seed range (default 1)",
+            "  --bias B                 partisan bias, -100..100 (default 0)",
+            "  --county-adherence X     0..1 (default 0.5)",
+            "  --compactness X          0..1 (default 0.5)",
+            "  --tolerance X            population tolerance, 0..0.1 (default 0.02)",
+            "  --reliability X          0..1, attempts per plan (default 0.3)",
+            "  --plans DIR              write each plan into DIR",
+            "  --plan-format F          csv (id,district assignment), geojson, or rdplans",
+            "                           (one compressed archive for the run) (default csv)",
+            "  --metrics FILE           metrics output, - for stdout (default -)",
+            "  --metrics-format F       csv or jsonl (default from the file extension, else csv)",
+            "  --threads N              worker threads, shared with each algorithm's own",
+            "                           parallel attempts (default: all cores)");
+
+    /** Columns of a metrics row, in output order. */
+    private static final List<String> COLUMNS = List.of("seed", "algorithm", "districts",
+            "population_deviation", "avg_compactness", "efficiency_gap", "unfairness",
+            "dem_seats", "millis", "plan");
+
+    private BatchRunner() {}
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run a batch described by {@code args}. Returns the process exit status:
+     * 0 when every seed succeeded, 1 when some failed, 2 on a usage error.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options opts;
+        try {
+            opts = Options.parse(args);
+        } catch (IllegalArgumentException ex) {
+            err.println("batch: " + ex.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (opts == null) {
+            out.println(USAGE);
+            return 0;
+        }
+        try {
+            return run(opts, out, err);
+        } catch (IOException | UncheckedIOException ex) {
+            err.println("batch: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static int run(Options opts, PrintStream out, PrintStream err) throws IOException {
+        long started = System.nanoTime();
+        PrecinctBase base = opts.loadBase();
+        err.printf(Locale.ROOT, "batch: %s, %d precincts, %d seeds of %s on %d threads%n",
+                base.label(), base.size(), opts.seedCount(), opts.algorithm, opts.threads);
+        if (opts.plans != null) Files.createDirectories(opts.plans);
+        Path archiveFile = opts.plans != null && opts.planFormat.equals("rdplans")
+                ? opts.plans.resolve(opts.algorithm + PlanArchive.EXTENSION) : null;
+        PlanArchive.Writer archive = archiveFile != null
+                ? PlanArchive.Writer.create(archiveFile, base, opts.districts, true) : null;
+
+        Writer sink = opts.metrics == null
+                ? new OutputStreamWriter(out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(opts.metrics, StandardCharsets.UTF_8);
+        MetricsWriter metrics = new MetricsWriter(new BufferedWriter(sink), opts.json);
+        AtomicLong next = new AtomicLong(opts.firstSeed);
+        AtomicInteger failures = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(opts.threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("batch-worker-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+        try {
+            List<Future<?>> workers = new ArrayList<>(opts.threads);
+            for (int w = 0; w < opts.threads; w++) {
+                workers.add(pool.submit(() -> {
+                    FairnessAnalyzer analyzer = new FairnessAnalyzer();
+                    MapGenerator generator = new MapGenerator();
+                    for (long seed = next.getAndIncrement(); seed <= opts.lastSeed;
+                         seed = next.getAndIncrement()) {
+                        try {
+                            metrics.write(runSeed(opts, base, seed, generator, analyzer,
+                                    archive, archiveFile));
+                        } catch (RuntimeException | IOException ex) {
+                            failures.incrementAndGet();
+                            err.println("batch: seed " + seed + " failed: " + ex);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : workers) f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failures.incrementAndGet();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+            try {
+                if (archive != null) archive.close();
+            } finally {
+                metrics.close(opts.metrics != null);
+            }
+        }
+        err.printf(Locale.ROOT, "batch: %d plans in %.1f s, %d failed%n",
+                opts.seedCount() - failures.get(), (System.nanoTime() - started) / 1e9,
+                failures.get());
+        return failures.get() == 0 ? 0 : 1;
+    }
+
+    private static Map<String, Object> runSeed(Options opts, PrecinctBase base, long seed,
+                                               MapGenerator generator,
+                                               FairnessAnalyzer analyzer,
+                                               PlanArchive.Writer archive,
+                                               Path archiveFile) throws IOException {
+        long t0 = System.nanoTime();
+        RedistrictingMap plan = generator.generate(base, opts.params(seed));
+        FairnessReport report = analyzer.analyze(plan, base);
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+
+        String planFile = "";
+        if (archive != null) {
+            int[] assignment = new int[base.size()];
+            for (int i = 0; i < assignment.length; i++) {
+                assignment[i] = plan.precincts().get(i).district();
+            }
+            planFile = archiveFile + "#" + archive.append(assignment);
+        } else if (opts.plans != null) {
+            boolean geoJson = opts.planFormat.equals("geojson");
+            Path file = opts.plans.resolve(opts.algorithm + "-" + seed
+                    + (geoJson ? ".geojson" : ".csv"));
+            if (geoJson) PlanGeoJsonWriter.write(plan, file);
+            else PlanAssignmentWriter.write(plan, file);
+            planFile = file.toString();
+        }
+
+        int demSeats = 0;
+        for (District d : report.districts()) if (d.winner() == 0) demSeats++;
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("seed", seed);
+        row.put("algorithm", opts.algorithm);
+        row.put("districts", opts.districts);
+        row.put("population_deviation", report.populationDeviation());
+        row.put("avg_compactness", report.avgCompactness());
+        row.put("efficiency_gap", report.efficiencyGap());
+        row.put("unfairness", report.unfairnessScore());
+        row.put("dem_seats", demSeats);
+        row.put("millis", millis);
+        row.put("plan", planFile);
+        return row;
+    }
+
+    private static String algorithmIds() {
+        StringBuilder sb = new StringBuilder();
+        for (RedistrictingAlgorithm a : Algorithms.ALL) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(a.id());
+        }
+        return sb.toString();
+    }
+
+    /** Serialises metric rows from many workers, one line at a time. */
+    private static final class MetricsWriter {
+        private final Writer out;
+        private final boolean json;
+
+        MetricsWriter(Writer out, boolean json) throws IOException {
+            this.out = out;
+            this.json = json;
+            if (!json) {
+                out.write(String.join(",", COLUMNS));
+                out.write('\n');
+            }
+        }
+
+        synchronized void write(Map<String, Object> row) throws IOException {
+            StringBuilder sb = new StringBuilder(160);
+            if (json) sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> e : row.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                if (json) sb.append('"').append(e.getKey()).append("\":");
+                Object v = e.getValue();
+                if (v instanceof String s) sb.append(json ? jsonString(s) : csvField(s));
+                else sb.append(v);
+            }
+            if (json) sb.append('}');
+            sb.append('\n');
+            out.write(sb.toString());
+            // Keep partial sweeps readable if the run is killed overnight.
+            out.flush();
+        }
+
+        /** Flush, and close the underlying stream unless it is stdout. */
+        void close(boolean closeStream) throws IOException {
+            if (closeStream) out.close();
+            else out.flush();
+        }
+
+        private static String csvField(String s) {
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0;
+            return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+        }
+
+        private static String jsonString(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                    }
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+
+    /** Parsed command line. */
+    private static final class Options {
+        String preset;
+        Path rdh;
+        Path snapshot;
+        int districts;
+        String algorithm = Algorithms.SIMPLE.id();
+        long firstSeed = 1;
+        long lastSeed = 1;
+        int bias;
+        double countyAdherence = 0.5;
+        double compactness = 0.5;
+        double tolerance = 0.02;
+        double reliability = 0.3;
+        Path plans;
+        String planFormat = "csv";
+        Path metrics;
+        boolean json;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        /** Returns null when help was asked for. */
+        static Options parse(String[] args) {
+            Options o = new Options();
+            String metricsFormat = null;
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (flag.equals("-h") || flag.equals("--help")) return null;
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("missing value for " + flag);
+                }
+                String v = args[++i];
+                switch (flag) {
+                    case "--preset" -> o.preset = v;
+                    case "--rdh" -> o.rdh = Path.of(v);
+                    case "--snapshot" -> o.snapshot = Path.of(v);
+                    case "--districts" -> o.districts = parseInt(flag, v);
+                    case "--algorithm" -> o.algorithm = v;
+                    case "--seeds" -> {
+                        int range = v.indexOf("..");
+                        o.firstSeed = parseLong(flag, range < 0 ? v : v.substring(0, range));
+                        o.lastSeed = range < 0 ? o.firstSeed
+                                : parseLong(flag, v.substring(range + 2));
+                    }
+                    case "--bias" -> o.bias = parseInt(flag, v);
+                    case "--county-adherence" -> o.countyAdherence = parseDouble(flag, v);
+                    case "--compactness" -> o.compactness = parseDouble(flag, v);
+                    case "--tolerance" -> o.tolerance = parseDouble(flag, v);
+                    case "--reliability" -> o.reliability = parseDouble(flag, v);
+                    case "--plans" -> o.plans = Path.of(v);
+                    case "--plan-format" -> o.planFormat = switch (v) {
+                        case "csv", "geojson", "rdplans" -> v;
+                        default -> throw new IllegalArgumentException("unknown plan format " + v);
+                    };
+                    case "--metrics" -> o.metrics = v.equals("-") ? null : Path.of(v);
+                    case "--metrics-format" -> metricsFormat = v;
+                    case "--threads" -> o.threads = parseInt(flag, v);
+                    default -> throw new IllegalArgumentException("unknown option " + flag);
+                }
+            }
+
+            int sources = (o.preset != null ? 1 : 0) + (o.rdh != null ? 1 : 0)
+                    + (o.snapshot != null ? 1 : 0);
+            if (sources != 1) {
+                throw new IllegalArgumentException(
+                        "give exactly one of --preset, --rdh, --snapshot");
+            }
+            if (o.districts < 2) throw new IllegalArgumentException("--districts must be >= 2");
+            if (!Algorithms.byId(o.algorithm).id().equals(o.algorithm)) {
+                throw new IllegalArgumentException("unknown algorithm " + o.algorithm);
+            }
+            if (o.lastSeed < o.firstSeed) {
+                throw new IllegalArgumentException("empty seed range");
+            }
+            if (o.threads < 1) throw new IllegalArgumentException("--threads must be >= 1");
+            if (metricsFormat == null) {
+                metricsFormat = o.metrics != null
+                        && o.metrics.getFileName().toString().endsWith(".jsonl") ? "jsonl" : "csv";
+            }
+            o.json = switch (metricsFormat) {
+                case "csv" -> false;
+                case "jsonl" -> true;
+                default -> throw new IllegalArgumentException(
+                        "unknown metrics format " + metricsFormat);
+            };
+            // Validate the knobs now rather than once per seed.
+            o.params(o.firstSeed);
+            return o;
+        }
+
+        long seedCount() {
+            return lastSeed - firstSeed + 1;
+        }
+
+        /** The params the Generate dialog would build for these knobs. */
+        GenerationParams params(long seed) {
+            return new GenerationParams(districts, 20, 20, 5, 5, bias,
+                    countyAdherence, compactness, tolerance, reliability, seed, algorithm);
+        }
+
+        PrecinctBase loadBase() throws IOException {
+            if (rdh != null) return RdhPrecinctLoader.loadPrecinctsBase(rdh);
+            if (snapshot != null) return PrecinctSnapshot.read(snapshot);
+            for (Presets.Preset p : Presets.all()) {
+                String file = Path.of(p.resourcePath()).getFileName().toString();
+                String stem = file.substring(0, file.indexOf('.'));
+                if (stem.equalsIgnoreCase(preset)
+                        || stem.toLowerCase(Locale.ROOT).startsWith(
+                                preset.toLowerCase(Locale.ROOT) + "_")) {
+                    return p.loadBase();
+                }
+            }
+            throw new IOException("unknown preset " + preset);
+        }
+
+        private static int parseInt(String flag, String v) {
+            try { return Integer.parseInt(v.trim()); }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException(flag + ": not an integer: " + v);
+            }
+        }
+
+        private static long parseLong(String flag, String v) {
+            try { return Long.parseLong(v.trim()); }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException(flag + ": not an integer: " + v);
+            }
+        }
+
+        private static double parseDouble(String flag, String v) {
+            try { return Double.parseDouble(v.trim()); }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException(flag + ": not a number: " + v);
+            }
+        }
+    }
+}
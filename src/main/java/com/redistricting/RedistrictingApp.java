@@ -2,15 +2,25 @@ package com.redistricting;
 
 import com.redistricting.gui.MainFrame;
 
-/** Application entry point — launches the Swing GUI on the EDT. */
+import java.util.Arrays;
+
+/**
+ * Application entry point — launches the Swing GUI on the EDT, or runs the
+ * headless {@link BatchRunner} when started as {@code … batch [options]}.
+ */
 public final class RedistrictingApp {
     private RedistrictingApp() {}
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // Allow headless mode (smoke test the JAR in CI/Docker).
         if (java.awt.GraphicsEnvironment.isHeadless()) {
             System.out.println("Redistricting Fairness Analyzer");
-            System.out.println("(headless mode — start a desktop session to use the GUI)");
+            System.out.println("(headless mode — start a desktop session to use the GUI;");
+            System.out.println(" run with \"batch --help\" for the command-line batch runner)");
             return;
         }
         MainFrame.launch();
@@ -0,0 +1,198 @@
+package com.redistricting.ai;
+
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.SharedEdgeIndex;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Distribution of fairness metrics over an ensemble of plans for one
+ * {@link PrecinctBase} — the "what does a typical plan look like?" half of
+ * outlier analysis.
+ *
+ * <p>Plans arrive as bare {@code int[]} assignments (precinct → district)
+ * and are scored straight from the base's primitive columns: per-district
+ * population and vote totals, areas and perimeters (via the base's
+ * {@link SharedEdgeIndex}). No {@code RedistrictingMap} or {@code District}
+ * objects are built and nothing is allocated per plan, so scoring costs one
+ * pass over the precincts plus one over the shared edges. The definitions
+ * match {@link FairnessAnalyzer#analyze} exactly.
+ *
+ * <p>Each metric feeds a {@link StreamingHistogram}, so memory is fixed no
+ * matter how many plans are added and 100k-plan ensembles never need to be
+ * held in memory. Not thread-safe: give each producer (e.g. each ReCom
+ * chain) its own analyzer and {@link #merge} them at the end.
+ */
+public final class EnsembleAnalyzer {
+
+    /** Metrics tracked per plan. */
+    public enum Metric {
+        /** max |pop − ideal| / ideal. */
+        POPULATION_DEVIATION(0.0, 0.5),
+        /** Signed efficiency gap, (wastedR − wastedD) / totalVotes. */
+        EFFICIENCY_GAP(-0.5, 0.5),
+        /**
+         * Districts the Democrats win outright. Counted per whole seat
+         * ({@link StreamingHistogram#discrete}), so its percentiles and
+         * quantiles are exact.
+         */
+        DEM_SEATS(Double.NaN, Double.NaN),
+        /** Mean Polsby-Popper score. */
+        COMPACTNESS(0.0, 1.0);
+
+        private final double lo;
+        private final double hi;
+
+        Metric(double lo, double hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
+
+    /** Bins for the continuous metrics; resolution is range / BINS. */
+    private static final int BINS = 4096;
+
+    /** Metric values of one plan. */
+    public record PlanMetrics(double populationDeviation, double efficiencyGap,
+                              int demSeats, double avgCompactness) {
+        public double value(Metric m) {
+            return switch (m) {
+                case POPULATION_DEVIATION -> populationDeviation;
+                case EFFICIENCY_GAP -> efficiencyGap;
+                case DEM_SEATS -> demSeats;
+                case COMPACTNESS -> avgCompactness;
+            };
+        }
+    }
+
+    private final PrecinctBase base;
+    private final int districts;
+    private final double ideal;
+    private final SharedEdgeIndex edges;
+    private final Map<Metric, StreamingHistogram> histograms = new EnumMap<>(Metric.class);
+
+    // Per-plan scratch, reused by every measurement.
+    private final long[] pop;
+    private final long[] dem;
+    private final long[] rep;
+    private final double[] area;
+    private final double[] perim;
+    private double popDev;
+    private double eg;
+    private int seats;
+    private double compact;
+
+    public EnsembleAnalyzer(PrecinctBase base, int districts) {
+        if (districts < 1) throw new IllegalArgumentException("districts >= 1 required");
+        this.base = base;
+        this.districts = districts;
+        this.ideal = (double) base.totalPopulation() / districts;
+        this.edges = base.edges();
+        this.pop = new long[districts];
+        this.dem = new long[districts];
+        this.rep = new long[districts];
+        this.area = new double[districts];
+        this.perim = new double[districts];
+        for (Metric m : Metric.values()) {
+            histograms.put(m, m == Metric.DEM_SEATS
+                    ? StreamingHistogram.discrete(0, districts)
+                    : new StreamingHistogram(m.lo, m.hi, BINS));
+        }
+    }
+
+    /** Score {@code assignment} and add it to the ensemble. */
+    public void accept(int[] assignment) {
+        compute(assignment);
+        histograms.get(Metric.POPULATION_DEVIATION).add(popDev);
+        histograms.get(Metric.EFFICIENCY_GAP).add(eg);
+        histograms.get(Metric.DEM_SEATS).add(seats);
+        histograms.get(Metric.COMPACTNESS).add(compact);
+    }
+
+    /** Score {@code assignment} without adding it to the ensemble. */
+    public PlanMetrics measure(int[] assignment) {
+        compute(assignment);
+        return new PlanMetrics(popDev, eg, seats, compact);
+    }
+
+    /** Fold another analyzer's ensemble (same base and district count) into this one. */
+    public void merge(EnsembleAnalyzer other) {
+        if (other.base != base || other.districts != districts) {
+            throw new IllegalArgumentException("ensembles are over different bases");
+        }
+        for (Metric m : Metric.values()) histograms.get(m).merge(other.histograms.get(m));
+    }
+
+    /** Number of plans added so far (including merged ones). */
+    public long plans() {
+        return histograms.get(Metric.POPULATION_DEVIATION).count();
+    }
+
+    public StreamingHistogram histogram(Metric m) {
+        return histograms.get(m);
+    }
+
+    /** Fraction of ensemble plans whose {@code m} is at or below {@code value}. */
+    public double percentileOf(Metric m, double value) {
+        return histograms.get(m).percentileOf(value);
+    }
+
+    /** Where {@code plan} falls in each metric's distribution, as percentiles. */
+    public Map<Metric, Double> locate(PlanMetrics plan) {
+        Map<Metric, Double> out = new EnumMap<>(Metric.class);
+        for (Metric m : Metric.values()) out.put(m, percentileOf(m, plan.value(m)));
+        return out;
+    }
+
+    public String prettyPrint(String planName, PlanMetrics plan) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ensemble comparison for: ").append(planName)
+          .append(" (").append(plans()).append(" plans)").append('\n');
+        for (Metric m : Metric.values()) {
+            StreamingHistogram h = histograms.get(m);
+            sb.append(String.format("  %-20s : plan=%8.4f  ensemble p5/p50/p95=%.4f/%.4f/%.4f"
+                            + "  percentile=%.1f%%%n",
+                    m, plan.value(m), h.quantile(0.05), h.quantile(0.5), h.quantile(0.95),
+                    percentileOf(m, plan.value(m)) * 100));
+        }
+        return sb.toString();
+    }
+
+    private void compute(int[] assignment) {
+        if (assignment.length != base.size()) {
+            throw new IllegalArgumentException("assignment size mismatch");
+        }
+        for (int d = 0; d < districts; d++) {
+            pop[d] = 0; dem[d] = 0; rep[d] = 0; area[d] = 0;
+        }
+        for (int i = 0; i < assignment.length; i++) {
+            int d = assignment[i];
+            pop[d] += base.population(i);
+            dem[d] += base.demVotes(i);
+            rep[d] += base.repVotes(i);
+            area[d] += base.area(i);
+        }
+        edges.districtPerimeters(assignment, perim);
+
+        popDev = 0;
+        long wastedD = 0, wastedR = 0, totalVotes = 0;
+        double compactSum = 0;
+        int compactCount = 0;
+        seats = 0;
+        for (int d = 0; d < districts; d++) {
+            double dev = Math.abs(pop[d] - ideal) / Math.max(1, ideal);
+            if (dev > popDev) popDev = dev;
+            if (area[d] > 0 && perim[d] > 0) {
+                compactSum += 4 * Math.PI * area[d] / (perim[d] * perim[d]);
+                compactCount++;
+            }
+            wastedD += FairnessAnalyzer.wastedDem(dem[d], rep[d]);
+            wastedR += FairnessAnalyzer.wastedRep(dem[d], rep[d]);
+            totalVotes += dem[d] + rep[d];
+            if (dem[d] > rep[d]) seats++;
+        }
+        eg = totalVotes == 0 ? 0 : (double) (wastedR - wastedD) / totalVotes;
+        compact = compactCount > 0 ? compactSum / compactCount : 0;
+    }
+}
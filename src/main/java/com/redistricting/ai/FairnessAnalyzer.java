@@ -1,16 +1,15 @@
 package com.redistricting.ai;
 
+import com.redistricting.ai.algorithms.AdjacencyGraph;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.SharedEdgeIndex;
 import com.redistricting.model.District;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * The "AI" half of the app. Combines three classical redistricting fairness
@@ -48,7 +47,25 @@ public final class FairnessAnalyzer {
     }
 
     public FairnessReport analyze(RedistrictingMap map) {
+        return analyze(map, SharedEdgeIndex.of(map.precincts()));
+    }
+
+    /**
+     * As {@link #analyze(RedistrictingMap)}, reusing the shared-edge index of
+     * {@code base} — which must describe {@code map}'s precincts in the same
+     * order — instead of rebuilding it. Worth it when scoring many plans
+     * drawn on one base.
+     */
+    public FairnessReport analyze(RedistrictingMap map, PrecinctBase base) {
+        if (base.size() != map.precincts().size()) {
+            throw new IllegalArgumentException("base does not match map");
+        }
+        return analyze(map, base.edges());
+    }
+
+    private FairnessReport analyze(RedistrictingMap map, SharedEdgeIndex edges) {
         List<District> districts = map.districts();
+        double[] perimeters = districtPerimeters(map, edges);
         int totalPop = map.totalPopulation();
         double ideal = (double) totalPop / map.districtCount();
 
@@ -60,7 +77,7 @@ public final class FairnessAnalyzer {
             if (dev > maxDev) maxDev = dev;
 
             double area = d.totalArea();
-            double perim = districtPerimeter(d);
+            double perim = perimeters[d.id()];
             if (area > 0 && perim > 0) {
                 compactnessSum += 4 * Math.PI * area / (perim * perim);
                 compactnessCount++;
@@ -81,118 +98,252 @@ public final class FairnessAnalyzer {
      * neighbouring district when doing so lowers the unfairness score.
      * Mutates the precinct → district assignments on {@code map}.
      *
+     * <p>Candidate moves are scored incrementally: per-district population,
+     * vote, area and perimeter accumulators are kept up to date (perimeters
+     * through a {@link SharedEdgeIndex}, in O(degree) per move), so a trial
+     * move only re-derives the two affected districts' terms instead of
+     * re-running {@link #analyze} over every precinct. A full report is built
+     * once at the end.
+     *
      * @return the report after optimization (may equal the starting report
      *         if no improving moves were found, or if the plan has only one
      *         precinct per district — common for DRA "District Shapes" data).
      */
     public FairnessReport optimize(RedistrictingMap map, int maxIterations, long seed) {
-        Random rng = new Random(seed);
-        FairnessReport best = analyze(map);
-
         // Only meaningful when at least one district holds multiple precincts.
         boolean canOptimize = map.precincts().size() > map.districtCount();
-        if (!canOptimize) return best;
+        if (!canOptimize) return analyze(map);
+        return optimize(map, PrecinctBase.fromMap(map), maxIterations, seed);
+    }
+
+    /**
+     * As {@link #optimize(RedistrictingMap, int, long)}, reusing the
+     * adjacency graph and shared-edge index of {@code base} — which must
+     * describe {@code map}'s precincts in the same order (see
+     * {@link PrecinctBase#sharesGeometryWith}) — instead of rebuilding them.
+     */
+    public FairnessReport optimize(RedistrictingMap map, PrecinctBase base,
+                                   int maxIterations, long seed) {
+        if (base.size() != map.precincts().size()) {
+            throw new IllegalArgumentException("base does not match map");
+        }
+        if (map.precincts().size() <= map.districtCount()) return analyze(map, base.edges());
+        Random rng = new Random(seed);
 
-        Map<String, List<String>> adjacency = buildAdjacency(map);
-        Map<String, Precinct> byId = new HashMap<>();
-        for (Precinct p : map.precincts()) byId.put(p.id(), p);
+        List<Precinct> precincts = map.precincts();
+        int n = precincts.size();
+        AdjacencyGraph graph = base.graph();
+        int[] offsets = graph.offsets();
+        int[] neighbours = graph.neighbours();
+        SharedEdgeIndex edges = base.edges();
+        int[] assignment = new int[n];
+        for (int i = 0; i < n; i++) assignment[i] = precincts.get(i).district();
+        IncrementalScore score = incrementalScore(map, edges, assignment);
 
+        int[] otherDistricts = new int[map.districtCount()];
+        boolean changed = false;
         for (int iter = 0; iter < maxIterations; iter++) {
             // Pick a random precinct on a district boundary.
-            List<Precinct> precincts = map.precincts();
-            Precinct candidate = precincts.get(rng.nextInt(precincts.size()));
-            List<String> neighbours = adjacency.getOrDefault(candidate.id(), List.of());
-            Set<Integer> otherDistricts = new HashSet<>();
-            for (String nid : neighbours) {
-                Precinct n = byId.get(nid);
-                if (n != null && n.district() != candidate.district()) {
-                    otherDistricts.add(n.district());
+            int candidate = rng.nextInt(n);
+            int originalDistrict = assignment[candidate];
+            int others = 0;
+            for (int k = offsets[candidate]; k < offsets[candidate + 1]; k++) {
+                int d = assignment[neighbours[k]];
+                if (d != originalDistrict && !contains(otherDistricts, others, d)) {
+                    otherDistricts[others++] = d;
                 }
             }
-            if (otherDistricts.isEmpty()) continue;
-
-            int originalDistrict = candidate.district();
-            int sourceCount = countInDistrict(precincts, originalDistrict);
-            if (sourceCount <= 1) continue; // Don't empty a district.
-
-            int newDistrict = pickRandom(otherDistricts, rng);
-            candidate.setDistrict(newDistrict);
-            FairnessReport trial = analyze(map);
-            if (trial.unfairnessScore() + 1e-12 < best.unfairnessScore()) {
-                best = trial;
-            } else {
-                candidate.setDistrict(originalDistrict); // Revert.
+            if (others == 0) continue;
+            if (score.count[originalDistrict] <= 1) continue; // Don't empty a district.
+
+            Arrays.sort(otherDistricts, 0, others);
+            int newDistrict = otherDistricts[rng.nextInt(others)];
+            double trial = score.scoreIfMoved(candidate, originalDistrict, newDistrict);
+            if (trial + 1e-12 < score.current) {
+                score.move(candidate, originalDistrict, newDistrict, trial);
+                changed = true;
             }
         }
-        return best;
+        if (changed) {
+            for (int i = 0; i < n; i++) precincts.get(i).setDistrict(assignment[i]);
+        }
+        return analyze(map, edges);
     }
 
-    private static int countInDistrict(List<Precinct> precincts, int district) {
-        int n = 0;
-        for (Precinct p : precincts) if (p.district() == district) n++;
-        return n;
+    /**
+     * The scorer {@link #optimize} drives, over {@code assignment} (a copy of
+     * {@code map}'s, which {@link IncrementalScore#move} updates). Package
+     * private so tests can check it against {@link #analyze} move by move.
+     */
+    IncrementalScore incrementalScore(RedistrictingMap map, SharedEdgeIndex edges,
+                                      int[] assignment) {
+        return new IncrementalScore(map.precincts(), edges, assignment, map.districtCount(),
+                map.totalPopulation());
     }
 
-    private static int pickRandom(Set<Integer> set, Random rng) {
-        int idx = rng.nextInt(set.size());
-        int i = 0;
-        for (int v : set) { if (i++ == idx) return v; }
-        throw new IllegalStateException();
+    private static boolean contains(int[] arr, int len, int v) {
+        for (int i = 0; i < len; i++) if (arr[i] == v) return true;
+        return false;
     }
 
     /**
-     * Two precincts are considered adjacent if any pair of their polygon
-     * vertices is within a small tolerance — a coarse but effective heuristic
-     * that doesn't require true topology computation.
+     * Per-district accumulators for {@link #optimize}. Mirrors the metric
+     * definitions in {@link #analyze} but keeps every district's term cached
+     * so a move touches two districts plus one O(D) scan for the max
+     * population deviation.
      */
-    private static Map<String, List<String>> buildAdjacency(RedistrictingMap map) {
-        List<Precinct> precincts = map.precincts();
-        // Index vertices into a coarse spatial hash.
-        double tol = 1e-6;
-        Map<Long, List<Integer>> grid = new HashMap<>();
-        List<double[][]> verts = new ArrayList<>(precincts.size());
-        for (int i = 0; i < precincts.size(); i++) {
-            Precinct p = precincts.get(i);
-            List<double[]> ring = p.primaryRing();
-            double[][] arr = ring.toArray(new double[0][]);
-            verts.add(arr);
-            for (double[] v : arr) {
-                long key = cellKey(v[0], v[1], tol);
-                grid.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+    final class IncrementalScore {
+        final List<Precinct> precincts;
+        final SharedEdgeIndex edges;
+        final int[] assignment;     // shared with the caller; updated by move()
+        final int districts;
+        final double ideal;
+        final long[] pop, dem, rep;
+        final int[] count;
+        final double[] area, perim;
+        final double[] compact;     // Polsby-Popper per district, NaN when undefined
+        final long[] wastedD, wastedR;
+        double compactSum;
+        int compactCount;
+        long wastedDSum, wastedRSum, totalVotes;
+        double current;
+
+        IncrementalScore(List<Precinct> precincts, SharedEdgeIndex edges, int[] assignment,
+                         int districts, int totalPop) {
+            this.precincts = precincts;
+            this.edges = edges;
+            this.assignment = assignment;
+            this.districts = districts;
+            this.ideal = (double) totalPop / districts;
+            pop = new long[districts]; dem = new long[districts]; rep = new long[districts];
+            count = new int[districts];
+            area = new double[districts]; perim = new double[districts];
+            compact = new double[districts];
+            wastedD = new long[districts]; wastedR = new long[districts];
+            for (int i = 0; i < assignment.length; i++) {
+                Precinct p = precincts.get(i);
+                int d = assignment[i];
+                pop[d] += p.population(); dem[d] += p.demVotes(); rep[d] += p.repVotes();
+                count[d]++;
+                area[d] += p.area();
             }
+            double[] perimeters = edges.districtPerimeters(assignment, districts);
+            System.arraycopy(perimeters, 0, perim, 0, districts);
+            for (int d = 0; d < districts; d++) {
+                compact[d] = polsbyPopper(area[d], perim[d]);
+                if (!Double.isNaN(compact[d])) { compactSum += compact[d]; compactCount++; }
+                wastedD[d] = wastedDem(dem[d], rep[d]);
+                wastedR[d] = wastedRep(dem[d], rep[d]);
+                wastedDSum += wastedD[d]; wastedRSum += wastedR[d];
+                totalVotes += dem[d] + rep[d];
+            }
+            current = combine(maxDeviation(-1, 0, -1, 0), compactSum, compactCount,
+                    wastedDSum, wastedRSum);
         }
-        Map<String, Set<String>> adj = new HashMap<>();
-        for (Precinct p : precincts) adj.put(p.id(), new HashSet<>());
-        for (List<Integer> bucket : grid.values()) {
-            for (int a : bucket) {
-                for (int b : bucket) {
-                    if (a < b) {
-                        adj.get(precincts.get(a).id()).add(precincts.get(b).id());
-                        adj.get(precincts.get(b).id()).add(precincts.get(a).id());
-                    }
-                }
+
+        /** Unfairness score if precinct {@code i} moved {@code from → to}. */
+        double scoreIfMoved(int i, int from, int to) {
+            Precinct p = precincts.get(i);
+            long popFrom = pop[from] - p.population(), popTo = pop[to] + p.population();
+            long demFrom = dem[from] - p.demVotes(), demTo = dem[to] + p.demVotes();
+            long repFrom = rep[from] - p.repVotes(), repTo = rep[to] + p.repVotes();
+
+            double cFrom = polsbyPopper(area[from] - p.area(),
+                    perim[from] + edges.sourcePerimeterDelta(i, from, assignment));
+            double cTo = polsbyPopper(area[to] + p.area(),
+                    perim[to] + edges.targetPerimeterDelta(i, to, assignment));
+            double cSum = compactSum;
+            int cCount = compactCount;
+            if (!Double.isNaN(compact[from])) { cSum -= compact[from]; cCount--; }
+            if (!Double.isNaN(compact[to]))   { cSum -= compact[to];   cCount--; }
+            if (!Double.isNaN(cFrom)) { cSum += cFrom; cCount++; }
+            if (!Double.isNaN(cTo))   { cSum += cTo;   cCount++; }
+
+            long wd = wastedDSum - wastedD[from] - wastedD[to]
+                    + wastedDem(demFrom, repFrom) + wastedDem(demTo, repTo);
+            long wr = wastedRSum - wastedR[from] - wastedR[to]
+                    + wastedRep(demFrom, repFrom) + wastedRep(demTo, repTo);
+
+            return combine(maxDeviation(from, popFrom, to, popTo), cSum, cCount, wd, wr);
+        }
+
+        /** Commit a move previously scored by {@link #scoreIfMoved}. */
+        void move(int i, int from, int to, double newScore) {
+            Precinct p = precincts.get(i);
+            pop[from] -= p.population(); pop[to] += p.population();
+            dem[from] -= p.demVotes();   dem[to] += p.demVotes();
+            rep[from] -= p.repVotes();   rep[to] += p.repVotes();
+            count[from]--; count[to]++;
+            area[from] -= p.area();       area[to] += p.area();
+            perim[from] += edges.sourcePerimeterDelta(i, from, assignment);
+            perim[to] += edges.targetPerimeterDelta(i, to, assignment);
+            assignment[i] = to;
+            refresh(from);
+            refresh(to);
+            current = newScore;
+        }
+
+        private void refresh(int d) {
+            if (!Double.isNaN(compact[d])) { compactSum -= compact[d]; compactCount--; }
+            compact[d] = polsbyPopper(area[d], perim[d]);
+            if (!Double.isNaN(compact[d])) { compactSum += compact[d]; compactCount++; }
+            wastedDSum -= wastedD[d];
+            wastedRSum -= wastedR[d];
+            wastedD[d] = wastedDem(dem[d], rep[d]);
+            wastedR[d] = wastedRep(dem[d], rep[d]);
+            wastedDSum += wastedD[d];
+            wastedRSum += wastedR[d];
+        }
+
+        private double maxDeviation(int a, long popA, int b, long popB) {
+            double maxDev = 0;
+            for (int d = 0; d < districts; d++) {
+                long p = d == a ? popA : d == b ? popB : pop[d];
+                double dev = Math.abs(p - ideal) / Math.max(1, ideal);
+                if (dev > maxDev) maxDev = dev;
             }
+            return maxDev;
         }
-        Map<String, List<String>> out = new HashMap<>();
-        for (Map.Entry<String, Set<String>> e : adj.entrySet()) {
-            out.put(e.getKey(), new ArrayList<>(e.getValue()));
+
+        private double combine(double maxDev, double cSum, int cCount, long wd, long wr) {
+            double avgCompact = cCount > 0 ? cSum / cCount : 0;
+            double eg = totalVotes == 0 ? 0 : (double) (wr - wd) / totalVotes;
+            return popWeight * maxDev
+                    + compactnessWeight * (1.0 - avgCompact)
+                    + efficiencyWeight * Math.abs(eg);
         }
-        return out;
     }
 
-    private static long cellKey(double x, double y, double tol) {
-        long ix = Math.round(x / tol);
-        long iy = Math.round(y / tol);
-        return (ix * 73856093L) ^ (iy * 19349663L);
+    private static double polsbyPopper(double area, double perim) {
+        return area > 0 && perim > 0 ? 4 * Math.PI * area / (perim * perim) : Double.NaN;
     }
 
-    /** Sum of perimeters of district outer rings (approximated as sum of precinct perimeters). */
-    private static double districtPerimeter(District d) {
-        // Approximation: sum precinct perimeters. Internal edges are double-counted,
-        // which slightly under-rewards compactness — acceptable for relative scoring.
-        double sum = 0;
-        for (Precinct p : d.precincts()) sum += p.perimeter();
-        return sum;
+    /** Wasted Dem votes in one district: surplus when winning, everything when losing. */
+    static long wastedDem(long dem, long rep) {
+        long sum = dem + rep;
+        if (sum == 0) return 0;
+        return dem > rep ? dem - (sum / 2 + 1) : dem;
+    }
+
+    /** Wasted Rep votes in one district (ties count as a Rep win, as before). */
+    static long wastedRep(long dem, long rep) {
+        long sum = dem + rep;
+        if (sum == 0) return 0;
+        return dem > rep ? rep : rep - (sum / 2 + 1);
+    }
+
+    /**
+     * Perimeter of every district: each precinct's exterior boundary plus
+     * the edges it shares with precincts in other districts. Edges between
+     * two precincts of the same district are interior and don't count.
+     * Exact only where neighbours share vertices; see {@link SharedEdgeIndex}
+     * for how unmatched boundaries are counted.
+     */
+    private static double[] districtPerimeters(RedistrictingMap map, SharedEdgeIndex edges) {
+        List<Precinct> precincts = map.precincts();
+        int[] assignment = new int[precincts.size()];
+        for (int i = 0; i < assignment.length; i++) assignment[i] = precincts.get(i).district();
+        return edges.districtPerimeters(assignment, map.districtCount());
     }
 
     private static double efficiencyGap(List<District> districts) {
@@ -201,17 +352,9 @@ public final class FairnessAnalyzer {
         for (District d : districts) {
             int dem = d.totalDemVotes();
             int rep = d.totalRepVotes();
-            int sum = dem + rep;
-            if (sum == 0) continue;
-            int needed = sum / 2 + 1;
-            if (dem > rep) {
-                wastedD += dem - needed;   // surplus winning votes
-                wastedR += rep;            // all losing votes
-            } else {
-                wastedR += rep - needed;
-                wastedD += dem;
-            }
-            total += sum;
+            wastedD += wastedDem(dem, rep);
+            wastedR += wastedRep(dem, rep);
+            total += dem + rep;
         }
         if (total == 0) return 0;
         return (double) (wastedR - wastedD) / total;
@@ -1,6 +1,7 @@
 package com.redistricting.ai;
 
 import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.GenerationMonitor;
 import com.redistricting.ai.algorithms.PrecinctBase;
 import com.redistricting.ai.algorithms.RedistrictingAlgorithm;
 import com.redistricting.model.Precinct;
@@ -26,8 +27,20 @@ public final class MapGenerator {
      * district assignment is the algorithm's contribution.
      */
     public RedistrictingMap generate(PrecinctBase base, GenerationParams params) {
+        return generate(base, params, GenerationMonitor.NONE);
+    }
+
+    /**
+     * As {@link #generate(PrecinctBase, GenerationParams)}, reporting progress
+     * to {@code monitor}.
+     *
+     * @throws GenerationMonitor.CancelledException if the monitor cancels
+     *         the run before it finishes.
+     */
+    public RedistrictingMap generate(PrecinctBase base, GenerationParams params,
+                                     GenerationMonitor monitor) {
         RedistrictingAlgorithm alg = Algorithms.byId(params.algorithm());
-        int[] assignment = alg.assign(base, params);
+        int[] assignment = alg.assign(base, params, monitor);
         return materialise(base, assignment, params, alg);
     }
 
@@ -45,9 +58,7 @@ public final class MapGenerator {
         List<Precinct> originals = base.precincts();
         List<Precinct> assigned = new ArrayList<>(originals.size());
         for (int i = 0; i < originals.size(); i++) {
-            Precinct p = originals.get(i);
-            assigned.add(new Precinct(p.id(), assignment[i], p.population(),
-                    p.demVotes(), p.repVotes(), p.rings()));
+            assigned.add(originals.get(i).withDistrict(assignment[i]));
         }
         String name = String.format("Generated Plan — %s (bias %s, base %s)",
                 alg.displayName(),
@@ -0,0 +1,179 @@
+package com.redistricting.ai;
+
+/**
+ * Fixed-memory histogram of a stream of doubles that also answers quantile
+ * and percentile queries, for summarising metric distributions over large
+ * plan ensembles.
+ *
+ * <p>Values are counted into equal-width bins over {@code [lo, hi)}; values
+ * outside the range land in an underflow / overflow bucket whose extent is
+ * the observed min / max. Quantiles and percentiles interpolate linearly
+ * inside a bin, so they are accurate to one bin width
+ * ({@code (hi − lo) / bins}) — pick the range to cover the values that
+ * matter. Count, mean, variance, min and max are exact (Welford's update).
+ *
+ * <p>A {@link #discrete} histogram counts integer values, one bin each, and
+ * treats every bin as a single point: a percentile counts a whole bin once
+ * {@code x} reaches its value, and quantiles are whole values, both exact.
+ *
+ * <p>Memory is {@code bins} longs regardless of how many values are added,
+ * and two histograms with the same layout {@link #merge} exactly, so
+ * parallel producers can each keep their own and combine at the end. Not
+ * thread-safe.
+ */
+public final class StreamingHistogram {
+
+    private final double lo;
+    private final double hi;
+    private final double width;
+    private final long[] counts;
+    private final boolean discrete;
+    private long below;
+    private long above;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public StreamingHistogram(double lo, double hi, int bins) {
+        this(lo, hi, bins, false);
+    }
+
+    private StreamingHistogram(double lo, double hi, int bins, boolean discrete) {
+        if (!(hi > lo) || bins < 1) {
+            throw new IllegalArgumentException("need hi > lo and bins >= 1");
+        }
+        this.lo = lo;
+        this.hi = hi;
+        this.width = (hi - lo) / bins;
+        this.counts = new long[bins];
+        this.discrete = discrete;
+    }
+
+    /** Histogram of the integers {@code first..last}, one bin per value. */
+    public static StreamingHistogram discrete(int first, int last) {
+        if (last < first) throw new IllegalArgumentException("need last >= first");
+        return new StreamingHistogram(first - 0.5, last + 0.5, last - first + 1, true);
+    }
+
+    public void add(double x) {
+        if (Double.isNaN(x)) return;
+        if (x < lo) below++;
+        else if (x >= hi) above++;
+        else counts[Math.min(counts.length - 1, (int) ((x - lo) / width))]++;
+
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        if (x < min) min = x;
+        if (x > max) max = x;
+    }
+
+    /** Fold {@code other} (same range and bin count) into this histogram. */
+    public void merge(StreamingHistogram other) {
+        if (other.lo != lo || other.hi != hi || other.counts.length != counts.length
+                || other.discrete != discrete) {
+            throw new IllegalArgumentException("histogram layouts differ");
+        }
+        if (other.count == 0) return;
+        for (int k = 0; k < counts.length; k++) counts[k] += other.counts[k];
+        below += other.below;
+        above += other.above;
+
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        mean += delta * other.count / n;
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() { return count; }
+    public double mean() { return count == 0 ? Double.NaN : mean; }
+    public double variance() { return count < 2 ? 0 : m2 / (count - 1); }
+    public double stdDev() { return Math.sqrt(variance()); }
+    public double min() { return count == 0 ? Double.NaN : min; }
+    public double max() { return count == 0 ? Double.NaN : max; }
+
+    public boolean isDiscrete() { return discrete; }
+    public int bins() { return counts.length; }
+    public double binLow(int k) { return lo + k * width; }
+    public double binHigh(int k) { return k == counts.length - 1 ? hi : lo + (k + 1) * width; }
+    public long binCount(int k) { return counts[k]; }
+    public long underflow() { return below; }
+    public long overflow() { return above; }
+
+    /**
+     * Value below which a fraction {@code q} of the samples fall
+     * ({@code 0 <= q <= 1}); NaN when empty. For a discrete histogram, the
+     * smallest value with at least that fraction at or below it.
+     */
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        double target = q * count;
+        double seen = 0;
+        if (below > 0) {
+            if (seen + below >= target) {
+                return discrete ? min
+                        : clamp(interpolate(min, Math.min(lo, max), (target - seen) / below));
+            }
+            seen += below;
+        }
+        for (int k = 0; k < counts.length; k++) {
+            long c = counts[k];
+            if (c == 0) continue;
+            if (seen + c >= target) {
+                return discrete ? binLow(k) + width / 2
+                        : clamp(interpolate(binLow(k), binHigh(k), (target - seen) / c));
+            }
+            seen += c;
+        }
+        return discrete ? max
+                : clamp(interpolate(Math.max(hi, min), max, (target - seen) / Math.max(1, above)));
+    }
+
+    /**
+     * Fraction of samples at or below {@code x}, in {@code [0, 1]}; values
+     * inside a bin are credited proportionally to their position in it, or
+     * for a discrete histogram all at once from the bin's value on.
+     * NaN when empty.
+     */
+    public double percentileOf(double x) {
+        if (count == 0) return Double.NaN;
+        if (x < min) return 0;
+        if (x >= max) return 1;
+        double atOrBelow;
+        if (x < lo) {
+            atOrBelow = below * fraction(x, min, Math.min(lo, max));
+        } else if (x >= hi) {
+            long inside = count - above;
+            atOrBelow = inside + above * fraction(x, Math.max(hi, min), max);
+        } else {
+            int bin = Math.min(counts.length - 1, (int) ((x - lo) / width));
+            atOrBelow = below;
+            for (int k = 0; k < bin; k++) atOrBelow += counts[k];
+            if (!discrete) atOrBelow += counts[bin] * fraction(x, binLow(bin), binHigh(bin));
+            else if (x >= binLow(bin) + width / 2) atOrBelow += counts[bin];
+        }
+        return atOrBelow / count;
+    }
+
+    private double clamp(double v) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    private static double interpolate(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    /** Position of {@code x} in {@code [a, b]} as a fraction, 1 for an empty span. */
+    private static double fraction(double x, double a, double b) {
+        return b > a ? Math.max(0, Math.min(1, (x - a) / (b - a))) : 1;
+    }
+}
@@ -0,0 +1,250 @@
+package com.redistricting.ai.algorithms;
+
+import com.redistricting.model.Precinct;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precinct adjacency in compressed sparse row (CSR) form: the neighbours of
+ * precinct {@code i} are {@code neighbours()[start(i) .. end(i))}, sorted
+ * ascending, optionally with a parallel per-edge weight (shared boundary
+ * length).
+ *
+ * <p>Two flat arrays replace one {@code int[]} object per precinct, which
+ * saves the per-array header and pointer on large bases and keeps a BFS
+ * walking contiguous memory. Hot loops should read {@link #offsets()} and
+ * {@link #neighbours()} directly; {@link #rows()} materialises the classic
+ * {@code int[][]} view (once, lazily) for code that still wants it.
+ *
+ * <p>Immutable once built; the returned arrays must not be modified.
+ */
+public final class AdjacencyGraph {
+
+    private final int[] offsets;      // size n + 1
+    private final int[] neighbours;
+    private final double[] weights;   // parallel to neighbours, or null
+    private volatile int[][] rows;
+
+    private AdjacencyGraph(int[] offsets, int[] neighbours, double[] weights, int[][] rows) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+        this.rows = rows;
+    }
+
+    /**
+     * Wrap raw CSR arrays (not copied). Rows must be sorted ascending and
+     * {@code weights}, when non-null, parallel to {@code neighbours}.
+     */
+    public static AdjacencyGraph of(int[] offsets, int[] neighbours, double[] weights) {
+        if (offsets.length == 0 || offsets[offsets.length - 1] != neighbours.length) {
+            throw new IllegalArgumentException("offsets don't match neighbours");
+        }
+        if (weights != null && weights.length != neighbours.length) {
+            throw new IllegalArgumentException("weights don't match neighbours");
+        }
+        return new AdjacencyGraph(offsets, neighbours, weights, null);
+    }
+
+    /** Flatten per-precinct neighbour arrays; {@code rows} is kept as the compatibility view. */
+    public static AdjacencyGraph of(int[][] rows) {
+        int[] offsets = new int[rows.length + 1];
+        for (int i = 0; i < rows.length; i++) offsets[i + 1] = offsets[i] + rows[i].length;
+        int[] neighbours = new int[offsets[rows.length]];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, neighbours, offsets[i], rows[i].length);
+        }
+        return new AdjacencyGraph(offsets, neighbours, null, rows);
+    }
+
+    /** What two precincts must have in common to count as neighbours. */
+    public enum Contact {
+        /** Any ring vertex (queen contiguity; corner-only contacts count). */
+        QUEEN,
+        /** A ring edge — both endpoints (rook contiguity). */
+        ROOK
+    }
+
+    /** Vertex-sharing (queen) adjacency of {@code precincts}. */
+    public static AdjacencyGraph fromVertices(List<Precinct> precincts) {
+        return fromGeometry(PrecinctColumns.of(precincts), Contact.QUEEN);
+    }
+
+    /**
+     * Adjacency from shared geometry, with vertices matched on the
+     * {@link SharedEdgeIndex#TOLERANCE} grid. Each distinct quantised vertex
+     * gets an exact id from a {@link KeyTable} (as in
+     * {@link SharedEdgeIndex} and {@link DistrictDissolver}); every ring
+     * vertex (QUEEN) or ring edge (ROOK, its two vertex ids packed into one
+     * {@code long}) then becomes one {@code (key, precinct)} tuple in two
+     * flat arrays. The tuples are radix-sorted by key and each run of equal
+     * keys links the precincts in it, so only coincident vertices or edges
+     * ever make neighbours.
+     */
+    public static AdjacencyGraph fromGeometry(PrecinctColumns cols, Contact contact) {
+        int n = cols.size();
+        int vertices = cols.vertexCount();
+        int[] id = new int[vertices];
+        KeyTable ids = new KeyTable(vertices);
+        for (int v = 0; v < vertices; v++) {
+            id[v] = ids.idOf(Math.round(cols.vertexX(v) / SharedEdgeIndex.TOLERANCE),
+                    Math.round(cols.vertexY(v) / SharedEdgeIndex.TOLERANCE));
+        }
+        // Slot v holds ring vertex v, or (ROOK) the edge from v to the next
+        // vertex of its ring; owner -1 marks a degenerate edge.
+        long[] keys = new long[vertices];
+        int[] owner = new int[vertices];
+        for (int i = 0; i < n; i++) {
+            for (int r = cols.firstRing(i); r < cols.firstRing(i + 1); r++) {
+                int from = cols.ringVertexStart(r), to = cols.ringVertexStart(r + 1);
+                for (int v = from; v < to; v++) {
+                    owner[v] = i;
+                    if (contact == Contact.ROOK) {
+                        int a = id[v], b = id[v + 1 == to ? from : v + 1];
+                        if (a == b) owner[v] = -1;
+                        keys[v] = (long) Math.min(a, b) << 32 | Math.max(a, b);
+                    } else {
+                        keys[v] = id[v];
+                    }
+                }
+            }
+        }
+        radixSort(keys, owner);
+
+        Builder builder = new Builder(n);
+        for (int s = 0, e; s < vertices; s = e) {
+            e = s + 1;
+            while (e < vertices && keys[e] == keys[s]) e++;
+            for (int x = s; x < e; x++) {
+                if (owner[x] < 0) continue;
+                for (int y = x + 1; y < e; y++) {
+                    if (owner[y] >= 0) builder.addEdge(owner[x], owner[y]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /** Same graph with each edge weighted by the boundary length the two precincts share. */
+    public AdjacencyGraph withSharedLengths(SharedEdgeIndex edges) {
+        double[] w = new double[neighbours.length];
+        for (int i = 0; i < size(); i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                w[k] = edges.sharedLength(i, neighbours[k]);
+            }
+        }
+        return new AdjacencyGraph(offsets, neighbours, w, rows);
+    }
+
+    public int size() { return offsets.length - 1; }
+    /** Number of stored (directed) entries — twice the undirected edge count. */
+    public int entries() { return neighbours.length; }
+    public int start(int i) { return offsets[i]; }
+    public int end(int i) { return offsets[i + 1]; }
+    public int degree(int i) { return offsets[i + 1] - offsets[i]; }
+    public int neighbour(int k) { return neighbours[k]; }
+    public boolean hasWeights() { return weights != null; }
+    /** Weight of entry {@code k}; 1 for unweighted graphs. */
+    public double weight(int k) { return weights == null ? 1 : weights[k]; }
+
+    /** Row pointers, size {@link #size()} + 1. Read-only. */
+    public int[] offsets() { return offsets; }
+    /** Concatenated sorted neighbour rows. Read-only. */
+    public int[] neighbours() { return neighbours; }
+
+    /** {@code int[][]} view, one sorted neighbour array per precinct; built once on first call. */
+    public int[][] rows() {
+        int[][] r = rows;
+        if (r == null) {
+            synchronized (this) {
+                r = rows;
+                if (r == null) {
+                    r = new int[size()][];
+                    for (int i = 0; i < r.length; i++) {
+                        r[i] = Arrays.copyOfRange(neighbours, offsets[i], offsets[i + 1]);
+                    }
+                    rows = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Collects undirected edges as packed {@code long}s and turns them into
+     * a symmetric CSR graph with one sort; duplicates and self-loops are
+     * dropped. Not thread-safe.
+     */
+    public static final class Builder {
+        private final int n;
+        private long[] pairs = new long[64];
+        private int count;
+
+        public Builder(int n) {
+            this.n = n;
+        }
+
+        public void addEdge(int a, int b) {
+            if (a == b) return;
+            if (a < 0 || b < 0 || a >= n || b >= n) {
+                throw new IndexOutOfBoundsException("edge " + a + "-" + b + " outside 0.." + n);
+            }
+            if (count + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            pairs[count++] = ((long) a << 32) | b;
+            pairs[count++] = ((long) b << 32) | a;
+        }
+
+        public AdjacencyGraph build() {
+            Arrays.parallelSort(pairs, 0, count);
+            int[] offsets = new int[n + 1];
+            int[] neighbours = new int[count];
+            int m = 0;
+            long prev = -1;
+            for (int k = 0; k < count; k++) {
+                long p = pairs[k];
+                if (p == prev) continue;
+                prev = p;
+                offsets[(int) (p >>> 32) + 1]++;
+                neighbours[m++] = (int) p;
+            }
+            for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+            return new AdjacencyGraph(offsets, Arrays.copyOf(neighbours, m), null, null);
+        }
+    }
+
+    /**
+     * LSD radix sort of {@code keys} (as unsigned values — only equal runs
+     * matter) carrying {@code payload} along, 8 bits per pass. Passes in
+     * which every key has the same digit are skipped.
+     */
+    private static void radixSort(long[] keys, int[] payload) {
+        int m = keys.length;
+        long[] keyBuf = new long[m];
+        int[] payloadBuf = new int[m];
+        long[] srcKeys = keys, dstKeys = keyBuf;
+        int[] srcPayload = payload, dstPayload = payloadBuf;
+        int[] count = new int[256];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int k = 0; k < m; k++) count[(int) (srcKeys[k] >>> shift) & 0xff]++;
+            if (m == 0 || count[(int) (srcKeys[0] >>> shift) & 0xff] == m) continue;
+            for (int d = 0, sum = 0; d < 256; d++) {
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            for (int k = 0; k < m; k++) {
+                int slot = count[(int) (srcKeys[k] >>> shift) & 0xff]++;
+                dstKeys[slot] = srcKeys[k];
+                dstPayload[slot] = srcPayload[k];
+            }
+            long[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            int[] tp = srcPayload; srcPayload = dstPayload; dstPayload = tp;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, m);
+            System.arraycopy(srcPayload, 0, payload, 0, m);
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package com.redistricting.ai.algorithms;
 
 import com.redistricting.ai.GenerationParams;
-import com.redistricting.model.Precinct;
 
 import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.Deque;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * <strong>Advanced multi-objective</strong> redistricting algorithm.
@@ -21,8 +18,8 @@ import java.util.Set;
  * <p><em>Method:</em>
  * <ol>
  *   <li><strong>Multi-attempt growth.</strong> Run
- *       {@link GenerationParams#attempts()} independent attempts. Each
- *       attempt seeds the districts using k-means++ farthest-first sampling
+ *       {@link GenerationParams#attempts()} independent attempts, in
+ *       parallel via {@link AttemptRunner}. Each attempt seeds the districts using k-means++ farthest-first sampling
  *       (county-aware when {@code countyAdherence > 0.5}) and grows them
  *       greedily under a weighted cost combining population deviation,
  *       partisan-share deviation, county-split penalty and centroid
@@ -48,53 +45,60 @@ public final class AdvancedMultiObjectiveAlgorithm implements RedistrictingAlgor
     }
 
     @Override
-    public int[] assign(PrecinctBase base, GenerationParams params) {
-        Random masterRng = new Random(params.seed());
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
         int targetDemSeats = params.effectiveDemTarget();
+        BoundaryRefiner.Objective obj = makeObjective(base, params, targetDemSeats);
 
         int[] bestAssignment = null;
         double bestScore = Double.POSITIVE_INFINITY;
         int bestSeatGap = Integer.MAX_VALUE;
-
-        BoundaryRefiner.Objective obj = makeObjective(base, params, targetDemSeats);
-
-        for (int attempt = 0; attempt < params.attempts(); attempt++) {
-            long attemptSeed = masterRng.nextLong();
-            int[] assignment = grow(base, params, attemptSeed, targetDemSeats);
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
-
-            BoundaryRefiner.refine(assignment, params.districts(), base.precincts(),
-                    base.county(), base.counties(), base.adjacency(),
-                    obj, /*passes*/ 8, new Random(attemptSeed ^ 0xCAFE));
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
-
-            BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
-                    params.districts(), base.precincts(), base.county(), base.counties());
-            double score = obj.score(stats, params.districts());
-            int seatGap = Math.abs(countDemSeats(stats, params.districts()) - targetDemSeats);
+        for (AttemptRunner.Result r : AttemptRunner.run(params.seed(), params.attempts(),
+                monitor, attemptSeed -> attempt(base, params, obj, targetDemSeats,
+                        monitor, attemptSeed))) {
+            double score = r.score();
+            int seatGap = Math.abs(countDemSeats(r.stats(), params.districts()) - targetDemSeats);
             if (score < bestScore - 1e-9
                     || (Math.abs(score - bestScore) <= 1e-9 && seatGap < bestSeatGap)) {
                 bestScore = score;
                 bestSeatGap = seatGap;
-                bestAssignment = assignment;
+                bestAssignment = r.assignment();
             }
         }
         return bestAssignment;
     }
 
+    /** One independent grow → repair → refine attempt. */
+    private AttemptRunner.Result attempt(PrecinctBase base, GenerationParams params,
+                                         BoundaryRefiner.Objective obj, int targetDemSeats,
+                                         GenerationMonitor monitor, long attemptSeed) {
+        int[] assignment = grow(base, params, attemptSeed, targetDemSeats, monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+
+        BoundaryRefiner.refine(assignment, params.districts(), base,
+                obj, /*passes*/ 8, new Random(attemptSeed ^ 0xCAFE), monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+
+        BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
+                params.districts(), base);
+        return new AttemptRunner.Result(assignment, stats,
+                obj.score(stats, params.districts()));
+    }
+
     // ---------- growth ----------
 
-    private int[] grow(PrecinctBase base, GenerationParams p, long seed, int targetDemSeats) {
+    private int[] grow(PrecinctBase base, GenerationParams p, long seed, int targetDemSeats,
+                       GenerationMonitor monitor) {
         Random rng = new Random(seed);
-        List<Precinct> precincts = base.precincts();
         int[][] adj = base.adjacency();
         int[] county = base.county();
-        int n = precincts.size();
+        int n = base.size();
         int D = p.districts();
         long totalPop = base.totalPopulation();
         double idealPop = (double) totalPop / D;
+        double underfilled = idealPop * (1 - p.populationTolerance());
 
         int[] assignment = new int[n];
         for (int i = 0; i < n; i++) assignment[i] = -1;
@@ -104,51 +108,81 @@ public final class AdvancedMultiObjectiveAlgorithm implements RedistrictingAlgor
         long[] districtRep = new long[D];
         double[] cxSum = new double[D];
         double[] cySum = new double[D];
-        @SuppressWarnings("unchecked")
-        Set<Integer>[] districtCounties = new Set[D];
-        @SuppressWarnings("unchecked")
-        Set<Integer>[] frontier = new Set[D];
-        for (int d = 0; d < D; d++) {
-            districtCounties[d] = new HashSet<>();
-            frontier[d] = new HashSet<>();
-        }
+        BitSet[] districtCounties = new BitSet[D];
+        for (int d = 0; d < D; d++) districtCounties[d] = new BitSet(base.counties());
 
         double[] targetDemShare = new double[D];
         for (int d = 0; d < D; d++) {
             targetDemShare[d] = (d < targetDemSeats) ? 0.55 : 0.35;
         }
 
+        // Rank on cost + pop/ideal: the shift is the same for all of a
+        // district's candidates, and makes the population term
+        // non-decreasing as the district grows, so it needs no slack.
+        RegionGrower grower = new RegionGrower(base.graph(), D, (d, idx) -> candidateCost(d,
+                idx, base, county, districtPop, districtDem, districtRep, cxSum, cySum,
+                districtCounties, targetDemShare, idealPop, p, n)
+                + districtPop[d] / idealPop);
+        long maxVotes = 0;
+        for (int i = 0; i < n; i++) {
+            maxVotes = Math.max(maxVotes, (long) base.demVotes(i) + base.repVotes(i));
+        }
+        boolean[] exhausted = new boolean[D];
+
         int[] seeds = GeographyUtils.kmeansPlusPlusSeeds(D, n,
                 Math.max(1, p.precinctsX()), county, p.countyAdherence(), rng);
         for (int d = 0; d < D; d++) {
             int idx = seeds[d];
             assignment[idx] = d;
-            recordAdd(d, idx, precincts, county, districtPop, districtDem, districtRep,
+            recordAdd(d, idx, base, county, districtPop, districtDem, districtRep,
                     cxSum, cySum, districtCounties);
-            for (int nb : adj[idx]) if (assignment[nb] == -1) frontier[d].add(nb);
         }
+        // Claim only once every seed is recorded: the overflow penalty looks
+        // at the other districts' populations.
+        for (int d = 0; d < D; d++) grower.claim(d, seeds[d]);
 
         int remaining = n - D;
         while (remaining > 0) {
+            if ((remaining & 0xFF) == 0) monitor.checkCancelled();
             int chosenD = -1;
             double minRatio = Double.POSITIVE_INFINITY;
             for (int d = 0; d < D; d++) {
-                if (frontier[d].isEmpty()) continue;
+                if (exhausted[d]) continue;
                 double ratio = districtPop[d] / idealPop;
                 if (ratio < minRatio) { minRatio = ratio; chosenD = d; }
             }
             if (chosenD == -1) break;
 
-            int picked = bestCandidate(chosenD, frontier[chosenD], precincts, county,
-                    districtPop, districtDem, districtRep, cxSum, cySum,
-                    districtCounties, targetDemShare, idealPop, p, n);
+            int picked = grower.next(chosenD);
+            if (picked == -1) {
+                exhausted[chosenD] = true;
+                continue;
+            }
+            double oldX = centroid(cxSum, districtPop, chosenD);
+            double oldY = centroid(cySum, districtPop, chosenD);
+            long oldVotes = districtDem[chosenD] + districtRep[chosenD];
+            double oldShare = oldVotes == 0 ? 0 : (double) districtDem[chosenD] / oldVotes;
+            boolean newCounty = !districtCounties[chosenD].get(county[picked]);
+            boolean wasUnderfilled = districtPop[chosenD] < underfilled;
             assignment[picked] = chosenD;
-            recordAdd(chosenD, picked, precincts, county, districtPop, districtDem,
+            recordAdd(chosenD, picked, base, county, districtPop, districtDem,
                     districtRep, cxSum, cySum, districtCounties);
-            for (Set<Integer> f : frontier) f.remove(picked);
-            for (int nb : adj[picked]) {
-                if (assignment[nb] == -1) frontier[chosenD].add(nb);
+
+            // Bound how far any candidate's cost for chosenD can have fallen,
+            // term by term (see candidateCost).
+            long votes = districtDem[chosenD] + districtRep[chosenD];
+            double moved = Math.hypot(centroid(cxSum, districtPop, chosenD) - oldX,
+                    centroid(cySum, districtPop, chosenD) - oldY);
+            grower.loosen(chosenD, 1.5 * leanBound(oldVotes, votes, oldShare,
+                            votes == 0 ? 0 : (double) districtDem[chosenD] / votes, maxVotes)
+                    + (newCounty ? p.countyAdherence() : 0)
+                    + p.compactness() * moved / Math.sqrt(n));
+            // Filling the last under-filled district lifts the overflow
+            // penalty everywhere else.
+            if (wasUnderfilled && districtPop[chosenD] >= underfilled) {
+                for (int d = 0; d < D; d++) if (d != chosenD) grower.loosen(d, 100);
             }
+            grower.claim(chosenD, picked);
             remaining--;
         }
 
@@ -158,47 +192,67 @@ public final class AdvancedMultiObjectiveAlgorithm implements RedistrictingAlgor
             int d = nearestAssignedDistrict(i, adj, assignment);
             if (d == -1) d = 0;
             assignment[i] = d;
-            recordAdd(d, i, precincts, county, districtPop, districtDem, districtRep,
+            recordAdd(d, i, base, county, districtPop, districtDem, districtRep,
                     cxSum, cySum, districtCounties);
         }
         return assignment;
     }
 
-    private int bestCandidate(int d, Set<Integer> frontier, List<Precinct> precincts,
-                              int[] county, long[] districtPop, long[] districtDem,
-                              long[] districtRep, double[] cxSum, double[] cySum,
-                              Set<Integer>[] districtCounties, double[] targetDemShare,
-                              double idealPop, GenerationParams p, int n) {
-        int best = -1;
-        double bestCost = Double.POSITIVE_INFINITY;
-        double cx = districtPop[d] == 0 ? 0 : cxSum[d] / districtPop[d];
-        double cy = districtPop[d] == 0 ? 0 : cySum[d] / districtPop[d];
-        for (int idx : frontier) {
-            Precinct pr = precincts.get(idx);
-            long newPop = districtPop[d] + pr.population();
-            long newDem = districtDem[d] + pr.demVotes();
-            long newRep = districtRep[d] + pr.repVotes();
-            double demShare = (newDem + newRep) == 0 ? 0.5
-                    : (double) newDem / (newDem + newRep);
-            double[] c = pr.centroid();
-
-            double popPenalty = Math.abs(newPop - idealPop) / idealPop;
-            double leanPenalty = Math.abs(demShare - targetDemShare[d]);
-            double countyPenalty = districtCounties[d].contains(county[idx]) ? 0.0 : 1.0;
-            double dist = Math.hypot(c[0] - cx, c[1] - cy) / Math.sqrt(n);
-
-            double cost = popPenalty
-                    + 1.5 * leanPenalty
-                    + p.countyAdherence() * countyPenalty
-                    + p.compactness() * dist;
-
-            if (newPop > idealPop * (1 + p.populationTolerance())
-                    && hasUnderfilledOther(d, districtPop, idealPop, p)) {
-                cost += 100;
-            }
-            if (cost < bestCost) { bestCost = cost; best = idx; }
+    /**
+     * Weighted cost of adding {@code idx} to district {@code d}. As the
+     * district grows the county term only falls when a new county joins and
+     * the distance term by at most the centroid's move; see
+     * {@link #leanBound} for the lean term.
+     */
+    private double candidateCost(int d, int idx, PrecinctBase base, int[] county,
+                                 long[] districtPop, long[] districtDem, long[] districtRep,
+                                 double[] cxSum, double[] cySum, BitSet[] districtCounties,
+                                 double[] targetDemShare, double idealPop,
+                                 GenerationParams p, int n) {
+        double cx = centroid(cxSum, districtPop, d);
+        double cy = centroid(cySum, districtPop, d);
+        long newPop = districtPop[d] + base.population(idx);
+        long newDem = districtDem[d] + base.demVotes(idx);
+        long newRep = districtRep[d] + base.repVotes(idx);
+        double demShare = (newDem + newRep) == 0 ? 0.5
+                : (double) newDem / (newDem + newRep);
+
+        double popPenalty = Math.abs(newPop - idealPop) / idealPop;
+        double leanPenalty = Math.abs(demShare - targetDemShare[d]);
+        double countyPenalty = districtCounties[d].get(county[idx]) ? 0.0 : 1.0;
+        double dist = Math.hypot(base.centroidX(idx) - cx, base.centroidY(idx) - cy)
+                / Math.sqrt(n);
+
+        double cost = popPenalty
+                + 1.5 * leanPenalty
+                + p.countyAdherence() * countyPenalty
+                + p.compactness() * dist;
+
+        if (newPop > idealPop * (1 + p.populationTolerance())
+                && hasUnderfilledOther(d, districtPop, idealPop, p)) {
+            cost += 100;
         }
-        return best;
+        return cost;
+    }
+
+    /**
+     * Most the lean term of any candidate can move when a district's votes
+     * go from {@code v0} to {@code v1} and its Dem share from {@code s0} to
+     * {@code s1}. A candidate with {@code v} votes has share
+     * {@code s + (dem − s·v) / (V + v)}, which moves by at most
+     * {@code 2|s1 − s0| + v·(v1 − v0) / (v0·v1)}; it also can't move by more
+     * than {@code (v1 − v0) / v1}.
+     */
+    private static double leanBound(long v0, long v1, double s0, double s1, long maxVotes) {
+        if (v1 == v0) return 0;
+        double coarse = (double) (v1 - v0) / v1;
+        if (v0 == 0) return coarse;
+        double fine = 2 * Math.abs(s1 - s0) + (double) maxVotes * (v1 - v0) / ((double) v0 * v1);
+        return Math.min(coarse, fine);
+    }
+
+    private static double centroid(double[] sum, long[] pop, int d) {
+        return pop[d] == 0 ? 0 : sum[d] / pop[d];
     }
 
     private boolean hasUnderfilledOther(int d, long[] districtPop,
@@ -210,18 +264,17 @@ public final class AdvancedMultiObjectiveAlgorithm implements RedistrictingAlgor
         return false;
     }
 
-    private void recordAdd(int d, int idx, List<Precinct> precincts, int[] county,
+    private void recordAdd(int d, int idx, PrecinctBase base, int[] county,
                            long[] districtPop, long[] districtDem, long[] districtRep,
                            double[] cxSum, double[] cySum,
-                           Set<Integer>[] districtCounties) {
-        Precinct pr = precincts.get(idx);
-        double[] c = pr.centroid();
-        cxSum[d] += c[0] * pr.population();
-        cySum[d] += c[1] * pr.population();
-        districtPop[d] += pr.population();
-        districtDem[d] += pr.demVotes();
-        districtRep[d] += pr.repVotes();
-        districtCounties[d].add(county[idx]);
+                           BitSet[] districtCounties) {
+        int pop = base.population(idx);
+        cxSum[d] += base.centroidX(idx) * pop;
+        cySum[d] += base.centroidY(idx) * pop;
+        districtPop[d] += pop;
+        districtDem[d] += base.demVotes(idx);
+        districtRep[d] += base.repVotes(idx);
+        districtCounties[d].set(county[idx]);
     }
 
     private static int nearestAssignedDistrict(int start, int[][] adj, int[] assignment) {
@@ -240,29 +293,44 @@ public final class AdvancedMultiObjectiveAlgorithm implements RedistrictingAlgor
 
     // ---------- objective + helpers ----------
 
-    static BoundaryRefiner.Objective makeObjective(PrecinctBase base, GenerationParams p,
-                                                    int targetDemSeats) {
+    static BoundaryRefiner.DeltaObjective makeObjective(PrecinctBase base, GenerationParams p,
+                                                         int targetDemSeats) {
         long totalPop = base.totalPopulation();
         final double idealPop = (double) totalPop / p.districts();
-        return (s, D) -> {
-            double popDev = 0;
-            for (int d = 0; d < D; d++) {
-                popDev = Math.max(popDev, Math.abs(s.pop[d] - idealPop) / idealPop);
+        return new BoundaryRefiner.DeltaObjective() {
+            @Override
+            public double score(BoundaryRefiner.Stats s, int D) {
+                double popDev = s.maxPopDeviation(idealPop);
+                double seatGap = Math.abs(s.demSeats() - targetDemSeats) / (double) D;
+
+                double countySplits = 0;
+                for (int d = 0; d < D; d++) {
+                    int touched = 0;
+                    for (int v : s.countyMembership[d]) if (v > 0) touched++;
+                    countySplits += Math.max(0, touched - 1);
+                }
+                countySplits /= Math.max(1, D);
+
+                return popDev
+                     + 1.5 * seatGap
+                     + p.countyAdherence() * countySplits;
             }
-            int demSeats = countDemSeats(s, D);
-            double seatGap = Math.abs(demSeats - targetDemSeats) / (double) D;
 
-            double countySplits = 0;
-            for (int d = 0; d < D; d++) {
-                int touched = 0;
-                for (int v : s.countyMembership[d]) if (v > 0) touched++;
-                countySplits += Math.max(0, touched - 1);
+            @Override
+            public double delta(BoundaryRefiner.Stats s, int D, BoundaryRefiner.Move m) {
+                double popDev = s.maxPopDeviationAfter(m, idealPop) - s.maxPopDeviation(idealPop);
+                double seatGap = (Math.abs(s.demSeatsAfter(m) - targetDemSeats)
+                        - Math.abs(s.demSeats() - targetDemSeats)) / (double) D;
+                // Both districts stay non-empty, so the source drops a split
+                // when it loses its last precinct in the county (it still
+                // has others elsewhere) and the target gains one when it
+                // enters a new county.
+                int splits = (s.countyMembership[m.to()][m.county()] == 0 ? 1 : 0)
+                           - (s.countyMembership[m.from()][m.county()] == 1 ? 1 : 0);
+                return popDev
+                     + 1.5 * seatGap
+                     + p.countyAdherence() * splits / Math.max(1, D);
             }
-            countySplits /= Math.max(1, D);
-
-            return popDev
-                 + 1.5 * seatGap
-                 + p.countyAdherence() * countySplits;
         };
     }
 
@@ -19,10 +19,11 @@ public final class Algorithms {
     public static final CompactnessAlgorithm COMPACTNESS = new CompactnessAlgorithm();
     public static final CompetitiveAlgorithm COMPETITIVE = new CompetitiveAlgorithm();
     public static final PartisanTargetAlgorithm PARTISAN = new PartisanTargetAlgorithm();
+    public static final ReComAlgorithm RECOM = new ReComAlgorithm();
 
     /** Display order — Simple first so it appears at the top of pickers. */
     public static final List<RedistrictingAlgorithm> ALL = List.of(
-            SIMPLE, ADVANCED, COMPACTNESS, COMPETITIVE, PARTISAN);
+            SIMPLE, ADVANCED, COMPACTNESS, COMPETITIVE, PARTISAN, RECOM);
 
     private static final Map<String, RedistrictingAlgorithm> BY_ID;
     static {
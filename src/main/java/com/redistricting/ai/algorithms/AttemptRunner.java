@@ -0,0 +1,144 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the independent attempts of a multi-attempt algorithm across all
+ * cores while keeping the outcome identical to the sequential loop
+ * <pre>
+ *   Random master = new Random(seed);
+ *   for (int a = 0; a < attempts; a++) run(master.nextLong());
+ * </pre>
+ *
+ * <p>Attempt seeds are drawn up front from the master seed in that same
+ * order, attempts run on the caller's {@link ForkJoinPool} (the common pool
+ * unless the caller is itself a task in another pool, such as a batch
+ * runner's), and the results are handed back as a list indexed by attempt
+ * number. Callers reduce that
+ * list sequentially with their usual best-of / tie-breaking rules, so the
+ * chosen plan never depends on thread scheduling.
+ *
+ * <p>Attempts must not share mutable state. Everything they read from a
+ * {@link PrecinctBase} is immutable (or lazily built in a thread-safe way),
+ * and every algorithm in this package keeps its per-attempt state local.
+ * Nested use — an algorithm whose attempts call another multi-attempt
+ * algorithm — is fine: the inner runner's tasks join the same pool.
+ *
+ * <p>The {@link GenerationMonitor} is polled before each attempt starts and
+ * told as each one finishes (in completion order, from pool threads).
+ */
+final class AttemptRunner {
+
+    /** One finished attempt: the plan, its stats and the objective score. */
+    record Result(int[] assignment, BoundaryRefiner.Stats stats, double score) {}
+
+    /** Early-exit rule, checked in attempt order after each attempt is known. */
+    @FunctionalInterface
+    interface StopRule {
+        boolean stopAfter(int attempt, Result result);
+    }
+
+    private AttemptRunner() {}
+
+    /**
+     * Threads attempts can use from the calling thread: the parallelism of
+     * the fork/join pool it runs in, else that of the common pool. A
+     * parallel stream started from a pool's worker forks into that pool.
+     */
+    static int parallelism() {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        return pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    /** The seeds a sequential loop over {@code new Random(masterSeed)} would draw. */
+    static long[] seeds(long masterSeed, int attempts) {
+        Random master = new Random(masterSeed);
+        long[] seeds = new long[attempts];
+        for (int a = 0; a < attempts; a++) seeds[a] = master.nextLong();
+        return seeds;
+    }
+
+    /** Run every attempt (in parallel) and return the results in attempt order. */
+    static List<Result> run(long masterSeed, int attempts, GenerationMonitor monitor,
+                            LongFunction<Result> attempt) {
+        return run(masterSeed, attempts, monitor, attempt, null);
+    }
+
+    /**
+     * Like {@link #run(long, int, GenerationMonitor, LongFunction)}, but
+     * stops after the first attempt (in attempt order) for which
+     * {@code stop} fires; the returned
+     * list then ends with that attempt, exactly as a sequential loop with a
+     * {@code break} would. Attempts run in waves of the pool's parallelism so
+     * an early stop doesn't pay for every remaining attempt.
+     */
+    static List<Result> run(long masterSeed, int attempts, GenerationMonitor monitor,
+                            LongFunction<Result> attempt, StopRule stop) {
+        long[] seeds = seeds(masterSeed, attempts);
+        int wave = stop == null ? attempts
+                : Math.max(1, parallelism());
+        Progress progress = new Progress(attempts, monitor);
+        LongFunction<Result> tracked = seed -> {
+            monitor.checkCancelled();
+            return progress.completed(attempt.apply(seed));
+        };
+        List<Result> results = new ArrayList<>(attempts);
+        for (int from = 0; from < attempts; from += wave) {
+            int to = Math.min(attempts, from + wave);
+            List<Result> batch = runRange(seeds, from, to, tracked);
+            for (int k = 0; k < batch.size(); k++) {
+                Result r = batch.get(k);
+                results.add(r);
+                if (stop != null && stop.stopAfter(from + k, r)) return results;
+            }
+        }
+        return results;
+    }
+
+    private static List<Result> runRange(long[] seeds, int from, int to,
+                                         LongFunction<Result> attempt) {
+        if (to - from == 1 || parallelism() <= 1) {
+            List<Result> out = new ArrayList<>(to - from);
+            for (int a = from; a < to; a++) out.add(attempt.apply(seeds[a]));
+            return out;
+        }
+        // Ordered parallel stream: tasks run on the caller's pool, results keep
+        // their attempt positions.
+        Result[] out = IntStream.range(from, to).parallel()
+                .mapToObj(a -> attempt.apply(seeds[a]))
+                .toArray(Result[]::new);
+        return Arrays.asList(out);
+    }
+
+    /** Completion counter and best-so-far tracker shared by one run's attempts. */
+    private static final class Progress {
+        private final int attempts;
+        private final GenerationMonitor monitor;
+        private final AtomicInteger done = new AtomicInteger();
+        private double bestScore = Double.POSITIVE_INFINITY;
+
+        Progress(int attempts, GenerationMonitor monitor) {
+            this.attempts = attempts;
+            this.monitor = monitor;
+        }
+
+        Result completed(Result r) {
+            synchronized (this) {
+                if (r.score() < bestScore) {
+                    bestScore = r.score();
+                    monitor.bestSoFar(r.assignment().clone(), r.score());
+                }
+            }
+            monitor.attemptCompleted(done.incrementAndGet(), attempts);
+            return r;
+        }
+    }
+}
@@ -2,10 +2,10 @@ package com.redistricting.ai.algorithms;
 
 import com.redistricting.model.Precinct;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Boundary-precinct local search refiner.
@@ -17,7 +17,19 @@ import java.util.Set;
  *
  * <p>The refiner is generic in the objective: callers pass a
  * {@link Objective} that, given the current per-district stats, returns a
- * scalar "lower-is-better" value.
+ * scalar "lower-is-better" value. {@link Stats} carries district area and
+ * perimeter (kept current through {@link SharedEdgeIndex}), so
+ * objectives can score compactness without touching geometry. A
+ * {@link DeltaObjective} also prices a single {@link Move} from the two
+ * districts it touches, so a trial move costs O(1) instead of an O(D)
+ * rescore; plain objectives are rescored per trial.
+ *
+ * <p>{@link #refine} is a strict greedy descent and stops at the first
+ * local optimum. {@link #anneal} and {@link #temper} trade that for a
+ * Metropolis walk under a {@link Schedule}: uphill moves are accepted with
+ * probability {@code exp(-Δ/T)}, so the search can leave a local optimum
+ * instead of relying on many independent restarts. All three modes keep
+ * every district contiguous and non-empty.
  */
 public final class BoundaryRefiner {
 
@@ -29,6 +41,14 @@ public final class BoundaryRefiner {
         public final int[][] countyMembership; // [district][countyId] = #precincts in that county
         public final double[] cxSum; // weighted by population
         public final double[] cySum;
+        public final double[] area;      // Σ precinct area
+        public final double[] perimeter; // via SharedEdgeIndex
+
+        // Derived values, rebuilt on first use after the refiner moves a precinct.
+        private boolean derivedStale = true;
+        private int demSeats;
+        private final int[] mostPopulous = new int[3];
+        private final int[] leastPopulous = new int[3];
 
         public Stats(int districts, int counties) {
             this.pop = new long[districts];
@@ -37,10 +57,177 @@ public final class BoundaryRefiner {
             this.countyMembership = new int[districts][counties];
             this.cxSum = new double[districts];
             this.cySum = new double[districts];
+            this.area = new double[districts];
+            this.perimeter = new double[districts];
         }
 
         public double centroidX(int d) { return pop[d] == 0 ? 0 : cxSum[d] / pop[d]; }
         public double centroidY(int d) { return pop[d] == 0 ? 0 : cySum[d] / pop[d]; }
+
+        /** Polsby-Popper compactness (4πA / P²) of district {@code d}; 0 when degenerate. */
+        public double polsbyPopper(int d) {
+            double p = perimeter[d];
+            return p > 0 ? 4 * Math.PI * area[d] / (p * p) : 0;
+        }
+
+        /** Number of districts with more Democratic than Republican votes. */
+        public int demSeats() {
+            refreshDerived();
+            return demSeats;
+        }
+
+        /** Largest |pop − ideal| / ideal over all districts. */
+        public double maxPopDeviation(double ideal) {
+            refreshDerived();
+            return Math.max(pop[mostPopulous[0]] - ideal, ideal - pop[leastPopulous[0]]) / ideal;
+        }
+
+        /**
+         * {@link #maxPopDeviation} once {@code m} is applied, in O(1): only
+         * the two districts it touches change, and the cache holds the three
+         * most and least populous districts, so the extremes of the rest are
+         * known.
+         */
+        public double maxPopDeviationAfter(Move m, double ideal) {
+            refreshDerived();
+            long from = pop[m.from()] - m.population();
+            long to = pop[m.to()] + m.population();
+            long hi = Math.max(from, to);
+            long lo = Math.min(from, to);
+            for (int d : mostPopulous) {
+                if (d >= 0 && d != m.from() && d != m.to()) { hi = Math.max(hi, pop[d]); break; }
+            }
+            for (int d : leastPopulous) {
+                if (d >= 0 && d != m.from() && d != m.to()) { lo = Math.min(lo, pop[d]); break; }
+            }
+            return Math.max(hi - ideal, ideal - lo) / ideal;
+        }
+
+        /** {@link #demSeats} once {@code m} is applied. */
+        public int demSeatsAfter(Move m) {
+            int f = m.from(), t = m.to();
+            int seats = demSeats();
+            if (dem[f] > rep[f]) seats--;
+            if (dem[t] > rep[t]) seats--;
+            if (dem[f] - m.demVotes() > rep[f] - m.repVotes()) seats++;
+            if (dem[t] + m.demVotes() > rep[t] + m.repVotes()) seats++;
+            return seats;
+        }
+
+        private void refreshDerived() {
+            if (!derivedStale) return;
+            derivedStale = false;
+            int seats = 0;
+            Arrays.fill(mostPopulous, -1);
+            Arrays.fill(leastPopulous, -1);
+            for (int d = 0; d < pop.length; d++) {
+                if (dem[d] > rep[d]) seats++;
+                rank(mostPopulous, d, +1);
+                rank(leastPopulous, d, -1);
+            }
+            demSeats = seats;
+        }
+
+        /** Insert {@code d} into a small top-k list ordered by {@code sign × pop}. */
+        private void rank(int[] top, int d, int sign) {
+            for (int k = 0; k < top.length; k++) {
+                if (top[k] < 0 || sign * Long.compare(pop[d], pop[top[k]]) > 0) {
+                    System.arraycopy(top, k, top, k + 1, top.length - k - 1);
+                    top[k] = d;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * One candidate move, precinct {@link #precinct()} from district
+     * {@link #from()} to {@link #to()}, with what an objective needs to price
+     * it: the precinct's population, votes, county, population-weighted
+     * centroid and area, and the change in each district's perimeter. The
+     * refiner fills one instance per walk and reuses it, so read it during
+     * the call and don't keep it.
+     */
+    public static final class Move {
+        private int precinct;
+        private int from;
+        private int to;
+        private int county;
+        private int population;
+        private int demVotes;
+        private int repVotes;
+        private double weightedX;
+        private double weightedY;
+        private double area;
+        private double perimeterFromDelta;
+        private double perimeterToDelta;
+
+        public int precinct() { return precinct; }
+        public int from() { return from; }
+        public int to() { return to; }
+        public int county() { return county; }
+        public int population() { return population; }
+        public int demVotes() { return demVotes; }
+        public int repVotes() { return repVotes; }
+        /** Precinct centroid x times its population, as summed in {@link Stats#cxSum}. */
+        public double weightedX() { return weightedX; }
+        /** Precinct centroid y times its population, as summed in {@link Stats#cySum}. */
+        public double weightedY() { return weightedY; }
+        public double area() { return area; }
+        /** Change in {@code from}'s perimeter. */
+        public double perimeterFromDelta() { return perimeterFromDelta; }
+        /** Change in {@code to}'s perimeter. */
+        public double perimeterToDelta() { return perimeterToDelta; }
+
+        /** Describe moving {@code i} to {@code to}; {@code assignment[i]} is the source. */
+        void set(int i, int to, PrecinctColumns cols, SharedEdgeIndex edges,
+                 int[] assignment, int[] countyOf) {
+            this.precinct = i;
+            this.from = assignment[i];
+            this.to = to;
+            this.county = countyOf[i];
+            this.population = cols.population(i);
+            this.demVotes = cols.demVotes(i);
+            this.repVotes = cols.repVotes(i);
+            this.weightedX = cols.centroidX(i) * population;
+            this.weightedY = cols.centroidY(i) * population;
+            this.area = cols.area(i);
+            this.perimeterFromDelta = edges.sourcePerimeterDelta(i, from, assignment);
+            this.perimeterToDelta = edges.targetPerimeterDelta(i, to, assignment);
+        }
+
+        /** Apply ({@code sign > 0}) or revert ({@code sign < 0}) this move in {@code s}. */
+        void applyTo(Stats s, int sign) {
+            s.derivedStale = true;
+            if (sign > 0) {
+                s.pop[from] -= population; s.pop[to] += population;
+                s.dem[from] -= demVotes; s.dem[to] += demVotes;
+                s.rep[from] -= repVotes; s.rep[to] += repVotes;
+                s.countyMembership[from][county]--;
+                s.countyMembership[to][county]++;
+                s.cxSum[from] -= weightedX;
+                s.cySum[from] -= weightedY;
+                s.cxSum[to]   += weightedX;
+                s.cySum[to]   += weightedY;
+                s.area[from] -= area;   s.area[to] += area;
+                s.perimeter[from] += perimeterFromDelta;
+                s.perimeter[to]   += perimeterToDelta;
+            } else {
+                // reverse of the +1 path
+                s.pop[from] += population; s.pop[to] -= population;
+                s.dem[from] += demVotes; s.dem[to] -= demVotes;
+                s.rep[from] += repVotes; s.rep[to] -= repVotes;
+                s.countyMembership[from][county]++;
+                s.countyMembership[to][county]--;
+                s.cxSum[from] += weightedX;
+                s.cySum[from] += weightedY;
+                s.cxSum[to]   -= weightedX;
+                s.cySum[to]   -= weightedY;
+                s.area[from] += area;   s.area[to] -= area;
+                s.perimeter[from] -= perimeterFromDelta;
+                s.perimeter[to]   -= perimeterToDelta;
+            }
+        }
     }
 
     /** Lower-is-better total objective over the current district stats. */
@@ -49,26 +236,125 @@ public final class BoundaryRefiner {
         double score(Stats stats, int districts);
     }
 
+    /**
+     * An {@link Objective} that can also price a single move from the two
+     * districts it touches, so a trial costs O(1) instead of a full O(D)
+     * rescore. {@link #delta} must equal {@code score} after the move minus
+     * {@code score} before it (up to rounding). The refiners call it with
+     * {@code stats} in the pre-move state, both districts non-empty, and
+     * the source keeping at least one precinct.
+     *
+     * <p>Plain objectives keep working everywhere: the refiners score them by
+     * applying and reverting the move, and {@link #of} wraps one for code
+     * that wants a {@code DeltaObjective}.
+     */
+    public interface DeltaObjective extends Objective {
+        double delta(Stats stats, int districts, Move move);
+
+        /** Adapter pricing each move with two full scores. */
+        static DeltaObjective of(Objective obj) {
+            if (obj instanceof DeltaObjective d) return d;
+            return new DeltaObjective() {
+                @Override public double score(Stats stats, int districts) {
+                    return obj.score(stats, districts);
+                }
+
+                @Override public double delta(Stats stats, int districts, Move move) {
+                    double before = obj.score(stats, districts);
+                    move.applyTo(stats, +1);
+                    double after = obj.score(stats, districts);
+                    move.applyTo(stats, -1);
+                    return after - before;
+                }
+            };
+        }
+    }
+
+    /**
+     * Score change of {@code move} given the current {@code score}: O(1) for
+     * a {@link DeltaObjective}, apply → rescore → revert otherwise.
+     */
+    private static double trialDelta(Objective obj, Stats stats, int districts, Move move,
+                                     double score) {
+        if (obj instanceof DeltaObjective d) return d.delta(stats, districts, move);
+        move.applyTo(stats, +1);
+        double trial = obj.score(stats, districts);
+        move.applyTo(stats, -1);
+        return trial - score;
+    }
+
+    /**
+     * Temperature schedule for {@link #anneal} and {@link #temper}, given as
+     * acceptance probabilities so it fits any objective's scale. The refiner
+     * samples moves from the starting plan, takes the median uphill step Δ
+     * (the mean would be dominated by rare large jumps such as a seat
+     * flipping),
+     * and uses the temperatures at which such a step is accepted with
+     * probability {@code startAcceptance} and {@code endAcceptance}
+     * ({@code T = -Δ / ln p}). Annealing cools geometrically between the
+     * two over {@code sweeps} sweeps; tempering spreads its replicas over
+     * the same range. One sweep proposes as many moves as there are
+     * boundary precincts.
+     */
+    public record Schedule(double startAcceptance, double endAcceptance, int sweeps) {
+        public Schedule {
+            if (!(endAcceptance > 0 && endAcceptance <= startAcceptance && startAcceptance < 1)) {
+                throw new IllegalArgumentException(
+                        "need 0 < endAcceptance <= startAcceptance < 1");
+            }
+            if (sweeps < 1) throw new IllegalArgumentException("sweeps must be positive");
+        }
+
+        /** Temperature at step {@code k} of {@code steps}, for mean uphill step {@code uphill}. */
+        double temperature(double uphill, int k, int steps) {
+            double hot = -uphill / Math.log(startAcceptance);
+            double cold = -uphill / Math.log(endAcceptance);
+            return steps <= 1 ? cold : hot * Math.pow(cold / hot, (double) k / (steps - 1));
+        }
+    }
+
+    /** Proposals sampled to estimate the typical uphill step of a {@link Schedule}. */
+    private static final int CALIBRATION_SAMPLES = 256;
+    /** Floor on that step, so temperatures stay positive on a flat start. */
+    private static final double MIN_UPHILL = 1e-12;
+
+    /** Poll for cancellation once every {@code CANCEL_CHECK_MASK + 1} precincts. */
+    private static final int CANCEL_CHECK_MASK = 0xFF;
+
     private BoundaryRefiner() {}
 
     /**
      * Build {@link Stats} from a current assignment.
      */
+    public static Stats statsOf(int[] assignment, int districts, PrecinctBase base) {
+        return statsOf(assignment, districts, base.columns(), base.edges(),
+                base.county(), base.counties());
+    }
+
+    /** List-based overload kept for callers that don't hold a {@link PrecinctBase}. */
     public static Stats statsOf(int[] assignment, int districts,
                                 List<Precinct> precincts, int[] county,
                                 int counties) {
+        PrecinctColumns cols = PrecinctColumns.of(precincts);
+        return statsOf(assignment, districts, cols, SharedEdgeIndex.of(cols), county, counties);
+    }
+
+    private static Stats statsOf(int[] assignment, int districts, PrecinctColumns cols,
+                                 SharedEdgeIndex edges, int[] county, int counties) {
         Stats s = new Stats(districts, counties);
-        for (int i = 0; i < precincts.size(); i++) {
+        for (int i = 0; i < cols.size(); i++) {
             int d = assignment[i];
-            Precinct p = precincts.get(i);
-            s.pop[d] += p.population();
-            s.dem[d] += p.demVotes();
-            s.rep[d] += p.repVotes();
+            int pop = cols.population(i);
+            s.pop[d] += pop;
+            s.dem[d] += cols.demVotes(i);
+            s.rep[d] += cols.repVotes(i);
             s.countyMembership[d][county[i]]++;
-            double[] c = p.centroid();
-            s.cxSum[d] += c[0] * p.population();
-            s.cySum[d] += c[1] * p.population();
+            s.cxSum[d] += cols.centroidX(i) * pop;
+            s.cySum[d] += cols.centroidY(i) * pop;
+            s.area[d] += cols.area(i);
         }
+        double[] perimeter = edges.districtPerimeters(assignment, districts);
+        System.arraycopy(perimeter, 0, s.perimeter, 0, districts);
         return s;
     }
 
@@ -80,100 +366,309 @@ public final class BoundaryRefiner {
      *
      * @return the number of moves committed.
      */
+    public static int refine(int[] assignment, int districts, PrecinctBase base,
+                             Objective obj, int maxPasses, Random rng) {
+        return refine(assignment, districts, base, obj, maxPasses, rng,
+                GenerationMonitor.NONE);
+    }
+
+    /**
+     * As {@link #refine(int[], int, PrecinctBase, Objective, int, Random)},
+     * reporting each pass to {@code monitor} and stopping with
+     * {@link GenerationMonitor.CancelledException} once it is cancelled.
+     */
+    public static int refine(int[] assignment, int districts, PrecinctBase base,
+                             Objective obj, int maxPasses, Random rng,
+                             GenerationMonitor monitor) {
+        return refine(assignment, districts, base.columns(), base.edges(), base.county(),
+                base.counties(), base.adjacency(), obj, maxPasses, rng, monitor);
+    }
+
+    /** List-based overload kept for callers that don't hold a {@link PrecinctBase}. */
     public static int refine(int[] assignment, int districts,
                              List<Precinct> precincts, int[] county,
                              int counties, int[][] adj, Objective obj,
                              int maxPasses, Random rng) {
-        Stats stats = statsOf(assignment, districts, precincts, county, counties);
+        PrecinctColumns cols = PrecinctColumns.of(precincts);
+        return refine(assignment, districts, cols, SharedEdgeIndex.of(cols), county,
+                counties, adj, obj, maxPasses, rng, GenerationMonitor.NONE);
+    }
+
+    private static int refine(int[] assignment, int districts, PrecinctColumns cols,
+                              SharedEdgeIndex edges, int[] county, int counties,
+                              int[][] adj, Objective obj, int maxPasses, Random rng,
+                              GenerationMonitor monitor) {
+        Stats stats = statsOf(assignment, districts, cols, edges, county, counties);
+        ContiguityChecker contiguity = new ContiguityChecker(adj, assignment, districts);
         int totalMoves = 0;
         double currentScore = obj.score(stats, districts);
 
+        BoundarySet boundary = new BoundarySet(adj, assignment);
+        int[] order = new int[assignment.length];
+        int[] targets = new int[districts];
+        Move move = new Move();
+
         for (int pass = 0; pass < maxPasses; pass++) {
-            // Build the boundary list (precincts with at least one neighbour
-            // in a different district).
-            int n = assignment.length;
-            int[] order = new int[n];
-            for (int i = 0; i < n; i++) order[i] = i;
-            shuffle(order, rng);
+            // Visit only precincts with at least one neighbour in a different
+            // district, in randomised order. Precincts that join the boundary
+            // mid-pass are picked up by the next pass.
+            int count = boundary.copyTo(order);
+            shuffle(order, count, rng);
 
             int passMoves = 0;
-            for (int i : order) {
+            for (int k = 0; k < count; k++) {
+                if ((k & CANCEL_CHECK_MASK) == CANCEL_CHECK_MASK) monitor.checkCancelled();
+                int i = order[k];
+                if (!boundary.contains(i)) continue; // interior since the pass began
                 int d = assignment[i];
-                Set<Integer> targets = new HashSet<>();
+                int targetCount = 0;
                 for (int nb : adj[i]) {
-                    if (assignment[nb] != d) targets.add(assignment[nb]);
+                    int t = assignment[nb];
+                    if (t != d && !contains(targets, targetCount, t)) targets[targetCount++] = t;
                 }
-                if (targets.isEmpty()) continue;
+                if (targetCount == 0) continue;
                 // Don't empty a district.
-                int sourceCount = countAssigned(assignment, d);
-                if (sourceCount <= 1) continue;
-                // Don't break contiguity of the source.
-                if (!GeographyUtils.wouldStayConnectedWithout(i, assignment, adj)) continue;
+                if (contiguity.memberCount(d) <= 1) continue;
 
-                Precinct p = precincts.get(i);
+                Arrays.sort(targets, 0, targetCount);
                 double bestGain = 0;
                 int bestTarget = -1;
-                for (int t : targets) {
-                    apply(stats, d, t, p, county[i], +1);
-                    double trial = obj.score(stats, districts);
-                    double gain = currentScore - trial;
-                    apply(stats, d, t, p, county[i], -1); // revert
+                for (int ti = 0; ti < targetCount; ti++) {
+                    int t = targets[ti];
+                    move.set(i, t, cols, edges, assignment, county);
+                    double gain = -trialDelta(obj, stats, districts, move, currentScore);
                     if (gain > bestGain + 1e-12) {
                         bestGain = gain;
                         bestTarget = t;
                     }
                 }
-                if (bestTarget != -1) {
-                    apply(stats, d, bestTarget, p, county[i], +1);
-                    assignment[i] = bestTarget;
+                // Don't break contiguity of the source. Checked last: pricing
+                // the targets is cheap, and most precincts have no improving
+                // move at all.
+                if (bestTarget != -1 && contiguity.wouldStayConnectedWithout(i)) {
+                    move.set(i, bestTarget, cols, edges, assignment, county);
+                    move.applyTo(stats, +1);
+                    contiguity.move(i, bestTarget);
+                    boundary.moved(i);
                     currentScore -= bestGain;
                     passMoves++;
                 }
             }
             totalMoves += passMoves;
+            currentScore = obj.score(stats, districts); // drop accumulated rounding
+            monitor.refinePass(pass, maxPasses, passMoves);
             if (passMoves == 0) break; // converged
         }
         return totalMoves;
     }
 
-    private static void shuffle(int[] arr, Random rng) {
-        for (int i = arr.length - 1; i > 0; i--) {
-            int j = rng.nextInt(i + 1);
-            int tmp = arr[i]; arr[i] = arr[j]; arr[j] = tmp;
+    /**
+     * Simulated annealing: {@code schedule.sweeps()} sweeps of random
+     * boundary moves, each accepted by the Metropolis rule at the current
+     * temperature and then only if the source district stays contiguous
+     * and non-empty. The walk may end above the best plan it visited, so
+     * that plan (checked at the end of every sweep) is written back to
+     * {@code assignment}. Follow with {@link #refine} to finish in a local
+     * optimum.
+     *
+     * @return the number of moves accepted.
+     */
+    public static int anneal(int[] assignment, int districts, PrecinctBase base,
+                             Objective obj, Schedule schedule, Random rng,
+                             GenerationMonitor monitor) {
+        Chain chain = new Chain(assignment, districts, base, obj, rng);
+        double uphill = chain.typicalUphill(CALIBRATION_SAMPLES);
+        int moves = 0;
+        for (int sweep = 0; sweep < schedule.sweeps(); sweep++) {
+            int accepted = chain.sweep(schedule.temperature(uphill, sweep, schedule.sweeps()),
+                    monitor);
+            moves += accepted;
+            monitor.refinePass(sweep, schedule.sweeps(), accepted);
         }
+        chain.copyBest(assignment);
+        return moves;
     }
 
-    private static int countAssigned(int[] assignment, int d) {
-        int n = 0;
-        for (int v : assignment) if (v == d) n++;
-        return n;
-    }
-
-    private static void apply(Stats s, int from, int to, Precinct p,
-                              int county, int sign) {
-        if (sign > 0) {
-            s.pop[from] -= p.population(); s.pop[to] += p.population();
-            s.dem[from] -= p.demVotes();   s.dem[to] += p.demVotes();
-            s.rep[from] -= p.repVotes();   s.rep[to] += p.repVotes();
-            s.countyMembership[from][county]--;
-            s.countyMembership[to][county]++;
-            double[] c = p.centroid();
-            s.cxSum[from] -= c[0] * p.population();
-            s.cySum[from] -= c[1] * p.population();
-            s.cxSum[to]   += c[0] * p.population();
-            s.cySum[to]   += c[1] * p.population();
-        } else {
-            // reverse of the +1 path
-            s.pop[from] += p.population(); s.pop[to] -= p.population();
-            s.dem[from] += p.demVotes();   s.dem[to] -= p.demVotes();
-            s.rep[from] += p.repVotes();   s.rep[to] -= p.repVotes();
-            s.countyMembership[from][county]++;
-            s.countyMembership[to][county]--;
-            double[] c = p.centroid();
-            s.cxSum[from] += c[0] * p.population();
-            s.cySum[from] += c[1] * p.population();
-            s.cxSum[to]   -= c[0] * p.population();
-            s.cySum[to]   -= c[1] * p.population();
+    /**
+     * Parallel tempering: {@code replicas} copies of the plan walk at fixed
+     * temperatures spread geometrically over the schedule's range, one sweep
+     * per round on the common pool, for {@code schedule.sweeps()} rounds.
+     * After each round neighbouring temperatures try to swap replicas with
+     * the usual acceptance {@code min(1, exp((1/T_cold − 1/T_hot)(E_cold − E_hot)))},
+     * so good plans drift down to the cold end while hot replicas keep
+     * exploring. The best plan any replica visited is written back to
+     * {@code assignment}.
+     *
+     * <p>Each replica has its own generator seeded from {@code seed}, and
+     * swaps are decided between rounds on the calling thread, so the result
+     * doesn't depend on how many cores run the replicas.
+     *
+     * @return the number of moves accepted over all replicas.
+     */
+    public static int temper(int[] assignment, int districts, PrecinctBase base,
+                             Objective obj, Schedule schedule, int replicas, long seed,
+                             GenerationMonitor monitor) {
+        if (replicas < 1) throw new IllegalArgumentException("replicas must be positive");
+        long[] seeds = AttemptRunner.seeds(seed, replicas + 1);
+        Random swapRng = new Random(seeds[replicas]);
+        Chain[] chains = new Chain[replicas];
+        for (int r = 0; r < replicas; r++) {
+            chains[r] = new Chain(assignment.clone(), districts, base, obj, new Random(seeds[r]));
+        }
+        double uphill = chains[0].typicalUphill(CALIBRATION_SAMPLES);
+        double[] temperature = new double[replicas];
+        for (int k = 0; k < replicas; k++) {
+            temperature[k] = schedule.temperature(uphill, k, replicas);
+        }
+        int[] slot = new int[replicas];        // slot[k] = replica at temperature k
+        for (int k = 0; k < replicas; k++) slot[k] = k;
+        int[] accepted = new int[replicas];
+        boolean parallel = replicas > 1 && AttemptRunner.parallelism() > 1;
+
+        int moves = 0;
+        for (int round = 0; round < schedule.sweeps(); round++) {
+            IntStream work = IntStream.range(0, replicas);
+            if (parallel) work = work.parallel();
+            work.forEach(k -> accepted[slot[k]] = chains[slot[k]].sweep(temperature[k], monitor));
+            int roundMoves = 0;
+            for (int a : accepted) roundMoves += a;
+            moves += roundMoves;
+            // Alternate even and odd pairs so every neighbouring pair gets a chance.
+            for (int k = round & 1; k + 1 < replicas; k += 2) {
+                Chain hot = chains[slot[k]], cold = chains[slot[k + 1]];
+                double log = (1 / temperature[k + 1] - 1 / temperature[k])
+                        * (cold.score - hot.score);
+                if (log >= 0 || swapRng.nextDouble() < Math.exp(log)) {
+                    int t = slot[k]; slot[k] = slot[k + 1]; slot[k + 1] = t;
+                }
+            }
+            monitor.refinePass(round, schedule.sweeps(), roundMoves);
+        }
+
+        Chain best = chains[0];
+        for (Chain c : chains) if (c.bestScore < best.bestScore) best = c;
+        best.copyBest(assignment);
+        return moves;
+    }
+
+    /**
+     * One Metropolis walk over an assignment: the stats, contiguity checker
+     * and boundary set that follow it, plus the best plan seen at a sweep
+     * boundary. Not thread-safe; a tempering run gives each replica its own.
+     */
+    private static final class Chain {
+        private final int[] assignment;
+        private final int districts;
+        private final PrecinctColumns cols;
+        private final SharedEdgeIndex edges;
+        private final int[] county;
+        private final int[][] adj;
+        private final Objective obj;
+        private final Random rng;
+        private final Stats stats;
+        private final ContiguityChecker contiguity;
+        private final BoundarySet boundary;
+        private final Move move = new Move();
+        private double score;
+        private double bestScore;
+        private final int[] best;
+
+        Chain(int[] assignment, int districts, PrecinctBase base, Objective obj, Random rng) {
+            this.assignment = assignment;
+            this.districts = districts;
+            this.cols = base.columns();
+            this.edges = base.edges();
+            this.county = base.county();
+            this.adj = base.adjacency();
+            this.obj = obj;
+            this.rng = rng;
+            this.stats = statsOf(assignment, districts, base);
+            this.contiguity = new ContiguityChecker(adj, assignment, districts);
+            this.boundary = new BoundarySet(adj, assignment);
+            this.score = obj.score(stats, districts);
+            this.bestScore = score;
+            this.best = assignment.clone();
+        }
+
+        /** Median positive score change over {@code samples} proposals, none applied. */
+        double typicalUphill(int samples) {
+            double[] uphill = new double[samples];
+            int count = 0;
+            for (int s = 0; s < samples && boundary.size() > 0; s++) {
+                int i = boundary.get(rng.nextInt(boundary.size()));
+                int t = target(i);
+                if (t < 0) continue;
+                move.set(i, t, cols, edges, assignment, county);
+                double delta = trialDelta(obj, stats, districts, move, score);
+                if (delta > 0) uphill[count++] = delta;
+            }
+            if (count == 0) return MIN_UPHILL;
+            Arrays.sort(uphill, 0, count);
+            return Math.max(uphill[count / 2], MIN_UPHILL);
+        }
+
+        /** One sweep at {@code temperature}; returns the number of accepted moves. */
+        int sweep(double temperature, GenerationMonitor monitor) {
+            int proposals = boundary.size();
+            int accepted = 0;
+            for (int k = 0; k < proposals; k++) {
+                if ((k & CANCEL_CHECK_MASK) == CANCEL_CHECK_MASK) monitor.checkCancelled();
+                int i = boundary.get(rng.nextInt(boundary.size()));
+                int d = assignment[i];
+                int t = target(i);
+                if (t < 0 || contiguity.memberCount(d) <= 1) continue;
+                move.set(i, t, cols, edges, assignment, county);
+                double delta = trialDelta(obj, stats, districts, move, score);
+                // Decide on the score first: the contiguity test is the
+                // dearer half and most uphill proposals are rejected anyway.
+                if ((delta <= 0 || rng.nextDouble() < Math.exp(-delta / temperature))
+                        && contiguity.wouldStayConnectedWithout(i)) {
+                    move.applyTo(stats, +1);
+                    contiguity.move(i, t);
+                    boundary.moved(i);
+                    score += delta;
+                    accepted++;
+                }
+            }
+            score = obj.score(stats, districts); // drop accumulated rounding
+            if (score < bestScore) {
+                bestScore = score;
+                System.arraycopy(assignment, 0, best, 0, best.length);
+            }
+            return accepted;
+        }
+
+        /** Copy the best plan seen at a sweep boundary into {@code out}. */
+        void copyBest(int[] out) {
+            System.arraycopy(best, 0, out, 0, out.length);
+        }
+
+        /**
+         * District of a random cross-district neighbour of {@code i}, or -1
+         * when {@code i} has none.
+         */
+        private int target(int i) {
+            int[] row = adj[i];
+            int d = assignment[i];
+            int start = rng.nextInt(row.length);
+            for (int k = 0; k < row.length; k++) {
+                int t = assignment[row[(start + k) % row.length]];
+                if (t != d) return t;
+            }
+            return -1;
+        }
+    }
+
+    private static boolean contains(int[] arr, int len, int v) {
+        for (int i = 0; i < len; i++) if (arr[i] == v) return true;
+        return false;
+    }
+
+    /** Fisher-Yates shuffle of {@code arr[0, len)}. */
+    private static void shuffle(int[] arr, int len, Random rng) {
+        for (int i = len - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int tmp = arr[i]; arr[i] = arr[j]; arr[j] = tmp;
         }
     }
 }
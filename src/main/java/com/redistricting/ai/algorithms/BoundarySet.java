@@ -0,0 +1,84 @@
+package com.redistricting.ai.algorithms;
+
+/**
+ * The set of precincts that touch a district other than their own, kept
+ * current as precincts move.
+ *
+ * <p>Backed by a dense member array plus a position index, so membership
+ * tests, inserts and removals are O(1) and the members can be copied out
+ * for iteration without boxing. After a precinct moves only it and its
+ * neighbours can change status, so {@link #moved(int)} costs
+ * O(degree²) — independent of the base size.
+ *
+ * <p>Bound to one assignment array; call {@link #moved(int)} after every
+ * write to it. Not thread-safe.
+ */
+final class BoundarySet {
+
+    private final int[][] adj;
+    private final int[] assignment;
+    private final int[] members;
+    private final int[] position;   // index into members, -1 when absent
+    private int size;
+
+    BoundarySet(int[][] adj, int[] assignment) {
+        this.adj = adj;
+        this.assignment = assignment;
+        int n = assignment.length;
+        this.members = new int[n];
+        this.position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[i] = -1;
+            if (isBoundary(i)) add(i);
+        }
+    }
+
+    int size() { return size; }
+
+    boolean contains(int i) { return position[i] >= 0; }
+
+    /** The {@code k}-th member, {@code 0 <= k < size()}; order as for {@link #copyTo}. */
+    int get(int k) { return members[k]; }
+
+    /**
+     * Copy the current members into {@code out} (which must hold at least
+     * {@link #size()} entries) and return the count. The order depends only
+     * on the construction order and the sequence of moves, so a seeded run
+     * stays reproducible.
+     */
+    int copyTo(int[] out) {
+        System.arraycopy(members, 0, out, 0, size);
+        return size;
+    }
+
+    /** Re-evaluate {@code i} and its neighbours after {@code i} changed district. */
+    void moved(int i) {
+        update(i);
+        for (int nb : adj[i]) update(nb);
+    }
+
+    private void update(int i) {
+        boolean boundary = isBoundary(i);
+        if (boundary && position[i] < 0) add(i);
+        else if (!boundary && position[i] >= 0) remove(i);
+    }
+
+    private boolean isBoundary(int i) {
+        int d = assignment[i];
+        for (int nb : adj[i]) if (assignment[nb] != d) return true;
+        return false;
+    }
+
+    private void add(int i) {
+        position[i] = size;
+        members[size++] = i;
+    }
+
+    private void remove(int i) {
+        int at = position[i];
+        int last = members[--size];
+        members[at] = last;
+        position[last] = at;
+        position[i] = -1;
+    }
+}
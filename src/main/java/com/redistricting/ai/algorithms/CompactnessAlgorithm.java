@@ -1,10 +1,10 @@
 package com.redistricting.ai.algorithms;
 
 import com.redistricting.ai.GenerationParams;
-import com.redistricting.model.Precinct;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * <strong>Compactness-focused</strong> redistricting algorithm.
@@ -24,60 +24,109 @@ import java.util.Random;
  *   <li>Pick {@code D} initial seeds with k-means++ farthest-first sampling.</li>
  *   <li>Lloyd iteration: assign each precinct to the nearest seed, then
  *       recompute seeds as the population-weighted centroid of their
- *       assigned precincts. Repeat for up to 20 iterations or until stable.</li>
+ *       assigned precincts. Repeat for up to 20 iterations or until stable.
+ *       Distance bounds skip most precinct–seed comparisons once seeds
+ *       settle.</li>
  *   <li>Population balancing: enforce the population tolerance with greedy
  *       transfers of small boundary precincts from over- to under-populated
  *       districts, keeping contiguity.</li>
  *   <li>Contiguity repair + boundary refinement.</li>
+ *   <li>Half of the {@link GenerationParams#attempts() attempt budget}
+ *       runs the steps above; the other half goes to
+ *       {@link BoundaryRefiner#temper parallel tempering} of the best plan
+ *       (one round per attempt given up), which keeps lowering the score
+ *       after the greedy refinement has stopped, followed by a final
+ *       balance + refine.</li>
  * </ol>
  */
 public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
 
+    /** Replicas in the parallel-tempering polish of the best restart. */
+    private static final int TEMPER_REPLICAS = 4;
+
     @Override public String id() { return "compactness"; }
     @Override public String displayName() { return "Compactness — Lloyd / k-means"; }
     @Override public String description() {
         return "Population-weighted k-means assignment producing geometrically compact "
-             + "districts, then population balancing and a boundary refinement pass. "
+             + "districts, then population balancing, a boundary refinement pass and "
+             + "parallel tempering of the best attempt. "
              + "Best for compactness; ignores partisan goals.";
     }
 
     @Override
-    public int[] assign(PrecinctBase base, GenerationParams params) {
-        Random masterRng = new Random(params.seed());
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
+        BoundaryRefiner.Objective obj = compactnessObjective(base, params);
 
         int[] best = null;
         double bestScore = Double.POSITIVE_INFINITY;
-        BoundaryRefiner.Objective obj = compactnessObjective(base, params);
-
-        for (int attempt = 0; attempt < params.attempts(); attempt++) {
-            long attemptSeed = masterRng.nextLong();
-            int[] assignment = lloyd(base, params, attemptSeed);
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
-            balancePopulations(assignment, base, params);
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
-
-            BoundaryRefiner.refine(assignment, params.districts(), base.precincts(),
-                    base.county(), base.counties(), base.adjacency(), obj,
-                    /*passes*/ 8, new Random(attemptSeed ^ 0xC0DE));
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
-
-            BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
-                    params.districts(), base.precincts(), base.county(), base.counties());
-            double score = obj.score(stats, params.districts());
-            if (score < bestScore) { bestScore = score; best = assignment; }
+        int restarts = (params.attempts() + 1) / 2;
+        for (AttemptRunner.Result r : AttemptRunner.run(params.seed(), restarts,
+                monitor, attemptSeed -> attempt(base, params, obj, monitor, attemptSeed))) {
+            if (r.score() < bestScore) { bestScore = r.score(); best = r.assignment(); }
         }
+        int rounds = params.attempts() - restarts;
+        if (rounds > 0) temper(best, base, params, obj, rounds, monitor);
         return best;
     }
 
+    /** Parallel-tempering polish of the chosen plan, then a greedy finish. */
+    private void temper(int[] assignment, PrecinctBase base, GenerationParams params,
+                        BoundaryRefiner.Objective obj, int rounds, GenerationMonitor monitor) {
+        BoundaryRefiner.temper(assignment, params.districts(), base, obj,
+                new BoundaryRefiner.Schedule(0.3, 1e-3, rounds), TEMPER_REPLICAS,
+                params.seed() ^ 0x7E3DL, monitor);
+        balancePopulations(assignment, base, params, monitor);
+        BoundaryRefiner.refine(assignment, params.districts(), base, obj,
+                /*passes*/ 8, new Random(params.seed() ^ 0xC0DE), monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+    }
+
+    /** One independent Lloyd → balance → refine attempt. */
+    private AttemptRunner.Result attempt(PrecinctBase base, GenerationParams params,
+                                         BoundaryRefiner.Objective obj,
+                                         GenerationMonitor monitor, long attemptSeed) {
+        int[] assignment = lloyd(base, params, attemptSeed, monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+        balancePopulations(assignment, base, params, monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+
+        BoundaryRefiner.refine(assignment, params.districts(), base, obj,
+                /*passes*/ 8, new Random(attemptSeed ^ 0xC0DE), monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
+
+        BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
+                params.districts(), base);
+        return new AttemptRunner.Result(assignment, stats,
+                obj.score(stats, params.districts()));
+    }
+
     // ---------- Lloyd iterations ----------
 
-    private int[] lloyd(PrecinctBase base, GenerationParams p, long seed) {
+    /** Precincts above which the assignment step is split across the common pool. */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int CHUNK = 4096;
+
+    /**
+     * Population-weighted Lloyd iteration with Hamerly's bounds: each
+     * precinct keeps an upper bound on the distance to its own centre and a
+     * lower bound on the distance to any other. When centres move the bounds
+     * are loosened by how far they moved, and a precinct is only compared
+     * against every centre when its upper bound is no longer strictly
+     * below both its lower bound and half the distance from its centre to
+     * the nearest other one. Once centres settle that check skips almost
+     * every precinct, instead of costing O(n·D) per iteration. The skip test
+     * is strict and carries a small margin, and a full comparison breaks
+     * ties like the plain scan, so the assignment matches brute force.
+     */
+    private int[] lloyd(PrecinctBase base, GenerationParams p, long seed,
+                        GenerationMonitor monitor) {
         Random rng = new Random(seed);
-        List<Precinct> precincts = base.precincts();
-        int n = precincts.size();
+        int n = base.size();
         int D = p.districts();
 
         int[] seeds = GeographyUtils.kmeansPlusPlusSeeds(D, n,
@@ -85,45 +134,131 @@ public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
         double[] sx = new double[D];
         double[] sy = new double[D];
         for (int d = 0; d < D; d++) {
-            double[] c = precincts.get(seeds[d]).centroid();
-            sx[d] = c[0]; sy[d] = c[1];
+            sx[d] = base.centroidX(seeds[d]);
+            sy[d] = base.centroidY(seeds[d]);
         }
 
         int[] assignment = new int[n];
+        double[] upper = new double[n];
+        double[] lower = new double[n];
+        Arrays.fill(upper, Double.POSITIVE_INFINITY);
+        double[] half = new double[D];       // half the distance to the nearest other centre
+        double[] moved = new double[D];
+        double margin = 1e-9 * extent(base);
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        boolean[] chunkChanged = new boolean[chunks];
+
         for (int iter = 0; iter < 20; iter++) {
-            boolean changed = false;
-            for (int i = 0; i < n; i++) {
-                double[] c = precincts.get(i).centroid();
-                int bestD = 0;
-                double bestDist = Double.POSITIVE_INFINITY;
-                for (int d = 0; d < D; d++) {
-                    double dx = c[0] - sx[d], dy = c[1] - sy[d];
-                    double dist = dx * dx + dy * dy;
-                    if (dist < bestDist) { bestDist = dist; bestD = d; }
+            monitor.checkCancelled();
+            for (int d = 0; d < D; d++) {
+                double nearest = Double.POSITIVE_INFINITY;
+                for (int e = 0; e < D; e++) {
+                    if (e != d) nearest = Math.min(nearest, Math.hypot(sx[d] - sx[e], sy[d] - sy[e]));
                 }
-                if (assignment[i] != bestD) { assignment[i] = bestD; changed = true; }
+                half[d] = nearest / 2;
             }
+            IntStream work = IntStream.range(0, chunks);
+            if (n >= PARALLEL_THRESHOLD) work = work.parallel();
+            work.forEach(c -> chunkChanged[c] = assignRange(c * CHUNK,
+                    Math.min(n, (c + 1) * CHUNK), base, sx, sy, half, margin,
+                    assignment, upper, lower));
+            boolean changed = false;
+            for (boolean b : chunkChanged) changed |= b;
+
             // Recompute seeds.
             double[] nsx = new double[D];
             double[] nsy = new double[D];
             long[] np = new long[D];
             for (int i = 0; i < n; i++) {
-                Precinct pr = precincts.get(i);
                 int d = assignment[i];
-                double[] c = pr.centroid();
-                nsx[d] += c[0] * pr.population();
-                nsy[d] += c[1] * pr.population();
-                np[d]  += pr.population();
+                int pop = base.population(i);
+                nsx[d] += base.centroidX(i) * pop;
+                nsy[d] += base.centroidY(i) * pop;
+                np[d]  += pop;
             }
+            double maxMove = 0, secondMove = 0;
+            int maxMover = -1;
             for (int d = 0; d < D; d++) {
-                if (np[d] > 0) { sx[d] = nsx[d] / np[d]; sy[d] = nsy[d] / np[d]; }
+                moved[d] = 0;
+                if (np[d] > 0) {
+                    double x = nsx[d] / np[d], y = nsy[d] / np[d];
+                    moved[d] = Math.hypot(x - sx[d], y - sy[d]);
+                    sx[d] = x;
+                    sy[d] = y;
+                }
+                if (moved[d] > maxMove) {
+                    secondMove = maxMove;
+                    maxMove = moved[d];
+                    maxMover = d;
+                } else if (moved[d] > secondMove) {
+                    secondMove = moved[d];
+                }
             }
             if (!changed) break;
+            for (int i = 0; i < n; i++) {
+                int d = assignment[i];
+                upper[i] += moved[d];
+                lower[i] -= d == maxMover ? secondMove : maxMove;
+            }
         }
         ensureAllDistrictsNonEmpty(assignment, D);
         return assignment;
     }
 
+    /**
+     * Lloyd assignment step for precincts {@code [from, to)}; returns
+     * whether any changed centre. Ranges are disjoint, so chunks may run
+     * concurrently.
+     */
+    private static boolean assignRange(int from, int to, PrecinctBase base,
+                                       double[] sx, double[] sy, double[] half,
+                                       double margin, int[] assignment,
+                                       double[] upper, double[] lower) {
+        boolean changed = false;
+        int D = sx.length;
+        for (int i = from; i < to; i++) {
+            int a = assignment[i];
+            double bound = Math.max(half[a], lower[i]) - margin;
+            if (upper[i] < bound) continue;
+            double px = base.centroidX(i), py = base.centroidY(i);
+            upper[i] = Math.hypot(px - sx[a], py - sy[a]);
+            if (upper[i] < bound) continue;
+
+            int bestD = 0;
+            double bestDist = Double.POSITIVE_INFINITY;
+            double secondDist = Double.POSITIVE_INFINITY;
+            for (int d = 0; d < D; d++) {
+                double dx = px - sx[d], dy = py - sy[d];
+                double dist = dx * dx + dy * dy;
+                if (dist < bestDist) {
+                    secondDist = bestDist;
+                    bestDist = dist;
+                    bestD = d;
+                } else if (dist < secondDist) {
+                    secondDist = dist;
+                }
+            }
+            upper[i] = Math.sqrt(bestDist);
+            lower[i] = Math.sqrt(secondDist);
+            if (a != bestD) { assignment[i] = bestD; changed = true; }
+        }
+        return changed;
+    }
+
+    /** Larger side of the precinct centroids' bounding box (1 when degenerate). */
+    private static double extent(PrecinctBase base) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < base.size(); i++) {
+            minX = Math.min(minX, base.centroidX(i));
+            maxX = Math.max(maxX, base.centroidX(i));
+            minY = Math.min(minY, base.centroidY(i));
+            maxY = Math.max(maxY, base.centroidY(i));
+        }
+        double extent = Math.max(maxX - minX, maxY - minY);
+        return extent > 0 ? extent : 1;
+    }
+
     private void ensureAllDistrictsNonEmpty(int[] assignment, int D) {
         boolean[] used = new boolean[D];
         for (int v : assignment) used[v] = true;
@@ -142,18 +277,19 @@ public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
     // ---------- population balancing ----------
 
     private void balancePopulations(int[] assignment, PrecinctBase base,
-                                     GenerationParams p) {
+                                     GenerationParams p, GenerationMonitor monitor) {
         int D = p.districts();
-        List<Precinct> precincts = base.precincts();
         int[][] adj = base.adjacency();
         long total = base.totalPopulation();
         double ideal = (double) total / D;
         double tol = Math.max(0.005, p.populationTolerance());
+        ContiguityChecker contiguity = new ContiguityChecker(adj, assignment, D);
 
         for (int pass = 0; pass < 200; pass++) {
+            monitor.checkCancelled();
             long[] pop = new long[D];
-            for (int i = 0; i < precincts.size(); i++) {
-                pop[assignment[i]] += precincts.get(i).population();
+            for (int i = 0; i < base.size(); i++) {
+                pop[assignment[i]] += base.population(i);
             }
             int over = -1, under = -1;
             double maxOver = 0, maxUnder = 0;
@@ -165,22 +301,22 @@ public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
             if (over == -1 || under == -1) return;
             if (maxOver <= tol && maxUnder <= tol) return;
 
-            int donate = pickDonor(assignment, adj, over, under, precincts);
+            int donate = pickDonor(assignment, adj, over, under, base);
             if (donate == -1) return;
-            if (countAssigned(assignment, over) <= 1) return;
-            if (!GeographyUtils.wouldStayConnectedWithout(donate, assignment, adj)) {
+            if (contiguity.memberCount(over) <= 1) return;
+            if (!contiguity.wouldStayConnectedWithout(donate)) {
                 // try a different boundary precinct
-                int alt = pickDonorIgnoring(assignment, adj, over, under, precincts, donate);
+                int alt = pickDonorIgnoring(assignment, adj, over, under, base, donate);
                 if (alt == -1) return;
-                if (!GeographyUtils.wouldStayConnectedWithout(alt, assignment, adj)) return;
+                if (!contiguity.wouldStayConnectedWithout(alt)) return;
                 donate = alt;
             }
-            assignment[donate] = under;
+            contiguity.move(donate, under);
         }
     }
 
     private int pickDonor(int[] assignment, int[][] adj, int from, int to,
-                          List<Precinct> precincts) {
+                          PrecinctBase base) {
         int best = -1;
         int bestPop = Integer.MAX_VALUE;
         for (int i = 0; i < assignment.length; i++) {
@@ -188,14 +324,14 @@ public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
             boolean touchesTo = false;
             for (int nb : adj[i]) if (assignment[nb] == to) { touchesTo = true; break; }
             if (!touchesTo) continue;
-            int pop = precincts.get(i).population();
+            int pop = base.population(i);
             if (pop < bestPop) { bestPop = pop; best = i; }
         }
         return best;
     }
 
     private int pickDonorIgnoring(int[] assignment, int[][] adj, int from, int to,
-                                  List<Precinct> precincts, int skip) {
+                                  PrecinctBase base, int skip) {
         int best = -1;
         int bestPop = Integer.MAX_VALUE;
         for (int i = 0; i < assignment.length; i++) {
@@ -204,40 +340,51 @@ public final class CompactnessAlgorithm implements RedistrictingAlgorithm {
             boolean touchesTo = false;
             for (int nb : adj[i]) if (assignment[nb] == to) { touchesTo = true; break; }
             if (!touchesTo) continue;
-            int pop = precincts.get(i).population();
+            int pop = base.population(i);
             if (pop < bestPop) { bestPop = pop; best = i; }
         }
         return best;
     }
 
-    private int countAssigned(int[] assignment, int d) {
-        int n = 0;
-        for (int v : assignment) if (v == d) n++;
-        return n;
-    }
-
     // ---------- objective ----------
 
-    private BoundaryRefiner.Objective compactnessObjective(PrecinctBase base,
-                                                            GenerationParams p) {
+    private BoundaryRefiner.DeltaObjective compactnessObjective(PrecinctBase base,
+                                                                 GenerationParams p) {
         long total = base.totalPopulation();
         final double ideal = (double) total / p.districts();
-        final int n = base.precincts().size();
-        return (s, D) -> {
-            double popDev = 0;
-            for (int d = 0; d < D; d++) {
-                popDev = Math.max(popDev, Math.abs(s.pop[d] - ideal) / ideal);
+        final int n = base.size();
+        // König–Huygens: minimising scatter ⇔ maximising Σ pop·||μ||².
+        // We negate that term so this whole expression is "lower-is-better".
+        final double scale = Math.max(1.0, ideal) * Math.max(1, n);
+        return new BoundaryRefiner.DeltaObjective() {
+            @Override
+            public double score(BoundaryRefiner.Stats s, int D) {
+                double inertia = 0;
+                for (int d = 0; d < D; d++) inertia += inertia(s.cxSum[d], s.cySum[d], s.pop[d]);
+                return s.maxPopDeviation(ideal) * 2.0 - inertia / scale;
             }
-            // König–Huygens: minimising scatter ⇔ maximising Σ pop·||μ||².
-            // We negate that term so this whole expression is "lower-is-better".
-            double inertia = 0;
-            for (int d = 0; d < D; d++) {
-                if (s.pop[d] == 0) continue;
-                double mux = s.cxSum[d] / s.pop[d];
-                double muy = s.cySum[d] / s.pop[d];
-                inertia += (mux * mux + muy * muy) * s.pop[d];
+
+            @Override
+            public double delta(BoundaryRefiner.Stats s, int D, BoundaryRefiner.Move m) {
+                int f = m.from(), t = m.to();
+                double inertiaDelta =
+                        inertia(s.cxSum[f] - m.weightedX(), s.cySum[f] - m.weightedY(),
+                                s.pop[f] - m.population())
+                      + inertia(s.cxSum[t] + m.weightedX(), s.cySum[t] + m.weightedY(),
+                                s.pop[t] + m.population())
+                      - inertia(s.cxSum[f], s.cySum[f], s.pop[f])
+                      - inertia(s.cxSum[t], s.cySum[t], s.pop[t]);
+                return (s.maxPopDeviationAfter(m, ideal) - s.maxPopDeviation(ideal)) * 2.0
+                     - inertiaDelta / scale;
             }
-            return popDev * 2.0 - inertia / (Math.max(1.0, ideal) * Math.max(1, n));
         };
     }
+
+    /** pop·||μ||² of a district from its population-weighted centroid sums. */
+    private static double inertia(double cxSum, double cySum, long pop) {
+        if (pop == 0) return 0;
+        double mux = cxSum / pop;
+        double muy = cySum / pop;
+        return (mux * mux + muy * muy) * pop;
+    }
 }
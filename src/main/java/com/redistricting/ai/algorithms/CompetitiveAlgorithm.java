@@ -28,50 +28,65 @@ public final class CompetitiveAlgorithm implements RedistrictingAlgorithm {
     }
 
     @Override
-    public int[] assign(PrecinctBase base, GenerationParams params) {
-        Random masterRng = new Random(params.seed());
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
+        BoundaryRefiner.Objective obj = competitiveObjective(base, params);
 
         int[] best = null;
         double bestScore = Double.POSITIVE_INFINITY;
-        BoundaryRefiner.Objective obj = competitiveObjective(base, params);
+        for (AttemptRunner.Result r : AttemptRunner.run(params.seed(), params.attempts(),
+                monitor, attemptSeed -> attempt(base, params, obj, monitor, attemptSeed))) {
+            if (r.score() < bestScore) { bestScore = r.score(); best = r.assignment(); }
+        }
+        return best;
+    }
 
-        for (int attempt = 0; attempt < params.attempts(); attempt++) {
-            long attemptSeed = masterRng.nextLong();
-            // Build a baseline plan with the compactness algorithm — by passing
-            // a sub-params with attempts=1 we keep wall-time low.
-            int[] assignment = spatial.assign(base, params.withSeed(attemptSeed));
+    private AttemptRunner.Result attempt(PrecinctBase base, GenerationParams params,
+                                         BoundaryRefiner.Objective obj,
+                                         GenerationMonitor monitor, long attemptSeed) {
+        // Build a baseline plan with the compactness algorithm — by passing
+        // a sub-params with attempts=1 we keep wall-time low.
+        int[] assignment = spatial.assign(base, params.withSeed(attemptSeed),
+                monitor.cancellationOnly());
 
-            BoundaryRefiner.refine(assignment, params.districts(), base.precincts(),
-                    base.county(), base.counties(), base.adjacency(), obj,
-                    /*passes*/ 12, new Random(attemptSeed ^ 0xC0FFEE));
-            GeographyUtils.repairContiguity(assignment, base.adjacency(),
-                    params.districts(), 4);
+        BoundaryRefiner.refine(assignment, params.districts(), base, obj,
+                /*passes*/ 12, new Random(attemptSeed ^ 0xC0FFEE), monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(),
+                params.districts(), 4, monitor);
 
-            BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
-                    params.districts(), base.precincts(), base.county(), base.counties());
-            double score = obj.score(stats, params.districts());
-            if (score < bestScore) { bestScore = score; best = assignment; }
-        }
-        return best;
+        BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
+                params.districts(), base);
+        return new AttemptRunner.Result(assignment, stats,
+                obj.score(stats, params.districts()));
     }
 
-    private BoundaryRefiner.Objective competitiveObjective(PrecinctBase base,
-                                                            GenerationParams p) {
+    private BoundaryRefiner.DeltaObjective competitiveObjective(PrecinctBase base,
+                                                                 GenerationParams p) {
         long total = base.totalPopulation();
         final double ideal = (double) total / p.districts();
-        return (s, D) -> {
-            double popDev = 0;
-            double leanSum = 0;
-            for (int d = 0; d < D; d++) {
-                popDev = Math.max(popDev, Math.abs(s.pop[d] - ideal) / ideal);
-                long votes = s.dem[d] + s.rep[d];
-                if (votes > 0) {
-                    double share = (double) s.dem[d] / votes;
-                    leanSum += Math.abs(share - 0.5);
-                }
+        return new BoundaryRefiner.DeltaObjective() {
+            @Override
+            public double score(BoundaryRefiner.Stats s, int D) {
+                double leanSum = 0;
+                for (int d = 0; d < D; d++) leanSum += lean(s.dem[d], s.rep[d]);
+                return 3.0 * s.maxPopDeviation(ideal) + 4.0 * leanSum / D;
+            }
+
+            @Override
+            public double delta(BoundaryRefiner.Stats s, int D, BoundaryRefiner.Move m) {
+                int f = m.from(), t = m.to();
+                double leanDelta = lean(s.dem[f] - m.demVotes(), s.rep[f] - m.repVotes())
+                        + lean(s.dem[t] + m.demVotes(), s.rep[t] + m.repVotes())
+                        - lean(s.dem[f], s.rep[f]) - lean(s.dem[t], s.rep[t]);
+                return 3.0 * (s.maxPopDeviationAfter(m, ideal) - s.maxPopDeviation(ideal))
+                     + 4.0 * leanDelta / D;
             }
-            double leanAvg = leanSum / D;
-            return 3.0 * popDev + 4.0 * leanAvg;
         };
     }
+
+    /** Distance of a district's two-party Dem share from 50%; 0 without votes. */
+    private static double lean(long dem, long rep) {
+        long votes = dem + rep;
+        return votes > 0 ? Math.abs((double) dem / votes - 0.5) : 0;
+    }
 }
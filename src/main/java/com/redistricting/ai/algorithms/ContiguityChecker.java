@@ -0,0 +1,145 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Reusable "can this precinct leave its district without splitting it?"
+ * test for the local-search loops, bound to one assignment array.
+ *
+ * <p>Removing precinct {@code idx} from district {@code d} keeps {@code d}
+ * connected iff all of {@code idx}'s neighbours in {@code d} can still reach
+ * one another without passing through {@code idx}. The check runs in two
+ * stages:
+ * <ol>
+ *   <li><strong>Neighbour ring.</strong> Search only the precincts within
+ *       two hops of {@code idx}. On planar precinct maps the same-district
+ *       neighbours are almost always linked around {@code idx} through this
+ *       ring, so most queries finish after a few dozen array reads.</li>
+ *   <li><strong>Bounded BFS.</strong> Otherwise search the whole district,
+ *       stopping as soon as every same-district neighbour has been
+ *       reached.</li>
+ * </ol>
+ * Neither stage allocates: the queue is a reusable {@code int[]} and the
+ * visited / ring / target marks are epoch stamps, so "clearing" them is a
+ * counter increment.
+ *
+ * <p>The checker also keeps per-district member counts. Route moves through
+ * {@link #move(int, int)} to keep them current; writing to the assignment
+ * array directly is fine for callers that only use the connectivity test.
+ * Not thread-safe — use one checker per attempt.
+ */
+public final class ContiguityChecker {
+
+    private final int[][] adj;
+    private final int[] assignment;
+    private final int[] members;
+
+    private final int[] queue;
+    private final int[] targetStamp;  // same-district neighbours of the query precinct
+    private final int[] ringStamp;    // precincts within two hops of it
+    private final int[] visitStamp;
+    private int queryEpoch;
+    private int visitEpoch;
+
+    public ContiguityChecker(int[][] adj, int[] assignment, int districts) {
+        this.adj = adj;
+        this.assignment = assignment;
+        this.members = new int[districts];
+        for (int d : assignment) if (d >= 0) members[d]++;
+        int n = assignment.length;
+        this.queue = new int[n];
+        this.targetStamp = new int[n];
+        this.ringStamp = new int[n];
+        this.visitStamp = new int[n];
+    }
+
+    /** Number of precincts currently assigned to district {@code d}. */
+    public int memberCount(int d) { return members[d]; }
+
+    /** Reassign {@code idx} to district {@code to}, keeping member counts current. */
+    public void move(int idx, int to) {
+        members[assignment[idx]]--;
+        members[to]++;
+        assignment[idx] = to;
+    }
+
+    /**
+     * Returns {@code true} iff removing precinct {@code idx} from its
+     * district leaves the rest of the district that touches {@code idx}
+     * connected. {@code false} when {@code idx} has no neighbour in its own
+     * district (it is the whole district, or an island).
+     */
+    public boolean wouldStayConnectedWithout(int idx) {
+        return check(idx, false);
+    }
+
+    private boolean check(int idx, boolean ringOnly) {
+        int d = assignment[idx];
+        nextQueryEpoch();
+        int start = -1;
+        int need = 0;
+        for (int nb : adj[idx]) {
+            if (assignment[nb] == d && targetStamp[nb] != queryEpoch) {
+                targetStamp[nb] = queryEpoch;
+                if (start == -1) start = nb;
+                need++;
+            }
+        }
+        if (need == 0) return false;
+        if (need == 1) return true;
+
+        for (int nb : adj[idx]) {
+            ringStamp[nb] = queryEpoch;
+            for (int nb2 : adj[nb]) ringStamp[nb2] = queryEpoch;
+        }
+        return reachesAll(idx, d, start, need, true)
+                || (!ringOnly && reachesAll(idx, d, start, need, false));
+    }
+
+    /**
+     * Stage one of {@link #wouldStayConnectedWithout} alone: {@code true}
+     * means removing {@code idx} certainly keeps its district connected,
+     * {@code false} only that the neighbour ring can't prove it. Cost is
+     * bounded by the two-hop neighbourhood, independent of district size.
+     */
+    public boolean locallyRemovable(int idx) {
+        return check(idx, true);
+    }
+
+    /** BFS from {@code start} over {@code d} minus {@code skip} until {@code need} targets are seen. */
+    private boolean reachesAll(int skip, int d, int start, int need, boolean ringOnly) {
+        nextVisitEpoch();
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        visitStamp[start] = visitEpoch;
+        int found = 1;
+        while (head < tail) {
+            int cur = queue[head++];
+            for (int nb : adj[cur]) {
+                if (nb == skip || assignment[nb] != d || visitStamp[nb] == visitEpoch) continue;
+                if (ringOnly && ringStamp[nb] != queryEpoch) continue;
+                visitStamp[nb] = visitEpoch;
+                if (targetStamp[nb] == queryEpoch && ++found == need) return true;
+                queue[tail++] = nb;
+            }
+        }
+        return false;
+    }
+
+    private void nextQueryEpoch() {
+        if (queryEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(targetStamp, 0);
+            Arrays.fill(ringStamp, 0);
+            queryEpoch = 0;
+        }
+        queryEpoch++;
+    }
+
+    private void nextVisitEpoch() {
+        if (visitEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            visitEpoch = 0;
+        }
+        visitEpoch++;
+    }
+}
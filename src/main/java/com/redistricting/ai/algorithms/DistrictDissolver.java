@@ -0,0 +1,370 @@
+package com.redistricting.ai.algorithms;
+
+import com.redistricting.model.Precinct;
+import com.redistricting.model.RedistrictingMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dissolves precinct polygons into district outlines by shared-edge
+ * matching, with the same edge identity as {@link SharedEdgeIndex}: two
+ * ring edges are one edge when their endpoints coincide (within
+ * {@link SharedEdgeIndex#TOLERANCE}).
+ *
+ * <p>Construction walks every precinct ring once, counter-clockwise, and
+ * pairs each directed edge with its opposite-direction twin from the
+ * neighbouring precinct. That topology depends only on geometry, so one
+ * dissolver serves any number of plans over the same base.
+ * {@link #dissolve} then keeps the edges whose twin is missing (state
+ * border) or lies in another district and chains them into closed rings,
+ * taking the sharpest left turn wherever a district touches itself at a
+ * single vertex and splitting a ring wherever it comes back to a vertex, so
+ * every ring is simple. Outer rings come out counter-clockwise and holes
+ * clockwise, as RFC 7946 asks; each hole is attached to the smallest outer
+ * ring of its district that contains it.
+ *
+ * <p>Precinct holes are not modelled (see {@link Precinct}), so a precinct
+ * lying inside another one's hole stays an overlapping ring of its own.
+ * A dissolver is immutable, so {@link #dissolve} may run concurrently.
+ */
+public final class DistrictDissolver {
+
+    private final int[] owner;      // per half-edge: precinct
+    private final int[] from, to;   // per half-edge: vertex ids, ring walked counter-clockwise
+    private final int[] twin;       // per half-edge: opposite-direction match, or -1
+    private final double[] vx, vy;  // per vertex id: first coordinate seen
+    private final int precincts;
+
+    private DistrictDissolver(int[] owner, int[] from, int[] to, int[] twin,
+                              double[] vx, double[] vy, int precincts) {
+        this.owner = owner;
+        this.from = from;
+        this.to = to;
+        this.twin = twin;
+        this.vx = vx;
+        this.vy = vy;
+        this.precincts = precincts;
+    }
+
+    /** Build the edge topology of a flattened precinct store. */
+    public static DistrictDissolver of(PrecinctColumns cols) {
+        int n = cols.size();
+        int vertices = cols.vertexCount();
+        KeyTable vertexIds = new KeyTable(vertices);
+        KeyTable edgeIds = new KeyTable(vertices);
+        double[] vx = new double[vertices], vy = new double[vertices];
+        int[] owner = new int[vertices], from = new int[vertices], to = new int[vertices];
+        int[] twin = new int[vertices];
+        int[] firstHalf = new int[vertices]; // per edge id
+        int h = 0;
+
+        for (int i = 0; i < n; i++) {
+            for (int r = cols.firstRing(i); r < cols.firstRing(i + 1); r++) {
+                int start = cols.ringVertexStart(r), end = cols.ringVertexStart(r + 1);
+                int len = end - start;
+                if (len < 3) continue;
+                boolean ccw = signedArea(cols, start, end) >= 0;
+                int first = -1, prev = -1;
+                for (int k = 0; k <= len; k++) {
+                    int v = k == len ? first : vertexId(cols, ccw ? start + k : end - 1 - k,
+                            vertexIds, vx, vy);
+                    if (k == 0) first = v;
+                    if (k > 0 && v != prev) {
+                        owner[h] = i;
+                        from[h] = prev;
+                        to[h] = v;
+                        twin[h] = -1;
+                        int before = edgeIds.size();
+                        int e = edgeIds.idOf(Math.min(prev, v), Math.max(prev, v));
+                        if (e == before) {
+                            firstHalf[e] = h;
+                        } else {
+                            int f = firstHalf[e];
+                            if (twin[f] < 0 && from[f] == v) {
+                                twin[f] = h;
+                                twin[h] = f;
+                            }
+                        }
+                        h++;
+                    }
+                    prev = v;
+                }
+            }
+        }
+        int v = vertexIds.size();
+        return new DistrictDissolver(Arrays.copyOf(owner, h), Arrays.copyOf(from, h),
+                Arrays.copyOf(to, h), Arrays.copyOf(twin, h),
+                Arrays.copyOf(vx, v), Arrays.copyOf(vy, v), n);
+    }
+
+    /** Build the topology of {@code map}'s precincts and dissolve its current assignment. */
+    public static DistrictOutlines dissolve(RedistrictingMap map) {
+        List<Precinct> ps = map.precincts();
+        int[] assignment = new int[ps.size()];
+        for (int i = 0; i < assignment.length; i++) assignment[i] = ps.get(i).district();
+        return of(PrecinctColumns.of(ps)).dissolve(assignment, map.districtCount());
+    }
+
+    public int size() { return precincts; }
+
+    /** Outline every district of {@code assignment} (values in {@code [0, districts)}). */
+    public DistrictOutlines dissolve(int[] assignment, int districts) {
+        if (assignment.length != precincts) {
+            throw new IllegalArgumentException("assignment size mismatch");
+        }
+        for (int d : assignment) {
+            if (d < 0 || d >= districts) throw new IllegalArgumentException("district " + d + " out of range");
+        }
+        int halves = owner.length;
+        int[] across = new int[halves];
+        int[] outStart = new int[vx.length + 1];
+        for (int h = 0; h < halves; h++) {
+            int t = twin[h];
+            across[h] = t < 0 ? -1 : assignment[owner[t]];
+            if (across[h] != assignment[owner[h]]) outStart[from[h] + 1]++;
+        }
+        for (int v = 0; v < vx.length; v++) outStart[v + 1] += outStart[v];
+        int[] out = new int[outStart[vx.length]];
+        int[] fill = Arrays.copyOf(outStart, vx.length);
+        for (int h = 0; h < halves; h++) {
+            if (across[h] != assignment[owner[h]]) out[fill[from[h]]++] = h;
+        }
+
+        List<List<Ring>> rings = new ArrayList<>(districts);
+        for (int d = 0; d < districts; d++) rings.add(new ArrayList<>());
+        boolean[] used = new boolean[halves];
+        int[] walkAt = new int[vx.length];  // position of each vertex in the current walk
+        Arrays.fill(walkAt, -1);
+        IntBuffer walk = new IntBuffer();
+        for (int k = 0; k < out.length; k++) {
+            int start = out[k];
+            if (used[start]) continue;
+            int d = assignment[owner[start]];
+            walk.clear();
+            used[start] = true;
+            int cur = start;
+            while (true) {
+                int at = walkAt[from[cur]];
+                if (at >= 0) {
+                    // Back at a vertex already on this walk: the loop since is a
+                    // ring of its own, so every emitted ring is simple.
+                    addRing(rings.get(d), walk, at, across, walkAt);
+                }
+                walkAt[from[cur]] = walk.size;
+                walk.add(cur);
+                int next = nextEdge(cur, start, d, assignment, outStart, out, used);
+                if (next < 0 || next == start) break;
+                used[next] = true;
+                cur = next;
+            }
+            addRing(rings.get(d), walk, 0, across, walkAt);
+        }
+        return assemble(rings);
+    }
+
+    /**
+     * Outgoing boundary edge of district {@code d} that continues the ring
+     * after {@code cur}: the only candidate, or at a pinch vertex the one
+     * turning furthest left, which stays in the corner of the district the
+     * ring arrived through.
+     */
+    private int nextEdge(int cur, int start, int d, int[] assignment,
+                         int[] outStart, int[] out, boolean[] used) {
+        int v = to[cur];
+        int best = -1, candidates = 0;
+        for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+            int h = out[k];
+            if ((used[h] && h != start) || assignment[owner[h]] != d) continue;
+            if (candidates++ == 0) best = h;
+        }
+        if (candidates < 2) return best;
+        double inX = vx[v] - vx[from[cur]], inY = vy[v] - vy[from[cur]];
+        double bestTurn = Double.NEGATIVE_INFINITY;
+        for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+            int h = out[k];
+            if ((used[h] && h != start) || assignment[owner[h]] != d) continue;
+            double outX = vx[to[h]] - vx[v], outY = vy[to[h]] - vy[v];
+            double turn = Math.atan2(inX * outY - inY * outX, inX * outX + inY * outY);
+            if (turn > bestTurn) {
+                bestTurn = turn;
+                best = h;
+            }
+        }
+        return best;
+    }
+
+    /** Move {@code walk[lo..)} into {@code rings} as one ring, dropping it from the walk. */
+    private void addRing(List<Ring> rings, IntBuffer walk, int lo, int[] across, int[] walkAt) {
+        Ring ring = ring(walk.data, lo, walk.size, across);
+        if (ring != null) rings.add(ring);
+        for (int k = lo; k < walk.size; k++) walkAt[from[walk.data[k]]] = -1;
+        walk.size = lo;
+    }
+
+    /**
+     * The ring traced by half-edges {@code edges[lo..hi)}, without vertices
+     * that sit exactly on a straight run between two edges facing the same
+     * district; null when nothing with area is left.
+     */
+    private Ring ring(int[] edges, int lo, int hi, int[] across) {
+        int n = hi - lo;
+        int corner = -1;
+        for (int k = 0; k < n && corner < 0; k++) {
+            if (!straight(edges[lo + (k + n - 1) % n], edges[lo + k], across)) corner = k;
+        }
+        if (corner < 0) return null;
+        double[] xy = new double[2 * n];
+        int[] side = new int[n];
+        int m = 0;
+        int prev = -1; // last half-edge of the current straight run
+        for (int j = 0; j < n; j++) {
+            int h = edges[lo + (corner + j) % n];
+            if (j > 0 && straight(prev, h, across)) {
+                prev = h;   // the kept vertex's edge runs on through this one
+                continue;
+            }
+            xy[2 * m] = vx[from[h]];
+            xy[2 * m + 1] = vy[from[h]];
+            side[m++] = across[h];
+            prev = h;
+        }
+        if (m < 3) return null;
+        return new Ring(Arrays.copyOf(xy, 2 * m), Arrays.copyOf(side, m));
+    }
+
+    /**
+     * Whether the vertex where edge {@code a} meets edge {@code b} can be
+     * dropped: the same district across both, exactly collinear, and
+     * pointing the same way.
+     */
+    private boolean straight(int a, int b, int[] across) {
+        if (across[a] != across[b]) return false;
+        int p = from[b];
+        double x1 = vx[p] - vx[from[a]], y1 = vy[p] - vy[from[a]];
+        double x2 = vx[to[b]] - vx[p], y2 = vy[to[b]] - vy[p];
+        return x1 * y2 - y1 * x2 == 0 && x1 * x2 + y1 * y2 > 0;
+    }
+
+    /** Pair holes with their outer rings and flatten everything into an outline store. */
+    private static DistrictOutlines assemble(List<List<Ring>> rings) {
+        int districts = rings.size();
+        DistrictOutlines.Builder b = new DistrictOutlines.Builder(districts);
+        for (int d = 0; d < districts; d++) {
+            List<Ring> outers = new ArrayList<>();
+            List<Ring> holes = new ArrayList<>();
+            for (Ring r : rings.get(d)) {
+                if (r.area > 0) outers.add(r);
+                else if (r.area < 0) holes.add(r);
+            }
+            outers.sort((x, y) -> Double.compare(x.area, y.area));
+            List<List<Ring>> holesOf = new ArrayList<>(outers.size());
+            for (int k = 0; k < outers.size(); k++) holesOf.add(new ArrayList<>());
+            IntBuffer candidates = new IntBuffer();
+            for (Ring hole : holes) {
+                double px = (hole.xy[0] + hole.xy[2]) / 2, py = (hole.xy[1] + hole.xy[3]) / 2;
+                candidates.clear();
+                for (int k = 0; k < outers.size(); k++) {
+                    if (outers.get(k).boxContains(px, py)) candidates.add(k);
+                }
+                // Smallest first; the last box left must be the one (a full
+                // ring test against a district's main outline is the costly part).
+                for (int c = 0; c < candidates.size; c++) {
+                    int k = candidates.get(c);
+                    if (c == candidates.size - 1 || outers.get(k).contains(px, py)) {
+                        holesOf.get(k).add(hole);
+                        break;
+                    }
+                }
+            }
+            for (int k = 0; k < outers.size(); k++) {
+                b.ring(outers.get(k).xy, outers.get(k).side, true);
+                for (Ring hole : holesOf.get(k)) b.ring(hole.xy, hole.side, false);
+            }
+            b.endDistrict();
+        }
+        return b.build();
+    }
+
+    // -------- construction helpers -----------------------------------------
+
+    private static long quantise(double c) { return Math.round(c / SharedEdgeIndex.TOLERANCE); }
+
+    private static int vertexId(PrecinctColumns cols, int v, KeyTable ids, double[] vx, double[] vy) {
+        int before = ids.size();
+        double x = cols.vertexX(v), y = cols.vertexY(v);
+        int id = ids.idOf(quantise(x), quantise(y));
+        if (id == before) {
+            vx[id] = x;
+            vy[id] = y;
+        }
+        return id;
+    }
+
+    private static double signedArea(PrecinctColumns cols, int start, int end) {
+        double sum = 0;
+        for (int v = start; v < end; v++) {
+            int w = v + 1 == end ? start : v + 1;
+            sum += cols.vertexX(v) * cols.vertexY(w) - cols.vertexX(w) * cols.vertexY(v);
+        }
+        return sum / 2;
+    }
+
+    /** One traced ring: open vertex list, plus the district across each edge. */
+    private static final class Ring {
+        final double[] xy;
+        final int[] side;
+        final double area;
+        final double minX, minY, maxX, maxY;
+
+        Ring(double[] xy, int[] side) {
+            this.xy = xy;
+            this.side = side;
+            int n = side.length;
+            double sum = 0;
+            double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < n; k++) {
+                int j = k + 1 == n ? 0 : k + 1;
+                double x = xy[2 * k], y = xy[2 * k + 1];
+                sum += x * xy[2 * j + 1] - xy[2 * j] * y;
+                x0 = Math.min(x0, x); x1 = Math.max(x1, x);
+                y0 = Math.min(y0, y); y1 = Math.max(y1, y);
+            }
+            this.area = sum / 2;
+            this.minX = x0; this.minY = y0; this.maxX = x1; this.maxY = y1;
+        }
+
+        boolean boxContains(double px, double py) {
+            return px >= minX && px <= maxX && py >= minY && py <= maxY;
+        }
+
+        /** Even-odd point-in-ring test. */
+        boolean contains(double px, double py) {
+            if (!boxContains(px, py)) return false;
+            boolean inside = false;
+            int n = side.length;
+            for (int k = 0, j = n - 1; k < n; j = k++) {
+                double xk = xy[2 * k], yk = xy[2 * k + 1];
+                double xj = xy[2 * j], yj = xy[2 * j + 1];
+                if ((yk > py) != (yj > py) && px < (xj - xk) * (py - yk) / (yj - yk) + xk) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+
+    private static final class IntBuffer {
+        int[] data = new int[256];
+        int size;
+
+        void clear() { size = 0; }
+        int get(int k) { return data[k]; }
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+    }
+}
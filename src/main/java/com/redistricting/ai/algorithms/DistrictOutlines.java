@@ -0,0 +1,116 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Dissolved district geometry produced by {@link DistrictDissolver}: for
+ * every district a list of polygons, each an outer ring followed by its
+ * holes. Stored flat in the same layout as {@link PrecinctColumns}.
+ *
+ * <p>Layout: district {@code d} owns polygons
+ * {@code [polygonStart(d), polygonStart(d + 1))}; polygon {@code p} owns
+ * rings {@code [firstRing(p), firstRing(p + 1))}, the first being the outer
+ * ring; ring {@code r} owns vertices
+ * {@code [ringVertexStart(r), ringVertexStart(r + 1))}. Rings are open (the
+ * first vertex is not repeated). The edge from vertex {@code v} to the next
+ * vertex of its ring separates the district from {@link #across(int)}.
+ */
+public final class DistrictOutlines {
+
+    private final double[] xy;
+    private final int[] across;              // per vertex: district across the outgoing edge, -1 outside
+    private final int[] ringStart;           // size == rings + 1, in vertices
+    private final int[] polygonRingStart;    // size == polygons + 1, in rings
+    private final int[] districtPolygonStart; // size == districts + 1, in polygons
+    private final double[] area;
+    private final double[] perimeter;
+
+    private DistrictOutlines(double[] xy, int[] across, int[] ringStart, int[] polygonRingStart,
+                             int[] districtPolygonStart, double[] area, double[] perimeter) {
+        this.xy = xy;
+        this.across = across;
+        this.ringStart = ringStart;
+        this.polygonRingStart = polygonRingStart;
+        this.districtPolygonStart = districtPolygonStart;
+        this.area = area;
+        this.perimeter = perimeter;
+    }
+
+    public int districts() { return districtPolygonStart.length - 1; }
+
+    public int polygonStart(int d) { return districtPolygonStart[d]; }
+    public int firstRing(int p) { return polygonRingStart[p]; }
+    public int ringVertexStart(int r) { return ringStart[r]; }
+    public int vertexCount() { return across.length; }
+    public double vertexX(int v) { return xy[2 * v]; }
+    public double vertexY(int v) { return xy[2 * v + 1]; }
+
+    /** District on the other side of the edge leaving {@code v}; -1 on the outer border. */
+    public int across(int v) { return across[v]; }
+
+    /** Area of district {@code d}: its outer rings less their holes. */
+    public double area(int d) { return area[d]; }
+
+    /** Length of every ring of district {@code d}, which is its exact perimeter. */
+    public double perimeter(int d) { return perimeter[d]; }
+
+    /** Accumulates rings district by district, in order. */
+    static final class Builder {
+        private double[] xy = new double[1024];
+        private int[] across = new int[512];
+        private int[] ringStart = new int[64];
+        private int[] polygonRingStart = new int[64];
+        private final int[] districtPolygonStart;
+        private final double[] area, perimeter;
+        private int vertices, rings, polygons, district;
+
+        Builder(int districts) {
+            districtPolygonStart = new int[districts + 1];
+            area = new double[districts];
+            perimeter = new double[districts];
+        }
+
+        /** Append a ring (open, {@code side.length} vertices) to the current district. */
+        void ring(double[] ringXy, int[] side, boolean outer) {
+            int n = side.length;
+            if (outer) {
+                if (polygons + 1 >= polygonRingStart.length) {
+                    polygonRingStart = Arrays.copyOf(polygonRingStart, polygonRingStart.length * 2);
+                }
+                polygonRingStart[polygons++] = rings;
+            }
+            if (rings + 1 >= ringStart.length) ringStart = Arrays.copyOf(ringStart, ringStart.length * 2);
+            if (vertices + n > across.length) {
+                int cap = Math.max(across.length * 2, vertices + n);
+                across = Arrays.copyOf(across, cap);
+                xy = Arrays.copyOf(xy, 2 * cap);
+            }
+            ringStart[rings++] = vertices;
+            System.arraycopy(ringXy, 0, xy, 2 * vertices, 2 * n);
+            System.arraycopy(side, 0, across, vertices, n);
+            double twiceArea = 0, length = 0;
+            for (int k = 0; k < n; k++) {
+                int j = k + 1 == n ? 0 : k + 1;
+                double x = ringXy[2 * k], y = ringXy[2 * k + 1];
+                double nx = ringXy[2 * j], ny = ringXy[2 * j + 1];
+                twiceArea += x * ny - nx * y;
+                length += Math.hypot(nx - x, ny - y);
+            }
+            area[district] += twiceArea / 2;   // holes are clockwise, so negative
+            perimeter[district] += length;
+            vertices += n;
+        }
+
+        void endDistrict() {
+            districtPolygonStart[++district] = polygons;
+        }
+
+        DistrictOutlines build() {
+            ringStart[rings] = vertices;
+            polygonRingStart[polygons] = rings;
+            return new DistrictOutlines(Arrays.copyOf(xy, 2 * vertices), Arrays.copyOf(across, vertices),
+                    Arrays.copyOf(ringStart, rings + 1), Arrays.copyOf(polygonRingStart, polygons + 1),
+                    districtPolygonStart, area, perimeter);
+        }
+    }
+}
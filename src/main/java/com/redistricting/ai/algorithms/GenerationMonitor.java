@@ -0,0 +1,61 @@
+package com.redistricting.ai.algorithms;
+
+/**
+ * Hooks a long-running generation exposes to whoever started it: a
+ * cooperative cancellation check plus progress callbacks.
+ *
+ * <p>Algorithms poll {@link #checkCancelled()} at natural boundaries
+ * (between attempts, between refinement passes, every few hundred
+ * precincts inside a pass), so a cancelled run stops within milliseconds
+ * and frees its cores instead of running to completion in the background.
+ * Cancellation surfaces as a {@link CancelledException} thrown out of
+ * {@link RedistrictingAlgorithm#assign(PrecinctBase,
+ * com.redistricting.ai.GenerationParams, GenerationMonitor) assign}.
+ *
+ * <p>Callbacks may arrive on any thread — attempts run in parallel on the
+ * common pool — so implementations must be thread-safe and cheap. Every
+ * method has a no-op default; {@link #NONE} is the monitor used when the
+ * caller doesn't care.
+ */
+public interface GenerationMonitor {
+
+    /** Monitor that never cancels and ignores all progress. */
+    GenerationMonitor NONE = new GenerationMonitor() {};
+
+    /** Thrown from inside a generator once {@link #isCancelled()} turns true. */
+    final class CancelledException extends RuntimeException {
+        public CancelledException() { super("generation cancelled"); }
+    }
+
+    /** Whether the caller has asked the run to stop. Polled frequently. */
+    default boolean isCancelled() { return false; }
+
+    /** Throw {@link CancelledException} if the run has been cancelled. */
+    default void checkCancelled() {
+        if (isCancelled()) throw new CancelledException();
+    }
+
+    /** {@code completed} of {@code attempts} independent attempts have finished. */
+    default void attemptCompleted(int completed, int attempts) {}
+
+    /** A boundary-refinement pass finished, committing {@code moves} moves. */
+    default void refinePass(int pass, int maxPasses, int moves) {}
+
+    /**
+     * A finished attempt beat every attempt completed before it.
+     * {@code assignment} is a private copy the monitor may keep.
+     */
+    default void bestSoFar(int[] assignment, double score) {}
+
+    /**
+     * A monitor that forwards only the cancellation check. Used when one
+     * algorithm runs another as a sub-step, so the inner run stops with
+     * the outer one without reporting its own attempts as progress.
+     */
+    default GenerationMonitor cancellationOnly() {
+        GenerationMonitor outer = this;
+        return new GenerationMonitor() {
+            @Override public boolean isCancelled() { return outer.isCancelled(); }
+        };
+    }
+}
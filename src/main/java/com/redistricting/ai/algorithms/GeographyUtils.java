@@ -3,14 +3,10 @@ package com.redistricting.ai.algorithms;
 import com.redistricting.ai.GenerationParams;
 import com.redistricting.model.Precinct;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * Shared low-level building blocks used by every {@link RedistrictingAlgorithm}.
@@ -123,43 +119,18 @@ public final class GeographyUtils {
     // ---------- BFS / contiguity ------------------------------------------
 
     /**
-     * Returns {@code true} iff removing precinct {@code idx} from district
-     * {@code d} would leave the remaining members connected. Used as a
-     * cheap "safe to swap" test by the local-search refiner.
+     * Returns {@code true} iff removing precinct {@code idx} from its
+     * district would leave the remaining members it touches connected.
+     *
+     * <p>One-off convenience: allocates a {@link ContiguityChecker} per call.
+     * Loops that ask repeatedly should hold a checker instead.
      */
     public static boolean wouldStayConnectedWithout(int idx, int[] assignment,
                                                      int[][] adj) {
-        int d = assignment[idx];
-        int start = -1;
-        int count = 0;
-        for (int nb : adj[idx]) {
-            if (assignment[nb] == d) {
-                if (start == -1) start = nb;
-                count++;
-            }
-        }
-        if (count == 0) return false;          // would leave district empty of neighbours
-        if (count == 1) return true;           // one neighbour remains → trivially fine
-
-        // BFS from `start` over members of d, skipping `idx`.
-        Deque<Integer> q = new ArrayDeque<>();
-        Set<Integer> seen = new HashSet<>();
-        q.add(start);
-        seen.add(start);
-        int reached = 0;
-        while (!q.isEmpty()) {
-            int cur = q.poll();
-            reached++;
-            for (int nb : adj[cur]) {
-                if (nb == idx) continue;
-                if (assignment[nb] != d) continue;
-                if (seen.add(nb)) q.add(nb);
-            }
-        }
-        // Compare to total members minus the one we're removing.
-        int total = 0;
-        for (int v : assignment) if (v == d) total++;
-        return reached == total - 1;
+        int districts = 0;
+        for (int d : assignment) districts = Math.max(districts, d + 1);
+        return new ContiguityChecker(adj, assignment, districts)
+                .wouldStayConnectedWithout(idx);
     }
 
     /**
@@ -168,30 +139,37 @@ public final class GeographyUtils {
      * iff exactly one component exists.
      */
     public static int[] componentSizes(int d, int[] assignment, int[][] adj) {
+        return componentSizes(d, assignment, AdjacencyGraph.of(adj));
+    }
+
+    /** As above over a CSR graph: the BFS walks flat arrays with an {@code int[]} queue. */
+    public static int[] componentSizes(int d, int[] assignment, AdjacencyGraph graph) {
         int n = assignment.length;
+        int[] offsets = graph.offsets();
+        int[] neighbours = graph.neighbours();
         boolean[] seen = new boolean[n];
-        List<Integer> sizes = new ArrayList<>();
+        int[] queue = new int[n];
+        int[] sizes = new int[4];
+        int count = 0;
         for (int i = 0; i < n; i++) {
             if (assignment[i] != d || seen[i]) continue;
-            int size = 0;
-            Deque<Integer> q = new ArrayDeque<>();
-            q.add(i);
+            int head = 0, tail = 0;
+            queue[tail++] = i;
             seen[i] = true;
-            while (!q.isEmpty()) {
-                int cur = q.poll();
-                size++;
-                for (int nb : adj[cur]) {
+            while (head < tail) {
+                int cur = queue[head++];
+                for (int k = offsets[cur]; k < offsets[cur + 1]; k++) {
+                    int nb = neighbours[k];
                     if (assignment[nb] == d && !seen[nb]) {
                         seen[nb] = true;
-                        q.add(nb);
+                        queue[tail++] = nb;
                     }
                 }
             }
-            sizes.add(size);
+            if (count == sizes.length) sizes = Arrays.copyOf(sizes, count * 2);
+            sizes[count++] = tail;
         }
-        int[] out = new int[sizes.size()];
-        for (int i = 0; i < sizes.size(); i++) out[i] = sizes.get(i);
-        return out;
+        return Arrays.copyOf(sizes, count);
     }
 
     /**
@@ -202,62 +180,240 @@ public final class GeographyUtils {
      */
     public static void repairContiguity(int[] assignment, int[][] adj,
                                         int districts, int maxPasses) {
-        for (int pass = 0; pass < maxPasses; pass++) {
-            boolean changed = false;
-            for (int d = 0; d < districts; d++) {
-                int[] sizes = componentSizes(d, assignment, adj);
-                if (sizes.length <= 1) continue;
-                // Find the largest component → keep. All others are reassigned.
-                int largestSize = 0;
-                int largestStart = -1;
-                int n = assignment.length;
-                boolean[] seen = new boolean[n];
-                List<int[]> components = new ArrayList<>();
-                for (int i = 0; i < n; i++) {
-                    if (assignment[i] != d || seen[i]) continue;
-                    List<Integer> bag = new ArrayList<>();
-                    Deque<Integer> q = new ArrayDeque<>();
-                    q.add(i);
-                    seen[i] = true;
-                    while (!q.isEmpty()) {
-                        int cur = q.poll();
-                        bag.add(cur);
-                        for (int nb : adj[cur]) {
-                            if (assignment[nb] == d && !seen[nb]) {
-                                seen[nb] = true;
-                                q.add(nb);
-                            }
+        repairContiguity(assignment, AdjacencyGraph.of(adj), districts, maxPasses,
+                GenerationMonitor.NONE);
+    }
+
+    /** As above, polling {@code monitor} for cancellation once per district. */
+    public static void repairContiguity(int[] assignment, int[][] adj,
+                                        int districts, int maxPasses,
+                                        GenerationMonitor monitor) {
+        repairContiguity(assignment, AdjacencyGraph.of(adj), districts, maxPasses, monitor);
+    }
+
+    /**
+     * As above over a CSR graph. Each pass labels the components of every
+     * district in one linear sweep; see {@link ComponentRepair}.
+     */
+    public static void repairContiguity(int[] assignment, AdjacencyGraph graph,
+                                        int districts, int maxPasses,
+                                        GenerationMonitor monitor) {
+        new ComponentRepair(assignment, graph, districts).run(maxPasses, monitor);
+    }
+
+    /**
+     * Working state for {@link #repairContiguity}: all buffers are primitive
+     * and allocated once per call.
+     *
+     * <p>A pass labels every component of every district in a single BFS
+     * sweep, with the member array doubling as the queue, and then walks
+     * the districts in order exactly as a per-district search would. A
+     * district that received components earlier in the pass is relabelled
+     * from its own members only. All received components are attached to
+     * the original members, so that BFS finds all of them. Votes for a
+     * component's new district are counted when it is dissolved, because
+     * earlier dissolutions in the same pass can change its neighbours.
+     */
+    private static final class ComponentRepair {
+        private final int[] assignment;
+        private final int[] offsets;
+        private final int[] neighbours;
+        private final int districts;
+
+        private final int[] label;          // component id per precinct, -1 unassigned
+        private final int[] members;        // precincts grouped by component, BFS order
+        private int[] compStart;
+        private int comps;
+        private final int[] districtStart;  // components grouped by district
+        private int[] districtComps;
+        private final boolean[] dirty;      // district received precincts this pass
+        private final int[] votes;
+
+        // Relabelling scratch for dirty districts.
+        private final int[] visit;
+        private int epoch;
+        private final int[] local;
+        private int[] localStart = new int[8];
+        private int[] localOrder = new int[8];
+        private long[] localMin = new long[8];
+
+        ComponentRepair(int[] assignment, AdjacencyGraph graph, int districts) {
+            int n = assignment.length;
+            this.assignment = assignment;
+            this.offsets = graph.offsets();
+            this.neighbours = graph.neighbours();
+            this.districts = districts;
+            this.label = new int[n];
+            this.members = new int[n];
+            this.compStart = new int[16];
+            this.districtStart = new int[districts + 1];
+            this.districtComps = new int[16];
+            this.dirty = new boolean[districts];
+            this.votes = new int[districts];
+            this.visit = new int[n];
+            this.local = new int[n];
+        }
+
+        void run(int maxPasses, GenerationMonitor monitor) {
+            for (int pass = 0; pass < maxPasses; pass++) {
+                labelAll();
+                Arrays.fill(dirty, false);
+                boolean changed = false;
+                for (int d = 0; d < districts; d++) {
+                    monitor.checkCancelled();
+                    changed |= dirty[d] ? repairRelabelled(d) : repairLabelled(d);
+                }
+                if (!changed) return;
+            }
+        }
+
+        /** One sweep: component ids for every precinct, grouped by district. */
+        private void labelAll() {
+            int n = assignment.length;
+            Arrays.fill(label, -1);
+            comps = 0;
+            int tail = 0;
+            for (int i = 0; i < n; i++) {
+                int d = assignment[i];
+                if (label[i] >= 0 || d < 0 || d >= districts) continue;
+                if (comps + 1 >= compStart.length) compStart = Arrays.copyOf(compStart, compStart.length * 2);
+                int head = tail;
+                compStart[comps] = head;
+                label[i] = comps;
+                members[tail++] = i;
+                while (head < tail) {
+                    int cur = members[head++];
+                    for (int k = offsets[cur]; k < offsets[cur + 1]; k++) {
+                        int nb = neighbours[k];
+                        if (label[nb] < 0 && assignment[nb] == d) {
+                            label[nb] = comps;
+                            members[tail++] = nb;
                         }
                     }
-                    int[] arr = bag.stream().mapToInt(Integer::intValue).toArray();
-                    components.add(arr);
-                    if (arr.length > largestSize) {
-                        largestSize = arr.length;
-                        largestStart = components.size() - 1;
-                    }
                 }
-                for (int c = 0; c < components.size(); c++) {
-                    if (c == largestStart) continue;
-                    int[] comp = components.get(c);
-                    // Vote among bordering districts (other than d).
-                    int[] votes = new int[districts];
-                    for (int idx : comp) {
-                        for (int nb : adj[idx]) {
-                            int dn = assignment[nb];
-                            if (dn != d) votes[dn]++;
+                comps++;
+            }
+            compStart[comps] = tail;
+
+            // Counting sort by district keeps each district's components in
+            // discovery (= lowest member index) order.
+            if (districtComps.length < comps) districtComps = new int[comps];
+            Arrays.fill(districtStart, 0);
+            for (int c = 0; c < comps; c++) districtStart[assignment[members[compStart[c]]] + 1]++;
+            for (int d = 0; d < districts; d++) districtStart[d + 1] += districtStart[d];
+            int[] fill = Arrays.copyOf(districtStart, districts);
+            for (int c = 0; c < comps; c++) {
+                districtComps[fill[assignment[members[compStart[c]]]]++] = c;
+            }
+        }
+
+        private boolean repairLabelled(int d) {
+            int from = districtStart[d], to = districtStart[d + 1];
+            if (to - from <= 1) return false;
+            int keep = from;
+            for (int x = from + 1; x < to; x++) {
+                if (size(members, compStart, districtComps[x])
+                        > size(members, compStart, districtComps[keep])) keep = x;
+            }
+            boolean changed = false;
+            for (int x = from; x < to; x++) {
+                if (x == keep) continue;
+                int c = districtComps[x];
+                changed |= dissolve(d, members, compStart[c], compStart[c + 1]);
+            }
+            return changed;
+        }
+
+        /**
+         * Relabel {@code d} by BFS from its members at the start of the pass;
+         * received precincts are reached through them.
+         */
+        private boolean repairRelabelled(int d) {
+            nextEpoch();
+            int count = 0, tail = 0;
+            for (int x = districtStart[d]; x < districtStart[d + 1]; x++) {
+                int c = districtComps[x];
+                for (int k = compStart[c]; k < compStart[c + 1]; k++) {
+                    int seed = members[k];
+                    if (visit[seed] == epoch) continue;
+                    if (count + 1 >= localStart.length) growLocal();
+                    int head = tail;
+                    localStart[count] = head;
+                    int min = seed;
+                    visit[seed] = epoch;
+                    local[tail++] = seed;
+                    while (head < tail) {
+                        int cur = local[head++];
+                        min = Math.min(min, cur);
+                        for (int e = offsets[cur]; e < offsets[cur + 1]; e++) {
+                            int nb = neighbours[e];
+                            if (visit[nb] != epoch && assignment[nb] == d) {
+                                visit[nb] = epoch;
+                                local[tail++] = nb;
+                            }
                         }
                     }
-                    int target = -1;
-                    int bestVotes = -1;
-                    for (int t = 0; t < districts; t++) {
-                        if (votes[t] > bestVotes) { bestVotes = votes[t]; target = t; }
-                    }
-                    if (target == -1 || bestVotes == 0) continue; // truly isolated
-                    for (int idx : comp) assignment[idx] = target;
-                    changed = true;
+                    localMin[count] = ((long) min << 32) | count;
+                    count++;
                 }
             }
-            if (!changed) return;
+            localStart[count] = tail;
+            if (count <= 1) return false;
+            // Same order a scan by precinct index would find them in.
+            Arrays.sort(localMin, 0, count);
+            int keep = -1;
+            for (int x = 0; x < count; x++) {
+                localOrder[x] = (int) localMin[x];
+                if (keep < 0 || size(local, localStart, localOrder[x])
+                        > size(local, localStart, keep)) keep = localOrder[x];
+            }
+            boolean changed = false;
+            for (int x = 0; x < count; x++) {
+                int c = localOrder[x];
+                if (c == keep) continue;
+                changed |= dissolve(d, local, localStart[c], localStart[c + 1]);
+            }
+            return changed;
+        }
+
+        /** Hand {@code list[from, to)} to the district it borders most; false if isolated. */
+        private boolean dissolve(int d, int[] list, int from, int to) {
+            Arrays.fill(votes, 0);
+            for (int k = from; k < to; k++) {
+                int idx = list[k];
+                for (int e = offsets[idx]; e < offsets[idx + 1]; e++) {
+                    int dn = assignment[neighbours[e]];
+                    if (dn != d && dn >= 0) votes[dn]++;
+                }
+            }
+            int target = -1;
+            int bestVotes = -1;
+            for (int t = 0; t < districts; t++) {
+                if (votes[t] > bestVotes) { bestVotes = votes[t]; target = t; }
+            }
+            if (target == -1 || bestVotes == 0) return false; // truly isolated
+            for (int k = from; k < to; k++) assignment[list[k]] = target;
+            dirty[target] = true;
+            return true;
+        }
+
+        private static int size(int[] list, int[] start, int c) {
+            return start[c + 1] - start[c];
+        }
+
+        private void growLocal() {
+            int cap = localStart.length * 2;
+            localStart = Arrays.copyOf(localStart, cap);
+            localOrder = Arrays.copyOf(localOrder, cap);
+            localMin = Arrays.copyOf(localMin, cap);
+        }
+
+        private void nextEpoch() {
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(visit, 0);
+                epoch = 0;
+            }
+            epoch++;
         }
     }
 
@@ -273,29 +429,30 @@ public final class GeographyUtils {
                                              double countyAdherence,
                                              Random rng) {
         int[] seeds = new int[D];
-        Set<Integer> usedCounties = new HashSet<>();
-        Set<Integer> usedPrecincts = new HashSet<>();
+        int maxCounty = 0;
+        for (int c : county) maxCounty = Math.max(maxCounty, c);
+        boolean[] usedCounties = new boolean[maxCounty + 1];
+        boolean[] usedPrecincts = new boolean[n];
 
         int first = rng.nextInt(n);
         seeds[0] = first;
-        usedPrecincts.add(first);
-        usedCounties.add(county[first]);
+        usedPrecincts[first] = true;
+        usedCounties[county[first]] = true;
 
         double[] dist2 = new double[n];
-        Arrays.fill(dist2, Double.POSITIVE_INFINITY);
         for (int i = 0; i < n; i++) {
             dist2[i] = sqDist(i, first, nx);
         }
 
+        double[] w = new double[n];
         for (int s = 1; s < D; s++) {
             // Weighted random pick proportional to dist², biased upward when
             // the candidate is in an unused county.
             double sum = 0;
-            double[] w = new double[n];
             for (int i = 0; i < n; i++) {
-                if (usedPrecincts.contains(i)) { w[i] = 0; continue; }
+                if (usedPrecincts[i]) { w[i] = 0; continue; }
                 double weight = dist2[i] + 1e-9;
-                if (countyAdherence > 0.5 && usedCounties.contains(county[i])) {
+                if (countyAdherence > 0.5 && usedCounties[county[i]]) {
                     weight *= (1.0 - countyAdherence);
                 }
                 w[i] = weight;
@@ -311,12 +468,12 @@ public final class GeographyUtils {
             if (pick == -1) {
                 // Fallback: any unused index.
                 for (int i = 0; i < n; i++) {
-                    if (!usedPrecincts.contains(i)) { pick = i; break; }
+                    if (!usedPrecincts[i]) { pick = i; break; }
                 }
             }
             seeds[s] = pick;
-            usedPrecincts.add(pick);
-            usedCounties.add(county[pick]);
+            usedPrecincts[pick] = true;
+            usedCounties[county[pick]] = true;
             for (int i = 0; i < n; i++) {
                 double d2 = sqDist(i, pick, nx);
                 if (d2 < dist2[i]) dist2[i] = d2;
@@ -0,0 +1,78 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a pair of longs to a dense id
+ * ({@code 0, 1, 2, …} in insertion order). Avoids boxing a key object
+ * per ring vertex, which dominated build time on real precinct data.
+ * Shared by the geometry indexes in this package; not thread-safe.
+ */
+final class KeyTable {
+
+    private long[] slotA, slotB;
+    private int[] slotId;        // -1 when empty
+    private long[] firstById, secondById;
+    private int size;
+
+    KeyTable(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        slotA = new long[cap];
+        slotB = new long[cap];
+        slotId = new int[cap];
+        Arrays.fill(slotId, -1);
+        firstById = new long[Math.max(16, expected)];
+        secondById = new long[firstById.length];
+    }
+
+    int size() { return size; }
+    long first(int id) { return firstById[id]; }
+    long second(int id) { return secondById[id]; }
+
+    /** Id of {@code (a, b)}, assigning the next free id when absent. */
+    int idOf(long a, long b) {
+        int mask = slotId.length - 1;
+        int h = mix(a * 0x9E3779B97F4A7C15L + b) & mask;
+        while (slotId[h] >= 0) {
+            if (slotA[h] == a && slotB[h] == b) return slotId[h];
+            h = (h + 1) & mask;
+        }
+        int id = size++;
+        slotA[h] = a;
+        slotB[h] = b;
+        slotId[h] = id;
+        if (id == firstById.length) {
+            firstById = Arrays.copyOf(firstById, id * 2);
+            secondById = Arrays.copyOf(secondById, id * 2);
+        }
+        firstById[id] = a;
+        secondById[id] = b;
+        if (size * 2 > slotId.length) grow();
+        return id;
+    }
+
+    private void grow() {
+        long[] oldA = slotA, oldB = slotB;
+        int[] oldId = slotId;
+        int cap = oldId.length * 2, mask = cap - 1;
+        slotA = new long[cap];
+        slotB = new long[cap];
+        slotId = new int[cap];
+        Arrays.fill(slotId, -1);
+        for (int s = 0; s < oldId.length; s++) {
+            if (oldId[s] < 0) continue;
+            int h = mix(oldA[s] * 0x9E3779B97F4A7C15L + oldB[s]) & mask;
+            while (slotId[h] >= 0) h = (h + 1) & mask;
+            slotA[h] = oldA[s];
+            slotB[h] = oldB[s];
+            slotId[h] = oldId[s];
+        }
+    }
+
+    private static int mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        return (int) k;
+    }
+}
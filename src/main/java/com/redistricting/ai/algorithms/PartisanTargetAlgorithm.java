@@ -2,7 +2,7 @@ package com.redistricting.ai.algorithms;
 
 import com.redistricting.ai.GenerationParams;
 
-import java.util.Random;
+import java.util.List;
 
 /**
  * <strong>Partisan-target</strong> redistricting algorithm.
@@ -33,32 +33,45 @@ public final class PartisanTargetAlgorithm implements RedistrictingAlgorithm {
     }
 
     @Override
-    public int[] assign(PrecinctBase base, GenerationParams params) {
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
         int target = params.effectiveDemTarget();
-        Random rng = new Random(params.seed());
-        int[] best = null;
-        int bestSeatGap = Integer.MAX_VALUE;
-        double bestSecondary = Double.POSITIVE_INFINITY;
         BoundaryRefiner.Objective obj = AdvancedMultiObjectiveAlgorithm.makeObjective(
                 base, params, target);
 
-        for (int attempt = 0; attempt < params.attempts(); attempt++) {
-            long attemptSeed = rng.nextLong();
-            int[] assignment = core.assign(base, params.withSeed(attemptSeed));
-            BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
-                    params.districts(), base.precincts(), base.county(), base.counties());
-            int demSeats = AdvancedMultiObjectiveAlgorithm.countDemSeats(stats,
-                    params.districts());
-            int gap = Math.abs(demSeats - target);
-            double secondary = obj.score(stats, params.districts());
+        // Attempts run in parallel waves; the early stop is applied in
+        // attempt order, so the kept plan matches a sequential run.
+        List<AttemptRunner.Result> results = AttemptRunner.run(params.seed(),
+                params.attempts(), monitor,
+                attemptSeed -> {
+                    int[] assignment = core.assign(base, params.withSeed(attemptSeed),
+                            monitor.cancellationOnly());
+                    BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment,
+                            params.districts(), base);
+                    return new AttemptRunner.Result(assignment, stats,
+                            obj.score(stats, params.districts()));
+                },
+                (attempt, r) -> attempt >= 2
+                        && seatGap(r, params.districts(), target) == 0); // on-target — stop early
+
+        int[] best = null;
+        int bestSeatGap = Integer.MAX_VALUE;
+        double bestSecondary = Double.POSITIVE_INFINITY;
+        for (AttemptRunner.Result r : results) {
+            int gap = seatGap(r, params.districts(), target);
+            double secondary = r.score();
             if (gap < bestSeatGap
                     || (gap == bestSeatGap && secondary < bestSecondary)) {
                 bestSeatGap = gap;
                 bestSecondary = secondary;
-                best = assignment;
+                best = r.assignment();
             }
-            if (gap == 0 && attempt >= 2) break; // already on-target — stop early
         }
         return best;
     }
+
+    private static int seatGap(AttemptRunner.Result r, int districts, int target) {
+        return Math.abs(AdvancedMultiObjectiveAlgorithm.countDemSeats(r.stats(), districts)
+                - target);
+    }
 }
@@ -0,0 +1,326 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Flow-style population balancing: pushes population from over-populated
+ * districts to under-populated ones along shortest paths in the district
+ * adjacency graph, one precinct per hop, while keeping every district
+ * contiguous.
+ *
+ * <p>A <em>chain</em> {@code d0 → d1 → … → dk} runs from an
+ * over-populated {@code d0} to the nearest under-populated {@code dk}.
+ * Each hop hands one boundary precinct from {@code d(j)} to
+ * {@code d(j+1)}, chosen so its population is as close as possible to
+ * what {@code d(j)} just received (for the first hop: the smaller of the
+ * surplus and the deficit). The intermediate districts therefore stay
+ * roughly where they were, and the end districts move toward ideal. A chain
+ * is kept only if it lowers the total absolute deviation of the districts
+ * on it. Otherwise it is undone, and its last hop is blocked so the next
+ * search tries another route.
+ *
+ * <p>Everything a chain needs is kept incrementally:
+ * <ul>
+ *   <li>district populations;</li>
+ *   <li>cut-edge counts per district pair, which form the district graph;</li>
+ *   <li>donor lists of the precincts in {@code a} touching {@code b},
+ *       indexed by the ordered pair {@code (a, b)}.</li>
+ * </ul>
+ * A move costs O(degree) to record. Stale donor entries are dropped when a
+ * list is next read. A hop costs one list scan plus a few local
+ * {@link ContiguityChecker} queries, so balancing no longer rescans the
+ * whole base per move.
+ *
+ * <p>Bound to one assignment array; not thread-safe.
+ */
+final class PopulationBalancer {
+
+    /** Donors per hop given a full contiguity search when the local test can't decide. */
+    private static final int FULL_CHECKS = 4;
+
+    private final PrecinctBase base;
+    private final int[][] adj;
+    private final int[] assignment;
+    private final int districts;
+    private final double ideal;
+    private final long[] pop;
+    private final int[] cut;            // districts², cut edges from a to b
+    private final int[][] donors;       // districts², precincts of a touching b (lazy)
+    private final int[] donorCount;
+    private final ContiguityChecker contiguity;
+
+    private final int[] stamp;          // dedupe marks for donor-list compaction
+    private int epoch;
+    private long[] order = new long[16];
+    private int[] undoPrecinct = new int[16];
+    private int[] undoFrom = new int[16];
+    private int undoSize;
+    private int undone;
+
+    // Chain search scratch.
+    private final boolean[] blocked;    // districts², hops ruled out for this source
+    private final int[] parent;
+    private final int[] queue;
+    private final int[] path;
+
+    PopulationBalancer(PrecinctBase base, int[] assignment, int districts) {
+        this.base = base;
+        this.adj = base.adjacency();
+        this.assignment = assignment;
+        this.districts = districts;
+        this.ideal = (double) base.totalPopulation() / districts;
+        this.pop = new long[districts];
+        this.cut = new int[districts * districts];
+        this.donors = new int[districts * districts][];
+        this.donorCount = new int[districts * districts];
+        this.contiguity = new ContiguityChecker(adj, assignment, districts);
+        this.stamp = new int[assignment.length];
+        this.blocked = new boolean[districts * districts];
+        this.parent = new int[districts];
+        this.queue = new int[districts];
+        this.path = new int[districts];
+
+        for (int i = 0; i < assignment.length; i++) {
+            int a = assignment[i];
+            pop[a] += base.population(i);
+            for (int nb : adj[i]) {
+                int c = assignment[nb];
+                if (c == a) continue;
+                if (cut[a * districts + c]++ == 0 || lastDonor(a, c) != i) addDonor(a, c, i);
+            }
+        }
+    }
+
+    /** Current population of district {@code d}. */
+    long population(int d) { return pop[d]; }
+
+    /** Adjacency pairs {@code (i, j)} with {@code i} in {@code a} and {@code j} in {@code b}. */
+    int cutEdges(int a, int b) { return cut[a * districts + b]; }
+
+    /** Chains rolled back so far because they had no donor or didn't help. */
+    int undoneChains() { return undone; }
+
+    /** Largest |pop − ideal| / ideal over all districts. */
+    double maxDeviation() {
+        double max = 0;
+        for (int d = 0; d < districts; d++) {
+            max = Math.max(max, Math.abs(pop[d] - ideal) / ideal);
+        }
+        return max;
+    }
+
+    /**
+     * Run chains until every district is within {@code tolerance} of ideal,
+     * no chain improves the balance, or {@code maxChains} chains have been
+     * applied.
+     */
+    void balance(double tolerance, int maxChains, GenerationMonitor monitor) {
+        for (int chains = 0; chains < maxChains; chains++) {
+            if ((chains & 0x3F) == 0) monitor.checkCancelled();
+            if (maxDeviation() <= tolerance) return;
+            if (!shiftOnce()) return;
+        }
+    }
+
+    /** Apply one improving chain, trying the most over-populated sources first. */
+    private boolean shiftOnce() {
+        int[] sources = new int[districts];
+        for (int d = 0; d < districts; d++) sources[d] = d;
+        // Insertion sort by population, largest first (D is small).
+        for (int x = 1; x < districts; x++) {
+            int d = sources[x];
+            int y = x - 1;
+            while (y >= 0 && pop[sources[y]] < pop[d]) {
+                sources[y + 1] = sources[y];
+                y--;
+            }
+            sources[y + 1] = d;
+        }
+        for (int src : sources) {
+            if (pop[src] <= ideal) break;
+            if (contiguity.memberCount(src) <= 1) continue;
+            Arrays.fill(blocked, false);
+            for (int tries = 0; tries < districts * districts; tries++) {
+                int len = shortestPath(src);
+                if (len == 0) break;
+                int failedHop = runChain(len);
+                if (failedHop < 0) return true;
+                blocked[path[failedHop] * districts + path[failedHop + 1]] = true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Breadth-first search of the district graph from {@code src} to the
+     * nearest under-populated district (the most under-populated one on
+     * that level). Fills {@link #path} and returns its length, or 0.
+     */
+    private int shortestPath(int src) {
+        Arrays.fill(parent, -1);
+        parent[src] = src;
+        int head = 0, tail = 0;
+        queue[tail++] = src;
+        int dest = -1;
+        while (head < tail && dest == -1) {
+            int levelEnd = tail;
+            for (; head < levelEnd; head++) {
+                int a = queue[head];
+                for (int b = 0; b < districts; b++) {
+                    int ab = a * districts + b;
+                    if (parent[b] != -1 || cut[ab] == 0 || blocked[ab]) continue;
+                    parent[b] = a;
+                    queue[tail++] = b;
+                    if (pop[b] < ideal && (dest == -1 || pop[b] < pop[dest])) dest = b;
+                }
+            }
+        }
+        if (dest == -1) return 0;
+        int len = 0;
+        for (int d = dest; d != src; d = parent[d]) path[len++] = d;
+        path[len++] = src;
+        for (int x = 0, y = len - 1; x < y; x++, y--) {
+            int t = path[x]; path[x] = path[y]; path[y] = t;
+        }
+        return len;
+    }
+
+    /**
+     * Apply the chain in {@link #path}. Returns -1 when it was kept, or the
+     * index of the hop to block: the first hop without a usable donor, or
+     * the last hop when the finished chain did not improve the balance.
+     */
+    private int runChain(int len) {
+        double before = deviation(len);
+        int src = path[0], dest = path[len - 1];
+        double target = Math.min(pop[src] - ideal, ideal - pop[dest]);
+        undoSize = 0;
+        for (int h = 0; h + 1 < len; h++) {
+            int donor = pickDonor(path[h], path[h + 1], target);
+            if (donor == -1) {
+                undo();
+                return h;
+            }
+            record(donor);
+            move(donor, path[h + 1]);
+            target = base.population(donor);
+        }
+        if (deviation(len) < before - 1e-9) return -1;
+        undo();
+        return len - 2;
+    }
+
+    /** Σ |pop − ideal| over the districts on the current path. */
+    private double deviation(int len) {
+        double sum = 0;
+        for (int k = 0; k < len; k++) sum += Math.abs(pop[path[k]] - ideal);
+        return sum;
+    }
+
+    /**
+     * The precinct of {@code a} touching {@code b} whose population is
+     * closest to {@code target} and whose removal keeps {@code a}
+     * contiguous, or -1.
+     */
+    private int pickDonor(int a, int b, double target) {
+        if (contiguity.memberCount(a) <= 1) return -1;
+        int ab = a * districts + b;
+        int[] list = donors[ab];
+        if (list == null) return -1;
+        // Compact: drop moved / no-longer-touching / duplicate entries.
+        nextEpoch();
+        int m = 0;
+        for (int k = 0; k < donorCount[ab]; k++) {
+            int i = list[k];
+            if (assignment[i] != a || stamp[i] == epoch || !touches(i, b)) continue;
+            stamp[i] = epoch;
+            list[m++] = i;
+        }
+        donorCount[ab] = m;
+        if (order.length < m) order = new long[Math.max(m, order.length * 2)];
+        for (int k = 0; k < m; k++) {
+            long gap = Math.round(Math.abs(base.population(list[k]) - target));
+            order[k] = (Math.min(gap, Integer.MAX_VALUE) << 32) | list[k];
+        }
+        Arrays.sort(order, 0, m);
+        // Donors the neighbour ring clears first; a full-district search
+        // (O(district) when it fails) only for the few closest to target.
+        for (int k = 0; k < m; k++) {
+            if (contiguity.locallyRemovable((int) order[k])) return (int) order[k];
+        }
+        for (int k = 0; k < Math.min(m, FULL_CHECKS); k++) {
+            if (contiguity.wouldStayConnectedWithout((int) order[k])) return (int) order[k];
+        }
+        return -1;
+    }
+
+    private boolean touches(int i, int d) {
+        for (int nb : adj[i]) if (assignment[nb] == d) return true;
+        return false;
+    }
+
+    /** Reassign {@code i} to {@code to}, updating populations, cut counts and donor lists. */
+    private void move(int i, int to) {
+        int from = assignment[i];
+        for (int nb : adj[i]) {
+            int c = assignment[nb];
+            if (c == from) continue;
+            cut[from * districts + c]--;
+            cut[c * districts + from]--;
+        }
+        contiguity.move(i, to);
+        int p = base.population(i);
+        pop[from] -= p;
+        pop[to] += p;
+        for (int nb : adj[i]) {
+            int c = assignment[nb];
+            if (c == to) continue;
+            cut[to * districts + c]++;
+            cut[c * districts + to]++;
+            if (lastDonor(to, c) != i) addDonor(to, c, i);
+            addDonor(c, to, nb);
+        }
+    }
+
+    private void record(int i) {
+        if (undoSize == undoPrecinct.length) {
+            undoPrecinct = Arrays.copyOf(undoPrecinct, undoSize * 2);
+            undoFrom = Arrays.copyOf(undoFrom, undoSize * 2);
+        }
+        undoPrecinct[undoSize] = i;
+        undoFrom[undoSize++] = assignment[i];
+    }
+
+    /** Reverse the moves of the current chain, newest first. */
+    private void undo() {
+        undone++;
+        while (undoSize > 0) {
+            undoSize--;
+            move(undoPrecinct[undoSize], undoFrom[undoSize]);
+        }
+    }
+
+    private int lastDonor(int a, int b) {
+        int ab = a * districts + b;
+        return donorCount[ab] == 0 ? -1 : donors[ab][donorCount[ab] - 1];
+    }
+
+    private void addDonor(int a, int b, int i) {
+        int ab = a * districts + b;
+        int[] list = donors[ab];
+        if (list == null) {
+            list = donors[ab] = new int[8];
+        } else if (donorCount[ab] == list.length) {
+            list = donors[ab] = Arrays.copyOf(list, list.length * 2);
+        }
+        list[donorCount[ab]++] = i;
+    }
+
+    private void nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+}
@@ -4,11 +4,7 @@ import com.redistricting.ai.GenerationParams;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The geographic substrate every {@link RedistrictingAlgorithm} runs on:
@@ -27,62 +23,136 @@ import java.util.Map;
  *
  * <p>Adjacency built from real precincts uses shared polygon vertices as a
  * proxy for shared edges — coarse but effective for any topology that came
- * out of a real GIS pipeline.
+ * out of a real GIS pipeline. It is stored as a CSR {@link AdjacencyGraph};
+ * {@link #adjacency()} is the {@code int[][]} view older code expects.
+ *
+ * <p>On construction the precincts are also flattened into a
+ * {@link PrecinctColumns} store; algorithms should prefer the index-based
+ * accessors ({@link #population(int)}, {@link #centroidX(int)}, …) over
+ * {@code precincts().get(i)} in their inner loops.
  */
 public final class PrecinctBase {
 
     private final List<Precinct> precincts;
-    private final int[][] adjacency;
+    private final AdjacencyGraph graph;
     private final int[] county;     // size == precincts.size(); 0 when unknown
     private final int counties;     // total distinct county ids
     private final String label;
+    private final PrecinctColumns columns;
+    private volatile SharedEdgeIndex edges; // built lazily on first use
 
     public PrecinctBase(List<Precinct> precincts, int[][] adjacency,
                         int[] county, int counties, String label) {
+        this(precincts, adjacency == null ? null : AdjacencyGraph.of(adjacency),
+                county, counties, label);
+    }
+
+    public PrecinctBase(List<Precinct> precincts, AdjacencyGraph graph,
+                        int[] county, int counties, String label) {
+        this(precincts, graph, county, counties, label, null);
+    }
+
+    /**
+     * As above with the {@link PrecinctColumns} already built, e.g. over
+     * vertex buffers the precincts share ({@link PrecinctColumns#of(List,
+     * double[], int[], int[])}); they must describe {@code precincts}.
+     */
+    public PrecinctBase(List<Precinct> precincts, AdjacencyGraph graph,
+                        int[] county, int counties, String label, PrecinctColumns columns) {
         if (precincts == null || precincts.isEmpty()) {
             throw new IllegalArgumentException("precincts required");
         }
-        if (adjacency == null || adjacency.length != precincts.size()) {
+        if (graph == null || graph.size() != precincts.size()) {
             throw new IllegalArgumentException("adjacency size mismatch");
         }
         if (county == null || county.length != precincts.size()) {
             throw new IllegalArgumentException("county size mismatch");
         }
+        if (columns != null && columns.size() != precincts.size()) {
+            throw new IllegalArgumentException("columns size mismatch");
+        }
         this.precincts = List.copyOf(precincts);
-        this.adjacency = adjacency;
+        this.graph = graph;
         this.county = county;
         this.counties = Math.max(1, counties);
         this.label = label == null ? "precincts" : label;
+        this.columns = columns != null ? columns : PrecinctColumns.of(this.precincts);
     }
 
     public List<Precinct> precincts() { return precincts; }
-    public int[][] adjacency() { return adjacency; }
+    /** Adjacency in CSR form; prefer this in traversal-heavy loops. */
+    public AdjacencyGraph graph() { return graph; }
+    /** Per-precinct neighbour arrays (compatibility view of {@link #graph()}). */
+    public int[][] adjacency() { return graph.rows(); }
     public int[] county() { return county; }
     public int counties() { return counties; }
     public int size() { return precincts.size(); }
     public String label() { return label; }
 
-    public long totalPopulation() {
-        long sum = 0;
-        for (Precinct p : precincts) sum += p.population();
-        return sum;
+    /** Columnar (struct-of-arrays) copy of the precinct attributes and geometry. */
+    public PrecinctColumns columns() { return columns; }
+
+    public long totalPopulation() { return columns.totalPopulation(); }
+
+    /**
+     * Shared-boundary lengths between precincts, for district perimeters.
+     * Built on first call and cached; safe to call from concurrent attempts.
+     */
+    public SharedEdgeIndex edges() {
+        SharedEdgeIndex e = edges;
+        if (e == null) {
+            synchronized (this) {
+                e = edges;
+                if (e == null) {
+                    e = SharedEdgeIndex.of(columns);
+                    edges = e;
+                }
+            }
+        }
+        return e;
     }
 
+    /**
+     * Whether {@code map} is a plan over exactly this base — same precincts
+     * in the same order, each sharing this base's geometry (as produced by
+     * {@link Precinct#withDistrict}) — so the base can be reused for it
+     * instead of rebuilding one with {@link #fromMap}.
+     */
+    public boolean sharesGeometryWith(RedistrictingMap map) {
+        List<Precinct> other = map.precincts();
+        if (other.size() != precincts.size()) return false;
+        for (int i = 0; i < other.size(); i++) {
+            if (other.get(i).rings() != precincts.get(i).rings()) return false;
+        }
+        return true;
+    }
+
+    // -------- index-based accessors (hot-loop friendly) -------------------
+
+    public int population(int i) { return columns.population(i); }
+    public int demVotes(int i) { return columns.demVotes(i); }
+    public int repVotes(int i) { return columns.repVotes(i); }
+    public double centroidX(int i) { return columns.centroidX(i); }
+    public double centroidY(int i) { return columns.centroidY(i); }
+    public double area(int i) { return columns.area(i); }
+    public double perimeter(int i) { return columns.perimeter(i); }
+
     // -------- factories ---------------------------------------------------
 
     /**
      * Build a base from any imported {@link RedistrictingMap}, computing
-     * adjacency by polygon-vertex sharing (rook contiguity within a small
-     * tolerance). The original district assignment carried by the map is
-     * <em>ignored</em> — the base is just the geographic substrate.
+     * adjacency by polygon-vertex sharing (queen contiguity within a small
+     * tolerance, see {@link AdjacencyGraph#fromGeometry}). The original
+     * district assignment carried by the map is <em>ignored</em> — the base is just the geographic substrate.
      */
     public static PrecinctBase fromMap(RedistrictingMap map) {
         List<Precinct> ps = map.precincts();
-        int[][] adj = computeVertexAdjacency(ps);
+        PrecinctColumns cols = PrecinctColumns.of(ps);
+        AdjacencyGraph adj = AdjacencyGraph.fromGeometry(cols, AdjacencyGraph.Contact.QUEEN);
         // Treat each precinct as its own county when no county info is known.
         int[] county = new int[ps.size()];
         for (int i = 0; i < ps.size(); i++) county[i] = i;
-        return new PrecinctBase(ps, adj, county, ps.size(), map.name());
+        return new PrecinctBase(ps, adj, county, ps.size(), map.name(), cols);
     }
 
     /**
@@ -98,56 +168,4 @@ public final class PrecinctBase {
         return new PrecinctBase(ps, adj, county, counties, "synthetic " +
                 params.precinctsX() + "x" + params.precinctsY());
     }
-
-    // -------- adjacency construction --------------------------------------
-
-    /**
-     * Compute precinct adjacency by hashing polygon vertices into a coarse
-     * spatial grid: any two precincts that share a vertex (within the
-     * tolerance) are considered neighbours. This is the same heuristic used
-     * by {@code FairnessAnalyzer} but returned as an {@code int[][]} indexed
-     * by precinct list position for the algorithms.
-     */
-    private static int[][] computeVertexAdjacency(List<Precinct> precincts) {
-        double tol = 1e-6;
-        Map<Long, List<Integer>> grid = new HashMap<>();
-        for (int i = 0; i < precincts.size(); i++) {
-            for (List<double[]> ring : precincts.get(i).rings()) {
-                for (double[] v : ring) {
-                    long key = cellKey(v[0], v[1], tol);
-                    grid.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
-                }
-            }
-        }
-        // Build adjacency sets.
-        @SuppressWarnings("unchecked")
-        java.util.Set<Integer>[] sets = new java.util.HashSet[precincts.size()];
-        for (int i = 0; i < sets.length; i++) sets[i] = new java.util.HashSet<>();
-        for (List<Integer> bucket : grid.values()) {
-            int n = bucket.size();
-            if (n < 2) continue;
-            for (int a = 0; a < n; a++) {
-                int ia = bucket.get(a);
-                for (int b = a + 1; b < n; b++) {
-                    int ib = bucket.get(b);
-                    if (ia == ib) continue;
-                    sets[ia].add(ib);
-                    sets[ib].add(ia);
-                }
-            }
-        }
-        int[][] adj = new int[precincts.size()][];
-        for (int i = 0; i < adj.length; i++) {
-            int[] arr = sets[i].stream().mapToInt(Integer::intValue).toArray();
-            Arrays.sort(arr);
-            adj[i] = arr;
-        }
-        return adj;
-    }
-
-    private static long cellKey(double x, double y, double tol) {
-        long ix = Math.round(x / tol);
-        long iy = Math.round(y / tol);
-        return (ix * 73856093L) ^ (iy * 19349663L);
-    }
 }
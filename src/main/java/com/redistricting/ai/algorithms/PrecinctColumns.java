@@ -0,0 +1,162 @@
+package com.redistricting.ai.algorithms;
+
+import com.redistricting.model.Precinct;
+
+import java.util.List;
+
+/**
+ * Struct-of-arrays view of a precinct list: one primitive column per
+ * attribute the algorithms read in their inner loops, plus a single
+ * flattened vertex buffer for every ring of every precinct.
+ *
+ * <p>Built once per {@link PrecinctBase} so that hot paths (growth,
+ * refinement, balancing) index straight into {@code int[]} / {@code double[]}
+ * columns instead of chasing {@code Precinct → List → double[]} pointers on
+ * every access.
+ *
+ * <p>Vertex layout: ring {@code r} owns the interleaved {@code x, y} pairs
+ * at {@code xy[2 * ringStart[r] .. 2 * ringStart[r + 1])}; precinct
+ * {@code i} owns rings {@code precinctRingStart[i] .. precinctRingStart[i + 1]}.
+ * Centroid, area and perimeter columns are copied from each precinct's
+ * cached geometry, so results match the object-based accessors exactly.
+ */
+public final class PrecinctColumns {
+
+    private final int[] pop;
+    private final int[] dem;
+    private final int[] rep;
+    private final double[] cx;
+    private final double[] cy;
+    private final double[] area;
+    private final double[] perimeter;
+    private final double[] xy;
+    private final int[] ringStart;          // size == rings + 1, in vertices
+    private final int[] precinctRingStart;  // size == precincts + 1, in rings
+    private final long totalPopulation;
+
+    private PrecinctColumns(int[] pop, int[] dem, int[] rep, double[] cx, double[] cy,
+                            double[] area, double[] perimeter, double[] xy,
+                            int[] ringStart, int[] precinctRingStart) {
+        this.pop = pop;
+        this.dem = dem;
+        this.rep = rep;
+        this.cx = cx;
+        this.cy = cy;
+        this.area = area;
+        this.perimeter = perimeter;
+        this.xy = xy;
+        this.ringStart = ringStart;
+        this.precinctRingStart = precinctRingStart;
+        long sum = 0;
+        for (int p : pop) sum += p;
+        this.totalPopulation = sum;
+    }
+
+    /** Flatten {@code precincts} into columns (one pass over the geometry). */
+    public static PrecinctColumns of(List<Precinct> precincts) {
+        int n = precincts.size();
+        int rings = 0;
+        int vertices = 0;
+        for (Precinct p : precincts) {
+            rings += p.ringCount();
+            for (int k = 0; k < p.ringCount(); k++) vertices += p.ringSize(k);
+        }
+
+        int[] pop = new int[n];
+        int[] dem = new int[n];
+        int[] rep = new int[n];
+        double[] cx = new double[n];
+        double[] cy = new double[n];
+        double[] area = new double[n];
+        double[] perimeter = new double[n];
+        double[] xy = new double[2 * vertices];
+        int[] ringStart = new int[rings + 1];
+        int[] precinctRingStart = new int[n + 1];
+
+        int r = 0;
+        int v = 0;
+        for (int i = 0; i < n; i++) {
+            Precinct p = precincts.get(i);
+            pop[i] = p.population();
+            dem[i] = p.demVotes();
+            rep[i] = p.repVotes();
+            cx[i] = p.centroidX();
+            cy[i] = p.centroidY();
+            area[i] = p.area();
+            perimeter[i] = p.perimeter();
+            precinctRingStart[i] = r;
+            for (int k = 0; k < p.ringCount(); k++) {
+                ringStart[r++] = v;
+                for (int j = 0; j < p.ringSize(k); j++) {
+                    xy[2 * v] = p.vertexX(k, j);
+                    xy[2 * v + 1] = p.vertexY(k, j);
+                    v++;
+                }
+            }
+        }
+        precinctRingStart[n] = r;
+        ringStart[r] = v;
+
+        return new PrecinctColumns(pop, dem, rep, cx, cy, area, perimeter, xy,
+                ringStart, precinctRingStart);
+    }
+
+    /**
+     * Columns over geometry that is already flat: precinct {@code i} owns
+     * rings {@code [precinctRingStart[i], precinctRingStart[i + 1])} of
+     * {@code xy} / {@code ringStart}, laid out as in this class. The arrays
+     * are shared, not copied, so precincts built over the same buffers (as
+     * a snapshot load does) keep one copy of every vertex.
+     */
+    public static PrecinctColumns of(List<Precinct> precincts, double[] xy, int[] ringStart,
+                                     int[] precinctRingStart) {
+        int n = precincts.size();
+        if (precinctRingStart.length != n + 1
+                || ringStart.length != precinctRingStart[n] + 1
+                || xy.length != 2 * ringStart[ringStart.length - 1]) {
+            throw new IllegalArgumentException("flat geometry does not match the precincts");
+        }
+        int[] pop = new int[n];
+        int[] dem = new int[n];
+        int[] rep = new int[n];
+        double[] cx = new double[n];
+        double[] cy = new double[n];
+        double[] area = new double[n];
+        double[] perimeter = new double[n];
+        for (int i = 0; i < n; i++) {
+            Precinct p = precincts.get(i);
+            pop[i] = p.population();
+            dem[i] = p.demVotes();
+            rep[i] = p.repVotes();
+            cx[i] = p.centroidX();
+            cy[i] = p.centroidY();
+            area[i] = p.area();
+            perimeter[i] = p.perimeter();
+        }
+        return new PrecinctColumns(pop, dem, rep, cx, cy, area, perimeter, xy,
+                ringStart, precinctRingStart);
+    }
+
+    // -------- per-precinct attributes ------------------------------------
+
+    public int size() { return pop.length; }
+    public int population(int i) { return pop[i]; }
+    public int demVotes(int i) { return dem[i]; }
+    public int repVotes(int i) { return rep[i]; }
+    public double centroidX(int i) { return cx[i]; }
+    public double centroidY(int i) { return cy[i]; }
+    public double area(int i) { return area[i]; }
+    public double perimeter(int i) { return perimeter[i]; }
+    public long totalPopulation() { return totalPopulation; }
+
+    // -------- flattened geometry -----------------------------------------
+
+    /** Index of precinct {@code i}'s first ring; rings run to {@code firstRing(i + 1)}. */
+    public int firstRing(int i) { return precinctRingStart[i]; }
+    public int ringCount() { return ringStart.length - 1; }
+    /** Vertex index of ring {@code r}'s first vertex; vertices run to {@code ringVertexStart(r + 1)}. */
+    public int ringVertexStart(int r) { return ringStart[r]; }
+    public int vertexCount() { return xy.length / 2; }
+    public double vertexX(int v) { return xy[2 * v]; }
+    public double vertexY(int v) { return xy[2 * v + 1]; }
+}
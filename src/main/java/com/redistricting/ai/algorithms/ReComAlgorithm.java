@@ -0,0 +1,116 @@
+package com.redistricting.ai.algorithms;
+
+import com.redistricting.ai.GenerationParams;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * <strong>ReCom</strong> ensemble sampler.
+ *
+ * <p><em>Goal:</em> produce <em>neutral</em> plans — draws from the space of
+ * contiguous, population-balanced plans that ignore partisanship — so an
+ * enacted plan can be compared against thousands of alternatives to judge
+ * whether it is an outlier. Not an optimiser: no objective is minimised.
+ *
+ * <p><em>Method:</em> start from a {@link SimpleAlgorithm} plan and run a
+ * {@link ReComChain}: repeatedly merge two adjacent districts, draw a random
+ * spanning tree of the merged region and cut a tree edge that splits it
+ * into two population-balanced halves.
+ *
+ * <p>Used two ways:
+ * <ul>
+ *   <li>As a regular {@link RedistrictingAlgorithm}: {@link #assign} runs
+ *       one chain for a number of steps that scales with
+ *       {@link GenerationParams#attempts()} and returns where it ended.</li>
+ *   <li>As an ensemble generator: {@link #sample} runs several chains in
+ *       parallel and streams every recorded plan to a {@link PlanSink}
+ *       without holding any of them in memory.</li>
+ * </ul>
+ */
+public final class ReComAlgorithm implements RedistrictingAlgorithm {
+
+    /** Chain steps per attempt for single-plan use, per district. */
+    private static final int STEPS_PER_DISTRICT = 20;
+    /** Cap on burn-in steps spent reaching population tolerance, per district. */
+    private static final int WARM_UP_PER_DISTRICT = 500;
+
+    private final SimpleAlgorithm seedPlan = new SimpleAlgorithm();
+
+    /**
+     * Receives plans from {@link #sample}. Called concurrently from the
+     * chains' threads; {@code assignment} is the chain's live buffer and is
+     * only valid for the duration of the call — copy it to keep it.
+     */
+    @FunctionalInterface
+    public interface PlanSink {
+        void accept(int chain, int index, int[] assignment);
+    }
+
+    @Override public String id() { return "recom"; }
+    @Override public String displayName() { return "ReCom — neutral ensemble sampler"; }
+    @Override public String description() {
+        return "Markov chain that repeatedly merges two neighbouring districts and re-splits "
+             + "them along a random spanning tree. Produces typical, non-optimised plans — "
+             + "use it to build ensembles for outlier analysis.";
+    }
+
+    @Override
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
+        ReComChain chain = startChain(base, params, params.seed(), monitor);
+        long steps = (long) STEPS_PER_DISTRICT * params.districts() * params.attempts();
+        for (long s = 0; s < steps; s++) {
+            if ((s & 0x3F) == 0) monitor.checkCancelled();
+            chain.step();
+        }
+        return chain.assignment().clone();
+    }
+
+    /**
+     * Run {@code chains} independent chains in parallel, each recording
+     * {@code plansPerChain} plans {@code stepsPerPlan} steps apart after
+     * burn-in, and hand every plan to {@code sink}.
+     *
+     * <p>Chain {@code c} is seeded from the {@code c}-th draw of
+     * {@code params.seed()}, so an ensemble is reproducible regardless of
+     * how many cores run it (the order in which {@code sink} sees plans from
+     * different chains is not).
+     */
+    public void sample(PrecinctBase base, GenerationParams params, int chains,
+                       int plansPerChain, int stepsPerPlan, PlanSink sink,
+                       GenerationMonitor monitor) {
+        if (chains < 1 || plansPerChain < 0 || stepsPerPlan < 1) {
+            throw new IllegalArgumentException("chains >= 1, plansPerChain >= 0 and "
+                    + "stepsPerPlan >= 1 required");
+        }
+        long[] seeds = AttemptRunner.seeds(params.seed(), chains);
+        AtomicInteger finished = new AtomicInteger();
+        IntStream.range(0, chains).parallel().forEach(c -> {
+            ReComChain chain = startChain(base, params, seeds[c], monitor.cancellationOnly());
+            for (int plan = 0; plan < plansPerChain; plan++) {
+                for (int s = 0; s < stepsPerPlan; s++) {
+                    if ((s & 0x3F) == 0) monitor.checkCancelled();
+                    chain.step();
+                }
+                sink.accept(c, plan, chain.assignment());
+            }
+            monitor.attemptCompleted(finished.incrementAndGet(), chains);
+        });
+    }
+
+    /** Seed plan from {@link SimpleAlgorithm}, then burn in until balanced (bounded). */
+    private ReComChain startChain(PrecinctBase base, GenerationParams params, long seed,
+                                  GenerationMonitor monitor) {
+        GenerationParams seeded = params.withSeed(seed);
+        int[] start = seedPlan.assign(base, seeded, monitor);
+        ReComChain chain = new ReComChain(base, params.districts(), start,
+                Math.max(0.005, params.populationTolerance()), seed);
+        long cap = (long) WARM_UP_PER_DISTRICT * params.districts();
+        for (long s = 0; s < cap && !chain.isBalanced(); s++) {
+            if ((s & 0x3F) == 0) monitor.checkCancelled();
+            chain.step();
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,297 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * One ReCom (recombination) Markov chain over district plans.
+ *
+ * <p>Each {@link #step()} picks a pair of adjacent districts (by choosing a
+ * random boundary precinct and a random neighbour of it in another
+ * district), merges them, draws a uniformly random spanning tree of the
+ * merged region with Wilson's algorithm, and cuts one tree edge whose two
+ * sides both land within the population tolerance. Both halves of a cut
+ * spanning tree are connected, so every plan the chain visits is
+ * contiguous.
+ *
+ * <p>While the plan is still outside tolerance (the usual start, since the
+ * initial plan comes from a fast generator) a cut is accepted when neither
+ * half deviates more than the worse of the two merged districts did, and
+ * the most balanced such cut is taken. The chain therefore only ever
+ * tightens population balance. Once every district is within tolerance,
+ * cuts are chosen uniformly among the balanced edges, as in standard
+ * ReCom.
+ *
+ * <p>Only the connected piece of the merged pair that contains the chosen
+ * precinct is recombined. Precincts of either district outside it — island
+ * precincts with no neighbours, say — keep their district and count
+ * toward its population, so bases with islands can still be balanced.
+ *
+ * <p>All working storage is allocated once and sized to the base, so a
+ * chain runs any number of steps in constant memory. Not thread-safe: run
+ * one chain per thread.
+ */
+public final class ReComChain {
+
+    /** Spanning trees drawn per proposal before it is rejected. */
+    private static final int TREE_TRIES = 4;
+
+    private final int[][] adj;
+    private final PrecinctBase base;
+    private final double ideal;
+    private final double tolerance;
+    private final Random rng;
+
+    private final int[] assignment;
+    private final long[] districtPop;
+    private final BoundarySet boundary;
+
+    // Region (merged pair) scratch, indexed by local id unless noted.
+    private final int[] localOf;       // global → local id, valid when stamp matches
+    private final int[] localStamp;    // global
+    private int stamp;
+    private long regionPopA;           // population of the region's district-a precincts
+    private final int[] global;        // local → global
+    private final int[] offsets;       // local CSR
+    private int[] neighbours;
+    private final int[] next;          // Wilson successor == tree parent
+    private final int[] inTreeStamp;
+    private int treeStamp;
+    private final int[] childCount;
+    private final int[] order;         // children before parents
+    private final long[] subPop;
+    private final boolean[] side;
+
+    private long steps;
+    private long accepted;
+
+    /**
+     * @param start     initial plan (copied).
+     * @param tolerance allowed |pop − ideal| / ideal per district.
+     */
+    public ReComChain(PrecinctBase base, int districts, int[] start, double tolerance,
+                      long seed) {
+        if (start.length != base.size()) {
+            throw new IllegalArgumentException("start plan size mismatch");
+        }
+        this.base = base;
+        this.adj = base.adjacency();
+        this.ideal = (double) base.totalPopulation() / districts;
+        this.tolerance = tolerance;
+        this.rng = new Random(seed);
+        this.assignment = start.clone();
+        this.districtPop = new long[districts];
+        for (int i = 0; i < assignment.length; i++) {
+            districtPop[assignment[i]] += base.population(i);
+        }
+        this.boundary = new BoundarySet(adj, assignment);
+
+        int n = base.size();
+        this.localOf = new int[n];
+        this.localStamp = new int[n];
+        this.global = new int[n];
+        this.offsets = new int[n + 1];
+        this.neighbours = new int[16];
+        this.next = new int[n];
+        this.inTreeStamp = new int[n];
+        this.childCount = new int[n];
+        this.order = new int[n];
+        this.subPop = new long[n];
+        this.side = new boolean[n];
+    }
+
+    /**
+     * The current plan. Live view — it changes on the next {@link #step()};
+     * copy it to keep it.
+     */
+    public int[] assignment() { return assignment; }
+
+    public long steps() { return steps; }
+    public long accepted() { return accepted; }
+
+    /** Whether every district is within the population tolerance. */
+    public boolean isBalanced() {
+        for (long p : districtPop) if (deviation(p) > tolerance) return false;
+        return true;
+    }
+
+    /** Propose one recombination; returns whether the plan changed. */
+    public boolean step() {
+        steps++;
+        if (boundary.size() == 0) return false;
+        int i = boundary.get(rng.nextInt(boundary.size()));
+        int a = assignment[i];
+        int b = randomOtherNeighbourDistrict(i, a);
+        if (b < 0) return false;
+
+        int m = buildRegion(i, a, b);
+        long total = 0;
+        for (int u = 0; u < m; u++) total += base.population(global[u]);
+        // Population of a and b that lies outside the recombined region.
+        long fixedA = districtPop[a] - regionPopA;
+        long fixedB = districtPop[b] - (total - regionPopA);
+
+        double bound = Math.max(tolerance, Math.max(deviation(districtPop[a]),
+                deviation(districtPop[b])));
+        boolean warmUp = bound > tolerance;
+        for (int t = 0; t < TREE_TRIES; t++) {
+            int root = rng.nextInt(m);
+            drawSpanningTree(m, root);
+            subtreePopulations(m, root);
+            boolean cutSideToA = rng.nextBoolean();
+            long subFixed = cutSideToA ? fixedA : fixedB;
+            long restFixed = cutSideToA ? fixedB : fixedA;
+            int cut = chooseCut(m, root, total, subFixed, restFixed, bound, warmUp);
+            if (cut < 0) continue;
+            commit(m, root, cut, cutSideToA ? a : b, cutSideToA ? b : a,
+                    subPop[cut] + subFixed, total - subPop[cut] + restFixed);
+            accepted++;
+            return true;
+        }
+        return false;
+    }
+
+    // ---------- proposal pieces ----------
+
+    private int randomOtherNeighbourDistrict(int i, int d) {
+        int seen = 0;
+        int pick = -1;
+        for (int nb : adj[i]) {
+            int t = assignment[nb];
+            if (t != d && rng.nextInt(++seen) == 0) pick = t;
+        }
+        return pick;
+    }
+
+    /**
+     * Index the connected piece of districts {@code a ∪ b} that contains
+     * precinct {@code start} (in BFS order) and build its local CSR.
+     * Returns the piece's size and sets {@link #regionPopA}.
+     */
+    private int buildRegion(int start, int a, int b) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(localStamp, 0);
+            stamp = 1;
+        }
+        int m = 0;
+        regionPopA = 0;
+        localStamp[start] = stamp;
+        localOf[start] = m;
+        global[m++] = start;
+        for (int head = 0; head < m; head++) {
+            int g = global[head];
+            if (assignment[g] == a) regionPopA += base.population(g);
+            for (int nb : adj[g]) {
+                int d = assignment[nb];
+                if ((d == a || d == b) && localStamp[nb] != stamp) {
+                    localStamp[nb] = stamp;
+                    localOf[nb] = m;
+                    global[m++] = nb;
+                }
+            }
+        }
+        int e = 0;
+        for (int u = 0; u < m; u++) {
+            offsets[u] = e;
+            for (int nb : adj[global[u]]) {
+                if (localStamp[nb] != stamp) continue;
+                if (e == neighbours.length) {
+                    neighbours = Arrays.copyOf(neighbours, e * 2);
+                }
+                neighbours[e++] = localOf[nb];
+            }
+        }
+        offsets[m] = e;
+        return m;
+    }
+
+    /** Wilson's algorithm: uniform spanning tree via loop-erased random walks. */
+    private void drawSpanningTree(int m, int root) {
+        nextTreeStamp();
+        inTreeStamp[root] = treeStamp;
+        next[root] = -1;
+        for (int s = 0; s < m; s++) {
+            int u = s;
+            while (inTreeStamp[u] != treeStamp) {
+                int deg = offsets[u + 1] - offsets[u];
+                next[u] = neighbours[offsets[u] + rng.nextInt(deg)];
+                u = next[u];
+            }
+            u = s;
+            while (inTreeStamp[u] != treeStamp) {
+                inTreeStamp[u] = treeStamp;
+                u = next[u];
+            }
+        }
+    }
+
+    /** Fill {@code subPop} and {@code order} (leaves first) for the tree in {@code next}. */
+    private void subtreePopulations(int m, int root) {
+        for (int u = 0; u < m; u++) childCount[u] = 0;
+        for (int u = 0; u < m; u++) if (u != root) childCount[next[u]]++;
+        int head = 0, tail = 0;
+        for (int u = 0; u < m; u++) {
+            subPop[u] = base.population(global[u]);
+            if (childCount[u] == 0) order[tail++] = u;
+        }
+        while (head < tail) {
+            int u = order[head++];
+            if (u == root) continue;
+            int p = next[u];
+            subPop[p] += subPop[u];
+            if (--childCount[p] == 0) order[tail++] = p;
+        }
+    }
+
+    /**
+     * Pick the tree edge {@code (u, parent(u))} to cut, returned as
+     * {@code u}; -1 when no edge leaves both resulting districts within
+     * {@code bound}. {@code subFixed} / {@code restFixed} are the populations
+     * the subtree's and the remainder's districts keep outside the region.
+     */
+    private int chooseCut(int m, int root, long total, long subFixed, long restFixed,
+                          double bound, boolean warmUp) {
+        int pick = -1;
+        int valid = 0;
+        double bestWorst = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < m; u++) {
+            if (u == root) continue;
+            double worst = Math.max(deviation(subPop[u] + subFixed),
+                    deviation(total - subPop[u] + restFixed));
+            if (worst > bound) continue;
+            if (warmUp) {
+                if (worst < bestWorst) { bestWorst = worst; pick = u; }
+            } else if (rng.nextInt(++valid) == 0) {
+                pick = u;
+            }
+        }
+        return pick;
+    }
+
+    private void commit(int m, int root, int cut, int subDistrict, int restDistrict,
+                        long subDistrictPop, long restDistrictPop) {
+        // Parents precede children in reverse `order`, so one sweep labels
+        // every node with the side of the cut it falls on.
+        for (int k = m - 1; k >= 0; k--) {
+            int u = order[k];
+            side[u] = u == cut || (u != root && side[next[u]]);
+        }
+        for (int u = 0; u < m; u++) {
+            assignment[global[u]] = side[u] ? subDistrict : restDistrict;
+        }
+        districtPop[subDistrict] = subDistrictPop;
+        districtPop[restDistrict] = restDistrictPop;
+        for (int u = 0; u < m; u++) boundary.moved(global[u]);
+    }
+
+    private double deviation(long pop) {
+        return Math.abs(pop - ideal) / ideal;
+    }
+
+    private void nextTreeStamp() {
+        if (++treeStamp == Integer.MAX_VALUE) {
+            Arrays.fill(inTreeStamp, 0);
+            treeStamp = 1;
+        }
+    }
+}
@@ -35,7 +35,7 @@ public interface RedistrictingAlgorithm {
     default boolean isSimple() { return false; }
 
     /**
-     * Run the algorithm.
+     * Run the algorithm without progress reporting or cancellation.
      *
      * @param base   the precinct substrate (real RDH precincts or synthetic).
      * @param params validated parameters; algorithms must respect at least
@@ -45,5 +45,17 @@ public interface RedistrictingAlgorithm {
      * @return per-precinct district assignment ({@code [0, districts)}),
      *         parallel to {@code base.precincts()}.
      */
-    int[] assign(PrecinctBase base, GenerationParams params);
+    default int[] assign(PrecinctBase base, GenerationParams params) {
+        return assign(base, params, GenerationMonitor.NONE);
+    }
+
+    /**
+     * Run the algorithm, reporting progress to {@code monitor} and polling
+     * it for cancellation. The result for a given {@code params} is the
+     * same whatever monitor is passed.
+     *
+     * @throws GenerationMonitor.CancelledException if {@code monitor}
+     *         reports cancellation before the run completes.
+     */
+    int[] assign(PrecinctBase base, GenerationParams params, GenerationMonitor monitor);
 }
@@ -0,0 +1,169 @@
+package com.redistricting.ai.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Frontier bookkeeping for greedy region growing: which unclaimed
+ * precincts border each district, and which of them is currently cheapest
+ * to absorb under a caller-supplied {@link Cost}.
+ *
+ * <p>Each district keeps a binary min-heap of frontier candidates. Costs
+ * depend on district state (population, centroid, …) that changes with
+ * every absorbed precinct, so heap keys are <em>lower bounds</em> rather
+ * than exact costs: after changing a district the caller reports, through
+ * {@link #loosen}, how far any of its candidates' costs may have dropped.
+ * That amount accumulates into a per-district slack, and a key stored as
+ * {@code cost + slack at the time} stays a valid bound forever after. On
+ * {@link #next} a stale top is re-costed in place and sifted down; a top
+ * that is current is the exact minimum, so growth picks a cheapest
+ * candidate in O(log F) amortised per step instead of a full O(F) scan.
+ *
+ * <p>Ties are not broken the way the scan did. Equal-cost candidates,
+ * which are common on regular grids, surface in whatever order push
+ * history and stale keys leave them, whereas the {@code HashSet} scan this
+ * replaced took the first in hash-iteration order. Simple growth, whose
+ * cost is a plain centroid distance, therefore produces different (equally
+ * valid) plans than the scan-based code did. Advanced costs rarely tie,
+ * and its plans were unchanged on the grids checked.
+ *
+ * <p>Claimed precincts are tracked in one bitmap and dropped lazily when
+ * they surface in another district's heap, instead of being removed from
+ * every frontier. Not thread-safe; one instance per growth run.
+ */
+final class RegionGrower {
+
+    /** Cost of adding {@code precinct} to {@code district} in the current state. */
+    @FunctionalInterface
+    interface Cost {
+        double of(int district, int precinct);
+    }
+
+    private final AdjacencyGraph graph;
+    private final Cost cost;
+    private final long[] claimed;
+    private final int[] pushedBy;   // last district whose heap got the precinct, -1 if none
+    private final Heap[] heaps;
+    private final double[] slack;
+    private final int[] version;
+
+    RegionGrower(AdjacencyGraph graph, int districts, Cost cost) {
+        int n = graph.size();
+        this.graph = graph;
+        this.cost = cost;
+        this.claimed = new long[(n + 63) >>> 6];
+        this.pushedBy = new int[n];
+        Arrays.fill(pushedBy, -1);
+        this.heaps = new Heap[districts];
+        for (int d = 0; d < districts; d++) heaps[d] = new Heap();
+        this.slack = new double[districts];
+        this.version = new int[districts];
+    }
+
+    boolean isClaimed(int i) {
+        return (claimed[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Mark {@code precinct} as taken by {@code district} and put its
+     * unclaimed neighbours on that district's frontier. Call after the
+     * district's state (and {@link #loosen}) reflect the addition.
+     */
+    void claim(int district, int precinct) {
+        claimed[precinct >>> 6] |= 1L << precinct;
+        int[] offsets = graph.offsets();
+        int[] neighbours = graph.neighbours();
+        Heap heap = heaps[district];
+        for (int k = offsets[precinct]; k < offsets[precinct + 1]; k++) {
+            int nb = neighbours[k];
+            if (isClaimed(nb) || pushedBy[nb] == district) continue;
+            pushedBy[nb] = district;
+            heap.push(nb, cost.of(district, nb) + slack[district], version[district]);
+        }
+    }
+
+    /**
+     * Record that {@code district}'s state changed and that the cost of any
+     * of its candidates may have fallen by at most {@code amount} (cost
+     * increases need no bound). Must be called on every state change.
+     */
+    void loosen(int district, double amount) {
+        // A hair of extra slack absorbs rounding in the accumulated bounds.
+        slack[district] += amount + 1e-12;
+        version[district]++;
+    }
+
+    /**
+     * Cheapest unclaimed frontier precinct of {@code district}, left in
+     * place, or -1 when its frontier is exhausted.
+     */
+    int next(int district) {
+        Heap heap = heaps[district];
+        while (heap.size > 0) {
+            int top = heap.item[0];
+            if (isClaimed(top)) {
+                heap.pop();
+            } else if (heap.stamp[0] == version[district]) {
+                return top;
+            } else {
+                heap.replaceTop(cost.of(district, top) + slack[district], version[district]);
+            }
+        }
+        return -1;
+    }
+
+    /** Array-backed binary min-heap of (key, precinct, version) entries. */
+    private static final class Heap {
+        double[] key = new double[16];
+        int[] item = new int[16];
+        int[] stamp = new int[16];
+        int size;
+
+        void push(int i, double k, int s) {
+            if (size == key.length) {
+                key = Arrays.copyOf(key, size * 2);
+                item = Arrays.copyOf(item, size * 2);
+                stamp = Arrays.copyOf(stamp, size * 2);
+            }
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (key[parent] <= k) break;
+                set(pos, parent);
+                pos = parent;
+            }
+            key[pos] = k;
+            item[pos] = i;
+            stamp[pos] = s;
+        }
+
+        void pop() {
+            size--;
+            if (size > 0) siftDown(key[size], item[size], stamp[size]);
+        }
+
+        void replaceTop(double k, int s) {
+            siftDown(k, item[0], s);
+        }
+
+        private void siftDown(double k, int i, int s) {
+            int pos = 0;
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= size) break;
+                if (child + 1 < size && key[child + 1] < key[child]) child++;
+                if (key[child] >= k) break;
+                set(pos, child);
+                pos = child;
+            }
+            key[pos] = k;
+            item[pos] = i;
+            stamp[pos] = s;
+        }
+
+        private void set(int to, int from) {
+            key[to] = key[from];
+            item[to] = item[from];
+            stamp[to] = stamp[from];
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.redistricting.ai.algorithms;
+
+import com.redistricting.model.Precinct;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed shared-boundary lengths between precincts.
+ *
+ * <p>For every pair of precincts that share at least one polygon edge the
+ * index stores the total shared length, and for every precinct the length
+ * of its boundary that is <em>not</em> shared with any other precinct
+ * (state border, coastline, or gaps in the source topology). Edges are
+ * matched the same way {@code MapPanel} finds district lines: two ring
+ * edges are the same edge when their endpoints coincide (within
+ * {@link #TOLERANCE}), regardless of direction.
+ *
+ * <p>With those two quantities a district's perimeter is
+ * <pre>
+ *   P(d) = Σ_{i ∈ d} exterior(i) + Σ_{i ∈ d, j ∉ d} shared(i, j)
+ * </pre>
+ * which is exact when neighbouring precincts share their boundary
+ * vertices, as clean GIS topology does, and moving one precinct changes
+ * the perimeters of its source and target districts by amounts computable
+ * in O(degree) — see {@link #sourcePerimeterDelta} and
+ * {@link #targetPerimeterDelta}.
+ *
+ * <p>Boundaries that don't share vertices are not matched; this includes
+ * precinct outlines simplified one at a time. Such boundaries count as
+ * exterior on both sides, so they add to every district perimeter whether
+ * or not the border is a district line, and moving a precinct across them
+ * changes no perimeter. The bundled NC preset is such data: only about 55%
+ * of its ring length is matched, and about a quarter of its adjacent
+ * precinct pairs (9,828 of 13,232 adjacency entries matched) share no
+ * length at all.
+ */
+public final class SharedEdgeIndex {
+
+    /** Coordinate quantum used to decide that two vertices coincide. */
+    public static final double TOLERANCE = 1e-6;
+
+    private final int[] offsets;      // CSR row pointers, size n + 1
+    private final int[] neighbours;   // sorted within each row
+    private final double[] shared;    // parallel to neighbours
+    private final double[] exterior;  // per precinct
+    private final double[] sharedTotal; // per precinct, Σ_j shared(i, j)
+
+    private SharedEdgeIndex(int[] offsets, int[] neighbours, double[] shared,
+                            double[] exterior) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.shared = shared;
+        this.exterior = exterior;
+        this.sharedTotal = new double[exterior.length];
+        for (int i = 0; i < exterior.length; i++) {
+            double sum = 0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) sum += shared[k];
+            sharedTotal[i] = sum;
+        }
+    }
+
+    /** Build the index from a precinct list. */
+    public static SharedEdgeIndex of(List<Precinct> precincts) {
+        return of(PrecinctColumns.of(precincts));
+    }
+
+    /** Build the index from a flattened precinct store. */
+    public static SharedEdgeIndex of(PrecinctColumns cols) {
+        int n = cols.size();
+        int vertices = cols.vertexCount();
+        KeyTable vertexIds = new KeyTable(vertices);
+        KeyTable edgeIds = new KeyTable(vertices);   // ≤ one edge per ring vertex
+        int[] edgeOwner = new int[vertices];
+        double[] edgeLength = new double[vertices];
+        boolean[] edgeMatched = new boolean[vertices];
+        KeyTable pairIds = new KeyTable(vertices);
+        double[] pairLength = new double[vertices];
+        double[] exterior = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            for (int r = cols.firstRing(i); r < cols.firstRing(i + 1); r++) {
+                int from = cols.ringVertexStart(r), to = cols.ringVertexStart(r + 1);
+                for (int v = from; v < to; v++) {
+                    int w = v + 1 == to ? from : v + 1;
+                    int a = vertexIds.idOf(quantise(cols.vertexX(v)), quantise(cols.vertexY(v)));
+                    int b = vertexIds.idOf(quantise(cols.vertexX(w)), quantise(cols.vertexY(w)));
+                    if (a == b) continue; // degenerate (repeated vertex)
+                    double dx = cols.vertexX(w) - cols.vertexX(v);
+                    double dy = cols.vertexY(w) - cols.vertexY(v);
+                    double len = Math.sqrt(dx * dx + dy * dy);
+                    int before = edgeIds.size();
+                    int e = edgeIds.idOf(Math.min(a, b), Math.max(a, b));
+                    if (e == before) {
+                        edgeOwner[e] = i;
+                        edgeLength[e] = len;
+                    } else if (edgeOwner[e] != i && !edgeMatched[e]) {
+                        edgeMatched[e] = true;
+                        int pair = pairIds.idOf(Math.min(i, edgeOwner[e]), Math.max(i, edgeOwner[e]));
+                        pairLength[pair] += len;
+                    }
+                }
+            }
+        }
+        for (int e = 0; e < edgeIds.size(); e++) {
+            if (!edgeMatched[e]) exterior[edgeOwner[e]] += edgeLength[e];
+        }
+
+        int pairs = pairIds.size();
+        int[] degree = new int[n];
+        for (int p = 0; p < pairs; p++) {
+            degree[(int) pairIds.first(p)]++;
+            degree[(int) pairIds.second(p)]++;
+        }
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) offsets[i + 1] = offsets[i] + degree[i];
+        int[] fill = offsets.clone();
+        int[] neighbours = new int[offsets[n]];
+        double[] shared = new double[offsets[n]];
+        for (int p = 0; p < pairs; p++) {
+            int a = (int) pairIds.first(p);
+            int b = (int) pairIds.second(p);
+            double len = pairLength[p];
+            neighbours[fill[a]] = b; shared[fill[a]++] = len;
+            neighbours[fill[b]] = a; shared[fill[b]++] = len;
+        }
+        for (int i = 0; i < n; i++) sortRow(neighbours, shared, offsets[i], offsets[i + 1]);
+        return new SharedEdgeIndex(offsets, neighbours, shared, exterior);
+    }
+
+    // -------- queries ------------------------------------------------------
+
+    public int size() { return exterior.length; }
+
+    /** Boundary length of precinct {@code i} not shared with any other precinct. */
+    public double exteriorLength(int i) { return exterior[i]; }
+
+    /** Σ of shared lengths between {@code i} and all its edge neighbours. */
+    public double sharedLength(int i) { return sharedTotal[i]; }
+
+    /** Shared boundary length between {@code i} and {@code j} (0 when not edge-adjacent). */
+    public double sharedLength(int i, int j) {
+        int lo = offsets[i], hi = offsets[i + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (neighbours[mid] < j) lo = mid + 1;
+            else if (neighbours[mid] > j) hi = mid - 1;
+            else return shared[mid];
+        }
+        return 0;
+    }
+
+    /** Edge neighbours of {@code i} live at positions {@code [neighbourStart(i), neighbourStart(i + 1))}. */
+    public int neighbourStart(int i) { return offsets[i]; }
+    public int neighbourAt(int k) { return neighbours[k]; }
+    public double sharedLengthAt(int k) { return shared[k]; }
+
+    /** Perimeter of every district under {@code assignment}. */
+    public double[] districtPerimeters(int[] assignment, int districts) {
+        return districtPerimeters(assignment, new double[districts]);
+    }
+
+    /** As {@link #districtPerimeters(int[], int)}, overwriting {@code out} (one slot per district). */
+    public double[] districtPerimeters(int[] assignment, double[] out) {
+        Arrays.fill(out, 0);
+        for (int i = 0; i < exterior.length; i++) {
+            int d = assignment[i];
+            out[d] += exterior[i];
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (assignment[neighbours[k]] != d) out[d] += shared[k];
+            }
+        }
+        return out;
+    }
+
+    /** Σ shared length between {@code i} and neighbours currently in district {@code d}. */
+    public double sharedWithDistrict(int i, int d, int[] assignment) {
+        double sum = 0;
+        for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+            if (assignment[neighbours[k]] == d) sum += shared[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Perimeter change of {@code from} when {@code i} leaves it. Must be
+     * called while {@code assignment[i] == from}.
+     */
+    public double sourcePerimeterDelta(int i, int from, int[] assignment) {
+        return -exterior[i] - sharedTotal[i] + 2 * sharedWithDistrict(i, from, assignment);
+    }
+
+    /** Perimeter change of {@code to} when {@code i} joins it. */
+    public double targetPerimeterDelta(int i, int to, int[] assignment) {
+        return exterior[i] + sharedTotal[i] - 2 * sharedWithDistrict(i, to, assignment);
+    }
+
+    // -------- construction helpers -----------------------------------------
+
+    private static long quantise(double c) { return Math.round(c / TOLERANCE); }
+
+    /** Insertion sort of one CSR row by neighbour id (rows are short). */
+    private static void sortRow(int[] nb, double[] len, int from, int to) {
+        for (int a = from + 1; a < to; a++) {
+            int key = nb[a];
+            double kl = len[a];
+            int b = a - 1;
+            while (b >= from && nb[b] > key) {
+                nb[b + 1] = nb[b];
+                len[b + 1] = len[b];
+                b--;
+            }
+            nb[b + 1] = key;
+            len[b + 1] = kl;
+        }
+    }
+}
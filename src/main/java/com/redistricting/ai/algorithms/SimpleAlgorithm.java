@@ -1,14 +1,10 @@
 package com.redistricting.ai.algorithms;
 
 import com.redistricting.ai.GenerationParams;
-import com.redistricting.model.Precinct;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * <strong>Simple</strong> redistricting algorithm.
@@ -23,7 +19,8 @@ import java.util.Set;
  *   <li>Repeat: find the district that is currently the most under its
  *       ideal population share <em>and</em> still has frontier precincts;
  *       absorb the neighbouring frontier precinct closest to that
- *       district's centroid.</li>
+ *       district's centroid (kept in a {@link RegionGrower} heap, so each
+ *       step is O(log frontier)).</li>
  *   <li>If any unassigned precincts remain (rare; can happen on irregular
  *       precinct topology), give them to the smallest neighbouring
  *       district reachable by BFS.</li>
@@ -46,10 +43,10 @@ public final class SimpleAlgorithm implements RedistrictingAlgorithm {
     }
 
     @Override
-    public int[] assign(PrecinctBase base, GenerationParams params) {
-        List<Precinct> precincts = base.precincts();
+    public int[] assign(PrecinctBase base, GenerationParams params,
+                        GenerationMonitor monitor) {
         int[][] adj = base.adjacency();
-        int n = precincts.size();
+        int n = base.size();
         int D = params.districts();
         if (D > n) {
             throw new IllegalArgumentException(
@@ -67,9 +64,13 @@ public final class SimpleAlgorithm implements RedistrictingAlgorithm {
         long[] districtPop = new long[D];
         double[] cxSum = new double[D];
         double[] cySum = new double[D];
-        @SuppressWarnings("unchecked")
-        Set<Integer>[] frontier = new Set[D];
-        for (int d = 0; d < D; d++) frontier[d] = new HashSet<>();
+        // Distance to the district's population-weighted centroid.
+        RegionGrower grower = new RegionGrower(base.graph(), D, (d, idx) -> {
+            double dx = base.centroidX(idx) - centroid(cxSum, districtPop, d);
+            double dy = base.centroidY(idx) - centroid(cySum, districtPop, d);
+            return Math.sqrt(dx * dx + dy * dy);
+        });
+        boolean[] exhausted = new boolean[D];
 
         long totalPop = base.totalPopulation();
         double idealPop = (double) totalPop / D;
@@ -77,37 +78,36 @@ public final class SimpleAlgorithm implements RedistrictingAlgorithm {
         for (int d = 0; d < D; d++) {
             int idx = seeds[d];
             assignment[idx] = d;
-            absorb(d, idx, precincts, districtPop, cxSum, cySum);
-            for (int nb : adj[idx]) if (assignment[nb] == -1) frontier[d].add(nb);
+            absorb(d, idx, base, districtPop, cxSum, cySum);
+            grower.claim(d, idx);
         }
 
         int remaining = n - D;
         while (remaining > 0) {
+            if ((remaining & 0xFF) == 0) monitor.checkCancelled();
             int chosen = -1;
             double minRatio = Double.POSITIVE_INFINITY;
             for (int d = 0; d < D; d++) {
-                if (frontier[d].isEmpty()) continue;
+                if (exhausted[d]) continue;
                 double ratio = districtPop[d] / idealPop;
                 if (ratio < minRatio) { minRatio = ratio; chosen = d; }
             }
             if (chosen == -1) break;
 
-            // Pick the frontier precinct closest to the district's centroid.
-            int picked = -1;
-            double bestDist = Double.POSITIVE_INFINITY;
-            double cx = cxSum[chosen] / districtPop[chosen];
-            double cy = cySum[chosen] / districtPop[chosen];
-            for (int idx : frontier[chosen]) {
-                double[] c = precincts.get(idx).centroid();
-                double d2 = (c[0] - cx) * (c[0] - cx) + (c[1] - cy) * (c[1] - cy);
-                if (d2 < bestDist) { bestDist = d2; picked = idx; }
+            // Absorb the frontier precinct closest to the district's centroid.
+            int picked = grower.next(chosen);
+            if (picked == -1) {
+                exhausted[chosen] = true;
+                continue;
             }
+            double oldX = centroid(cxSum, districtPop, chosen);
+            double oldY = centroid(cySum, districtPop, chosen);
             assignment[picked] = chosen;
-            absorb(chosen, picked, precincts, districtPop, cxSum, cySum);
-            for (Set<Integer> f : frontier) f.remove(picked);
-            for (int nb : adj[picked]) {
-                if (assignment[nb] == -1) frontier[chosen].add(nb);
-            }
+            absorb(chosen, picked, base, districtPop, cxSum, cySum);
+            // Distances shrink by at most the distance the centroid moved.
+            grower.loosen(chosen, Math.hypot(centroid(cxSum, districtPop, chosen) - oldX,
+                    centroid(cySum, districtPop, chosen) - oldY));
+            grower.claim(chosen, picked);
             remaining--;
         }
 
@@ -119,114 +119,40 @@ public final class SimpleAlgorithm implements RedistrictingAlgorithm {
             assignment[i] = target;
         }
 
-        GeographyUtils.repairContiguity(assignment, adj, D, 4);
+        GeographyUtils.repairContiguity(assignment, base.graph(), D, 4, monitor);
 
         // Population balancing pass: nudge precincts across district boundaries
         // until every district is within the requested tolerance, while
         // preserving contiguity. Cheap on small bases, bounded for safety.
-        rebalancePopulations(assignment, base, params, D, idealPop);
-        GeographyUtils.repairContiguity(assignment, adj, D, 4);
+        rebalancePopulations(assignment, base, params, D, monitor);
+        GeographyUtils.repairContiguity(assignment, base.graph(), D, 4, monitor);
         return assignment;
     }
 
     /**
-     * Greedy boundary transfers from over-populated districts to
-     * under-populated neighbours.
-     *
-     * <p>Per pass we rank the districts by signed population deviation and
-     * try every (over, under) pair in worst-first order. When we cannot
-     * find a contiguity-preserving donor between the <em>worst</em> over /
-     * under pair we used to bail out entirely; that early exit was the main
-     * reason real datasets ended up with several-percent population skew.
-     * We now keep trying lesser-imbalance pairs, and we keep iterating as
-     * long as <em>any</em> pass made progress (capped at a generous
-     * multiple of the precinct count for safety).
+     * Push population from over- to under-populated districts with a
+     * {@link PopulationBalancer} until every district is within the
+     * requested tolerance (0.5% at the loosest), preserving contiguity.
+     * Capped at a generous multiple of the precinct count for safety.
      */
     private static void rebalancePopulations(int[] assignment, PrecinctBase base,
                                              GenerationParams params, int D,
-                                             double idealPop) {
-        int[][] adj = base.adjacency();
-        List<Precinct> precincts = base.precincts();
-        // Tight default floor (0.5%) but honour a stricter user tolerance.
+                                             GenerationMonitor monitor) {
         double tol = Math.max(0.005, params.populationTolerance());
-        int iterCap = Math.max(2_000, precincts.size() * 4);
-
-        for (int pass = 0; pass < iterCap; pass++) {
-            long[] pop = new long[D];
-            int[] count = new int[D];
-            for (int i = 0; i < precincts.size(); i++) {
-                pop[assignment[i]] += precincts.get(i).population();
-                count[assignment[i]]++;
-            }
-            // Sort district ids by deviation (most-over first, most-under last).
-            Integer[] order = new Integer[D];
-            for (int d = 0; d < D; d++) order[d] = d;
-            java.util.Arrays.sort(order, (a, b) -> Double.compare(pop[b], pop[a]));
-
-            // Are we already within tolerance everywhere?
-            double maxAbsDev = 0;
-            for (int d = 0; d < D; d++) {
-                double dev = Math.abs(pop[d] - idealPop) / idealPop;
-                if (dev > maxAbsDev) maxAbsDev = dev;
-            }
-            if (maxAbsDev <= tol) return;
-
-            boolean moved = false;
-            outer:
-            for (int oi = 0; oi < D; oi++) {
-                int over = order[oi];
-                if (pop[over] <= idealPop || count[over] <= 1) continue;
-                for (int ui = D - 1; ui > oi; ui--) {
-                    int under = order[ui];
-                    if (pop[under] >= idealPop) continue;
-                    int donor = pickDonor(assignment, adj, precincts, over, under,
-                            pop, idealPop);
-                    if (donor != -1) {
-                        assignment[donor] = under;
-                        moved = true;
-                        break outer;
-                    }
-                }
-            }
-            if (!moved) return;
-        }
+        int chainCap = Math.max(2_000, base.size() * 4);
+        new PopulationBalancer(base, assignment, D).balance(tol, chainCap, monitor);
     }
 
-    /**
-     * Choose a precinct in {@code over} that touches {@code under} and whose
-     * transfer (a) keeps {@code over} connected and (b) does not push
-     * {@code under} above ideal. Prefers the donor whose move leaves the
-     * combined absolute deviation as small as possible.
-     */
-    private static int pickDonor(int[] assignment, int[][] adj, List<Precinct> precincts,
-                                 int over, int under, long[] pop, double idealPop) {
-        int best = -1;
-        double bestScore = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < assignment.length; i++) {
-            if (assignment[i] != over) continue;
-            boolean touchesUnder = false;
-            for (int nb : adj[i]) if (assignment[nb] == under) { touchesUnder = true; break; }
-            if (!touchesUnder) continue;
-            int pp = precincts.get(i).population();
-            // Avoid transfers that would simply flip the imbalance (i.e. make
-            // the under-pop district end up larger than the over-pop one was).
-            if (pop[under] + pp > pop[over]) continue;
-            if (!GeographyUtils.wouldStayConnectedWithout(i, assignment, adj)) continue;
-            double newOver = Math.abs(pop[over] - pp - idealPop);
-            double newUnder = Math.abs(pop[under] + pp - idealPop);
-            double score = newOver + newUnder;
-            if (score < bestScore) { bestScore = score; best = i; }
-        }
-        return best;
+    private static void absorb(int d, int idx, PrecinctBase base,
+                               long[] pop, double[] cxSum, double[] cySum) {
+        int p = base.population(idx);
+        pop[d] += p;
+        cxSum[d] += base.centroidX(idx) * p;
+        cySum[d] += base.centroidY(idx) * p;
     }
 
-    private static void absorb(int d, int idx, List<Precinct> precincts,
-                               long[] pop, double[] cxSum, double[] cySum) {
-        Precinct p = precincts.get(idx);
-        pop[d] += p.population();
-        double[] c = p.centroid();
-        cxSum[d] += c[0] * p.population();
-        cySum[d] += c[1] * p.population();
+    private static double centroid(double[] sum, long[] pop, int d) {
+        return pop[d] == 0 ? 0 : sum[d] / pop[d];
     }
 
     private static int nearestAssignedDistrict(int start, int[][] adj, int[] assignment) {
@@ -15,16 +15,16 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
 /**
- * Modal dialog that shows an indeterminate progress bar (and an animated
- * status line) while a redistricting plan is being generated on a worker
- * thread.
+ * Modal dialog that shows a progress bar (and an animated status line)
+ * while a redistricting plan is being generated on a worker thread. The
+ * bar starts indeterminate and switches to determinate once the generator
+ * reports attempt progress.
  *
  * <p>The dialog is owner-modal and non-resizable; it fields a Cancel
- * button which simply hides the dialog and signals the caller via a flag.
- * The caller is responsible for honouring cancellation (the in-tree
- * generators don't currently expose interruption hooks, so the worker
- * thread will run to completion either way — but the user gets immediate
- * UI feedback that they don't have to wait).
+ * button which hides the dialog and signals the caller via a flag. The
+ * caller honours cancellation by polling {@link #isCancelled()} from a
+ * {@link com.redistricting.ai.algorithms.GenerationMonitor}, which stops
+ * the generator within a few milliseconds.
  */
 public final class GenerationProgressDialog extends JDialog {
 
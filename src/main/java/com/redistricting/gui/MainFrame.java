@@ -4,10 +4,12 @@ import com.redistricting.ai.FairnessAnalyzer;
 import com.redistricting.ai.FairnessReport;
 import com.redistricting.ai.GenerationParams;
 import com.redistricting.ai.MapGenerator;
+import com.redistricting.ai.algorithms.GenerationMonitor;
 import com.redistricting.ai.algorithms.PrecinctBase;
 import com.redistricting.io.DistrictShapesGeoJsonWriter;
 import com.redistricting.io.DraImporter;
 import com.redistricting.io.PlanGeoJsonWriter;
+import com.redistricting.io.PrecinctSnapshot;
 import com.redistricting.io.Presets;
 import com.redistricting.io.RdhPrecinctLoader;
 import com.redistricting.model.Precinct;
@@ -72,6 +74,8 @@ public final class MainFrame extends JFrame {
     private final JLabel statusBar = new JLabel(" Ready");
     private final FairnessAnalyzer analyzer = new FairnessAnalyzer();
     private final List<JComponent> mapDependentItems = new ArrayList<>();
+    /** Base of the last loaded or generated map; reused while plans share its geometry. */
+    private volatile PrecinctBase currentBase;
 
     // Toolbar widgets (held for refresh after the map changes).
     private final JComboBox<String> districtPicker = new JComboBox<>();
@@ -82,7 +86,13 @@ public final class MainFrame extends JFrame {
     private final JButton redoBtn = new JButton("↷ Redo");
 
     public MainFrame(RedistrictingMap initialMap) {
+        this(initialMap, null);
+    }
+
+    /** As {@link #MainFrame(RedistrictingMap)}, with the base {@code initialMap} was built on. */
+    public MainFrame(RedistrictingMap initialMap, PrecinctBase initialBase) {
         super("Redistricting Studio");
+        this.currentBase = initialBase;
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setJMenuBar(buildMenuBar());
 
@@ -456,7 +466,9 @@ public final class MainFrame extends JFrame {
                 "Import RDH precinct file", "geojson", "json");
         if (path == null) return;
         try {
-            adoptMap(RdhPrecinctLoader.loadPrecinctsGeoJson(path));
+            PrecinctBase base = RdhPrecinctLoader.loadPrecinctsBase(path);
+            currentBase = base;
+            adoptMap(PrecinctSnapshot.toMap(base));
         } catch (IOException | RuntimeException ex) {
             showError("Import failed", ex);
         }
@@ -464,7 +476,9 @@ public final class MainFrame extends JFrame {
 
     private void doLoadPreset(Presets.Preset preset) {
         try {
-            adoptMap(preset.load());
+            PrecinctBase base = preset.loadBase();
+            currentBase = base;
+            adoptMap(PrecinctSnapshot.toMap(base));
         } catch (IOException | RuntimeException ex) {
             showError("Preset load failed", ex);
         }
@@ -528,7 +542,9 @@ public final class MainFrame extends JFrame {
 
     private static Path ensureExt(Path path, String ext) {
         String s = path.toString().toLowerCase();
-        if (s.endsWith(".geojson") || s.endsWith(".json")) return path;
+        if (s.endsWith(".geojson") || s.endsWith(".json") || s.endsWith(".geojson.gz")) {
+            return path; // .geojson.gz: the writers gzip on the fly
+        }
         return path.resolveSibling(path.getFileName() + ext);
     }
 
@@ -537,7 +553,7 @@ public final class MainFrame extends JFrame {
     private void doAnalyze() {
         RedistrictingMap map = mapPanel.getMap();
         if (map == null) return;
-        FairnessReport report = analyzer.analyze(map);
+        FairnessReport report = analyzer.analyze(map, baseFor(map));
         showReport("Fairness Report", report.prettyPrint(map.name()));
     }
 
@@ -552,14 +568,27 @@ public final class MainFrame extends JFrame {
                     "Optimizer unavailable", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-        FairnessReport before = analyzer.analyze(map);
-        FairnessReport after = analyzer.optimize(map, 5000, 42L);
+        PrecinctBase base = baseFor(map);
+        FairnessReport before = analyzer.analyze(map, base);
+        FairnessReport after = analyzer.optimize(map, base, 500_000, 42L);
         mapPanel.repaint();
         showReport("Optimization complete",
                 "BEFORE\n" + before.prettyPrint(map.name())
                 + "\nAFTER\n" + after.prettyPrint(map.name()));
     }
 
+    /**
+     * The cached base when it still covers {@code map}'s geometry, otherwise
+     * a fresh one, which then becomes the cached base.
+     */
+    private PrecinctBase baseFor(RedistrictingMap map) {
+        PrecinctBase known = currentBase;
+        PrecinctBase base = known != null && known.sharesGeometryWith(map)
+                ? known : PrecinctBase.fromMap(map);
+        currentBase = base;
+        return base;
+    }
+
     private void doGenerate() {
         GenerationParams params = GenerateDialog.showDialog(this);
         if (params == null) return;
@@ -573,10 +602,28 @@ public final class MainFrame extends JFrame {
                 + baseMap.precincts().size() + " precincts)");
         statusBar.setText(" Generating plan…");
 
+        GenerationMonitor monitor = new GenerationMonitor() {
+            /** Highest count shown so far; read and written on the EDT only. */
+            private int shown;
+
+            @Override public boolean isCancelled() { return progress.isCancelled(); }
+            @Override public void attemptCompleted(int completed, int attempts) {
+                // Pool threads report out of order; never step the bar back.
+                SwingUtilities.invokeLater(() -> {
+                    if (completed <= shown) return;
+                    shown = completed;
+                    progress.setRange(0, attempts);
+                    progress.setValue(completed);
+                    progress.setStatus("Generating plan… attempt " + completed + " of "
+                            + attempts + " done");
+                });
+            }
+        };
+
         Thread worker = new Thread(() -> {
             try {
-                PrecinctBase base = PrecinctBase.fromMap(baseMap);
-                RedistrictingMap plan = new MapGenerator().generate(base, params);
+                PrecinctBase base = baseFor(baseMap);
+                RedistrictingMap plan = new MapGenerator().generate(base, params, monitor);
                 SwingUtilities.invokeLater(() -> {
                     progress.finish();
                     if (progress.isCancelled()) {
@@ -585,6 +632,11 @@ public final class MainFrame extends JFrame {
                         adoptMap(plan);
                     }
                 });
+            } catch (GenerationMonitor.CancelledException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    progress.finish();
+                    statusBar.setText(" Generation cancelled");
+                });
             } catch (RuntimeException ex) {
                 SwingUtilities.invokeLater(() -> {
                     progress.finish();
@@ -635,10 +687,7 @@ public final class MainFrame extends JFrame {
      */
     private static RedistrictingMap blankPlanFrom(RedistrictingMap base, int districtCount) {
         List<Precinct> copies = new ArrayList<>(base.precincts().size());
-        for (Precinct p : base.precincts()) {
-            copies.add(new Precinct(p.id(), 0, p.population(),
-                    p.demVotes(), p.repVotes(), p.rings()));
-        }
+        for (Precinct p : base.precincts()) copies.add(p.withDistrict(0));
         return new RedistrictingMap(base.name() + " — blank plan",
                 districtCount, copies);
     }
@@ -688,13 +737,15 @@ public final class MainFrame extends JFrame {
         SwingUtilities.invokeLater(() -> {
             DarkTheme.install();
             RedistrictingMap base = null;
+            PrecinctBase precincts = null;
             try {
-                base = Presets.NC_2024_PRESIDENTIAL.load();
+                precincts = Presets.NC_2024_PRESIDENTIAL.loadBase();
+                base = PrecinctSnapshot.toMap(precincts);
             } catch (IOException | RuntimeException ex) {
                 base = RdhStartupDialog.show(null);
                 if (base == null) return;
             }
-            MainFrame f = new MainFrame(base);
+            MainFrame f = new MainFrame(base, precincts);
             f.setVisible(true);
             TutorialDialog.showOnFirstLaunch(f);
         });
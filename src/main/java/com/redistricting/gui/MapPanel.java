@@ -1,5 +1,8 @@
 package com.redistricting.gui;
 
+import com.redistricting.ai.algorithms.DistrictDissolver;
+import com.redistricting.ai.algorithms.DistrictOutlines;
+import com.redistricting.ai.algorithms.PrecinctColumns;
 import com.redistricting.model.District;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
@@ -21,13 +24,10 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -94,8 +94,10 @@ public final class MapPanel extends JPanel {
     /** Listener fired when the precinct → district assignment changes. */
     private Consumer<RedistrictingMap> changeListener;
 
-    /** Pre-computed boundary segments between precincts of different districts. */
-    private List<double[]> districtBoundary; // each entry: {x1,y1,x2,y2}
+    /** Edge topology of the loaded precincts, rebuilt only when the map changes. */
+    private DistrictDissolver dissolver;
+    /** Pre-computed lines between districts, in world coordinates. */
+    private Path2D.Double districtBoundary;
     /** Pre-computed population-weighted district centroids for label placement. */
     private Point2D.Double[] districtCentroid;
 
@@ -167,6 +169,7 @@ public final class MapPanel extends JPanel {
     public void setMap(RedistrictingMap map) {
         this.map = map;
         this.bbox = computeBbox(map);
+        this.dissolver = DistrictDissolver.of(PrecinctColumns.of(map.precincts()));
         rebuildDerived();
         undoStack.clear();
         redoStack.clear();
@@ -275,6 +278,12 @@ public final class MapPanel extends JPanel {
     }
 
     private static boolean precinctTouches(Precinct p, double mx, double my, double r) {
+        // Cheap reject: cursor (plus brush) nowhere near the precinct's bbox.
+        double pad = Math.max(0, r);
+        if (mx < p.minX() - pad || mx > p.maxX() + pad
+                || my < p.minY() - pad || my > p.maxY() + pad) {
+            return false;
+        }
         // Fast path: brush radius 0 → require point-in-polygon.
         if (r <= 0) {
             for (List<double[]> ring : p.rings()) {
@@ -296,7 +305,7 @@ public final class MapPanel extends JPanel {
     }
 
     private void rebuildDerived() {
-        this.districtBoundary = computeDistrictBoundary(map);
+        this.districtBoundary = computeDistrictBoundary(map, dissolver);
         this.districtCentroid = computeDistrictCentroids(map);
     }
 
@@ -392,12 +401,7 @@ public final class MapPanel extends JPanel {
             g2.setStroke(new BasicStroke(wholeDistrict ? 2.4f : 1.8f));
             g2.setColor(dark ? DarkTheme.MAP_BOUNDARY : Color.BLACK);
             if (districtBoundary != null) {
-                for (double[] seg : districtBoundary) {
-                    Path2D.Double line = new Path2D.Double();
-                    line.moveTo(seg[0], seg[1]);
-                    line.lineTo(seg[2], seg[3]);
-                    g2.draw(line.createTransformedShape(t));
-                }
+                g2.draw(districtBoundary.createTransformedShape(t));
             }
         }
 
@@ -595,65 +599,37 @@ public final class MapPanel extends JPanel {
     // ---------- precomputed boundary + centroids -------------------------
 
     /**
-     * Compute the line segments that lie between precincts of different
-     * districts. Two precincts are considered to share an edge when they
-     * share two consecutive vertices (within a small tolerance) on their
-     * rings — this is exact for all geometries that came from a real GIS
-     * dataset (where shared boundaries use shared vertex coordinates).
+     * Trace the lines between districts from the dissolved district
+     * outlines. Every such edge appears in the outlines of both districts it
+     * separates; it is drawn once, from the lower-numbered side, and the
+     * state border (nothing across) is not drawn at all. Consecutive edges
+     * join into polylines, so the whole boundary is one shape.
      */
-    private static List<double[]> computeDistrictBoundary(RedistrictingMap map) {
-        if (map == null) return List.of();
-        Map<Long, EdgeInfo> edges = new HashMap<>();
-        for (Precinct p : map.precincts()) {
-            for (List<double[]> ring : p.rings()) {
-                int n = ring.size();
-                for (int i = 0; i < n; i++) {
-                    double[] a = ring.get(i);
-                    double[] b = ring.get((i + 1) % n);
-                    long key = edgeKey(a, b);
-                    EdgeInfo info = edges.get(key);
-                    if (info == null) {
-                        edges.put(key, new EdgeInfo(a, b, p.district()));
-                    } else if (info.district != p.district()) {
-                        info.differs = true;
+    private static Path2D.Double computeDistrictBoundary(RedistrictingMap map,
+                                                         DistrictDissolver dissolver) {
+        if (map == null || dissolver == null) return null;
+        List<Precinct> ps = map.precincts();
+        int[] assignment = new int[ps.size()];
+        for (int i = 0; i < assignment.length; i++) assignment[i] = ps.get(i).district();
+        DistrictOutlines o = dissolver.dissolve(assignment, map.districtCount());
+        Path2D.Double path = new Path2D.Double();
+        for (int d = 0; d < o.districts(); d++) {
+            for (int r = o.firstRing(o.polygonStart(d)); r < o.firstRing(o.polygonStart(d + 1)); r++) {
+                int from = o.ringVertexStart(r), to = o.ringVertexStart(r + 1);
+                boolean drawing = false;
+                for (int v = from; v < to; v++) {
+                    int w = v + 1 == to ? from : v + 1;
+                    if (o.across(v) <= d) {
+                        drawing = false;
+                        continue;
                     }
+                    if (!drawing) path.moveTo(o.vertexX(v), o.vertexY(v));
+                    path.lineTo(o.vertexX(w), o.vertexY(w));
+                    drawing = true;
                 }
             }
         }
-        List<double[]> boundary = new ArrayList<>();
-        Set<Long> seen = new HashSet<>();
-        for (Map.Entry<Long, EdgeInfo> e : edges.entrySet()) {
-            EdgeInfo info = e.getValue();
-            if (!info.differs) continue;
-            if (!seen.add(e.getKey())) continue;
-            boundary.add(new double[] { info.ax, info.ay, info.bx, info.by });
-        }
-        return boundary;
-    }
-
-    private static final class EdgeInfo {
-        final double ax, ay, bx, by;
-        final int district;
-        boolean differs;
-        EdgeInfo(double[] a, double[] b, int district) {
-            this.ax = a[0]; this.ay = a[1];
-            this.bx = b[0]; this.by = b[1];
-            this.district = district;
-        }
-    }
-
-    private static long edgeKey(double[] a, double[] b) {
-        long ka = vertexKey(a[0], a[1]);
-        long kb = vertexKey(b[0], b[1]);
-        // Order-independent.
-        long lo = Math.min(ka, kb), hi = Math.max(ka, kb);
-        return lo * 1315423911L ^ hi;
-    }
-
-    private static long vertexKey(double x, double y) {
-        long ix = Math.round(x * 1e6);
-        long iy = Math.round(y * 1e6);
-        return (ix * 73856093L) ^ (iy * 19349663L);
+        return path;
     }
 
     private static Point2D.Double[] computeDistrictCentroids(RedistrictingMap map) {
@@ -665,10 +641,9 @@ public final class MapPanel extends JPanel {
         for (Precinct p : map.precincts()) {
             int d = p.district();
             if (d < 0 || d >= D) continue;
-            double[] c = p.centroid();
             long w = Math.max(1, p.population());
-            sumX[d] += c[0] * w;
-            sumY[d] += c[1] * w;
+            sumX[d] += p.centroidX() * w;
+            sumY[d] += p.centroidY() * w;
             weight[d] += w;
         }
         Point2D.Double[] out = new Point2D.Double[D];
@@ -681,12 +656,9 @@ public final class MapPanel extends JPanel {
 
     private static Path2D.Double polyPath(Precinct p) {
         Path2D.Double path = new Path2D.Double();
-        for (List<double[]> ring : p.rings()) {
-            for (int i = 0; i < ring.size(); i++) {
-                double[] v = ring.get(i);
-                if (i == 0) path.moveTo(v[0], v[1]);
-                else path.lineTo(v[0], v[1]);
-            }
+        for (int r = 0; r < p.ringCount(); r++) {
+            path.moveTo(p.vertexX(r, 0), p.vertexY(r, 0));
+            for (int i = 1; i < p.ringSize(r); i++) path.lineTo(p.vertexX(r, i), p.vertexY(r, i));
             path.closePath();
         }
         return path;
@@ -696,14 +668,10 @@ public final class MapPanel extends JPanel {
         double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
         double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
         for (Precinct p : map.precincts()) {
-            for (List<double[]> ring : p.rings()) {
-                for (double[] v : ring) {
-                    if (v[0] < minX) minX = v[0];
-                    if (v[1] < minY) minY = v[1];
-                    if (v[0] > maxX) maxX = v[0];
-                    if (v[1] > maxY) maxY = v[1];
-                }
-            }
+            if (p.minX() < minX) minX = p.minX();
+            if (p.minY() < minY) minY = p.minY();
+            if (p.maxX() > maxX) maxX = p.maxX();
+            if (p.maxY() > maxY) maxY = p.maxY();
         }
         return new double[] { minX, minY, maxX, maxY };
     }
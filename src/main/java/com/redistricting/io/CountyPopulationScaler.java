@@ -77,8 +77,7 @@ public final class CountyPopulationScaler {
             int newPop = (m == null)
                     ? p.population()
                     : (int) Math.max(0, Math.round(p.population() * m));
-            rescaled.add(new Precinct(p.id(), p.district(), newPop,
-                    p.demVotes(), p.repVotes(), p.rings()));
+            rescaled.add(p.withStats(newPop, p.demVotes(), p.repVotes()));
         }
         return new RedistrictingMap(map.name(), map.districtCount(), rescaled);
     }
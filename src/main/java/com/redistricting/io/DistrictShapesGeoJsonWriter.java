@@ -1,21 +1,21 @@
 package com.redistricting.io;
 
+import com.redistricting.ai.algorithms.DistrictDissolver;
+import com.redistricting.ai.algorithms.DistrictOutlines;
 import com.redistricting.model.District;
-import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Serializes a {@link RedistrictingMap} as a <strong>district-level</strong>
  * GeoJSON file — one {@code Feature} per district, with each district's
- * geometry expressed as a {@code MultiPolygon} that simply concatenates the
- * rings of every precinct assigned to it.
+ * geometry expressed as a {@code MultiPolygon} of its dissolved outline.
  *
  * <p>This is the format DRA emits for its <i>District Shapes</i> export and
  * is the most convenient artefact for users who want to drop their plan into
@@ -23,101 +23,86 @@ import java.util.Locale;
  * detail. Use {@link PlanGeoJsonWriter} when you want a precinct-level
  * round-trippable GeoJSON instead.
  *
- * <p>Because we don't link in a polygon-union library, the per-district
- * geometry is the union of <em>rings</em>, not a topologically dissolved
- * polygon. All major GIS tools accept this representation.
+ * <p>Outlines come from {@link DistrictDissolver}, which stitches together
+ * only the precinct edges not shared within the district: one polygon per
+ * contiguous part, counter-clockwise, with clockwise holes around enclaves
+ * of other districts. On a clean precinct topology that is a few percent of
+ * the vertices of the precinct rings it replaces. Edges that don't match
+ * exactly (the bundled presets were simplified precinct by precinct) can't
+ * be dissolved and stay in the outline as thin slivers.
+ *
+ * <p>Like {@link PlanGeoJsonWriter}, output is streamed through a
+ * {@link JsonWriter}, and a path ending in {@code .gz} is gzip-compressed on
+ * the fly.
  */
 public final class DistrictShapesGeoJsonWriter {
 
     private DistrictShapesGeoJsonWriter() {}
 
     public static void write(RedistrictingMap map, Path path) throws IOException {
-        Files.writeString(path, toJson(map), StandardCharsets.UTF_8);
-    }
-
-    public static String toJson(RedistrictingMap map) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\n  \"type\": \"FeatureCollection\",\n");
-        sb.append("  \"name\": ").append(jsonString(map.name() + " — districts")).append(",\n");
-        sb.append("  \"features\": [\n");
-        List<District> ds = map.districts();
-        for (int i = 0; i < ds.size(); i++) {
-            sb.append("    ").append(toFeature(ds.get(i)));
-            if (i < ds.size() - 1) sb.append(',');
-            sb.append('\n');
+        try (JsonWriter out = JsonWriter.open(path)) {
+            write(map, out);
         }
-        sb.append("  ]\n}\n");
-        return sb.toString();
     }
 
-    private static String toFeature(District d) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"Feature\",\"properties\":{");
-        sb.append("\"district\":").append(d.id() + 1).append(',');
-        sb.append("\"population\":").append(d.totalPopulation()).append(',');
-        sb.append("\"dem_votes\":").append(d.totalDemVotes()).append(',');
-        sb.append("\"rep_votes\":").append(d.totalRepVotes());
-        sb.append("},\"geometry\":");
-        sb.append(geometry(d));
-        sb.append('}');
-        return sb.toString();
+    /** Stream the document to {@code out}, which is flushed but not closed. */
+    public static void write(RedistrictingMap map, Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        write(map, json);
+        json.flush();
     }
 
-    private static String geometry(District d) {
-        StringBuilder sb = new StringBuilder("{\"type\":\"MultiPolygon\",\"coordinates\":[");
-        boolean first = true;
-        for (Precinct p : d.precincts()) {
-            for (List<double[]> ring : p.rings()) {
-                if (!first) sb.append(',');
-                first = false;
-                sb.append('[').append(ringCoords(ring)).append(']');
-            }
+    public static String toJson(RedistrictingMap map) {
+        StringWriter sw = new StringWriter();
+        try {
+            write(map, sw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter doesn't throw
         }
-        sb.append("]}");
-        return sb.toString();
+        return sw.toString();
     }
 
-    private static String ringCoords(List<double[]> ring) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < ring.size(); i++) {
-            if (i > 0) sb.append(',');
-            double[] v = ring.get(i);
-            sb.append('[').append(num(v[0])).append(',').append(num(v[1])).append(']');
-        }
-        double[] firstV = ring.get(0);
-        double[] last = ring.get(ring.size() - 1);
-        if (firstV[0] != last[0] || firstV[1] != last[1]) {
-            sb.append(',').append('[').append(num(firstV[0])).append(',')
-                    .append(num(firstV[1])).append(']');
+    private static void write(RedistrictingMap map, JsonWriter out) throws IOException {
+        DistrictOutlines outlines = DistrictDissolver.dissolve(map);
+        out.raw("{\n  \"type\": \"FeatureCollection\",\n");
+        out.raw("  \"name\": ").string(map.name() + " — districts").raw(",\n");
+        out.raw("  \"features\": [\n");
+        List<District> ds = map.districts();
+        for (int i = 0; i < ds.size(); i++) {
+            out.raw("    ");
+            feature(ds.get(i), outlines, out);
+            if (i < ds.size() - 1) out.raw(',');
+            out.raw('\n');
         }
-        sb.append(']');
-        return sb.toString();
+        out.raw("  ]\n}\n");
     }
 
-    private static String num(double v) {
-        if (v == Math.floor(v) && !Double.isInfinite(v) && Math.abs(v) < 1e15) {
-            return Long.toString((long) v);
-        }
-        return String.format(Locale.ROOT, "%.8g", v);
+    private static void feature(District d, DistrictOutlines outlines, JsonWriter out)
+            throws IOException {
+        out.raw("{\"type\":\"Feature\",\"properties\":{");
+        out.raw("\"district\":").value(d.id() + 1).raw(',');
+        out.raw("\"population\":").value(d.totalPopulation()).raw(',');
+        out.raw("\"dem_votes\":").value(d.totalDemVotes()).raw(',');
+        out.raw("\"rep_votes\":").value(d.totalRepVotes());
+        out.raw("},\"geometry\":");
+        geometry(outlines, d.id(), out);
+        out.raw('}');
     }
 
-    private static String jsonString(String s) {
-        StringBuilder sb = new StringBuilder(s.length() + 2);
-        sb.append('"');
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            switch (c) {
-                case '"' -> sb.append("\\\"");
-                case '\\' -> sb.append("\\\\");
-                case '\n' -> sb.append("\\n");
-                case '\r' -> sb.append("\\r");
-                case '\t' -> sb.append("\\t");
-                default -> {
-                    if (c < 0x20) sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
-                    else sb.append(c);
-                }
+    private static void geometry(DistrictOutlines o, int d, JsonWriter out) throws IOException {
+        out.raw("{\"type\":\"MultiPolygon\",\"coordinates\":[");
+        for (int p = o.polygonStart(d); p < o.polygonStart(d + 1); p++) {
+            if (p > o.polygonStart(d)) out.raw(',');
+            out.raw('[');
+            for (int r = o.firstRing(p); r < o.firstRing(p + 1); r++) {
+                if (r > o.firstRing(p)) out.raw(',');
+                int from = o.ringVertexStart(r), to = o.ringVertexStart(r + 1);
+                out.raw('[');
+                for (int v = from; v < to; v++) out.position(o.vertexX(v), o.vertexY(v)).raw(',');
+                out.position(o.vertexX(from), o.vertexY(from)).raw(']');
             }
+            out.raw(']');
         }
-        return sb.append('"').toString();
+        out.raw("]}");
     }
 }
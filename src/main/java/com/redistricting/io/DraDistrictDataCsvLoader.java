@@ -74,8 +74,7 @@ public final class DraDistrictDataCsvLoader {
             if (stats == null) {
                 updated.add(p);
             } else {
-                updated.add(new Precinct(p.id(), p.district(),
-                        stats[0], stats[1], stats[2], p.rings()));
+                updated.add(p.withStats(stats[0], stats[1], stats[2]));
             }
         }
         return new RedistrictingMap(base.name(), base.districtCount(), updated);
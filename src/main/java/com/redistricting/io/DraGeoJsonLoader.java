@@ -3,8 +3,13 @@ package com.redistricting.io;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -12,6 +17,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Loads a {@link RedistrictingMap} from a <strong>Dave's Redistricting App
@@ -34,81 +41,179 @@ import java.util.Map;
  *
  * <p>Geometries may be {@code Polygon} or {@code MultiPolygon} — both are
  * preserved as multi-ring precincts.
+ *
+ * <p>Files are read with a streaming {@link JsonReader}: features are
+ * turned into precincts one at a time, coordinates go straight into
+ * {@code double[]} vertices, and the document is never held as a string or
+ * an object tree.
  */
 public final class DraGeoJsonLoader {
 
     private DraGeoJsonLoader() {}
 
     public static RedistrictingMap loadFromFile(Path path) throws IOException {
-        return parse(Files.readString(path, StandardCharsets.UTF_8),
-                fileNameStem(path.getFileName().toString()));
+        try (Reader in = openText(path)) {
+            return read(in, fileNameStem(path.getFileName().toString()));
+        }
+    }
+
+    /**
+     * A UTF-8 reader over {@code path}, gunzipping on the fly when the name
+     * ends in {@code .gz} (as the GeoJSON writers produce).
+     */
+    static Reader openText(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        try {
+            if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
     }
 
     public static RedistrictingMap loadFromResource(String resourcePath) throws IOException {
         ClassLoader cl = DraGeoJsonLoader.class.getClassLoader();
         try (InputStream in = cl.getResourceAsStream(resourcePath)) {
             if (in == null) throw new IOException("resource not found: " + resourcePath);
-            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8),
+            return read(new InputStreamReader(in, StandardCharsets.UTF_8),
                     fileNameStem(resourcePath));
         }
     }
 
-    @SuppressWarnings("unchecked")
     public static RedistrictingMap parse(String json, String defaultName) {
-        Object root = Json.parse(json);
-        if (!(root instanceof Map)) {
+        try {
+            return read(new StringReader(json), defaultName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringReader doesn't throw
+        }
+    }
+
+    /** Stream a FeatureCollection from {@code in} (not closed) into a map. */
+    public static RedistrictingMap read(Reader in, String defaultName) throws IOException {
+        List<Precinct> precincts = new ArrayList<>();
+        Collection c = stream(in, defaultName, precincts::add);
+        return new RedistrictingMap(c.name(), c.maxDistrict(), precincts);
+    }
+
+    /** What {@link #stream} learned about the collection besides its precincts. */
+    record Collection(String name, int maxDistrict) {}
+
+    /**
+     * Walk the FeatureCollection in {@code in} one feature at a time and hand
+     * each resulting {@link Precinct} to {@code sink} as soon as it is built.
+     * Only the current feature's properties and rings are held, so memory
+     * apart from what {@code sink} keeps is independent of the file size.
+     */
+    static Collection stream(Reader in, String defaultName, Consumer<Precinct> sink)
+            throws IOException {
+        JsonReader r = new JsonReader(in);
+        if (r.peek() != JsonReader.Token.BEGIN_OBJECT) {
             throw new IllegalArgumentException("DRA GeoJSON: top-level must be an object");
         }
-        Map<String, Object> obj = (Map<String, Object>) root;
-        String type = String.valueOf(obj.get("type"));
-        if (!"FeatureCollection".equals(type)) {
-            throw new IllegalArgumentException(
-                    "DRA GeoJSON: expected FeatureCollection, got " + type);
+        String type = null;
+        String name = defaultName;
+        boolean sawFeature = false;
+        FeatureState state = new FeatureState(sink);
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+            switch (key) {
+                case "type" -> {
+                    type = String.valueOf(r.readValue());
+                    requireFeatureCollection(type);
+                }
+                case "name" -> {
+                    Object v = r.readValue();
+                    if (v instanceof String s) name = s;
+                }
+                case "features" -> {
+                    if (r.peek() == JsonReader.Token.NULL) {
+                        r.nextNull();
+                        break;
+                    }
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        sawFeature = true;
+                        readFeature(r, state);
+                    }
+                    r.endArray();
+                }
+                default -> r.skipValue();
+            }
         }
-        List<Object> features = (List<Object>) obj.get("features");
-        if (features == null || features.isEmpty()) {
+        r.endObject();
+        r.endDocument();
+
+        requireFeatureCollection(type);
+        if (!sawFeature) {
             throw new IllegalArgumentException("DRA GeoJSON: no features");
         }
+        if (state.emitted == 0) {
+            throw new IllegalArgumentException("DRA GeoJSON: no usable features");
+        }
+        return new Collection(name, state.maxDistrict);
+    }
 
-        String name = (String) obj.getOrDefault("name", defaultName);
+    private static void requireFeatureCollection(String type) {
+        if (!"FeatureCollection".equals(type)) {
+            throw new IllegalArgumentException(
+                    "DRA GeoJSON: expected FeatureCollection, got " + type);
+        }
+    }
 
-        List<Precinct> precincts = new ArrayList<>(features.size());
+    /** Running totals across the features of one stream. */
+    private static final class FeatureState {
+        final Consumer<Precinct> sink;
         int autoId = 1;
-        int maxDistrict = 0;
-        for (Object f : features) {
-            Map<String, Object> feature = (Map<String, Object>) f;
-            Map<String, Object> props = (Map<String, Object>) feature.getOrDefault(
-                    "properties", Map.of());
-            Map<String, Object> geom = (Map<String, Object>) feature.get("geometry");
-            if (geom == null) continue;
-
-            int district = readDistrict(props, autoId);
-            autoId = Math.max(autoId, district) + 1;
-            maxDistrict = Math.max(maxDistrict, district);
-
-            int population = (int) Math.round(readNumber(props, POP_HINTS, 0));
-            int dem = (int) Math.round(readNumber(props, DEM_HINTS, 0));
-            int rep = (int) Math.round(readNumber(props, REP_HINTS, 0));
-
-            List<List<double[]>> rings = GeoJsonGeometry.toRings(geom);
-            if (rings.isEmpty()) continue;
-
-            // DRA district IDs start at 1; our internal districts are 0-indexed.
-            // Preserve the real precinct id when the source file carries one
-            // (RDH, our own writer, etc.); otherwise fall back to "D{n}" so
-            // legacy DRA District Shapes exports keep their old behaviour.
-            String precinctId = readPrecinctId(props);
-            if (precinctId == null || precinctId.isBlank()) {
-                precinctId = "D" + district;
+        int maxDistrict;
+        int emitted;
+
+        FeatureState(Consumer<Precinct> sink) { this.sink = sink; }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readFeature(JsonReader r, FeatureState state)
+            throws IOException {
+        Map<String, Object> props = Map.of();
+        List<List<double[]>> rings = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+            if (key.equals("properties")) {
+                Object v = r.readValue();
+                if (v instanceof Map) props = (Map<String, Object>) v;
+            } else if (key.equals("geometry")) {
+                rings = GeoJsonGeometry.read(r);
+            } else {
+                r.skipValue();
             }
-            precincts.add(new Precinct(
-                    precinctId, district - 1, population, dem, rep, rings));
         }
+        r.endObject();
+        if (rings == null) return;
 
-        if (precincts.isEmpty()) {
-            throw new IllegalArgumentException("DRA GeoJSON: no usable features");
+        int district = readDistrict(props, state.autoId);
+        state.autoId = Math.max(state.autoId, district) + 1;
+        state.maxDistrict = Math.max(state.maxDistrict, district);
+
+        int population = (int) Math.round(readNumber(props, POP_HINTS, 0));
+        int dem = (int) Math.round(readNumber(props, DEM_HINTS, 0));
+        int rep = (int) Math.round(readNumber(props, REP_HINTS, 0));
+
+        if (rings.isEmpty()) return;
+
+        // DRA district IDs start at 1; our internal districts are 0-indexed.
+        // Preserve the real precinct id when the source file carries one
+        // (RDH, our own writer, etc.); otherwise fall back to "D{n}" so
+        // legacy DRA District Shapes exports keep their old behaviour.
+        String precinctId = readPrecinctId(props);
+        if (precinctId == null || precinctId.isBlank()) {
+            precinctId = "D" + district;
         }
-        return new RedistrictingMap(name, maxDistrict, precincts);
+        state.sink.accept(new Precinct(precinctId, district - 1, population, dem, rep, rings));
+        state.emitted++;
     }
 
     private static String readPrecinctId(Map<String, Object> props) {
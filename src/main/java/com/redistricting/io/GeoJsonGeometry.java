@@ -1,51 +1,113 @@
 package com.redistricting.io;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Helpers to convert GeoJSON {@code geometry} objects into the multi-ring
- * representation used by {@link com.redistricting.model.Precinct}.
+ * Reads GeoJSON {@code geometry} objects straight off a {@link JsonReader}
+ * into the multi-ring representation used by
+ * {@link com.redistricting.model.Precinct}: one outer ring per polygon,
+ * holes dropped.
+ *
+ * <p>Coordinates go from the character stream into {@code double[]}
+ * vertices with no intermediate {@code List<Object>} / boxed
+ * {@code Double} tree. The nesting depth of {@code coordinates} tells a
+ * Polygon (3) from a MultiPolygon (4), so the member order inside the
+ * geometry object doesn't matter.
  */
 final class GeoJsonGeometry {
 
     private GeoJsonGeometry() {}
 
-    @SuppressWarnings("unchecked")
-    static List<List<double[]>> toRings(Map<String, Object> geom) {
-        String type = String.valueOf(geom.get("type"));
-        Object coords = geom.get("coordinates");
-        List<List<double[]>> out = new ArrayList<>();
-        switch (type) {
-            case "Polygon" -> {
-                // coordinates: [ ring, hole, hole, ... ] — keep outer only.
-                List<Object> rings = (List<Object>) coords;
-                if (!rings.isEmpty()) out.add(toRing((List<Object>) rings.get(0)));
-            }
-            case "MultiPolygon" -> {
-                // coordinates: [ polygon, polygon, ... ] each polygon = [ring, holes...]
-                for (Object poly : (List<Object>) coords) {
-                    List<Object> rings = (List<Object>) poly;
-                    if (!rings.isEmpty()) out.add(toRing((List<Object>) rings.get(0)));
-                }
+    /**
+     * Read the geometry value at the reader's position. Returns {@code null}
+     * for a JSON {@code null} geometry and an empty list when the polygon
+     * has no rings.
+     */
+    static List<List<double[]>> read(JsonReader r) throws IOException {
+        if (r.peek() == JsonReader.Token.NULL) {
+            r.nextNull();
+            return null;
+        }
+        String type = null;
+        Coordinates coords = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+            if (key.equals("type")) {
+                type = String.valueOf(r.readValue());
+            } else if (key.equals("coordinates")) {
+                coords = new Coordinates();
+                coords.level = coords.readArray(r);
+            } else {
+                r.skipValue();
             }
+        }
+        r.endObject();
+
+        int expected = switch (String.valueOf(type)) {
+            case "Polygon" -> 3;         // [ ring, hole, hole, ... ] — keep outer only
+            case "MultiPolygon" -> 4;    // [ polygon, ... ], each [ ring, holes... ]
             default -> throw new IllegalArgumentException(
                     "unsupported geometry type: " + type);
+        };
+        if (coords == null || coords.level == 0) return new ArrayList<>();
+        if (coords.level != expected) {
+            throw new IllegalArgumentException(type + " coordinates nested "
+                    + coords.level + " deep, expected " + expected);
         }
+        List<List<double[]>> out = new ArrayList<>(coords.outer.size());
+        for (int k : coords.outer) out.add(coords.rings.get(k));
         return out;
     }
 
-    @SuppressWarnings("unchecked")
-    private static List<double[]> toRing(List<Object> raw) {
-        List<double[]> ring = new ArrayList<>(raw.size());
-        for (Object pt : raw) {
-            List<Object> coord = (List<Object>) pt;
-            ring.add(new double[] {
-                    ((Number) coord.get(0)).doubleValue(),
-                    ((Number) coord.get(1)).doubleValue() });
+    /** Rings collected while walking one {@code coordinates} array. */
+    private static final class Coordinates {
+        final List<List<double[]>> rings = new ArrayList<>();
+        final List<Integer> outer = new ArrayList<>();   // index of each polygon's first ring
+        List<double[]> ring = new ArrayList<>();
+        int level;
+
+        /**
+         * Read one array and return its level: 1 = position, 2 = ring,
+         * 3 = polygon, 4 = multipolygon, 0 = empty.
+         */
+        int readArray(JsonReader r) throws IOException {
+            r.beginArray();
+            if (r.peek() == JsonReader.Token.NUMBER) {
+                double x = r.nextDouble();
+                double y = r.nextDouble();
+                while (r.hasNext()) r.skipValue(); // altitude etc.
+                r.endArray();
+                ring.add(new double[] { x, y });
+                return 1;
+            }
+            int firstRing = rings.size();
+            int child = 0;
+            while (r.hasNext()) {
+                int level = readArray(r);
+                if (level == 0) continue;
+                if (child != 0 && level != child) {
+                    throw new IllegalArgumentException("mixed coordinate nesting");
+                }
+                child = level;
+            }
+            r.endArray();
+            switch (child) {
+                case 1 -> {
+                    rings.add(closeRing(ring));
+                    ring = new ArrayList<>();
+                }
+                case 2 -> outer.add(firstRing);
+                default -> { }
+            }
+            return child == 0 ? 0 : child + 1;
         }
-        // GeoJSON rings are closed (first == last); drop the duplicate.
+    }
+
+    /** GeoJSON rings are closed (first == last); drop the duplicate. */
+    private static List<double[]> closeRing(List<double[]> ring) {
         if (ring.size() > 3) {
             double[] a = ring.get(0);
             double[] b = ring.get(ring.size() - 1);
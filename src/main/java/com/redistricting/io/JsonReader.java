@@ -0,0 +1,345 @@
+package com.redistricting.io;
+
+import com.redistricting.io.Json.JsonException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pull-based JSON tokenizer over a {@link Reader}: the caller steps through
+ * the document with {@link #beginObject} / {@link #nextName} /
+ * {@link #nextDouble} / … and decides value by value what to keep. Memory
+ * is one fixed character buffer plus whatever the caller retains, so
+ * documents far larger than the heap can be read.
+ *
+ * <p>Numbers are parsed straight from the buffer into primitives — no
+ * boxed {@link Double} or {@code substring} per value. Small sub-trees
+ * (e.g. a feature's {@code properties}) can still be materialised with
+ * {@link #readValue()}, which returns the same Map / List / String / Double
+ * / Boolean / null shapes as {@link Json#parse}. Malformed input throws
+ * {@link JsonException} with the character offset.
+ */
+final class JsonReader {
+
+    /** Kind of the next value, as reported by {@link #peek()}. */
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER,
+        BOOLEAN, NULL, END_DOCUMENT }
+
+    private final Reader in;
+    private final char[] buf = new char[64 * 1024];
+    private int pos;
+    private int limit;
+    private long consumed;                 // chars discarded before buf[0]
+
+    // Container stack: for each open container, whether it is an object and
+    // whether a value has already been read from it (so a ',' is expected).
+    private boolean[] isObject = new boolean[32];
+    private boolean[] hasValue = new boolean[32];
+    private int depth;
+    private boolean expectingValueAfterName;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    // ---------- navigation ----------
+
+    Token peek() throws IOException {
+        if (expectingValueAfterName) return valueToken();
+        if (depth == 0) {
+            return skipWs() ? valueToken() : Token.END_DOCUMENT;
+        }
+        if (!skipWs()) throw error("unexpected end of input");
+        char c = buf[pos];
+        boolean obj = isObject[depth - 1];
+        if (c == (obj ? '}' : ']')) return obj ? Token.END_OBJECT : Token.END_ARRAY;
+        if (hasValue[depth - 1]) {
+            if (c != ',') throw error("expected ',' or '" + (obj ? '}' : ']') + "'");
+            pos++;
+            hasValue[depth - 1] = false;
+            if (!skipWs()) throw error("unexpected end of input");
+        }
+        return obj ? Token.NAME : valueToken();
+    }
+
+    boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException { open(true); }
+    void beginArray() throws IOException { open(false); }
+    void endObject() throws IOException { close(Token.END_OBJECT); }
+    void endArray() throws IOException { close(Token.END_ARRAY); }
+
+    String nextName() throws IOException {
+        if (peek() != Token.NAME || buf[pos] != '"') throw error("expected a property name");
+        String name = readString();
+        if (!skipWs() || buf[pos] != ':') throw error("expected ':'");
+        pos++;
+        expectingValueAfterName = true;
+        return name;
+    }
+
+    String nextString() throws IOException {
+        expect(Token.STRING);
+        String s = readString();
+        valueDone();
+        return s;
+    }
+
+    double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        double d = readNumber();
+        valueDone();
+        return d;
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        boolean b = buf[pos] == 't';
+        literal(b ? "true" : "false");
+        valueDone();
+        return b;
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+        literal("null");
+        valueDone();
+    }
+
+    /** Check that nothing but whitespace follows the top-level value. */
+    void endDocument() throws IOException {
+        if (depth != 0 || peek() != Token.END_DOCUMENT) {
+            throw error("unexpected trailing content");
+        }
+    }
+
+    /** Skip the next value, however deeply nested, without building it. */
+    void skipValue() throws IOException {
+        int start = depth;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> beginObject();
+                case BEGIN_ARRAY -> beginArray();
+                case END_OBJECT -> endObject();
+                case END_ARRAY -> endArray();
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case NUMBER -> nextDouble();
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw error("unexpected end of input");
+            }
+        } while (depth > start);
+    }
+
+    /** Materialise the next value as a {@link Json#parse}-style tree. */
+    Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT -> {
+                Map<String, Object> out = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String key = nextName();
+                    out.put(key, readValue());
+                }
+                endObject();
+                return out;
+            }
+            case BEGIN_ARRAY -> {
+                List<Object> out = new ArrayList<>();
+                beginArray();
+                while (hasNext()) out.add(readValue());
+                endArray();
+                return out;
+            }
+            case STRING -> { return nextString(); }
+            case NUMBER -> { return nextDouble(); }
+            case BOOLEAN -> { return nextBoolean(); }
+            case NULL -> { nextNull(); return null; }
+            default -> throw error("expected a value");
+        }
+    }
+
+    // ---------- internals ----------
+
+    private Token valueToken() throws IOException {
+        if (!skipWs()) throw error("unexpected end of input");
+        char c = buf[pos];
+        return switch (c) {
+            case '{' -> Token.BEGIN_OBJECT;
+            case '[' -> Token.BEGIN_ARRAY;
+            case '"' -> Token.STRING;
+            case 't', 'f' -> Token.BOOLEAN;
+            case 'n' -> Token.NULL;
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) yield Token.NUMBER;
+                throw error("unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private void open(boolean object) throws IOException {
+        expect(object ? Token.BEGIN_OBJECT : Token.BEGIN_ARRAY);
+        pos++;
+        if (depth == isObject.length) {
+            isObject = Arrays.copyOf(isObject, depth * 2);
+            hasValue = Arrays.copyOf(hasValue, depth * 2);
+        }
+        isObject[depth] = object;
+        hasValue[depth] = false;
+        depth++;
+    }
+
+    private void close(Token token) throws IOException {
+        if (peek() != token) throw error("expected " + (token == Token.END_OBJECT ? "'}'" : "']'"));
+        pos++;
+        depth--;
+        valueDone();
+    }
+
+    private void expect(Token token) throws IOException {
+        Token t = peek();
+        if (t != token) throw error("expected " + token + " but found " + t);
+        expectingValueAfterName = false;
+    }
+
+    private void valueDone() {
+        expectingValueAfterName = false;
+        if (depth > 0) hasValue[depth - 1] = true;
+    }
+
+    private String readString() throws IOException {
+        pos++; // opening quote
+        scratch.setLength(0);
+        while (true) {
+            if (pos >= limit && !fill()) throw error("unterminated string");
+            char c = buf[pos++];
+            if (c == '"') return scratch.toString();
+            if (c != '\\') {
+                scratch.append(c);
+                continue;
+            }
+            if (pos >= limit && !fill()) throw error("bad escape");
+            char esc = buf[pos++];
+            switch (esc) {
+                case '"', '\\', '/' -> scratch.append(esc);
+                case 'b' -> scratch.append('\b');
+                case 'f' -> scratch.append('\f');
+                case 'n' -> scratch.append('\n');
+                case 'r' -> scratch.append('\r');
+                case 't' -> scratch.append('\t');
+                case 'u' -> {
+                    int code = 0;
+                    for (int k = 0; k < 4; k++) {
+                        if (pos >= limit && !fill()) throw error("bad \\u escape");
+                        int digit = Character.digit(buf[pos++], 16);
+                        if (digit < 0) throw error("bad \\u escape");
+                        code = code * 16 + digit;
+                    }
+                    scratch.append((char) code);
+                }
+                default -> throw error("bad escape \\" + esc);
+            }
+        }
+    }
+
+    /**
+     * Parse a JSON number in place. Plain decimals with at most 15
+     * significant digits and 22 fraction digits — every coordinate in
+     * practice — are exact as {@code mantissa / 10^scale} (both operands are
+     * exact doubles, so the one division rounds correctly and the result
+     * matches {@link Double#parseDouble}); anything else falls back to it.
+     */
+    private double readNumber() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            if (pos >= limit && !fill()) break;
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E') {
+                scratch.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        int len = scratch.length();
+        boolean negative = len > 0 && scratch.charAt(0) == '-';
+        long mantissa = 0;
+        int significant = 0;
+        int digits = 0;
+        int scale = -1;                    // digits after '.', -1 before it
+        for (int k = negative ? 1 : 0; k < len; k++) {
+            char c = scratch.charAt(k);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (scale >= 0) scale++;
+                if (mantissa != 0 || c != '0') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (++significant > 15) return slowParse();
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return slowParse();
+            }
+        }
+        if (digits == 0 || scale == 0 || scale >= POW10.length) return slowParse();
+        double v = scale < 0 ? mantissa : mantissa / POW10[scale];
+        return negative ? -v : v;
+    }
+
+    private double slowParse() {
+        try {
+            return Double.parseDouble(scratch.toString());
+        } catch (NumberFormatException e) {
+            throw error("bad number: " + scratch);
+        }
+    }
+
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int k = 1; k < POW10.length; k++) POW10[k] = POW10[k - 1] * 10;
+    }
+
+    private void literal(String word) throws IOException {
+        for (int k = 0; k < word.length(); k++) {
+            if (pos >= limit && !fill()) throw error("expected " + word);
+            if (buf[pos++] != word.charAt(k)) throw error("expected " + word);
+        }
+    }
+
+    /** Skip whitespace; returns false at end of input. */
+    private boolean skipWs() throws IOException {
+        while (true) {
+            if (pos >= limit && !fill()) return false;
+            char c = buf[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') pos++;
+            else return true;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        limit = n;
+        return true;
+    }
+
+    private JsonException error(String message) {
+        return new JsonException(message + " at position " + (consumed + pos));
+    }
+}
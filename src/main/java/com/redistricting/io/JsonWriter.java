@@ -0,0 +1,220 @@
+package com.redistricting.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Push-based JSON emitter over a {@link Writer}, the output-side companion
+ * of {@link JsonReader}. Output goes through one fixed character buffer
+ * straight to the underlying writer, so a document is never held in memory
+ * and no per-value strings are built. There is no structural bookkeeping:
+ * callers write the punctuation themselves with {@link #raw}.
+ *
+ * <p>Doubles are written in the shortest form that parses back to the same
+ * value. Integers and short decimals (up to 15 fraction digits) are
+ * formatted directly from their digits; anything else goes through
+ * {@link StringBuilder#append(double)}, which round-trips and doesn't
+ * allocate.
+ */
+final class JsonWriter implements Closeable {
+
+    /** 10^0 … 10^15, all exact as doubles. */
+    private static final double[] POW10 = new double[16];
+    static {
+        double p = 1;
+        for (int k = 0; k < POW10.length; k++, p *= 10) POW10[k] = p;
+    }
+    /** Largest integer below which every long is exactly a double. */
+    private static final double EXACT = 1L << 53;
+
+    private final Writer out;
+    private final char[] buf = new char[64 * 1024];
+    private int pos;
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Open {@code path} for writing, gzip-compressing on the fly when its
+     * name ends in {@code .gz} (the same convention the preset loader reads).
+     */
+    static JsonWriter open(Path path) throws IOException {
+        OutputStream os = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+        try {
+            if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                os = new GZIPOutputStream(os, 64 * 1024) {
+                    {
+                        // Keep compression cheaper than formatting.
+                        def.setLevel(Deflater.BEST_SPEED);
+                    }
+                };
+            }
+        } catch (IOException e) {
+            os.close();
+            throw e;
+        }
+        return new JsonWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+    }
+
+    JsonWriter raw(char c) throws IOException {
+        if (pos == buf.length) drain();
+        buf[pos++] = c;
+        return this;
+    }
+
+    JsonWriter raw(String s) throws IOException {
+        int n = s.length();
+        if (n > buf.length - pos) {
+            drain();
+            if (n > buf.length) {
+                out.write(s);
+                return this;
+            }
+        }
+        s.getChars(0, n, buf, pos);
+        pos += n;
+        return this;
+    }
+
+    JsonWriter value(long v) throws IOException {
+        if (v == Long.MIN_VALUE) return raw(Long.toString(v));
+        if (buf.length - pos < 20) drain();
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        pos = digits(v, 0);
+        return this;
+    }
+
+    JsonWriter value(double v) throws IOException {
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            throw new IllegalArgumentException("JSON can't represent " + v);
+        }
+        double a = Math.abs(v);
+        if (a < EXACT && a == Math.rint(a)) return value((long) v);
+        if (a >= 1e-5 && a < 1e15) {
+            // The first k for which a·10^k is a whole number that divides back
+            // to a exactly gives the shortest decimal with k fraction digits.
+            for (int k = 1; k < POW10.length; k++) {
+                double scaled = Math.rint(a * POW10[k]);
+                if (scaled >= EXACT) break;
+                if (scaled / POW10[k] == a) {
+                    if (buf.length - pos < 40) drain();
+                    if (v < 0) buf[pos++] = '-';
+                    pos = digits((long) scaled, k);
+                    return this;
+                }
+            }
+        }
+        scratch.setLength(0);
+        scratch.append(v);
+        if (buf.length - pos < scratch.length()) drain();
+        scratch.getChars(0, scratch.length(), buf, pos);
+        pos += scratch.length();
+        return this;
+    }
+
+    /** A JSON string literal. */
+    JsonWriter string(String s) throws IOException {
+        raw('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> raw('\\').raw('"');
+                case '\\' -> raw('\\').raw('\\');
+                case '\n' -> raw('\\').raw('n');
+                case '\r' -> raw('\\').raw('r');
+                case '\t' -> raw('\\').raw('t');
+                default -> {
+                    if (c < 0x20) raw(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    else raw(c);
+                }
+            }
+        }
+        return raw('"');
+    }
+
+    /**
+     * A ring as a GeoJSON position array, closed (first vertex repeated at
+     * the end) if it isn't already.
+     */
+    JsonWriter ring(List<double[]> ring) throws IOException {
+        raw('[');
+        for (int i = 0; i < ring.size(); i++) {
+            if (i > 0) raw(',');
+            position(ring.get(i));
+        }
+        double[] first = ring.get(0);
+        double[] last = ring.get(ring.size() - 1);
+        if (first[0] != last[0] || first[1] != last[1]) {
+            raw(',');
+            position(first);
+        }
+        return raw(']');
+    }
+
+    private void position(double[] v) throws IOException {
+        position(v[0], v[1]);
+    }
+
+    /** One GeoJSON position, {@code [x,y]}. */
+    JsonWriter position(double x, double y) throws IOException {
+        return raw('[').value(x).raw(',').value(y).raw(']');
+    }
+
+    /**
+     * Write non-negative {@code m} at {@link #pos} with a decimal point
+     * {@code fraction} digits from the right (zero-padded as needed);
+     * returns the new position. The caller has made room.
+     */
+    private int digits(long m, int fraction) {
+        int len = 1;
+        for (long t = m / 10; t != 0; t /= 10) len++;
+        if (len <= fraction) len = fraction + 1;           // leading "0."
+        int end = pos + len + (fraction > 0 ? 1 : 0);
+        int p = end;
+        for (int k = 0; k < fraction; k++) {
+            buf[--p] = (char) ('0' + m % 10);
+            m /= 10;
+        }
+        if (fraction > 0) buf[--p] = '.';
+        do {
+            buf[--p] = (char) ('0' + m % 10);
+            m /= 10;
+        } while (m != 0);
+        return end;
+    }
+
+    private void drain() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,650 @@
+package com.redistricting.io;
+
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.PrecinctColumns;
+import com.redistricting.model.Precinct;
+import com.redistricting.model.RedistrictingMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact, assignment-only storage for plans drawn on one
+ * {@link PrecinctBase}: a file holds one plan or a whole ensemble, and none
+ * of the geometry.
+ *
+ * <p>Layout (little-endian):
+ * <pre>
+ *   header   int magic "RDPA", int version, long base fingerprint,
+ *            int precincts, int districts, int flags, int interval,
+ *            long plans (-1 while the writer is still open)
+ *   records  (raw-deflated as one stream when flag bit 0 is set)
+ *            byte kind, varint body length, body, int CRC32 of the body
+ *     FULL   every precinct's district, packed at ⌈log₂ districts⌉ bits each
+ *     DELTA  varint m, then m pairs (varint index gap, varint district):
+ *            the precincts that differ from the previous plan
+ *   index    (once the writer is closed) long file offset of plan
+ *            {@code k * interval} for every k, then int CRC32 of the offsets
+ * </pre>
+ * The writer stores each plan as whichever of FULL or DELTA is shorter, so
+ * successive states of a {@link com.redistricting.ai.algorithms.ReComChain}
+ * (two districts change per step) cost a few hundred bytes, while
+ * unrelated plans fall back to the packed form — 1.3 kB for 14 districts
+ * on the NC preset, against megabytes of GeoJSON.
+ *
+ * <p>Every {@code interval}-th plan is a checkpoint: it is always stored
+ * FULL and, in a deflated archive, starts after a full flush, so decoding
+ * can begin there without what came before. {@link Reader#seek} jumps to
+ * the nearest checkpoint through the index and decodes at most
+ * {@code interval - 1} plans from there, so a {@code file#index} reference
+ * (as the batch runner writes) resolves with
+ * {@link #read(Path, PrecinctBase, long)} in constant time.
+ *
+ * <p>The base {@link #fingerprint} (a hash of precinct ids and geometry) is
+ * checked on open, so a plan can't be re-attached to the wrong base.
+ * Corrupt or truncated files and fingerprint mismatches are reported as
+ * {@link IOException}s.
+ */
+public final class PlanArchive {
+
+    /** Conventional file extension. */
+    public static final String EXTENSION = ".rdplans";
+
+    private static final int MAGIC = 0x41504452; // "RDPA" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int FLAG_DEFLATE = 1;
+
+    /** Plans per checkpoint; the FULL record and flush cost about 1/64 of a FULL plan each. */
+    private static final int INTERVAL = 64;
+
+    private static final byte FULL = 1;
+    private static final byte DELTA = 2;
+
+    /** Fingerprints by base identity; a base's geometry never changes. */
+    private static final Map<PrecinctBase, Long> FINGERPRINTS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private PlanArchive() {}
+
+    /** Write a single plan to {@code file}. */
+    public static void write(Path file, PrecinctBase base, int districts, int[] assignment)
+            throws IOException {
+        try (Writer w = Writer.create(file, base, districts, false)) {
+            w.append(assignment);
+        }
+    }
+
+    /** Read the first (for a single-plan file, the only) plan in {@code file}. */
+    public static int[] read(Path file, PrecinctBase base) throws IOException {
+        try (Reader r = Reader.open(file, base)) {
+            int[] plan = r.next();
+            if (plan == null) throw corrupt(file, "no plans");
+            return plan;
+        }
+    }
+
+    /**
+     * Read plan {@code index} (0-based, in append order) of {@code file}:
+     * the plan a {@code file#index} reference names.
+     *
+     * @throws IndexOutOfBoundsException if the archive holds no such plan
+     */
+    public static int[] read(Path file, PrecinctBase base, long index) throws IOException {
+        try (Reader r = Reader.open(file, base)) {
+            r.seek(index);
+            int[] plan = r.next();
+            if (plan == null) throw new IndexOutOfBoundsException("plan " + index + " of " + file);
+            return plan;
+        }
+    }
+
+    /** {@code base}'s precincts with {@code assignment} applied, as a map. */
+    public static RedistrictingMap toMap(PrecinctBase base, int districts, int[] assignment,
+                                         String name) {
+        List<Precinct> originals = base.precincts();
+        List<Precinct> assigned = new ArrayList<>(originals.size());
+        for (int i = 0; i < originals.size(); i++) {
+            assigned.add(originals.get(i).withDistrict(assignment[i]));
+        }
+        return new RedistrictingMap(name, districts, assigned);
+    }
+
+    /**
+     * 64-bit hash of {@code base}'s precinct ids, ring structure and vertex
+     * coordinates — everything a plan's meaning depends on. Computed once
+     * per base.
+     */
+    public static long fingerprint(PrecinctBase base) {
+        Long cached = FINGERPRINTS.get(base);
+        if (cached != null) return cached;
+        PrecinctColumns cols = base.columns();
+        int n = base.size();
+        long h = mix(0x52445041L, n);
+        for (Precinct p : base.precincts()) {
+            String id = p.id();
+            h = mix(h, id.length());
+            for (int k = 0; k < id.length(); k++) h = mix(h, id.charAt(k));
+        }
+        for (int i = 0; i < n; i++) h = mix(h, cols.firstRing(i));
+        int rings = cols.ringCount();
+        h = mix(h, rings);
+        for (int r = 0; r < rings; r++) h = mix(h, cols.ringVertexStart(r));
+        int vertices = cols.vertexCount();
+        h = mix(h, vertices);
+        for (int v = 0; v < vertices; v++) {
+            h = mix(h, Double.doubleToLongBits(cols.vertexX(v)));
+            h = mix(h, Double.doubleToLongBits(cols.vertexY(v)));
+        }
+        // Final avalanche (SplitMix64) so nearby inputs differ in every bit.
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        FINGERPRINTS.put(base, h);
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        return Long.rotateLeft(h ^ (v * 0x9E3779B97F4A7C15L), 29) * 0xBF58476D1CE4E5B9L;
+    }
+
+    /** Bits per packed district id. */
+    private static int bits(int districts) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(districts - 1));
+    }
+
+    private static IOException corrupt(Path file, String why) {
+        return new IOException("corrupt plan archive " + file + ": " + why);
+    }
+
+    /**
+     * Appends plans to a new archive. {@link #append} is synchronized, so
+     * several producers may share one writer; plans are numbered in the
+     * order they arrive. {@link #close} must be called to finish the file.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final Deflater deflater;
+        private final byte[] deflated;
+        private final long fingerprint;
+        private final int districts;
+        private final int flags;
+        private final int bits;
+        private final int[] previous;
+        private final CRC32 crc = new CRC32();
+        private final byte[] body;
+        private final byte[] record;
+        private long[] checkpoints = new long[16];
+        private long written = HEADER_BYTES;   // file offset of the next byte out
+        private long plans;
+        private boolean closed;
+
+        private Writer(FileChannel channel, OutputStream out, Deflater deflater,
+                       long fingerprint, int n, int districts, int flags) {
+            this.channel = channel;
+            this.out = out;
+            this.deflater = deflater;
+            this.deflated = deflater != null ? new byte[64 * 1024] : null;
+            this.fingerprint = fingerprint;
+            this.districts = districts;
+            this.flags = flags;
+            this.bits = bits(districts);
+            this.previous = new int[n];
+            this.body = new byte[(int) (((long) n * bits + 7) / 8)];
+            this.record = new byte[1 + 5 + body.length + 4];
+        }
+
+        /**
+         * Create (or truncate) {@code file} for plans of {@code districts}
+         * districts on {@code base}, deflating the records when
+         * {@code compress} is set.
+         */
+        public static Writer create(Path file, PrecinctBase base, int districts,
+                                    boolean compress) throws IOException {
+            if (districts < 1) throw new IllegalArgumentException("districts must be >= 1");
+            long fingerprint = fingerprint(base);
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                int flags = compress ? FLAG_DEFLATE : 0;
+                ch.write(header(fingerprint, base.size(), districts, flags, -1));
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch),
+                        64 * 1024);
+                // Raw deflate (no zlib wrapper), so a reader can start
+                // inflating at any checkpoint.
+                Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED, true) : null;
+                return new Writer(ch, out, deflater, fingerprint, base.size(), districts,
+                        flags);
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        /** Append {@code assignment}; returns its index in the archive. */
+        public synchronized long append(int[] assignment) throws IOException {
+            if (closed) throw new IOException("plan archive is closed");
+            int n = previous.length;
+            if (assignment.length != n) {
+                throw new IllegalArgumentException("plan has " + assignment.length
+                        + " precincts, archive base has " + n);
+            }
+            for (int d : assignment) {
+                if (d < 0 || d >= districts) {
+                    throw new IllegalArgumentException("district " + d + " out of range");
+                }
+            }
+            boolean checkpoint = plans % INTERVAL == 0;
+            if (checkpoint) {
+                if (deflater != null && plans > 0) drain(Deflater.FULL_FLUSH);
+                int k = (int) (plans / INTERVAL);
+                if (k == checkpoints.length) checkpoints = Arrays.copyOf(checkpoints, 2 * k);
+                checkpoints[k] = written;
+            }
+            int length = checkpoint ? -1 : encodeDelta(assignment, body.length);
+            byte kind = DELTA;
+            if (length < 0) {
+                kind = FULL;
+                length = encodeFull(assignment);
+            }
+            record[0] = kind;
+            int pos = putVarint(record, 1, length);
+            System.arraycopy(body, 0, record, pos, length);
+            pos += length;
+            crc.reset();
+            crc.update(body, 0, length);
+            int c = (int) crc.getValue();
+            record[pos++] = (byte) c;
+            record[pos++] = (byte) (c >>> 8);
+            record[pos++] = (byte) (c >>> 16);
+            record[pos++] = (byte) (c >>> 24);
+            emit(record, pos);
+            System.arraycopy(assignment, 0, previous, 0, n);
+            return plans++;
+        }
+
+        /** Number of plans appended so far. */
+        public synchronized long plans() {
+            return plans;
+        }
+
+        /** Bit-pack every district id into {@link #body}; returns the byte count. */
+        private int encodeFull(int[] assignment) {
+            int length = (int) (((long) assignment.length * bits + 7) / 8);
+            long acc = 0;
+            int held = 0;
+            int pos = 0;
+            for (int d : assignment) {
+                acc |= (long) d << held;
+                held += bits;
+                while (held >= 8) {
+                    body[pos++] = (byte) acc;
+                    acc >>>= 8;
+                    held -= 8;
+                }
+            }
+            if (held > 0) body[pos] = (byte) acc;
+            return length;
+        }
+
+        /**
+         * Encode the changes against {@link #previous} into {@link #body};
+         * returns the byte count, or -1 once it can't beat {@code limit}.
+         */
+        private int encodeDelta(int[] assignment, int limit) {
+            int changed = 0;
+            for (int i = 0; i < assignment.length; i++) {
+                if (assignment[i] != previous[i]) changed++;
+            }
+            // Each change costs at least two bytes.
+            if (2L * changed >= limit) return -1;
+            int pos = putVarint(body, 0, changed);
+            int last = -1;
+            for (int i = 0; i < assignment.length; i++) {
+                if (assignment[i] == previous[i]) continue;
+                if (pos + 10 > limit) return -1;
+                pos = putVarint(body, pos, i - last - 1);
+                pos = putVarint(body, pos, assignment[i]);
+                last = i;
+            }
+            return pos < limit ? pos : -1;
+        }
+
+        /** Write the first {@code length} bytes of {@code bytes} to the record stream. */
+        private void emit(byte[] bytes, int length) throws IOException {
+            if (deflater == null) {
+                out.write(bytes, 0, length);
+                written += length;
+                return;
+            }
+            deflater.setInput(bytes, 0, length);
+            while (!deflater.needsInput()) drain(Deflater.NO_FLUSH);
+        }
+
+        /** Deflate with {@code mode} until the output buffer comes back short. */
+        private void drain(int mode) throws IOException {
+            int k;
+            do {
+                k = deflater.deflate(deflated, 0, deflated.length, mode);
+                out.write(deflated, 0, k);
+                written += k;
+            } while (k == deflated.length);
+        }
+
+        /**
+         * Finish the record stream, append the checkpoint index and record
+         * the plan count in the header.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try (FileChannel ch = channel) {
+                if (deflater != null) {
+                    deflater.finish();
+                    while (!deflater.finished()) drain(Deflater.NO_FLUSH);
+                }
+                int count = (int) ((plans + INTERVAL - 1) / INTERVAL);
+                ByteBuffer index = ByteBuffer.allocate(8 * count + 4)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                for (int k = 0; k < count; k++) index.putLong(checkpoints[k]);
+                crc.reset();
+                crc.update(index.array(), 0, 8 * count);
+                index.putInt((int) crc.getValue());
+                out.write(index.array());
+                out.flush();
+                ch.write(header(fingerprint, previous.length, districts, flags, plans), 0);
+            } finally {
+                if (deflater != null) deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads the plans of an archive back onto a loaded base: in order with
+     * {@link #next}, or from any plan on with {@link #seek}.
+     */
+    public static final class Reader implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private final Inflater inflater;
+        private final int districts;
+        private final int bits;
+        private final int interval;
+        private final long plans;
+        private final int[] current;
+        private final CRC32 crc = new CRC32();
+        private final byte[] body;
+        private long[] checkpoints;        // loaded on the first seek
+        private DataInputStream in;
+        private long read;
+        private long start;                // plan the current stream position began at
+
+        private Reader(Path file, FileChannel channel, Inflater inflater, int n, int districts,
+                       int interval, long plans) {
+            this.file = file;
+            this.channel = channel;
+            this.inflater = inflater;
+            this.districts = districts;
+            this.bits = bits(districts);
+            this.interval = interval;
+            this.plans = plans;
+            this.current = new int[n];
+            this.body = new byte[(int) (((long) n * bits + 7) / 8)];
+        }
+
+        /**
+         * Open {@code file} for reading against {@code base}.
+         *
+         * @throws IOException if the file isn't a plan archive or was written
+         *         for a different base
+         */
+        public static Reader open(Path file, PrecinctBase base) throws IOException {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                    // keep reading until the header is full or the file ends
+                }
+                if (buf.hasRemaining()) throw corrupt(file, "truncated header");
+                if (buf.getInt(0) != MAGIC) throw corrupt(file, "not a plan archive");
+                int version = buf.getInt(4);
+                if (version != VERSION) throw corrupt(file, "unsupported version " + version);
+                int n = buf.getInt(16);
+                int districts = buf.getInt(20);
+                if (n != base.size() || buf.getLong(8) != fingerprint(base)) {
+                    throw new IOException("plan archive " + file
+                            + " was written for a different precinct base");
+                }
+                if (districts < 1) throw corrupt(file, "bad district count " + districts);
+                int interval = buf.getInt(28);
+                if (interval < 1) throw corrupt(file, "bad interval " + interval);
+                Inflater inflater = (buf.getInt(24) & FLAG_DEFLATE) != 0
+                        ? new Inflater(true) : null;
+                Reader r = new Reader(file, ch, inflater, n, districts, interval,
+                        buf.getLong(32));
+                r.position(HEADER_BYTES, 0);
+                return r;
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        /** District count the plans were drawn for. */
+        public int districts() {
+            return districts;
+        }
+
+        /** Plans in the archive, or -1 if its writer was never closed. */
+        public long plans() {
+            return plans;
+        }
+
+        /** The next plan, or null after the last one. */
+        public int[] next() throws IOException {
+            return advance() ? current.clone() : null;
+        }
+
+        /**
+         * Position the reader so that {@link #next} returns plan
+         * {@code index}. In a closed archive this jumps to the checkpoint at
+         * or before it and decodes forward from there; otherwise it decodes
+         * forward from the current plan, or from the start when
+         * {@code index} is behind it.
+         *
+         * @throws IndexOutOfBoundsException if the archive holds no such plan
+         */
+        public void seek(long index) throws IOException {
+            if (index < 0 || (plans >= 0 && index >= plans)) {
+                throw new IndexOutOfBoundsException("plan " + index + " of " + file);
+            }
+            long checkpoint = 0;
+            long offset = HEADER_BYTES;
+            if (plans >= 0) {
+                int k = (int) (index / interval);
+                checkpoint = (long) k * interval;
+                offset = checkpoints()[k];
+            }
+            if (index < read || checkpoint > read) position(offset, checkpoint);
+            while (read < index) {
+                if (!advance()) throw new IndexOutOfBoundsException("plan " + index + " of " + file);
+            }
+        }
+
+        /** Restart decoding at file offset {@code offset}, where plan {@code plan} begins. */
+        private void position(long offset, long plan) throws IOException {
+            channel.position(offset);
+            // The previous streams are dropped, not closed: closing them
+            // would close the channel.
+            InputStream raw = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            if (inflater != null) inflater.reset();
+            in = new DataInputStream(inflater != null
+                    ? new InflaterInputStream(raw, inflater, 64 * 1024) : raw);
+            read = plan;
+            start = plan;
+        }
+
+        /** File offsets of the checkpoints, read from the index at the end of the file. */
+        private long[] checkpoints() throws IOException {
+            if (checkpoints != null) return checkpoints;
+            int count = (int) ((plans + interval - 1) / interval);
+            ByteBuffer buf = ByteBuffer.allocate(8 * count + 4).order(ByteOrder.LITTLE_ENDIAN);
+            long at = channel.size() - buf.capacity();
+            if (at < HEADER_BYTES) throw corrupt(file, "truncated index");
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, at + buf.position()) < 0) {
+                    throw corrupt(file, "truncated index");
+                }
+            }
+            crc.reset();
+            crc.update(buf.array(), 0, 8 * count);
+            if (buf.getInt(8 * count) != (int) crc.getValue()) {
+                throw corrupt(file, "checksum mismatch in index");
+            }
+            long[] offsets = new long[count];
+            for (int k = 0; k < count; k++) {
+                offsets[k] = buf.getLong(8 * k);
+                if (offsets[k] < HEADER_BYTES || offsets[k] >= at
+                        || (k > 0 && offsets[k] <= offsets[k - 1])) {
+                    throw corrupt(file, "bad index offset");
+                }
+            }
+            return checkpoints = offsets;
+        }
+
+        /** Decode the next record into {@link #current}; false after the last plan. */
+        private boolean advance() throws IOException {
+            if (plans >= 0 && read == plans) return false;
+            int kind = in.read();
+            if (kind < 0) {
+                if (plans >= 0) throw corrupt(file, "truncated after " + read + " plans");
+                return false;
+            }
+            try {
+                int length = readVarint();
+                if (length < 0 || length > body.length) throw corrupt(file, "bad record length");
+                in.readFully(body, 0, length);
+                crc.reset();
+                crc.update(body, 0, length);
+                if (Integer.reverseBytes(in.readInt()) != (int) crc.getValue()) {
+                    throw corrupt(file, "checksum mismatch in plan " + read);
+                }
+                if (kind == FULL) decodeFull(length);
+                else if (kind == DELTA && read > start) decodeDelta(length);
+                else throw corrupt(file, "bad record kind " + kind);
+            } catch (EOFException e) {
+                throw corrupt(file, "truncated in plan " + read);
+            }
+            read++;
+            return true;
+        }
+
+        private void decodeFull(int length) throws IOException {
+            if (length != body.length) throw corrupt(file, "bad packed length");
+            int mask = (1 << bits) - 1;
+            long acc = 0;
+            int held = 0;
+            int pos = 0;
+            for (int i = 0; i < current.length; i++) {
+                while (held < bits) {
+                    acc |= (long) (body[pos++] & 0xFF) << held;
+                    held += 8;
+                }
+                current[i] = district((int) acc & mask);
+                acc >>>= bits;
+                held -= bits;
+            }
+        }
+
+        private void decodeDelta(int length) throws IOException {
+            int[] pos = {0};
+            int changed = getVarint(length, pos);
+            int i = -1;
+            for (int k = 0; k < changed; k++) {
+                i += getVarint(length, pos) + 1;
+                if (i < 0 || i >= current.length) throw corrupt(file, "delta index out of range");
+                current[i] = district(getVarint(length, pos));
+            }
+            if (pos[0] != length) throw corrupt(file, "trailing bytes in delta");
+        }
+
+        private int district(int d) throws IOException {
+            if (d < 0 || d >= districts) throw corrupt(file, "district " + d + " out of range");
+            return d;
+        }
+
+        private int getVarint(int length, int[] pos) throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (pos[0] >= length) throw corrupt(file, "truncated varint");
+                int b = body[pos[0]++];
+                v |= (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw corrupt(file, "varint too long");
+        }
+
+        private int readVarint() throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (b & 0x7F) << shift;
+                if (b < 0x80) return v;
+            }
+            throw corrupt(file, "varint too long");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                if (inflater != null) inflater.end();
+            }
+        }
+    }
+
+    private static ByteBuffer header(long fingerprint, int n, int districts, int flags,
+                                     long plans) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(n).putInt(districts)
+           .putInt(flags).putInt(INTERVAL).putLong(plans);
+        return buf.flip();
+    }
+
+    private static int putVarint(byte[] buf, int pos, int v) {
+        while ((v & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+}
@@ -0,0 +1,47 @@
+package com.redistricting.io;
+
+import com.redistricting.model.Precinct;
+import com.redistricting.model.RedistrictingMap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a plan as an assignment-only CSV: a {@code id,district} header and
+ * one row per precinct with its 1-based district number. No geometry, so a
+ * plan costs a few bytes per precinct instead of the full GeoJSON.
+ *
+ * <p>The file is a Block Equivalency File in the shape
+ * {@link RdhPrecinctLoader#applyBef} reads, so a plan comes back by applying
+ * it to the base it was drawn on.
+ */
+public final class PlanAssignmentWriter {
+
+    private PlanAssignmentWriter() {}
+
+    public static void write(RedistrictingMap map, Path path) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(map, out);
+        }
+    }
+
+    public static void write(RedistrictingMap map, Writer out) throws IOException {
+        out.write("id,district\n");
+        for (Precinct p : map.precincts()) {
+            out.write(csvField(p.id()));
+            out.write(',');
+            out.write(Integer.toString(p.district() + 1));
+            out.write('\n');
+        }
+    }
+
+    private static String csvField(String s) {
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+                || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+    }
+}
@@ -4,11 +4,11 @@ import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Serializes a {@link RedistrictingMap} as a precinct-level
@@ -23,107 +23,80 @@ import java.util.Locale;
  * </ul>
  *
  * <p>Geometry is preserved exactly as loaded (single-ring → {@code Polygon},
- * multi-ring → {@code MultiPolygon}). Files written by this class round-trip
- * cleanly through {@link DraGeoJsonLoader}.
+ * multi-ring → {@code MultiPolygon}; coordinates in their shortest
+ * round-tripping form). Files written by this class round-trip cleanly
+ * through {@link DraGeoJsonLoader}.
+ *
+ * <p>Features are streamed through a {@link JsonWriter} as they are
+ * produced, so export runs at disk speed and needs no memory beyond the map
+ * itself. A path ending in {@code .gz} is gzip-compressed on the fly.
  */
 public final class PlanGeoJsonWriter {
 
     private PlanGeoJsonWriter() {}
 
     public static void write(RedistrictingMap map, Path path) throws IOException {
-        Files.writeString(path, toJson(map), StandardCharsets.UTF_8);
+        try (JsonWriter out = JsonWriter.open(path)) {
+            write(map, out);
+        }
+    }
+
+    /** Stream the document to {@code out}, which is flushed but not closed. */
+    public static void write(RedistrictingMap map, Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        write(map, json);
+        json.flush();
     }
 
     public static String toJson(RedistrictingMap map) {
-        StringBuilder sb = new StringBuilder(64 * map.precincts().size());
-        sb.append("{\n  \"type\": \"FeatureCollection\",\n");
-        sb.append("  \"name\": ").append(jsonString(map.name())).append(",\n");
-        sb.append("  \"features\": [\n");
+        StringWriter sw = new StringWriter(64 * map.precincts().size());
+        try {
+            write(map, sw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter doesn't throw
+        }
+        return sw.toString();
+    }
+
+    private static void write(RedistrictingMap map, JsonWriter out) throws IOException {
+        out.raw("{\n  \"type\": \"FeatureCollection\",\n");
+        out.raw("  \"name\": ").string(map.name()).raw(",\n");
+        out.raw("  \"features\": [\n");
         List<Precinct> ps = map.precincts();
         for (int i = 0; i < ps.size(); i++) {
-            sb.append("    ").append(toFeature(ps.get(i)));
-            if (i < ps.size() - 1) sb.append(',');
-            sb.append('\n');
+            out.raw("    ");
+            feature(ps.get(i), out);
+            if (i < ps.size() - 1) out.raw(',');
+            out.raw('\n');
         }
-        sb.append("  ]\n}\n");
-        return sb.toString();
+        out.raw("  ]\n}\n");
     }
 
-    private static String toFeature(Precinct p) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"Feature\",\"properties\":{");
-        sb.append("\"id\":").append(jsonString(p.id())).append(',');
-        sb.append("\"district\":").append(p.district() + 1).append(',');
-        sb.append("\"population\":").append(p.population()).append(',');
-        sb.append("\"dem_votes\":").append(p.demVotes()).append(',');
-        sb.append("\"rep_votes\":").append(p.repVotes());
-        sb.append("},\"geometry\":");
-        sb.append(geometry(p));
-        sb.append('}');
-        return sb.toString();
+    private static void feature(Precinct p, JsonWriter out) throws IOException {
+        out.raw("{\"type\":\"Feature\",\"properties\":{");
+        out.raw("\"id\":").string(p.id()).raw(',');
+        out.raw("\"district\":").value(p.district() + 1).raw(',');
+        out.raw("\"population\":").value(p.population()).raw(',');
+        out.raw("\"dem_votes\":").value(p.demVotes()).raw(',');
+        out.raw("\"rep_votes\":").value(p.repVotes());
+        out.raw("},\"geometry\":");
+        geometry(p, out);
+        out.raw('}');
     }
 
-    private static String geometry(Precinct p) {
+    private static void geometry(Precinct p, JsonWriter out) throws IOException {
         List<List<double[]>> rings = p.rings();
-        StringBuilder sb = new StringBuilder();
         if (rings.size() == 1) {
-            sb.append("{\"type\":\"Polygon\",\"coordinates\":[");
-            sb.append(ringCoords(rings.get(0)));
-            sb.append("]}");
+            out.raw("{\"type\":\"Polygon\",\"coordinates\":[");
+            out.ring(rings.get(0));
+            out.raw("]}");
         } else {
-            sb.append("{\"type\":\"MultiPolygon\",\"coordinates\":[");
+            out.raw("{\"type\":\"MultiPolygon\",\"coordinates\":[");
             for (int i = 0; i < rings.size(); i++) {
-                if (i > 0) sb.append(',');
-                sb.append("[").append(ringCoords(rings.get(i))).append("]");
-            }
-            sb.append("]}");
-        }
-        return sb.toString();
-    }
-
-    private static String ringCoords(List<double[]> ring) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < ring.size(); i++) {
-            if (i > 0) sb.append(',');
-            double[] v = ring.get(i);
-            sb.append('[').append(num(v[0])).append(',').append(num(v[1])).append(']');
-        }
-        // Close the ring if it isn't already closed (GeoJSON convention).
-        double[] first = ring.get(0);
-        double[] last = ring.get(ring.size() - 1);
-        if (first[0] != last[0] || first[1] != last[1]) {
-            sb.append(',').append('[').append(num(first[0])).append(',')
-                    .append(num(first[1])).append(']');
-        }
-        sb.append(']');
-        return sb.toString();
-    }
-
-    private static String num(double v) {
-        // Compact, locale-invariant representation.
-        if (v == Math.floor(v) && !Double.isInfinite(v) && Math.abs(v) < 1e15) {
-            return Long.toString((long) v);
-        }
-        return String.format(Locale.ROOT, "%.8g", v);
-    }
-
-    private static String jsonString(String s) {
-        StringBuilder sb = new StringBuilder(s.length() + 2);
-        sb.append('"');
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            switch (c) {
-                case '"' -> sb.append("\\\"");
-                case '\\' -> sb.append("\\\\");
-                case '\n' -> sb.append("\\n");
-                case '\r' -> sb.append("\\r");
-                case '\t' -> sb.append("\\t");
-                default -> {
-                    if (c < 0x20) sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
-                    else sb.append(c);
-                }
+                if (i > 0) out.raw(',');
+                out.raw('[').ring(rings.get(i)).raw(']');
             }
+            out.raw("]}");
         }
-        return sb.append('"').toString();
     }
 }
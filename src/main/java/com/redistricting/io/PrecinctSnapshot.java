@@ -0,0 +1,213 @@
+package com.redistricting.io;
+
+import com.redistricting.ai.algorithms.AdjacencyGraph;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.PrecinctColumns;
+import com.redistricting.model.Precinct;
+import com.redistricting.model.RedistrictingMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a {@link PrecinctBase}: everything needed to rebuild it
+ * without re-parsing GeoJSON or recomputing adjacency.
+ *
+ * <p>Layout (little-endian):
+ * <pre>
+ *   header   int magic "RDSP", int version, long payload bytes,
+ *            int CRC32 of the payload, int reserved
+ *   payload  label              int length, UTF-8 bytes
+ *            int n, counties, rings, vertices, adjacency entries
+ *            precinct ids       int[n + 1] byte offsets, UTF-8 bytes
+ *            int[n] district, population, dem votes, rep votes, county
+ *            int[n + 1] first ring per precinct, int[rings + 1] first vertex per ring
+ *            double[2 * vertices] interleaved x, y
+ *            int[n + 1] adjacency offsets, int[entries] neighbours (CSR)
+ * </pre>
+ * Files are read through {@link FileChannel#map}: the checksum is computed
+ * over the mapped bytes and the columns are bulk-copied out of typed buffer
+ * views. The {@link Precinct}s are built over the one vertex column the
+ * base's {@link PrecinctColumns} also use, so a loaded base holds each
+ * vertex once and no per-vertex objects.
+ * A snapshot with the wrong magic, an unknown version, a truncated payload or
+ * a checksum mismatch is rejected with an {@link IOException} — callers
+ * treat that as a cache miss.
+ */
+public final class PrecinctSnapshot {
+
+    /** Conventional file extension. */
+    public static final String EXTENSION = ".rdsnap";
+
+    private static final int MAGIC = 0x50534452; // "RDSP" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private PrecinctSnapshot() {}
+
+    /** Write {@code base} to {@code file}, replacing it atomically where the filesystem allows. */
+    public static void write(PrecinctBase base, Path file) throws IOException {
+        PrecinctColumns cols = base.columns();
+        List<Precinct> precincts = base.precincts();
+        int n = base.size();
+        int rings = cols.ringCount();
+        int vertices = cols.vertexCount();
+        AdjacencyGraph graph = base.graph();
+        int entries = graph.entries();
+
+        byte[] label = base.label().getBytes(StandardCharsets.UTF_8);
+        byte[][] ids = new byte[n][];
+        long idBytes = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i] = precincts.get(i).id().getBytes(StandardCharsets.UTF_8);
+            idBytes += ids[i].length;
+        }
+        long payload = 4L + label.length
+                + 5 * 4L
+                + 4L * (n + 1) + idBytes
+                + 5 * 4L * n
+                + 4L * (n + 1) + 4L * (rings + 1)
+                + 16L * vertices
+                + 4L * (n + 1) + 4L * entries;
+        if (HEADER_BYTES + payload > Integer.MAX_VALUE) {
+            throw new IOException("precinct base too large for a snapshot");
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate((int) (HEADER_BYTES + payload))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(HEADER_BYTES);
+        buf.putInt(label.length).put(label);
+        buf.putInt(n).putInt(base.counties()).putInt(rings).putInt(vertices).putInt(entries);
+        int offset = 0;
+        for (int i = 0; i < n; i++) {
+            buf.putInt(offset);
+            offset += ids[i].length;
+        }
+        buf.putInt(offset);
+        for (byte[] id : ids) buf.put(id);
+        for (Precinct p : precincts) buf.putInt(p.district());
+        for (int i = 0; i < n; i++) buf.putInt(cols.population(i));
+        for (int i = 0; i < n; i++) buf.putInt(cols.demVotes(i));
+        for (int i = 0; i < n; i++) buf.putInt(cols.repVotes(i));
+        for (int c : base.county()) buf.putInt(c);
+        for (int i = 0; i <= n; i++) buf.putInt(i < n ? cols.firstRing(i) : rings);
+        for (int r = 0; r <= rings; r++) buf.putInt(r < rings ? cols.ringVertexStart(r) : vertices);
+        for (int v = 0; v < vertices; v++) buf.putDouble(cols.vertexX(v)).putDouble(cols.vertexY(v));
+        for (int off : graph.offsets()) buf.putInt(off);
+        for (int nb : graph.neighbours()) buf.putInt(nb);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_BYTES, (int) payload);
+        buf.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, payload)
+           .putInt(16, (int) crc.getValue()).putInt(20, 0);
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, buf.array());
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Map {@code file} and rebuild the base it holds. */
+    public static PrecinctBase read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) throw corrupt(file, "truncated header");
+            MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buf = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt(0) != MAGIC) throw corrupt(file, "not a precinct snapshot");
+            int version = buf.getInt(4);
+            if (version != VERSION) throw corrupt(file, "unsupported version " + version);
+            long payload = buf.getLong(8);
+            if (payload != size - HEADER_BYTES) throw corrupt(file, "truncated payload");
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_BYTES, (int) payload));
+            if ((int) crc.getValue() != buf.getInt(16)) throw corrupt(file, "checksum mismatch");
+            try {
+                return decode(buf.position(HEADER_BYTES));
+            } catch (RuntimeException e) {
+                throw new IOException("corrupt precinct snapshot " + file + ": " + e, e);
+            }
+        }
+    }
+
+    /** The map a base-map loader would have produced for {@code base}. */
+    public static RedistrictingMap toMap(PrecinctBase base) {
+        int districts = 1;
+        for (Precinct p : base.precincts()) districts = Math.max(districts, p.district() + 1);
+        return new RedistrictingMap(base.label(), districts, base.precincts());
+    }
+
+    private static PrecinctBase decode(ByteBuffer buf) {
+        String label = new String(bytes(buf, buf.getInt()), StandardCharsets.UTF_8);
+        int n = buf.getInt();
+        int counties = buf.getInt();
+        int rings = buf.getInt();
+        int vertices = buf.getInt();
+        int entries = buf.getInt();
+
+        int[] idOffsets = ints(buf, n + 1);
+        byte[] idBytes = bytes(buf, idOffsets[n]);
+        int[] district = ints(buf, n);
+        int[] pop = ints(buf, n);
+        int[] dem = ints(buf, n);
+        int[] rep = ints(buf, n);
+        int[] county = ints(buf, n);
+        int[] precinctRingStart = ints(buf, n + 1);
+        int[] ringStart = ints(buf, rings + 1);
+        double[] xy = new double[2 * vertices];
+        buf.asDoubleBuffer().get(xy);
+        buf.position(buf.position() + 16 * vertices);
+        int[] adjOffsets = ints(buf, n + 1);
+        int[] neighbours = ints(buf, entries);
+
+        List<Precinct> precincts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String id = new String(idBytes, idOffsets[i], idOffsets[i + 1] - idOffsets[i],
+                    StandardCharsets.UTF_8);
+            precincts.add(new Precinct(id, district[i], pop[i], dem[i], rep[i],
+                    xy, ringStart, precinctRingStart[i], precinctRingStart[i + 1]));
+        }
+        return new PrecinctBase(precincts, AdjacencyGraph.of(adjOffsets, neighbours, null),
+                county, counties, label,
+                PrecinctColumns.of(precincts, xy, ringStart, precinctRingStart));
+    }
+
+    private static int[] ints(ByteBuffer buf, int count) {
+        int[] out = new int[count];
+        buf.asIntBuffer().get(out);
+        buf.position(buf.position() + 4 * count);
+        return out;
+    }
+
+    private static byte[] bytes(ByteBuffer buf, int count) {
+        byte[] out = new byte[count];
+        buf.get(out);
+        return out;
+    }
+
+    private static IOException corrupt(Path file, String why) {
+        return new IOException("corrupt precinct snapshot " + file + ": " + why);
+    }
+}
@@ -1,8 +1,11 @@
 package com.redistricting.io;
 
+import com.redistricting.ai.algorithms.PrecinctBase;
 import com.redistricting.model.RedistrictingMap;
 
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.util.List;
 
 /**
@@ -26,10 +29,43 @@ public final class Presets {
 
     private Presets() {}
 
+    /**
+     * Bumped whenever the GeoJSON → base pipeline below changes (e.g. the
+     * population rescaling), so cached snapshots of the old output are
+     * ignored.
+     */
+    private static final int PIPELINE_VERSION = 1;
+
     /** A bundled precinct base map preset. */
     public record Preset(String displayName, String resourcePath) {
         /** Load the preset into a fresh {@link RedistrictingMap}. */
         public RedistrictingMap load() throws IOException {
+            return PrecinctSnapshot.toMap(loadBase());
+        }
+
+        /**
+         * Load the preset as a ready-to-use {@link PrecinctBase}. Served from
+         * the {@link SnapshotCache} when this preset has been loaded before;
+         * otherwise parsed from GeoJSON and snapshotted for next time.
+         */
+        public PrecinctBase loadBase() throws IOException {
+            return SnapshotCache.load(cacheKey(), this::parse);
+        }
+
+        private String cacheKey() throws IOException {
+            URL url = Presets.class.getClassLoader().getResource(resourcePath);
+            if (url == null) throw new IOException("preset resource not found: " + resourcePath);
+            URLConnection conn = url.openConnection();
+            try {
+                return "preset-" + resourcePath + "-" + conn.getContentLengthLong()
+                        + "-" + conn.getLastModified() + "-v" + PIPELINE_VERSION;
+            } finally {
+                // Don't leave the jar entry's stream open.
+                conn.getInputStream().close();
+            }
+        }
+
+        private RedistrictingMap parse() throws IOException {
             RedistrictingMap raw = RdhPrecinctLoader.loadPresetGeoJson(resourcePath, displayName);
             // The bundled NC dataset ships with TOTPOP = ballots cast (not
             // census residents). Rescale per-county against the 2020
@@ -1,11 +1,13 @@
 package com.redistricting.io;
 
+import com.redistricting.ai.algorithms.PrecinctBase;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,8 +26,8 @@ import java.util.zip.GZIPInputStream;
  * District Shapes GeoJSON loader — they are GeoJSON {@code FeatureCollection}s
  * with one {@code Feature} per precinct, properties for population and
  * election totals, and {@code Polygon}/{@code MultiPolygon} geometry. We
- * delegate to {@link DraGeoJsonLoader#parse} for the heavy lifting and then
- * re-tag each resulting precinct as district 0 (so the loaded base is a
+ * delegate to {@link DraGeoJsonLoader#stream} for the heavy lifting and
+ * re-tag each precinct as district 0 as it arrives (so the loaded base is a
  * blank slate ready for an algorithm to redistrict).
  *
  * <p>RDH also distributes Block Equivalency Files (BEFs) — CSVs that map a
@@ -36,10 +38,33 @@ public final class RdhPrecinctLoader {
 
     private RdhPrecinctLoader() {}
 
-    /** Load an RDH precinct GeoJSON file as a fresh, unassigned base map. */
+    /**
+     * Bumped whenever the GeoJSON → base pipeline for RDH files changes, so
+     * cached snapshots of the old output are ignored (as for the presets).
+     */
+    private static final int PIPELINE_VERSION = 1;
+
+    /**
+     * Load an RDH precinct GeoJSON file (optionally gzipped, {@code .gz}) as a
+     * fresh, unassigned base map.
+     */
     public static RedistrictingMap loadPrecinctsGeoJson(Path path) throws IOException {
-        String text = Files.readString(path, StandardCharsets.UTF_8);
-        return parsePrecinctsGeoJson(text, stem(path));
+        try (Reader in = DraGeoJsonLoader.openText(path)) {
+            return readPrecinctsGeoJson(in, stem(path));
+        }
+    }
+
+    /**
+     * Load an RDH precinct GeoJSON file as a ready-to-use
+     * {@link PrecinctBase}. Re-imports of an unchanged file (same path, size
+     * and modification time) through an unchanged pipeline come straight
+     * from the {@link SnapshotCache}.
+     */
+    public static PrecinctBase loadPrecinctsBase(Path path) throws IOException {
+        Path abs = path.toAbsolutePath().normalize();
+        String key = "rdh-" + abs + "-" + Files.size(abs) + "-"
+                + Files.getLastModifiedTime(abs).toMillis() + "-v" + PIPELINE_VERSION;
+        return SnapshotCache.load(key, () -> loadPrecinctsGeoJson(abs));
     }
 
     /**
@@ -57,29 +82,30 @@ public final class RdhPrecinctLoader {
                 throw new IOException("preset resource not found: " + resourcePath);
             }
             try (InputStream in = resourcePath.toLowerCase(Locale.ROOT).endsWith(".gz")
-                    ? new GZIPInputStream(raw) : raw) {
-                ByteArrayOutputStream buf = new ByteArrayOutputStream();
-                byte[] chunk = new byte[8192];
-                int n;
-                while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
-                String text = buf.toString(StandardCharsets.UTF_8);
-                return parsePrecinctsGeoJson(text, displayName);
+                    ? new GZIPInputStream(raw, 64 * 1024) : raw) {
+                return readPrecinctsGeoJson(
+                        new InputStreamReader(in, StandardCharsets.UTF_8), displayName);
             }
         }
     }
 
-    private static RedistrictingMap parsePrecinctsGeoJson(String text, String name) {
-        RedistrictingMap raw = DraGeoJsonLoader.parse(text, name);
-
+    /**
+     * Stream precincts out of {@code in} one feature at a time (see
+     * {@link DraGeoJsonLoader#stream}), so even block-level files that are
+     * hundreds of megabytes on disk never sit in memory as text or as a
+     * parsed JSON tree.
+     */
+    private static RedistrictingMap readPrecinctsGeoJson(Reader in, String name)
+            throws IOException {
+        List<Precinct> precincts = new ArrayList<>();
         // Strip whatever district id was on each feature — RDH precinct files
         // carry per-precinct geometry and stats, not a redistricting plan.
-        List<Precinct> stripped = new ArrayList<>(raw.precincts().size());
-        for (Precinct p : raw.precincts()) {
-            stripped.add(new Precinct(p.id(), 0, p.population(),
-                    p.demVotes(), p.repVotes(), p.rings()));
-        }
-        return new RedistrictingMap("RDH precincts: " + raw.name(),
-                /*districtCount until assigned*/ 1, stripped);
+        DraGeoJsonLoader.Collection c = DraGeoJsonLoader.stream(in, name, p -> {
+            p.setDistrict(0);
+            precincts.add(p);
+        });
+        return new RedistrictingMap("RDH precincts: " + c.name(),
+                /*districtCount until assigned*/ 1, precincts);
     }
 
     /**
@@ -131,8 +157,7 @@ public final class RdhPrecinctLoader {
         for (Precinct p : base.precincts()) {
             Integer d = assignment.get(p.id());
             int newDistrict = d == null ? p.district() : d - 1; // 1-based → 0-based
-            updated.add(new Precinct(p.id(), newDistrict, p.population(),
-                    p.demVotes(), p.repVotes(), p.rings()));
+            updated.add(p.withDistrict(newDistrict));
         }
         int districts = Math.max(maxDistrict,
                 updated.stream().mapToInt(Precinct::district).max().orElse(0) + 1);
@@ -0,0 +1,65 @@
+package com.redistricting.io;
+
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.model.RedistrictingMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache of {@link PrecinctSnapshot}s for bases that were expensive
+ * to build (bundled presets, imported RDH files), so the second load of the
+ * same source skips parsing, rescaling and adjacency entirely.
+ *
+ * <p>Entries live in {@code ~/.redistricting/snapshots} (override with the
+ * {@code redistricting.snapshotDir} system property) and are named after a
+ * key that changes whenever the source does — callers fold the source's
+ * size and modification time into it. A missing, stale-format or corrupt
+ * entry is simply rebuilt; failing to write one never fails the load.
+ */
+public final class SnapshotCache {
+
+    /** Produces the map to snapshot on a cache miss. */
+    @FunctionalInterface
+    public interface Source {
+        RedistrictingMap load() throws IOException;
+    }
+
+    private SnapshotCache() {}
+
+    /** Cached base for {@code key}, or {@code source}'s map (cached for next time). */
+    public static PrecinctBase load(String key, Source source) throws IOException {
+        Path file = fileFor(key);
+        if (Files.isRegularFile(file)) {
+            try {
+                return PrecinctSnapshot.read(file);
+            } catch (IOException | RuntimeException stale) {
+                // Fall through and rebuild.
+            }
+        }
+        PrecinctBase base = PrecinctBase.fromMap(source.load());
+        try {
+            PrecinctSnapshot.write(base, file);
+        } catch (IOException | RuntimeException ignored) {
+            // Read-only home, full disk, ... — the base is still good.
+        }
+        return base;
+    }
+
+    /** Cache file for {@code key}: a readable prefix plus a hash of the full key. */
+    static Path fileFor(String key) {
+        String dir = System.getProperty("redistricting.snapshotDir");
+        Path root = dir != null ? Paths.get(dir)
+                : Paths.get(System.getProperty("user.home"), ".redistricting", "snapshots");
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        String stem = key.replaceAll("[^A-Za-z0-9._-]+", "_");
+        if (stem.length() > 48) stem = stem.substring(stem.length() - 48);
+        return root.resolve(stem + "-" + Long.toHexString(crc.getValue())
+                + Long.toHexString(key.hashCode() & 0xffffffffL) + PrecinctSnapshot.EXTENSION);
+    }
+}
@@ -1,15 +1,32 @@
 package com.redistricting.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * A precinct is the smallest geographic unit on a redistricting map.
  *
- * <p>Geometry is stored as a list of rings ({@code List<List<double[]>>}) so
- * that MultiPolygon precincts (common in Redistricting Data Hub data — e.g.
- * coastal NC precincts that include islands) are represented faithfully.
- * Each ring is an outer boundary; holes are not modelled.
+ * <p>Geometry is a list of rings so that MultiPolygon precincts (common in
+ * Redistricting Data Hub data — e.g. coastal NC precincts that include
+ * islands) are represented faithfully. Each ring is an outer boundary;
+ * holes are not modelled.
+ *
+ * <p>The vertices are held flat, as interleaved {@code x, y} doubles, not
+ * as one {@code double[]} per vertex: statewide bases have millions of
+ * vertices, and per-vertex arrays cost more in object headers and
+ * references than in coordinates. {@link #rings()} is a read-only
+ * {@code List<List<double[]>>} view over that buffer that hands out a
+ * fresh {@code {x, y}} pair per {@code get}; loops over many vertices
+ * should use {@link #vertexX}/{@link #vertexY} instead. Several precincts
+ * may share one buffer (see the flat constructor), as a
+ * {@code PrecinctSnapshot} load does.
+ *
+ * <p>Geometry is immutable, so derived quantities (primary ring, centroid,
+ * area, perimeter and bounding box) are computed once at construction and
+ * served from fields. Use {@link #withDistrict} to re-tag a precinct without
+ * copying or re-measuring its rings.
  */
 public final class Precinct {
 
@@ -18,32 +35,130 @@ public final class Precinct {
     private final int population;
     private final int demVotes;
     private final int repVotes;
+    private final double[] xy;          // interleaved x, y; possibly shared
+    private final int[] ringStart;      // ring r spans vertices [ringStart[r], ringStart[r + 1])
+    private final int firstRing;        // this precinct's rings are [firstRing, endRing)
+    private final int endRing;
     private final List<List<double[]>> rings;
 
+    // Derived geometry, computed once in the constructor.
+    private final int primaryRing;
+    private final double centroidX;
+    private final double centroidY;
+    private final double area;
+    private final double perimeter;
+    private final double minX, minY, maxX, maxY;
+
     public Precinct(String id, int district, int population,
                     int demVotes, int repVotes, List<List<double[]>> rings) {
+        this(id, district, population, demVotes, repVotes, flatten(rings));
+    }
+
+    /**
+     * A precinct over rings {@code [firstRing, endRing)} of flat geometry:
+     * ring {@code r} is the vertices {@code [ringStart[r], ringStart[r + 1])}
+     * of {@code xy}, interleaved {@code x, y}. The arrays are shared, not
+     * copied, and must not change afterwards.
+     */
+    public Precinct(String id, int district, int population, int demVotes, int repVotes,
+                    double[] xy, int[] ringStart, int firstRing, int endRing) {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("precinct id required");
         }
         if (population < 0 || demVotes < 0 || repVotes < 0) {
             throw new IllegalArgumentException("population/votes must be >= 0");
         }
-        if (rings == null || rings.isEmpty()) {
+        if (firstRing < 0 || endRing <= firstRing || endRing >= ringStart.length) {
             throw new IllegalArgumentException("at least one polygon ring required");
         }
-        List<List<double[]>> copy = new ArrayList<>(rings.size());
-        for (List<double[]> ring : rings) {
-            if (ring == null || ring.size() < 3) {
+        for (int r = firstRing; r < endRing; r++) {
+            if (ringStart[r + 1] - ringStart[r] < 3) {
                 throw new IllegalArgumentException("each ring needs >= 3 vertices");
             }
-            copy.add(List.copyOf(ring));
+        }
+        if (ringStart[firstRing] < 0 || 2L * ringStart[endRing] > xy.length) {
+            throw new IllegalArgumentException("ring extends past the vertex buffer");
         }
         this.id = id;
         this.district = district;
         this.population = population;
         this.demVotes = demVotes;
         this.repVotes = repVotes;
-        this.rings = List.copyOf(copy);
+        this.xy = xy;
+        this.ringStart = ringStart;
+        this.firstRing = firstRing;
+        this.endRing = endRing;
+        this.rings = new Rings(xy, ringStart, firstRing, endRing);
+
+        int best = 0;
+        double bestArea = -1;
+        double areaSum = 0, perimSum = 0;
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+        for (int r = firstRing; r < endRing; r++) {
+            int from = ringStart[r], to = ringStart[r + 1];
+            double a = ringArea(xy, from, to);
+            areaSum += a;
+            perimSum += ringPerimeter(xy, from, to);
+            if (a > bestArea) { best = r - firstRing; bestArea = a; }
+            for (int v = from; v < to; v++) {
+                double x = xy[2 * v], y = xy[2 * v + 1];
+                if (x < x0) x0 = x;
+                if (y < y0) y0 = y;
+                if (x > x1) x1 = x;
+                if (y > y1) y1 = y;
+            }
+        }
+        int from = ringStart[firstRing + best], to = ringStart[firstRing + best + 1];
+        double cx = 0, cy = 0;
+        for (int v = from; v < to; v++) { cx += xy[2 * v]; cy += xy[2 * v + 1]; }
+        this.primaryRing = best;
+        this.centroidX = cx / (to - from);
+        this.centroidY = cy / (to - from);
+        this.area = areaSum;
+        this.perimeter = perimSum;
+        this.minX = x0; this.minY = y0;
+        this.maxX = x1; this.maxY = y1;
+    }
+
+    private Precinct(String id, int district, int population, int demVotes, int repVotes,
+                     Flat flat) {
+        this(id, district, population, demVotes, repVotes, flat.xy, flat.ringStart, 0,
+                flat.ringStart.length - 1);
+    }
+
+    /** Copy {@code src} with new attributes, sharing its rings and derived geometry. */
+    private Precinct(Precinct src, int district, int population, int demVotes, int repVotes) {
+        this.id = src.id;
+        this.district = district;
+        this.population = population;
+        this.demVotes = demVotes;
+        this.repVotes = repVotes;
+        this.xy = src.xy;
+        this.ringStart = src.ringStart;
+        this.firstRing = src.firstRing;
+        this.endRing = src.endRing;
+        this.rings = src.rings;
+        this.primaryRing = src.primaryRing;
+        this.centroidX = src.centroidX;
+        this.centroidY = src.centroidY;
+        this.area = src.area;
+        this.perimeter = src.perimeter;
+        this.minX = src.minX; this.minY = src.minY;
+        this.maxX = src.maxX; this.maxY = src.maxY;
+    }
+
+    /** A copy of this precinct assigned to {@code district}; geometry is shared, not re-measured. */
+    public Precinct withDistrict(int district) {
+        return new Precinct(this, district, population, demVotes, repVotes);
+    }
+
+    /** A copy of this precinct with new population and vote counts; geometry is shared. */
+    public Precinct withStats(int population, int demVotes, int repVotes) {
+        if (population < 0 || demVotes < 0 || repVotes < 0) {
+            throw new IllegalArgumentException("population/votes must be >= 0");
+        }
+        return new Precinct(this, district, population, demVotes, repVotes);
     }
 
     public String id() { return id; }
@@ -52,60 +167,125 @@ public final class Precinct {
     public int population() { return population; }
     public int demVotes() { return demVotes; }
     public int repVotes() { return repVotes; }
+
+    /** Read-only view of the rings; each vertex {@code get} allocates its pair. */
     public List<List<double[]>> rings() { return rings; }
 
+    public int ringCount() { return endRing - firstRing; }
+    public int ringSize(int r) { return ringStart[firstRing + r + 1] - ringStart[firstRing + r]; }
+    /** X of vertex {@code k} of ring {@code r}, without allocating. */
+    public double vertexX(int r, int k) { return xy[2 * (ringStart[firstRing + r] + k)]; }
+    /** Y of vertex {@code k} of ring {@code r}, without allocating. */
+    public double vertexY(int r, int k) { return xy[2 * (ringStart[firstRing + r] + k) + 1]; }
+
     /** Convenience for callers that only care about the first/largest ring. */
-    public List<double[]> primaryRing() {
-        List<double[]> best = rings.get(0);
-        double bestArea = ringArea(best);
-        for (int i = 1; i < rings.size(); i++) {
-            double a = ringArea(rings.get(i));
-            if (a > bestArea) { best = rings.get(i); bestArea = a; }
-        }
-        return best;
-    }
+    public List<double[]> primaryRing() { return rings.get(primaryRing); }
 
     /** Total area summed across all rings (shoelace formula). */
-    public double area() {
-        double sum = 0.0;
-        for (List<double[]> ring : rings) sum += ringArea(ring);
-        return sum;
-    }
+    public double area() { return area; }
 
     /** Total perimeter summed across all rings. */
-    public double perimeter() {
-        double sum = 0.0;
-        for (List<double[]> ring : rings) sum += ringPerimeter(ring);
-        return sum;
-    }
+    public double perimeter() { return perimeter; }
 
     /** Centroid of the primary ring (good enough for adjacency heuristics). */
-    public double[] centroid() {
-        List<double[]> ring = primaryRing();
-        double cx = 0, cy = 0;
-        for (double[] v : ring) { cx += v[0]; cy += v[1]; }
-        return new double[] { cx / ring.size(), cy / ring.size() };
-    }
+    public double[] centroid() { return new double[] { centroidX, centroidY }; }
+
+    /** X of {@link #centroid()}, without allocating. */
+    public double centroidX() { return centroidX; }
 
-    private static double ringArea(List<double[]> ring) {
+    /** Y of {@link #centroid()}, without allocating. */
+    public double centroidY() { return centroidY; }
+
+    /** Bounding box over every ring. */
+    public double minX() { return minX; }
+    public double minY() { return minY; }
+    public double maxX() { return maxX; }
+    public double maxY() { return maxY; }
+
+    private static double ringArea(double[] xy, int from, int to) {
         double sum = 0.0;
-        int n = ring.size();
-        for (int i = 0; i < n; i++) {
-            double[] a = ring.get(i);
-            double[] b = ring.get((i + 1) % n);
-            sum += a[0] * b[1] - b[0] * a[1];
+        for (int v = from; v < to; v++) {
+            int w = v + 1 == to ? from : v + 1;
+            sum += xy[2 * v] * xy[2 * w + 1] - xy[2 * w] * xy[2 * v + 1];
         }
         return Math.abs(sum) * 0.5;
     }
 
-    private static double ringPerimeter(List<double[]> ring) {
+    private static double ringPerimeter(double[] xy, int from, int to) {
         double sum = 0.0;
-        int n = ring.size();
-        for (int i = 0; i < n; i++) {
-            double[] a = ring.get(i);
-            double[] b = ring.get((i + 1) % n);
-            sum += Math.hypot(b[0] - a[0], b[1] - a[1]);
+        for (int v = from; v < to; v++) {
+            int w = v + 1 == to ? from : v + 1;
+            sum += Math.hypot(xy[2 * w] - xy[2 * v], xy[2 * w + 1] - xy[2 * v + 1]);
         }
         return sum;
     }
+
+    /** Rings copied into one flat buffer, for the list constructor. */
+    private record Flat(double[] xy, int[] ringStart) {}
+
+    private static Flat flatten(List<List<double[]>> rings) {
+        if (rings == null || rings.isEmpty()) {
+            throw new IllegalArgumentException("at least one polygon ring required");
+        }
+        int[] ringStart = new int[rings.size() + 1];
+        for (int r = 0; r < rings.size(); r++) {
+            List<double[]> ring = rings.get(r);
+            if (ring == null || ring.size() < 3) {
+                throw new IllegalArgumentException("each ring needs >= 3 vertices");
+            }
+            ringStart[r + 1] = ringStart[r] + ring.size();
+        }
+        double[] xy = new double[2 * ringStart[rings.size()]];
+        int v = 0;
+        for (List<double[]> ring : rings) {
+            for (double[] pt : ring) {
+                xy[2 * v] = pt[0];
+                xy[2 * v + 1] = pt[1];
+                v++;
+            }
+        }
+        return new Flat(xy, ringStart);
+    }
+
+    /** {@link #rings()}: rings {@code [first, end)} of a flat buffer. */
+    private static final class Rings extends AbstractList<List<double[]>> implements RandomAccess {
+        private final double[] xy;
+        private final int[] ringStart;
+        private final int first, end;
+
+        Rings(double[] xy, int[] ringStart, int first, int end) {
+            this.xy = xy;
+            this.ringStart = ringStart;
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override public int size() { return end - first; }
+
+        @Override
+        public List<double[]> get(int r) {
+            Objects.checkIndex(r, end - first);
+            return new Ring(xy, ringStart[first + r], ringStart[first + r + 1]);
+        }
+    }
+
+    /** One ring of {@link Rings}: vertices {@code [from, to)}. */
+    private static final class Ring extends AbstractList<double[]> implements RandomAccess {
+        private final double[] xy;
+        private final int from, to;
+
+        Ring(double[] xy, int from, int to) {
+            this.xy = xy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override public int size() { return to - from; }
+
+        @Override
+        public double[] get(int k) {
+            int v = from + Objects.checkIndex(k, to - from);
+            return new double[] { xy[2 * v], xy[2 * v + 1] };
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package com.redistricting;
+
+import com.redistricting.ai.GenerationParams;
+import com.redistricting.ai.MapGenerator;
+import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.io.PrecinctSnapshot;
+import com.redistricting.io.RdhPrecinctLoader;
+import com.redistricting.model.RedistrictingMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BatchRunner}: a small seed sweep over a snapshot writes
+ * one metrics row per seed and plan files the BEF importer reads back as the
+ * plans the Generate dialog would draw.
+ */
+class BatchRunnerTest {
+
+    @Test
+    void batchRunnerWritesMetricsAndReimportablePlans(@org.junit.jupiter.api.io.TempDir Path tmp)
+            throws Exception {
+        GenerationParams p = new GenerationParams(4, 8, 8, 2, 2, 0,
+                0.5, 0.5, 0.02, 0.3, 1L, Algorithms.SIMPLE.id());
+        PrecinctBase base = PrecinctBase.synthetic(p);
+        Path snapshot = tmp.resolve("base" + PrecinctSnapshot.EXTENSION);
+        PrecinctSnapshot.write(base, snapshot);
+
+        Path metrics = tmp.resolve("metrics.csv");
+        Path plans = tmp.resolve("plans");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = BatchRunner.run(new String[] {
+                "--snapshot", snapshot.toString(), "--districts", "4", "--seeds", "5..7",
+                "--compactness", "0.5", "--county-adherence", "0.5",
+                "--threads", "2", "--plans", plans.toString(), "--metrics", metrics.toString()
+        }, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        String log = err.toString(StandardCharsets.UTF_8);
+        assertEquals(0, status, log);
+        assertEquals(0, out.size(), "metrics go to the file, not stdout");
+        assertTrue(log.contains("3 seeds of simple on 2 threads"), log);
+        assertTrue(log.contains("batch: 3 plans in "), log);
+        assertTrue(log.contains(", 0 failed"), log);
+        assertEquals(4, Files.readAllLines(metrics).size(), "header + one row per seed");
+
+        // Seed 6 re-imported from its assignment CSV is the plan the Generate
+        // dialog draws with its default grid knobs.
+        RedistrictingMap expected = new MapGenerator().generate(base, new GenerationParams(
+                4, 20, 20, 5, 5, 0, 0.5, 0.5, 0.02, 0.3, 6L, Algorithms.SIMPLE.id()));
+        RedistrictingMap reloaded = RdhPrecinctLoader.applyBef(PrecinctSnapshot.toMap(base),
+                plans.resolve("simple-6.csv"));
+        for (int i = 0; i < base.size(); i++) {
+            assertEquals(expected.precincts().get(i).district(),
+                    reloaded.precincts().get(i).district());
+        }
+
+        ByteArrayOutputStream usage = new ByteArrayOutputStream();
+        assertEquals(2, BatchRunner.run(new String[] {"--districts", "4"},
+                new PrintStream(OutputStream.nullOutputStream()),
+                new PrintStream(usage, true, StandardCharsets.UTF_8)));
+        assertTrue(usage.toString(StandardCharsets.UTF_8).contains("usage: batch"));
+    }
+}
@@ -1,12 +1,16 @@
 package com.redistricting.ai;
 
+import com.redistricting.ai.algorithms.PrecinctBase;
 import com.redistricting.io.DraGeoJsonLoader;
+import com.redistricting.model.District;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -56,6 +60,119 @@ class FairnessAnalyzerTest {
         assertTrue(r.unfairnessScore() >= 0);
     }
 
+    @Test
+    void optimizeNeverWorsensScoreAndMatchesFreshAnalysis() {
+        RedistrictingMap map = new MapGenerator().generate(new GenerationParams(
+                4, 8, 8, 2, 2, 0, 0.5, 0.5, 0.05, 0.0, 3L));
+        FairnessAnalyzer analyzer = new FairnessAnalyzer();
+        double before = analyzer.analyze(map).unfairnessScore();
+        FairnessReport after = analyzer.optimize(map, 20_000, 11L);
+        assertTrue(after.unfairnessScore() <= before + 1e-9,
+                "optimizer made things worse: " + before + " -> " + after.unfairnessScore());
+        assertEquals(analyzer.analyze(map).unfairnessScore(), after.unfairnessScore(), 1e-12);
+    }
+
+    @Test
+    void incrementalScoreTracksFullAnalysisMoveByMove() {
+        RedistrictingMap map = new MapGenerator().generate(new GenerationParams(
+                4, 8, 8, 2, 2, 0, 0.5, 0.5, 0.05, 0.0, 3L));
+        PrecinctBase base = PrecinctBase.fromMap(map);
+        FairnessAnalyzer analyzer = new FairnessAnalyzer();
+        int n = base.size();
+        int[] assignment = new int[n];
+        for (int i = 0; i < n; i++) assignment[i] = map.precincts().get(i).district();
+        FairnessAnalyzer.IncrementalScore score =
+                analyzer.incrementalScore(map, base.edges(), assignment);
+        assertEquals(analyzer.analyze(map, base).unfairnessScore(), score.current, 1e-12);
+
+        // Every boundary move, improving or not, so the accumulators drift
+        // through plenty of states.
+        int[][] adj = base.adjacency();
+        Random rng = new Random(9);
+        int moves = 0;
+        while (moves < 300) {
+            int i = rng.nextInt(n);
+            int from = assignment[i];
+            int to = assignment[adj[i][rng.nextInt(adj[i].length)]];
+            if (to == from) continue;
+            double trial = score.scoreIfMoved(i, from, to);
+            score.move(i, from, to, trial);
+            map.precincts().get(i).setDistrict(to);
+            assertEquals(analyzer.analyze(map, base).unfairnessScore(), score.current, 1e-9,
+                    "after move " + moves);
+            moves++;
+        }
+    }
+
+    @Test
+    void ensembleAnalyzerMatchesAnalyzeAndMergesLikeOneStream() {
+        RedistrictingMap map = new MapGenerator().generate(new GenerationParams(
+                4, 8, 8, 2, 2, 0, 0.5, 0.5, 0.05, 0.0, 3L));
+        PrecinctBase base = PrecinctBase.fromMap(map);
+        int[] plan = new int[base.size()];
+        for (int i = 0; i < plan.length; i++) plan[i] = map.precincts().get(i).district();
+
+        FairnessReport report = new FairnessAnalyzer().analyze(map);
+        EnsembleAnalyzer.PlanMetrics m = new EnsembleAnalyzer(base, 4).measure(plan);
+        assertEquals(report.populationDeviation(), m.populationDeviation(), 1e-12);
+        assertEquals(report.efficiencyGap(), m.efficiencyGap(), 1e-12);
+        assertEquals(report.avgCompactness(), m.avgCompactness(), 1e-12);
+        int demSeats = 0;
+        for (District d : report.districts()) if (d.winner() == 0) demSeats++;
+        assertEquals(demSeats, m.demSeats());
+
+        // Shuffle districts around to get distinct plans; halves merged must
+        // summarise exactly like one analyzer that saw every plan.
+        EnsembleAnalyzer all = new EnsembleAnalyzer(base, 4);
+        EnsembleAnalyzer first = new EnsembleAnalyzer(base, 4);
+        EnsembleAnalyzer second = new EnsembleAnalyzer(base, 4);
+        Random rng = new Random(5);
+        int[] seats = new int[200];
+        for (int k = 0; k < 200; k++) {
+            int[] p = plan.clone();
+            for (int i = 0; i < p.length; i++) if (rng.nextInt(8) == 0) p[i] = rng.nextInt(4);
+            all.accept(p);
+            (k < 80 ? first : second).accept(p);
+            seats[k] = all.measure(p).demSeats();
+        }
+        first.merge(second);
+        assertEquals(200, first.plans());
+        for (EnsembleAnalyzer.Metric metric : EnsembleAnalyzer.Metric.values()) {
+            StreamingHistogram a = all.histogram(metric), b = first.histogram(metric);
+            assertEquals(a.mean(), b.mean(), 1e-12);
+            assertEquals(a.variance(), b.variance(), 1e-9);
+            assertEquals(a.quantile(0.5), b.quantile(0.5), 1e-12);
+            assertEquals(a.percentileOf(m.value(metric)), b.percentileOf(m.value(metric)), 1e-12);
+        }
+        // Seats are counted per whole seat: percentile and median are exact.
+        int atOrBelow = 0;
+        for (int s : seats) if (s <= m.demSeats()) atOrBelow++;
+        assertEquals(atOrBelow / 200.0,
+                all.percentileOf(EnsembleAnalyzer.Metric.DEM_SEATS, m.demSeats()), 1e-12);
+        Arrays.sort(seats);
+        assertEquals(seats[99], all.histogram(EnsembleAnalyzer.Metric.DEM_SEATS).quantile(0.5));
+    }
+
+    @Test
+    void discreteHistogramCountsWholeValues() {
+        StreamingHistogram h = StreamingHistogram.discrete(0, 4);
+        for (int k = 0; k < 50; k++) {
+            h.add(1);
+            h.add(2);
+        }
+        assertEquals(0.0, h.percentileOf(0.9));
+        assertEquals(0.5, h.percentileOf(1));
+        assertEquals(0.5, h.percentileOf(1.5));
+        assertEquals(1.0, h.percentileOf(2));
+        assertEquals(1.0, h.quantile(0.5));
+        assertEquals(2.0, h.quantile(0.51));
+
+        for (int k = 0; k < 100; k++) h.add(3);
+        assertEquals(0.5, h.percentileOf(2));
+        assertEquals(2.0, h.quantile(0.5));
+        assertEquals(3.0, h.quantile(0.9));
+    }
+
     // --- helpers -----------------------------------------------------------
 
     /** Build N square precincts laid out in a row, alternating district. */
@@ -7,14 +7,21 @@ import com.redistricting.model.RedistrictingMap;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -78,6 +85,11 @@ class AlgorithmsTest {
         runAndVerify(Algorithms.PARTISAN.id(), 0.10);
     }
 
+    @Test
+    void recomAlgorithmProducesContiguousValidPlan() {
+        runAndVerify(Algorithms.RECOM.id(), 0.10);
+    }
+
     @Test
     void targetDemSeatsMapsBiasMonotonically() {
         // bias = -100 → 0 seats; 0 → ⌊D/2⌋; +100 → all D seats.
@@ -109,6 +121,331 @@ class AlgorithmsTest {
         assertEquals(interior, fourNeighbour);
     }
 
+    @Test
+    void adjacencyGraphMatchesRowViewAndVertexBuild() {
+        PrecinctBase base = PrecinctBase.synthetic(params(Algorithms.SIMPLE.id()));
+        AdjacencyGraph graph = base.graph();
+        int[][] rows = base.adjacency();
+        for (int i = 0; i < base.size(); i++) {
+            assertEquals(rows[i].length, graph.degree(i));
+            for (int k = 0; k < rows[i].length; k++) {
+                assertEquals(rows[i][k], graph.neighbour(graph.start(i) + k));
+            }
+        }
+
+        // Vertex sharing finds every grid neighbour (plus corner contacts).
+        AdjacencyGraph weighted = AdjacencyGraph.fromVertices(base.precincts())
+                .withSharedLengths(base.edges());
+        assertTrue(weighted.hasWeights());
+        for (int i = 0; i < base.size(); i++) {
+            int[] row = Arrays.copyOfRange(weighted.neighbours(), weighted.start(i), weighted.end(i));
+            for (int j : rows[i]) {
+                assertTrue(Arrays.binarySearch(row, j) >= 0, "missing edge " + i + "-" + j);
+            }
+            for (int k = weighted.start(i); k < weighted.end(i); k++) {
+                assertTrue(weighted.weight(k) >= 0);
+            }
+        }
+
+        // Rook contact is exactly the shared-edge index's neighbour set.
+        AdjacencyGraph rook = AdjacencyGraph.fromGeometry(base.columns(),
+                AdjacencyGraph.Contact.ROOK);
+        SharedEdgeIndex edges = base.edges();
+        for (int i = 0; i < base.size(); i++) {
+            assertEquals(edges.neighbourStart(i + 1) - edges.neighbourStart(i), rook.degree(i));
+            for (int k = 0; k < rook.degree(i); k++) {
+                assertEquals(edges.neighbourAt(edges.neighbourStart(i) + k),
+                        rook.neighbour(rook.start(i) + k));
+            }
+        }
+
+        AdjacencyGraph.Builder builder = new AdjacencyGraph.Builder(3);
+        builder.addEdge(2, 0);
+        builder.addEdge(0, 2);
+        builder.addEdge(1, 1);
+        AdjacencyGraph small = builder.build();
+        assertEquals(2, small.entries());
+        assertEquals(0, small.degree(1));
+        assertEquals(2, small.neighbour(small.start(0)));
+    }
+
+    @Test
+    void precinctColumnsMirrorPrecinctObjects() {
+        PrecinctBase base = PrecinctBase.synthetic(params(Algorithms.SIMPLE.id()));
+        PrecinctColumns cols = base.columns();
+        long total = 0;
+        for (int i = 0; i < base.size(); i++) {
+            Precinct p = base.precincts().get(i);
+            total += p.population();
+            assertEquals(p.population(), cols.population(i));
+            assertEquals(p.demVotes(), cols.demVotes(i));
+            assertEquals(p.repVotes(), cols.repVotes(i));
+            assertEquals(p.centroid()[0], cols.centroidX(i), 0.0);
+            assertEquals(p.centroid()[1], cols.centroidY(i), 0.0);
+            assertEquals(p.area(), cols.area(i), 0.0);
+            assertEquals(p.perimeter(), cols.perimeter(i), 0.0);
+            int ring = cols.firstRing(i);
+            assertEquals(p.rings().get(0).size(),
+                    cols.ringVertexStart(ring + 1) - cols.ringVertexStart(ring));
+        }
+        assertEquals(total, base.totalPopulation());
+    }
+
+    @Test
+    void sharedEdgeIndexTracksDistrictPerimetersIncrementally() {
+        PrecinctBase base = PrecinctBase.synthetic(params(Algorithms.SIMPLE.id()));
+        SharedEdgeIndex edges = base.edges();
+        int n = base.size();
+        int[] assignment = new int[n];
+        for (int i = 0; i < n; i++) assignment[i] = i % 8 < 4 ? 0 : 1;
+
+        double[] perim = edges.districtPerimeters(assignment, 2);
+        double sumPrecincts = 0;
+        for (int i = 0; i < n; i++) sumPrecincts += base.perimeter(i);
+        assertTrue(perim[0] + perim[1] < sumPrecincts, "interior edges must not count");
+
+        Random rng = new Random(7);
+        for (int step = 0; step < 50; step++) {
+            int i = rng.nextInt(n);
+            int from = assignment[i], to = 1 - from;
+            perim[from] += edges.sourcePerimeterDelta(i, from, assignment);
+            perim[to] += edges.targetPerimeterDelta(i, to, assignment);
+            assignment[i] = to;
+        }
+        double[] fresh = edges.districtPerimeters(assignment, 2);
+        assertEquals(fresh[0], perim[0], 1e-9);
+        assertEquals(fresh[1], perim[1], 1e-9);
+    }
+
+    @Test
+    void dissolverTracesOutlinesWithHolesAndPinches() {
+        // 6x6 unit cells with a midpoint on the top and bottom edges, every
+        // other one wound clockwise. District 1 is a 2x2 enclave; district 2
+        // is two cells touching at (5, 5), one of them in the corner.
+        List<Precinct> ps = new ArrayList<>();
+        int[] assignment = new int[36];
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                int i = y * 6 + x;
+                assignment[i] = x >= 2 && x <= 3 && y >= 2 && y <= 3 ? 1
+                        : (x == 5 && y == 5) || (x == 4 && y == 4) ? 2 : 0;
+                List<double[]> ring = new ArrayList<>(List.of(
+                        new double[] {x, y}, new double[] {x + 0.5, y}, new double[] {x + 1, y},
+                        new double[] {x + 1, y + 1}, new double[] {x + 0.5, y + 1},
+                        new double[] {x, y + 1}));
+                if (i % 2 == 1) Collections.reverse(ring);
+                ps.add(new Precinct("c" + i, assignment[i], 10, 5, 5, List.of(ring)));
+            }
+        }
+        PrecinctColumns cols = PrecinctColumns.of(ps);
+        DistrictOutlines o = DistrictDissolver.of(cols).dissolve(assignment, 3);
+        double[] perimeters = SharedEdgeIndex.of(cols).districtPerimeters(assignment, 3);
+
+        // District 0: one polygon, its outer ring plus two holes (the enclave
+        // and the cell at (4, 4)) that touch each other and the outer ring.
+        assertEquals(1, o.polygonStart(1) - o.polygonStart(0));
+        assertEquals(3, o.firstRing(1) - o.firstRing(0));
+        assertEquals(30, o.area(0), 1e-12);
+        assertEquals(1, o.polygonStart(2) - o.polygonStart(1));
+        assertEquals(2, o.polygonStart(3) - o.polygonStart(2));
+        for (int d = 0; d < 3; d++) {
+            assertEquals(perimeters[d], o.perimeter(d), 1e-12);
+        }
+        int enclave = o.firstRing(o.polygonStart(1));
+        assertEquals(4, o.ringVertexStart(enclave + 1) - o.ringVertexStart(enclave));
+        assertEquals(4, o.area(1), 1e-12);
+        for (int v = o.ringVertexStart(enclave); v < o.ringVertexStart(enclave + 1); v++) {
+            assertEquals(0, o.across(v));
+        }
+        assertTrue(o.vertexCount() < 40, "interior and collinear vertices dropped, got " + o.vertexCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> DistrictDissolver.of(cols).dissolve(assignment, 2));
+    }
+
+    @Test
+    void contiguityCheckerMatchesGridIntuition() {
+        // 3x3 grid, district 0 is an L: top row + left column.
+        //   0 0 0
+        //   0 1 1
+        //   0 1 1
+        int[][] adj = GeographyUtils.gridAdjacency(3, 3);
+        int[] assignment = {0, 0, 0, 0, 1, 1, 0, 1, 1};
+        ContiguityChecker c = new ContiguityChecker(adj, assignment, 2);
+        assertTrue(!c.wouldStayConnectedWithout(0), "corner of the L is a cut vertex");
+        assertTrue(c.wouldStayConnectedWithout(2), "end of the L can leave");
+        assertTrue(c.wouldStayConnectedWithout(4), "block corner has a ring path");
+        assertEquals(5, c.memberCount(0));
+        c.move(2, 1);
+        assertEquals(4, c.memberCount(0));
+        assertEquals(5, c.memberCount(1));
+        assertEquals(1, assignment[2]);
+    }
+
+    @Test
+    void repairContiguityHandsOrphansToTheDistrictTheyBorderMost() {
+        // 6x5 grid with three orphans and one orphaned pair:
+        //   0 0 0 1 1 1
+        //   0 2 0 1 1 1      (1,1): district 2 island inside 0
+        //   0 0 0 1 0 1      (4,2): 0 inside 1, borders 1 three times, 2 once
+        //   2 2 2 2 2 0      (5,3)-(5,4): 0, borders 1 once, 2 twice
+        //   2 2 1 2 2 0      (2,4): 1 inside 2
+        int[][] adj = GeographyUtils.gridAdjacency(6, 5);
+        int[] planted = {
+                0, 0, 0, 1, 1, 1,
+                0, 2, 0, 1, 1, 1,
+                0, 0, 0, 1, 0, 1,
+                2, 2, 2, 2, 2, 0,
+                2, 2, 1, 2, 2, 0};
+        assertArrayEquals(new int[] {8, 1, 2}, GeographyUtils.componentSizes(0, planted, adj));
+        assertArrayEquals(new int[] {8, 1}, GeographyUtils.componentSizes(1, planted, adj));
+        assertArrayEquals(new int[] {1, 9}, GeographyUtils.componentSizes(2, planted, adj));
+
+        int[] expected = planted.clone();
+        expected[7] = 0;
+        expected[16] = 1;
+        expected[23] = 2;
+        expected[29] = 2;
+        expected[26] = 2;
+
+        int[] rows = planted.clone();
+        GeographyUtils.repairContiguity(rows, adj, 3, 10);
+        assertArrayEquals(expected, rows);
+        int[] csr = planted.clone();
+        GeographyUtils.repairContiguity(csr, AdjacencyGraph.of(adj), 3, 10,
+                GenerationMonitor.NONE);
+        assertArrayEquals(expected, csr);
+        for (int d = 0; d < 3; d++) {
+            assertEquals(1, GeographyUtils.componentSizes(d, csr, adj).length, "district " + d);
+            assertEquals(1, GeographyUtils.componentSizes(d, csr, AdjacencyGraph.of(adj)).length);
+        }
+    }
+
+    @Test
+    void populationBalancerEvensOutSkewedStripes() {
+        GenerationParams p = new GenerationParams(4, 12, 12, 2, 2, 0, 0.5, 0.5, 0.02, 0.0, 7L,
+                Algorithms.SIMPLE.id());
+        PrecinctBase base = PrecinctBase.synthetic(p);
+        int[][] adj = base.adjacency();
+        int D = p.districts();
+        // Vertical stripes 6, 3, 2 and 1 columns wide: contiguous, badly skewed.
+        int[] assignment = new int[base.size()];
+        for (int i = 0; i < assignment.length; i++) {
+            int x = i % p.precinctsX();
+            assignment[i] = x < 6 ? 0 : x < 9 ? 1 : x < 11 ? 2 : 3;
+        }
+        PopulationBalancer balancer = new PopulationBalancer(base, assignment, D);
+        assertTrue(balancer.maxDeviation() > 0.5);
+
+        double tol = 0.02;
+        balancer.balance(tol, 10_000, GenerationMonitor.NONE);
+        assertTrue(balancer.maxDeviation() <= tol, "deviation " + balancer.maxDeviation());
+        assertTrue(balancer.undoneChains() > 0, "no chain was rolled back");
+        for (int d = 0; d < D; d++) {
+            assertTrue(connected(assignment, adj, d), "district " + d + " split");
+        }
+
+        // Cached state survived the undone chains: it matches a recount.
+        long[] pop = new long[D];
+        int[] cut = new int[D * D];
+        for (int i = 0; i < assignment.length; i++) {
+            pop[assignment[i]] += base.population(i);
+            for (int nb : adj[i]) {
+                if (assignment[nb] != assignment[i]) cut[assignment[i] * D + assignment[nb]]++;
+            }
+        }
+        for (int a = 0; a < D; a++) {
+            assertEquals(pop[a], balancer.population(a));
+            for (int b = 0; b < D; b++) assertEquals(cut[a * D + b], balancer.cutEdges(a, b));
+        }
+    }
+
+    @Test
+    void annealingKeepsDistrictsContiguousAndNeverWorsensTheStart() {
+        GenerationParams p = params(Algorithms.ADVANCED.id());
+        PrecinctBase base = PrecinctBase.synthetic(p);
+        int D = p.districts();
+        BoundaryRefiner.Objective obj = AdvancedMultiObjectiveAlgorithm.makeObjective(
+                base, p, p.effectiveDemTarget());
+        int[] start = Algorithms.SIMPLE.assign(base, p);
+        double startScore = obj.score(BoundaryRefiner.statsOf(start, D, base), D);
+        BoundaryRefiner.Schedule schedule = new BoundaryRefiner.Schedule(0.5, 1e-3, 6);
+
+        int[] annealed = start.clone();
+        BoundaryRefiner.anneal(annealed, D, base, obj, schedule,
+                new Random(3), GenerationMonitor.NONE);
+        int[] tempered = start.clone();
+        BoundaryRefiner.temper(tempered, D, base, obj, schedule, 3, 3L, GenerationMonitor.NONE);
+        int[] again = start.clone();
+        BoundaryRefiner.temper(again, D, base, obj, schedule, 3, 3L, GenerationMonitor.NONE);
+
+        for (int[] plan : List.of(annealed, tempered)) {
+            assertTrue(obj.score(BoundaryRefiner.statsOf(plan, D, base), D) <= startScore + 1e-9);
+            ContiguityChecker c = new ContiguityChecker(base.adjacency(), plan, D);
+            for (int d = 0; d < D; d++) {
+                assertTrue(c.memberCount(d) > 0, "district " + d + " emptied");
+                assertTrue(connected(plan, base.adjacency(), d), "district " + d + " split");
+            }
+        }
+        assertTrue(Arrays.equals(tempered, again), "tempering must be reproducible");
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundaryRefiner.Schedule(0.1, 0.5, 4));
+    }
+
+    @Test
+    void deltaObjectiveMatchesRescoring() {
+        GenerationParams p = params(Algorithms.ADVANCED.id());
+        PrecinctBase base = PrecinctBase.synthetic(p);
+        int D = p.districts();
+        BoundaryRefiner.DeltaObjective fast = AdvancedMultiObjectiveAlgorithm.makeObjective(
+                base, p, p.effectiveDemTarget());
+        BoundaryRefiner.DeltaObjective slow = BoundaryRefiner.DeltaObjective.of(fast::score);
+        int[] assignment = Algorithms.SIMPLE.assign(base, p);
+        BoundaryRefiner.Stats stats = BoundaryRefiner.statsOf(assignment, D, base);
+        BoundaryRefiner.Move move = new BoundaryRefiner.Move();
+        int checked = 0;
+        for (int i = 0; i < base.size(); i++) {
+            for (int nb : base.adjacency()[i]) {
+                int to = assignment[nb];
+                if (to == assignment[i]) continue;
+                move.set(i, to, base.columns(), base.edges(), assignment, base.county());
+                assertEquals(slow.delta(stats, D, move), fast.delta(stats, D, move), 1e-9);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void attemptsPickTheSamePlanWithOrWithoutParallelism() throws Exception {
+        ForkJoinPool serial = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            for (RedistrictingAlgorithm a : Algorithms.ALL) {
+                GenerationParams p = new GenerationParams(4, 10, 10, 2, 2, 0, 0.5, 0.5, 0.05,
+                        /*reliability: 7 attempts*/ 0.3, 42L, a.id());
+                PrecinctBase base = PrecinctBase.synthetic(p);
+                int[] one = serial.submit(() -> a.assign(base, p)).get();
+                int[] many = parallel.submit(() -> a.assign(base, p)).get();
+                assertArrayEquals(one, many, a.id());
+            }
+        } finally {
+            serial.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledMonitorStopsEveryAlgorithm() {
+        PrecinctBase base = PrecinctBase.synthetic(params(Algorithms.SIMPLE.id()));
+        GenerationMonitor cancelled = new GenerationMonitor() {
+            @Override public boolean isCancelled() { return true; }
+        };
+        for (RedistrictingAlgorithm a : Algorithms.ALL) {
+            assertThrows(GenerationMonitor.CancelledException.class,
+                    () -> a.assign(base, params(a.id()), cancelled), a.id());
+        }
+    }
+
     // ---------- helpers ---------------------------------------------------
 
     private void runAndVerify(String algorithmId, double tolerance) {
@@ -120,6 +457,27 @@ class AlgorithmsTest {
         verifyPopulationDeviation(plan, tolerance);
     }
 
+    private static boolean connected(int[] assignment, int[][] adj, int d) {
+        int start = -1, members = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] == d) { members++; if (start < 0) start = i; }
+        }
+        boolean[] seen = new boolean[assignment.length];
+        Deque<Integer> q = new ArrayDeque<>();
+        q.add(start); seen[start] = true;
+        int reached = 0;
+        while (!q.isEmpty()) {
+            int cur = q.poll();
+            reached++;
+            for (int nb : adj[cur]) {
+                if (seen[nb] || assignment[nb] != d) continue;
+                seen[nb] = true;
+                q.add(nb);
+            }
+        }
+        return reached == members;
+    }
+
     private void verifyAllAssigned(RedistrictingMap plan) {
         for (Precinct pr : plan.precincts()) {
             assertTrue(pr.district() >= 0 && pr.district() < plan.districtCount(),
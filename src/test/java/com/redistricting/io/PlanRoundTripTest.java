@@ -3,14 +3,24 @@ package com.redistricting.io;
 import com.redistricting.ai.GenerationParams;
 import com.redistricting.ai.MapGenerator;
 import com.redistricting.ai.algorithms.Algorithms;
+import com.redistricting.ai.algorithms.PrecinctBase;
+import com.redistricting.ai.algorithms.ReComChain;
 import com.redistricting.model.Precinct;
 import com.redistricting.model.RedistrictingMap;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -46,6 +56,66 @@ class PlanRoundTripTest {
         }
     }
 
+    @Test
+    void streamingLoaderHandlesMemberOrderHolesAndNullGeometry() {
+        String json = "{\"features\": ["
+                + "{\"geometry\": {\"coordinates\": [[[[0,0],[2,0],[2,2],[0,2],[0,0]],"
+                + "[[0.5,0.5],[1,0.5],[1,1],[0.5,0.5]]], [[[5,5],[6,5],[6,6],[5,5]]]],"
+                + " \"type\": \"MultiPolygon\"},"
+                + " \"properties\": {\"GEOID20\": \"A\", \"TOTPOP\": 12, \"note\": [1, {\"x\": null}]},"
+                + " \"type\": \"Feature\"},"
+                + "{\"type\": \"Feature\", \"properties\": {\"GEOID20\": \"B\"}, \"geometry\": null},"
+                + "{\"type\": \"Feature\", \"properties\": {\"GEOID20\": \"C\\u0041\", \"District\": 2},"
+                + " \"geometry\": {\"type\": \"Polygon\", \"coordinates\":"
+                + " [[[1e1,-2.5],[11,-2.5],[11,-1.5E0],[1e1,-2.5]]]}}"
+                + "], \"name\": \"late name\", \"type\": \"FeatureCollection\"}";
+        RedistrictingMap map = DraGeoJsonLoader.parse(json, "fallback");
+        assertEquals("late name", map.name());
+        assertEquals(2, map.precincts().size());
+
+        Precinct a = map.precincts().get(0);
+        assertEquals("A", a.id());
+        assertEquals(12, a.population());
+        assertEquals(2, a.rings().size(), "one outer ring per polygon, holes dropped");
+        assertEquals(4, a.rings().get(0).size(), "closing vertex dropped");
+
+        Precinct c = map.precincts().get(1);
+        assertEquals("CA", c.id());
+        assertEquals(1, c.district());
+        assertEquals(10.0, c.rings().get(0).get(0)[0]);
+        assertEquals(-1.5, c.rings().get(0).get(2)[1]);
+    }
+
+    @Test
+    void snapshotRoundTripsBaseAndRejectsCorruption(@org.junit.jupiter.api.io.TempDir Path tmp)
+            throws Exception {
+        PrecinctBase base = PrecinctBase.synthetic(new GenerationParams(4, 6, 5, 2, 2, 0,
+                0.5, 0.5, 0.05, 0.0, 9L, Algorithms.SIMPLE.id()));
+        Path file = tmp.resolve("base" + PrecinctSnapshot.EXTENSION);
+        PrecinctSnapshot.write(base, file);
+
+        PrecinctBase read = PrecinctSnapshot.read(file);
+        assertEquals(base.label(), read.label());
+        assertEquals(base.counties(), read.counties());
+        assertEquals(base.size(), read.size());
+        for (int i = 0; i < base.size(); i++) {
+            Precinct a = base.precincts().get(i);
+            Precinct b = read.precincts().get(i);
+            assertEquals(a.id(), b.id());
+            assertEquals(a.district(), b.district());
+            assertEquals(a.population(), b.population());
+            assertEquals(a.demVotes(), b.demVotes());
+            assertEquals(a.area(), b.area());
+            assertArrayEquals(base.adjacency()[i], read.adjacency()[i]);
+            assertEquals(base.county()[i], read.county()[i]);
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> PrecinctSnapshot.read(file));
+    }
+
     @Test
     void befReassignsPrecinctsByGeoid() {
         RedistrictingMap base = new MapGenerator().generate(new GenerationParams(
@@ -61,4 +131,96 @@ class PlanRoundTripTest {
             assertEquals(0, p.district(), "BEF should map all precincts to district 0");
         }
     }
+
+    @Test
+    void planArchiveStoresChainStatesAsDeltasAndChecksTheBase(
+            @org.junit.jupiter.api.io.TempDir Path tmp) throws Exception {
+        GenerationParams p = new GenerationParams(4, 12, 10, 2, 2, 0,
+                0.5, 0.5, 0.1, 0.0, 3L, Algorithms.SIMPLE.id());
+        PrecinctBase base = PrecinctBase.synthetic(p);
+        int[] start = new int[base.size()];
+        RedistrictingMap plan = new MapGenerator().generate(base, p);
+        for (int i = 0; i < start.length; i++) start[i] = plan.precincts().get(i).district();
+
+        ReComChain chain = new ReComChain(base, 4, start, 0.1, 5L);
+        List<int[]> states = new ArrayList<>();
+        Path file = tmp.resolve("chain" + PlanArchive.EXTENSION);
+        try (PlanArchive.Writer w = PlanArchive.Writer.create(file, base, 4, true)) {
+            for (int s = 0; s < 200; s++) {
+                chain.step();
+                states.add(chain.assignment().clone());
+                assertEquals(s, w.append(chain.assignment()));
+            }
+        }
+        try (PlanArchive.Reader r = PlanArchive.Reader.open(file, base)) {
+            assertEquals(200, r.plans());
+            assertEquals(4, r.districts());
+            for (int[] expected : states) assertArrayEquals(expected, r.next());
+            assertNull(r.next());
+            // Back past checkpoints, within a block, and forward again.
+            for (int k : new int[] {130, 0, 63, 64, 65, 199, 7}) {
+                r.seek(k);
+                assertArrayEquals(states.get(k), r.next(), "plan " + k);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> r.seek(200));
+        }
+        assertArrayEquals(states.get(150), PlanArchive.read(file, base, 150));
+        // 120 precincts pack into 30 bytes per plan; most chain steps are deltas.
+        assertTrue(Files.size(file) < 200 * 30, "archive is " + Files.size(file) + " bytes");
+
+        Path single = tmp.resolve("one" + PlanArchive.EXTENSION);
+        PlanArchive.write(single, base, 4, start);
+        assertArrayEquals(start, PlanArchive.read(single, base));
+
+        // Same precinct count, different geometry: refused.
+        PrecinctBase other = PrecinctBase.synthetic(new GenerationParams(4, 10, 12, 2, 2, 0,
+                0.5, 0.5, 0.1, 0.0, 3L, Algorithms.SIMPLE.id()));
+        assertThrows(IOException.class, () -> PlanArchive.read(single, other));
+
+        byte[] bytes = Files.readAllBytes(single);
+        bytes[bytes.length - 12 - 2] ^= 1;   // in the record, before the one-entry index
+        Files.write(single, bytes);
+        assertThrows(IOException.class, () -> PlanArchive.read(single, base));
+    }
+
+    @Test
+    void geoJsonWritersKeepCoordinatesExactAndGzipOnTheFly(
+            @org.junit.jupiter.api.io.TempDir Path tmp) throws Exception {
+        Random rng = new Random(11);
+        List<Precinct> ps = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            double x = -84 + 8 * rng.nextDouble();
+            double y = 34 + 3 * rng.nextDouble();
+            double s = i % 2 == 0 ? 0.01 : 1e-7 * rng.nextDouble();
+            ps.add(new Precinct("P\"" + i, i % 3, 100 + i, 40, 60, List.of(
+                    List.of(new double[] {x, y}, new double[] {x + s, y},
+                            new double[] {x + s, y + 0.1}, new double[] {x, y + 0.1}))));
+        }
+        RedistrictingMap map = new RedistrictingMap("exact", 3, ps);
+
+        Path file = tmp.resolve("plan.geojson.gz");
+        PlanGeoJsonWriter.write(map, file);
+        RedistrictingMap reloaded = DraGeoJsonLoader.loadFromFile(file);
+        for (int i = 0; i < ps.size(); i++) {
+            Precinct a = ps.get(i);
+            Precinct b = reloaded.precincts().get(i);
+            assertEquals(a.id(), b.id());
+            assertEquals(a.district(), b.district());
+            List<double[]> ra = a.rings().get(0);
+            List<double[]> rb = b.rings().get(0);
+            for (int v = 0; v < ra.size(); v++) assertArrayEquals(ra.get(v), rb.get(v));
+        }
+
+        Path shapes = tmp.resolve("districts.geojson.gz");
+        DistrictShapesGeoJsonWriter.write(map, shapes);
+        assertEquals(3, DraGeoJsonLoader.loadFromFile(shapes).precincts().size());
+
+        StringWriter sw = new StringWriter();
+        try (JsonWriter w = new JsonWriter(sw)) {
+            for (double d : new double[] {12, -0.5, 0.1, 0.005, -78.123456, 1e-9, 2.5e20}) {
+                w.value(d).raw(' ');
+            }
+        }
+        assertEquals("12 -0.5 0.1 0.005 -78.123456 1.0E-9 2.5E20 ", sw.toString());
+    }
 }